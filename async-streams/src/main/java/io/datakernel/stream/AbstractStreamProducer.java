@@ -35,6 +35,8 @@ import static com.google.common.base.Preconditions.*;
 public abstract class AbstractStreamProducer<T> implements StreamProducer<T> {
 	private static final Logger logger = LoggerFactory.getLogger(AbstractStreamProducer.class);
 
+	public static final int MAX_BATCH_SIZE = 256;
+
 	protected final Eventloop eventloop;
 
 	protected StreamConsumer<T> downstreamConsumer;
@@ -47,6 +49,10 @@ public abstract class AbstractStreamProducer<T> implements StreamProducer<T> {
 
 	protected Object tag;
 
+	private ArrayList<T> pendingBatch;
+	private ArrayList<T> spareBatch;
+	private boolean batchDelivery;
+
 	protected AbstractStreamProducer(Eventloop eventloop) {
 		this.eventloop = checkNotNull(eventloop);
 	}
@@ -89,7 +95,67 @@ public abstract class AbstractStreamProducer<T> implements StreamProducer<T> {
 		downstreamDataReceiver.onData(item);
 	}
 
+	/**
+	 * Sends items to consumer, at once if its receiver is a {@link StreamDataBatchReceiver},
+	 * otherwise one by one
+	 *
+	 * @param items items to be sent
+	 */
+	@SuppressWarnings("unchecked")
+	public void sendBatch(List<T> items) {
+		assert status < END_OF_STREAM;
+		StreamDataReceiver<T> receiver = downstreamDataReceiver;
+		if (receiver instanceof StreamDataBatchReceiver) {
+			((StreamDataBatchReceiver<T>) receiver).onDataBatch(items);
+			return;
+		}
+		for (int i = 0, size = items.size(); i < size && status < END_OF_STREAM; i++) {
+			receiver.onData(items.get(i));
+		}
+	}
+
+	/**
+	 * Collects item into batch if consumer receives batches, otherwise sends it immediately.
+	 * Batch is sent when it is full, on {@link #flushBuffered()} and before end of stream, so producers
+	 * which use this method should call {@link #flushBuffered()} after each portion of produced items.
+	 *
+	 * @param item item to be sent
+	 */
+	protected final void sendBuffered(T item) {
+		assert status < END_OF_STREAM;
+		ArrayList<T> batch = pendingBatch;
+		if (batch == null) {
+			if (!(downstreamDataReceiver instanceof StreamDataBatchReceiver)) {
+				downstreamDataReceiver.onData(item);
+				return;
+			}
+			batch = pendingBatch = new ArrayList<>(MAX_BATCH_SIZE);
+		}
+		batch.add(item);
+		if (batch.size() == MAX_BATCH_SIZE) {
+			flushBuffered();
+		}
+	}
+
+	/**
+	 * Sends items collected with {@link #sendBuffered(Object)}
+	 */
+	protected final void flushBuffered() {
+		ArrayList<T> batch = pendingBatch;
+		if (batch == null || batch.isEmpty())
+			return;
+		// consumer may cause this producer to buffer items while batch is being sent, so it gets another list
+		pendingBatch = spareBatch;
+		spareBatch = null;
+		if (status < END_OF_STREAM) {
+			sendBatch(batch);
+		}
+		batch.clear();
+		spareBatch = batch;
+	}
+
 	public final void sendEndOfStream() {
+		flushBuffered();
 		if (status < END_OF_STREAM) {
 			status = END_OF_STREAM;
 			downstreamConsumer.onEndOfStream();
@@ -237,6 +303,22 @@ public abstract class AbstractStreamProducer<T> implements StreamProducer<T> {
 		completionCallbacks.add(completionCallback);
 	}
 
+	/**
+	 * Makes producers which originate items, such as {@link StreamProducers.OfIterator}, deserializers and reducers,
+	 * send them in batches to consumers which implement {@link StreamDataBatchReceiver}. Disabled by default,
+	 * because batches pay off only for chains of batch-aware consumers. Transformers forward received batches regardless of it.
+	 */
+	public void setBatchDelivery(boolean batchDelivery) {
+		this.batchDelivery = batchDelivery;
+	}
+
+	/**
+	 * Returns true if batch delivery is enabled and consumer receives batches
+	 */
+	protected final boolean isBatchDelivery() {
+		return batchDelivery && downstreamDataReceiver instanceof StreamDataBatchReceiver;
+	}
+
 	public Object getTag() {
 		return tag;
 	}
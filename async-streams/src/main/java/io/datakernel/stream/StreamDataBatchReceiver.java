@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.datakernel.stream;
+
+import java.util.List;
+
+/**
+ * {@link StreamDataReceiver} which can also receive several items at once. Producers check whether
+ * receiver of their consumer implements this interface and pass items in batches, saving a call per item,
+ * otherwise items are passed one by one with {@link #onData(Object)}.
+ *
+ * @param <T> type of received items
+ */
+public interface StreamDataBatchReceiver<T> extends StreamDataReceiver<T> {
+	/**
+	 * Receives several items at once. List belongs to the sender and may be reused after this method
+	 * returns, so it must not be modified or retained.
+	 *
+	 * @param items received items
+	 */
+	void onDataBatch(List<T> items);
+}
@@ -242,6 +242,10 @@ public class StreamProducers {
 
 		@Override
 		protected void doProduce() {
+			if (isBatchDelivery()) {
+				doProduceBatches();
+				return;
+			}
 			for (; ; ) {
 				if (!iterator.hasNext())
 					break;
@@ -254,6 +258,24 @@ public class StreamProducers {
 				sendEndOfStream();
 		}
 
+		// item-by-item loop above does not go through sendBuffered, so chains of consumers are inlined as deep as before
+		private void doProduceBatches() {
+			for (; ; ) {
+				if (!iterator.hasNext())
+					break;
+				if (status != READY) {
+					flushBuffered();
+					return;
+				}
+				T item = iterator.next();
+				sendBuffered(item);
+			}
+			if (sendEndOfStream)
+				sendEndOfStream();
+			else
+				flushBuffered();
+		}
+
 		@Override
 		protected void onProducerStarted() {
 			produce();
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.datakernel.stream.file;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+
+/**
+ * Releases memory mappings explicitly instead of waiting for GC to collect {@link MappedByteBuffer}.
+ * Mapping must not be accessed after it was unmapped, so it should never be exposed to other code.
+ */
+final class MappedFiles {
+	private static final Logger logger = LoggerFactory.getLogger(MappedFiles.class);
+
+	// Java 9+: sun.misc.Unsafe.invokeCleaner(ByteBuffer)
+	private static final Object unsafe;
+	private static final Method invokeCleaner;
+
+	// Java 7-8: ((sun.nio.ch.DirectBuffer) buffer).cleaner().clean()
+	private static final Method cleaner;
+	private static final Method clean;
+
+	static {
+		Object unsafeInstance = null;
+		Method invokeCleanerMethod = null;
+		Method cleanerMethod = null;
+		Method cleanMethod = null;
+		try {
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			invokeCleanerMethod = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+			Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+			theUnsafe.setAccessible(true);
+			unsafeInstance = theUnsafe.get(null);
+		} catch (Exception ignored) {
+			invokeCleanerMethod = null;
+			try {
+				cleanerMethod = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+				cleanMethod = Class.forName("sun.misc.Cleaner").getMethod("clean");
+			} catch (Exception e) {
+				logger.warn("Explicit unmapping is not supported, mappings will be released by GC");
+			}
+		}
+		unsafe = unsafeInstance;
+		invokeCleaner = invokeCleanerMethod;
+		cleaner = cleanerMethod;
+		clean = cleanMethod;
+	}
+
+	private MappedFiles() {
+	}
+
+	static void unmap(MappedByteBuffer mapping) {
+		try {
+			if (invokeCleaner != null) {
+				invokeCleaner.invoke(unsafe, mapping);
+			} else if (cleaner != null) {
+				Object mappingCleaner = cleaner.invoke(mapping);
+				if (mappingCleaner != null)
+					clean.invoke(mappingCleaner);
+			}
+		} catch (Exception e) {
+			logger.warn("Could not unmap {}", mapping, e);
+		}
+	}
+}
@@ -25,22 +25,41 @@ import io.datakernel.stream.AbstractStreamProducer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static io.datakernel.async.AsyncCallbacks.callConcurrently;
 import static io.datakernel.async.AsyncCallbacks.ignoreCompletionCallback;
+import static java.lang.Math.max;
 import static java.lang.Math.min;
 import static java.nio.file.StandardOpenOption.READ;
 
 /**
  * This class allows you to read data from file non-blocking. It represents a {@link AbstractStreamProducer}
  * which streams data from file.
+ * <p>
+ * In memory-mapped mode file is opened in executor once, after that data is copied from mapped file region
+ * directly in event loop thread, without executor round-trip for each buffer. Page faults block the event loop,
+ * so this mode is intended for files which are likely to be in page cache.
+ * <p>
+ * With read-ahead greater than one, reader keeps several sequential reads in flight and sends their results
+ * in file order, so that reading is limited by disk bandwidth rather than by latency of each read.
  */
 public class StreamFileReader extends AbstractStreamProducer<ByteBuf> {
 	private static final Logger logger = LoggerFactory.getLogger(StreamFileReader.class);
 
+	public static final long DEFAULT_MAPPING_SIZE = 64L << 20;
+	private static final int MAX_MAPPED_BYTES_PER_PRODUCE = 1 << 20;
+
 	private final ExecutorService executor;
 
 	protected final int bufferSize;
@@ -52,6 +71,30 @@ public class StreamFileReader extends AbstractStreamProducer<ByteBuf> {
 
 	protected boolean pendingAsyncOperation;
 
+	private boolean memoryMapped;
+	private long mappingSize = DEFAULT_MAPPING_SIZE;
+	private FileChannel mappedChannel;
+	private MappedByteBuffer mapping;
+
+	private int readAhead = 1;
+	private final ArrayDeque<ReadAheadSlot> readAheadSlots = new ArrayDeque<>();
+	private long readAheadPosition;
+	private boolean readAheadEndOfFile;
+
+	private static final class ReadAheadSlot {
+		private final ByteBuf buf;
+		private final int size;
+		private boolean completed;
+		private boolean abandoned;
+		private int result;
+		private Exception exception;
+
+		private ReadAheadSlot(ByteBuf buf) {
+			this.buf = buf;
+			this.size = buf.remaining();
+		}
+	}
+
 	public StreamFileReader(Eventloop eventloop, ExecutorService executor,
 	                        int bufferSize,
 	                        Path path, long position, long length) {
@@ -108,10 +151,74 @@ public class StreamFileReader extends AbstractStreamProducer<ByteBuf> {
 		return new StreamFileReader(eventloop, executor, bufferSize, path, position, Long.MAX_VALUE);
 	}
 
+	/**
+	 * Switches this reader to memory-mapped mode, must be called before the reader is started
+	 *
+	 * @param memoryMapped whether file should be read through memory mapping
+	 */
+	public StreamFileReader memoryMapped(boolean memoryMapped) {
+		checkState(asyncFile == null && mappedChannel == null && !pendingAsyncOperation, "Reader is already started");
+		this.memoryMapped = memoryMapped;
+		return this;
+	}
+
+	/**
+	 * Sets maximum size of file region which is mapped at once in memory-mapped mode
+	 *
+	 * @param mappingSize size of mapped region in bytes
+	 */
+	public StreamFileReader mappingSize(long mappingSize) {
+		checkArgument(mappingSize > 0 && mappingSize <= Integer.MAX_VALUE, "Mapping size must be in range (0, 2GB)");
+		this.mappingSize = mappingSize;
+		return this;
+	}
+
+	/**
+	 * Sets number of reads which are kept in flight, values greater than one enable read-ahead
+	 *
+	 * @param readAhead number of concurrent reads
+	 */
+	public StreamFileReader readAhead(int readAhead) {
+		checkArgument(readAhead > 0, "Read-ahead must be positive");
+		checkState(asyncFile == null && mappedChannel == null && !pendingAsyncOperation, "Reader is already started");
+		this.readAhead = readAhead;
+		return this;
+	}
+
+	public int getReadAhead() {
+		return readAhead;
+	}
+
+	public boolean isMemoryMapped() {
+		return memoryMapped;
+	}
+
+	public ExecutorService getExecutor() {
+		return executor;
+	}
+
+	public Path getPath() {
+		return path;
+	}
+
+	public long getPosition() {
+		return position;
+	}
+
+	public long getLength() {
+		return length;
+	}
+
 	protected void doFlush() {
 		if (status >= END_OF_STREAM || asyncFile == null)
 			return;
 
+		if (readAhead > 1) {
+			pendingAsyncOperation = false;
+			doReadAhead();
+			return;
+		}
+
 		if (length == 0L) {
 			doCleanup();
 			sendEndOfStream();
@@ -153,6 +260,131 @@ public class StreamFileReader extends AbstractStreamProducer<ByteBuf> {
 		});
 	}
 
+	private void doReadAhead() {
+		if (status >= END_OF_STREAM) {
+			doCleanup();
+			return;
+		}
+		while (status == READY && !readAheadSlots.isEmpty() && readAheadSlots.peek().completed) {
+			ReadAheadSlot slot = readAheadSlots.poll();
+			if (slot.exception != null) {
+				doCleanup();
+				closeWithError(slot.exception);
+				return;
+			}
+			if (slot.result == -1) {
+				slot.buf.recycle();
+				doCleanup();
+				sendEndOfStream();
+				return;
+			}
+			position += slot.result;
+			if (length != Long.MAX_VALUE)
+				length -= slot.result;
+			slot.buf.flip();
+			send(slot.buf);
+			if (slot.result < slot.size) {
+				// short read leaves a gap before the reads issued after it, so they are reissued
+				abandonReadAhead();
+				readAheadPosition = position;
+			}
+		}
+
+		if (status != READY)
+			return;
+
+		if (readAheadSlots.isEmpty() && (length == 0L || readAheadEndOfFile)) {
+			doCleanup();
+			sendEndOfStream();
+			return;
+		}
+
+		while (readAheadSlots.size() < readAhead && !readAheadEndOfFile) {
+			long remaining = length == Long.MAX_VALUE ? Long.MAX_VALUE : position + length - readAheadPosition;
+			if (remaining <= 0)
+				break;
+			final ReadAheadSlot slot = new ReadAheadSlot(ByteBufPool.allocate((int) min(bufferSize, remaining)));
+			readAheadSlots.add(slot);
+			asyncFile.read(slot.buf, readAheadPosition, new ResultCallback<Integer>() {
+				@Override
+				public void onResult(Integer result) {
+					if (slot.abandoned) {
+						slot.buf.recycle();
+						return;
+					}
+					slot.completed = true;
+					slot.result = result;
+					if (result == -1)
+						readAheadEndOfFile = true;
+					doReadAhead();
+				}
+
+				@Override
+				public void onException(Exception e) {
+					slot.buf.recycle();
+					if (slot.abandoned)
+						return;
+					slot.completed = true;
+					slot.exception = e;
+					doReadAhead();
+				}
+			});
+			readAheadPosition += slot.size;
+		}
+	}
+
+	private void abandonReadAhead() {
+		for (ReadAheadSlot slot : readAheadSlots) {
+			if (slot.completed) {
+				if (slot.exception == null)
+					slot.buf.recycle();
+			} else {
+				slot.abandoned = true;
+			}
+		}
+		readAheadSlots.clear();
+		readAheadEndOfFile = false;
+	}
+
+	@Override
+	protected void doProduce() {
+		if (mappedChannel == null)
+			return;
+		int producedBytes = 0;
+		while (status == READY) {
+			if (length == 0L) {
+				doCleanup();
+				sendEndOfStream();
+				return;
+			}
+			if (producedBytes >= MAX_MAPPED_BYTES_PER_PRODUCE) {
+				resumeProduce();
+				return;
+			}
+			if (mapping == null || !mapping.hasRemaining()) {
+				if (mapping != null)
+					MappedFiles.unmap(mapping);
+				mapping = null;
+				try {
+					mapping = mappedChannel.map(FileChannel.MapMode.READ_ONLY, position, min(mappingSize, length));
+				} catch (IOException e) {
+					doCleanup();
+					closeWithError(e);
+					return;
+				}
+			}
+			int size = min(bufferSize, mapping.remaining());
+			ByteBuf buf = ByteBufPool.allocate(size);
+			mapping.get(buf.array(), 0, size);
+			position += size;
+			length -= size;
+			producedBytes += size;
+			send(buf);
+		}
+		if (status >= END_OF_STREAM)
+			doCleanup();
+	}
+
 	protected void postFlush() {
 		if (asyncFile == null || pendingAsyncOperation)
 			return;
@@ -172,7 +404,11 @@ public class StreamFileReader extends AbstractStreamProducer<ByteBuf> {
 
 	@Override
 	public void onResumed() {
-		postFlush();
+		if (memoryMapped) {
+			resumeProduce();
+		} else {
+			postFlush();
+		}
 	}
 
 	@Override
@@ -185,18 +421,24 @@ public class StreamFileReader extends AbstractStreamProducer<ByteBuf> {
 	protected void onClosedWithError(Exception e) {
 		logger.error("{}: downstream consumer {} exception.", this, downstreamConsumer);
 		downstreamConsumer.onError(e);
+		closeMapping();
 	}
 
 	@Override
 	protected void onProducerStarted() {
-		if (asyncFile != null || pendingAsyncOperation)
+		if (asyncFile != null || mappedChannel != null || pendingAsyncOperation)
 			return;
 		pendingAsyncOperation = true;
+		if (memoryMapped) {
+			openMapped();
+			return;
+		}
 		AsyncFile.open(eventloop, executor, path, new OpenOption[]{READ}, new ResultCallback<AsyncFile>() {
 			@Override
 			public void onResult(AsyncFile file) {
 				pendingAsyncOperation = false;
 				asyncFile = file;
+				readAheadPosition = position;
 				postFlush();
 			}
 
@@ -207,7 +449,62 @@ public class StreamFileReader extends AbstractStreamProducer<ByteBuf> {
 		});
 	}
 
+	private void openMapped() {
+		callConcurrently(eventloop, executor, false, new Callable<FileChannel>() {
+			@Override
+			public FileChannel call() throws Exception {
+				return FileChannel.open(path, READ);
+			}
+		}, new ResultCallback<FileChannel>() {
+			@Override
+			public void onResult(FileChannel channel) {
+				pendingAsyncOperation = false;
+				if (status >= END_OF_STREAM) {
+					closeMappedChannel(channel);
+					return;
+				}
+				mappedChannel = channel;
+				try {
+					length = max(0L, min(length, channel.size() - position));
+				} catch (IOException e) {
+					doCleanup();
+					closeWithError(e);
+					return;
+				}
+				produce();
+			}
+
+			@Override
+			public void onException(Exception exception) {
+				pendingAsyncOperation = false;
+				doCleanup();
+				sendError(exception);
+			}
+		});
+	}
+
+	private static void closeMappedChannel(FileChannel channel) {
+		try {
+			channel.close();
+		} catch (IOException e) {
+			logger.warn("Could not close {}", channel, e);
+		}
+	}
+
+	private void closeMapping() {
+		if (mapping != null) {
+			MappedFiles.unmap(mapping);
+			mapping = null;
+		}
+		if (mappedChannel != null) {
+			closeMappedChannel(mappedChannel);
+			mappedChannel = null;
+		}
+	}
+
 	protected void doCleanup() {
+		abandonReadAhead();
+		closeMapping();
 		if (asyncFile != null) {
 			asyncFile.close(ignoreCompletionCallback());
 			asyncFile = null;
@@ -19,6 +19,7 @@ package io.datakernel.stream.file;
 import io.datakernel.async.CompletionCallback;
 import io.datakernel.async.ResultCallback;
 import io.datakernel.bytebuf.ByteBuf;
+import io.datakernel.bytebuf.ByteBufQueue;
 import io.datakernel.eventloop.Eventloop;
 import io.datakernel.file.AsyncFile;
 import io.datakernel.stream.AbstractStreamConsumer;
@@ -34,6 +35,7 @@ import java.nio.file.Path;
 import java.util.ArrayDeque;
 import java.util.concurrent.ExecutorService;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static java.nio.file.StandardOpenOption.*;
@@ -41,6 +43,10 @@ import static java.nio.file.StandardOpenOption.*;
 /**
  * This class allows you to write data from file non-blocking. It represents consumer which receives
  * data and writes it to file.
+ * <p>
+ * By default each received buffer is written by a separate operation, one at a time. With write buffer size set,
+ * small buffers are coalesced into writes of that size, aligned to multiples of it in the file, and with
+ * max pending writes greater than one several writes are kept in flight.
  */
 public final class StreamFileWriter extends AbstractStreamConsumer<ByteBuf> implements StreamDataReceiver<ByteBuf> {
 	private static final Logger logger = LoggerFactory.getLogger(StreamFileWriter.class);
@@ -54,9 +60,16 @@ public final class StreamFileWriter extends AbstractStreamConsumer<ByteBuf> impl
 	private AsyncFile asyncFile;
 
 	private long position;
+	private long writePosition;
 
 	private boolean pendingAsyncOperation;
 
+	private int writeBufferSize;
+	private int maxPendingWrites = 1;
+	private final ByteBufQueue writeQueue = new ByteBufQueue();
+	private int pendingWrites;
+	private boolean writeFailed;
+
 	/**
 	 * Creates a new instance of StreamFileWriter
 	 *
@@ -109,6 +122,32 @@ public final class StreamFileWriter extends AbstractStreamConsumer<ByteBuf> impl
 		return new StreamFileWriter(eventloop, executor, path, new OpenOption[]{WRITE, CREATE, TRUNCATE_EXISTING}, removeFileOnException);
 	}
 
+	/**
+	 * Enables coalescing of received buffers into writes of given size
+	 *
+	 * @param writeBufferSize size of single write in bytes, 0 disables coalescing
+	 */
+	public StreamFileWriter writeBufferSize(int writeBufferSize) {
+		checkArgument(writeBufferSize >= 0, "Write buffer size must not be negative");
+		this.writeBufferSize = writeBufferSize;
+		return this;
+	}
+
+	/**
+	 * Sets number of writes which are kept in flight
+	 *
+	 * @param maxPendingWrites number of concurrent writes
+	 */
+	public StreamFileWriter maxPendingWrites(int maxPendingWrites) {
+		checkArgument(maxPendingWrites > 0, "Max pending writes must be positive");
+		this.maxPendingWrites = maxPendingWrites;
+		return this;
+	}
+
+	private boolean isBatched() {
+		return writeBufferSize != 0 || maxPendingWrites != 1;
+	}
+
 	@Override
 	public StreamDataReceiver<ByteBuf> getDataReceiver() {
 		return this;
@@ -116,6 +155,9 @@ public final class StreamFileWriter extends AbstractStreamConsumer<ByteBuf> impl
 
 	/**
 	 * Returns a position in which it will write next byte
+	 * <p>
+	 * With coalescing or several pending writes, bytes are counted once their write completes,
+	 * so that bytes which are queued or being written are not included.
 	 */
 	public long getPosition() {
 		return position;
@@ -126,6 +168,7 @@ public final class StreamFileWriter extends AbstractStreamConsumer<ByteBuf> impl
 	 */
 	public void setPosition(long position) {
 		this.position = position;
+		this.writePosition = position;
 	}
 
 	private void doFlush() {
@@ -162,8 +205,82 @@ public final class StreamFileWriter extends AbstractStreamConsumer<ByteBuf> impl
 		});
 	}
 
+	private void doWrites() {
+		if (asyncFile == null || writeFailed)
+			return;
+
+		while (pendingWrites < maxPendingWrites && writeQueue.hasRemaining()) {
+			final ByteBuf buf;
+			if (writeBufferSize == 0) {
+				buf = writeQueue.take();
+			} else {
+				int alignedSize = writeBufferSize - (int) (writePosition % writeBufferSize);
+				int queuedBytes = writeQueue.remainingBytes();
+				if (queuedBytes < alignedSize && getUpstreamStatus() != StreamProducer.END_OF_STREAM)
+					break;
+				buf = writeQueue.takeExactSize(Math.min(alignedSize, queuedBytes));
+			}
+			final int len = buf.remaining();
+			long offset = writePosition;
+			writePosition += len;
+			pendingWrites++;
+			asyncFile.writeFully(buf, offset, new CompletionCallback() {
+				@Override
+				public void onComplete() {
+					buf.recycle();
+					position += len;
+					pendingWrites--;
+					doWrites();
+				}
+
+				@Override
+				public void onException(final Exception e) {
+					buf.recycle();
+					pendingWrites--;
+					if (writeFailed)
+						return;
+					writeFailed = true;
+					writeQueue.clear();
+					doCleanup(new CompletionCallback() {
+						@Override
+						public void onComplete() {
+							closeUpstreamWithError(e);
+						}
+
+						@Override
+						public void onException(Exception exception) {
+							closeUpstreamWithError(e);
+						}
+					});
+				}
+			});
+		}
+
+		if (writeQueue.remainingBytes() < Math.max(writeBufferSize, 1)) {
+			resumeUpstream();
+		}
+
+		if (getUpstreamStatus() == StreamProducer.END_OF_STREAM && !writeQueue.hasRemaining() && pendingWrites == 0) {
+			doCleanup(new CompletionCallback() {
+				@Override
+				public void onComplete() {
+					closeUpstream();
+				}
+
+				@Override
+				public void onException(Exception exception) {
+					closeUpstreamWithError(new Exception("Can't do cleanap for file\t" + path.getFileName()));
+				}
+			});
+		}
+	}
+
 	private void postFlush() {
-		if (getUpstreamStatus() == StreamProducer.END_OF_STREAM && queue.isEmpty()) {
+		if (isBatched()) {
+			doWrites();
+			return;
+		}
+		if (getUpstreamStatus() == StreamProducer.END_OF_STREAM && queue.isEmpty() && !pendingAsyncOperation) {
 			doCleanup(new CompletionCallback() {
 				@Override
 				public void onComplete() {
@@ -210,6 +327,14 @@ public final class StreamFileWriter extends AbstractStreamConsumer<ByteBuf> impl
 	@Override
 	public void onData(ByteBuf buf) {
 		checkState(getUpstreamStatus() < StreamProducer.END_OF_STREAM, "Unexpected buf after end-of-stream %s : %s", this, buf);
+		if (isBatched()) {
+			writeQueue.add(buf);
+			doWrites();
+			if (writeQueue.remainingBytes() >= Math.max(writeBufferSize, 1)) {
+				suspendUpstream();
+			}
+			return;
+		}
 		queue.offer(buf);
 		if (queue.size() > 1) {
 			suspendUpstream();
@@ -239,6 +364,8 @@ public final class StreamFileWriter extends AbstractStreamConsumer<ByteBuf> impl
 
 	@Override
 	public void onError(final Exception e) {
+		writeFailed = true;
+		writeQueue.clear();
 
 		doCleanup(new CompletionCallback() {
 
@@ -25,6 +25,15 @@ public interface Messaging<O> {
 
 	StreamConsumer<ByteBuf> binarySocketWriter();
 
+	/**
+	 * Streams binary data from producer to socket, as {@link #binarySocketWriter()} does.
+	 * If producer is a {@link io.datakernel.stream.file.StreamFileReader} which is not wired yet,
+	 * its file may be sent with zero-copy transfer instead of being read into ByteBufs.
+	 *
+	 * @param producer producer of binary data
+	 */
+	void sendBinaryStream(StreamProducer<ByteBuf> producer);
+
 	StreamProducer<ByteBuf> binarySocketReader();
 
 	void shutdown();
@@ -16,17 +16,27 @@
 
 package io.datakernel.stream.net;
 
+import io.datakernel.async.CompletionCallback;
+import io.datakernel.async.ResultCallback;
 import io.datakernel.bytebuf.ByteBuf;
 import io.datakernel.eventloop.NioEventloop;
 import io.datakernel.stream.*;
+import io.datakernel.stream.file.StreamFileReader;
 import io.datakernel.stream.processor.StreamDeserializer;
 import io.datakernel.stream.processor.StreamSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.nio.channels.SocketChannel;
 import java.util.HashMap;
+import java.util.concurrent.Callable;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
+import static io.datakernel.async.AsyncCallbacks.callConcurrently;
+import static java.nio.file.StandardOpenOption.READ;
 
 /**
  * It is wrapper for  Binary protocol which deserializes received stream to type of input object,
@@ -36,7 +46,10 @@ import static com.google.common.base.Preconditions.checkState;
  * @param <O> type of output object, for MessageProtocol
  */
 public class StreamMessagingConnection<I, O> extends TcpStreamSocketConnection implements Messaging<O>, StreamDataReceiver<I> {
+	private static final Logger logger = LoggerFactory.getLogger(StreamMessagingConnection.class);
+
 	private MessagingStarter<O> starter;
+	private boolean zeroCopy = true;
 	protected final HashMap<Class<? extends I>, MessagingHandler<? extends I, O>> handlers = new HashMap<>();
 
 	private StreamConsumerSwitcher<ByteBuf> socketReaderSwitcher;
@@ -79,6 +92,15 @@ public class StreamMessagingConnection<I, O> extends TcpStreamSocketConnection i
 		return this;
 	}
 
+	/**
+	 * Sets whether files passed to {@link #sendBinaryStream(StreamProducer)} are sent with
+	 * {@link FileChannel#transferTo}, true by default
+	 */
+	public StreamMessagingConnection<I, O> zeroCopy(boolean zeroCopy) {
+		this.zeroCopy = zeroCopy;
+		return this;
+	}
+
 	/**
 	 * Organizes connections between streams for deserializing and serializing
 	 *
@@ -159,6 +181,71 @@ public class StreamMessagingConnection<I, O> extends TcpStreamSocketConnection i
 		return forwarder;
 	}
 
+	@Override
+	public void sendBinaryStream(StreamProducer<ByteBuf> producer) {
+		if (zeroCopy && producer instanceof StreamFileReader && producer.getDownstream() == null) {
+			transferFile((StreamFileReader) producer, binarySocketWriter());
+		} else {
+			producer.streamTo(binarySocketWriter());
+		}
+	}
+
+	/**
+	 * Opens file of the reader as {@link FileChannel} and transfers it directly to socket,
+	 * falls back to streaming from the reader if file system of the file does not provide FileChannel
+	 */
+	private void transferFile(final StreamFileReader reader, final StreamConsumer<ByteBuf> socketWriter) {
+		callConcurrently(eventloop, reader.getExecutor(), false, new Callable<FileChannel>() {
+			@Override
+			public FileChannel call() throws Exception {
+				return FileChannel.open(reader.getPath(), READ);
+			}
+		}, new ResultCallback<FileChannel>() {
+			@Override
+			public void onResult(final FileChannel file) {
+				if (!isRegistered()) {
+					closeFile(file);
+					return;
+				}
+				try {
+					transferFrom(file, reader.getPosition(), reader.getLength(), new CompletionCallback() {
+						@Override
+						public void onComplete() {
+							closeFile(file);
+							new StreamProducers.EndOfStream<ByteBuf>(eventloop).streamTo(socketWriter);
+						}
+
+						@Override
+						public void onException(Exception exception) {
+							closeFile(file);
+							StreamProducers.<ByteBuf>closingWithError(eventloop, exception).streamTo(socketWriter);
+						}
+					});
+				} catch (IOException e) {
+					closeFile(file);
+					StreamProducers.<ByteBuf>closingWithError(eventloop, e).streamTo(socketWriter);
+				}
+			}
+
+			@Override
+			public void onException(Exception exception) {
+				if (exception instanceof UnsupportedOperationException) {
+					reader.streamTo(socketWriter);
+				} else {
+					StreamProducers.<ByteBuf>closingWithError(eventloop, exception).streamTo(socketWriter);
+				}
+			}
+		});
+	}
+
+	private void closeFile(FileChannel file) {
+		try {
+			file.close();
+		} catch (IOException e) {
+			logger.warn("Could not close file {}", file, e);
+		}
+	}
+
 	@Override
 	public StreamProducer<ByteBuf> binarySocketReader() {
 		StreamForwarder<ByteBuf> forwarder = new StreamForwarder<>(eventloop);
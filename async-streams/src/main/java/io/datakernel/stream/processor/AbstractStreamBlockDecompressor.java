@@ -0,0 +1,221 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.datakernel.stream.processor;
+
+import io.datakernel.bytebuf.ByteBuf;
+import io.datakernel.bytebuf.ByteBufPool;
+import io.datakernel.eventloop.Eventloop;
+import io.datakernel.stream.AbstractStreamTransformer_1_1;
+import io.datakernel.stream.StreamDataReceiver;
+
+import java.io.IOException;
+
+import static com.google.common.base.Preconditions.checkState;
+import static java.lang.Math.min;
+
+/**
+ * Splits stream of ByteBufs into blocks, each consisting of fixed-length header and body of length
+ * specified in header, and sends decoded body of each block downstream. Header may be split between
+ * several ByteBufs, as well as body, in which case they are accumulated in internal buffers.
+ * Stream ends with a block, for which {@link #readHeader(byte[], int)} returns -1, end of input stream
+ * without such block is treated as corrupted stream.
+ */
+abstract class AbstractStreamBlockDecompressor extends AbstractStreamTransformer_1_1<ByteBuf, ByteBuf> implements StreamDataReceiver<ByteBuf>, StreamDecompressor {
+	private static final int INITIAL_BUFFER_SIZE = 256;
+
+	private final ByteBuf headerBuf;
+	private final int headerLength;
+
+	private ByteBuf inputBuf;
+	private long inputStreamPosition;
+
+	private int compressedLen;
+	private boolean finished;
+
+	private long jmxBytesInput;
+	private long jmxBytesOutput;
+	private int jmxBufsInput;
+	private int jmxBufsOutput;
+
+	protected AbstractStreamBlockDecompressor(Eventloop eventloop, int headerLength) {
+		super(eventloop);
+		this.headerLength = headerLength;
+		this.headerBuf = ByteBuf.allocate(headerLength);
+		this.inputBuf = ByteBufPool.allocate(INITIAL_BUFFER_SIZE);
+	}
+
+	/**
+	 * Validates block header and remembers its fields for subsequent {@link #readBody(byte[], int)}
+	 *
+	 * @param buf array which contains header
+	 * @param off offset of header in array
+	 * @return length of block body, or -1 if it is end-of-stream block
+	 */
+	protected abstract int readHeader(byte[] buf, int off) throws Exception;
+
+	/**
+	 * Decodes body of block, whose header was read last
+	 *
+	 * @param buf array which contains body
+	 * @param off offset of body in array
+	 * @return ByteBuf with decoded data
+	 */
+	protected abstract ByteBuf readBody(byte[] buf, int off) throws Exception;
+
+	/**
+	 * Releases resources of decoder, called once when transformer is closed
+	 */
+	protected void releaseResources() {
+	}
+
+	@Override
+	public final StreamDataReceiver<ByteBuf> getDataReceiver() {
+		return this;
+	}
+
+	@Override
+	public void onEndOfStream() {
+		if (!finished) {
+			onInternalError(new IOException("Stream is corrupted"));
+			return;
+		}
+		sendEndOfStream();
+	}
+
+	@Override
+	public void onClosed() {
+		super.onClosed();
+		recycleBufs();
+	}
+
+	@Override
+	protected void onClosedWithError(Exception e) {
+		super.onClosedWithError(e);
+		recycleBufs();
+	}
+
+	private void recycleBufs() {
+		if (inputBuf != null) {
+			inputBuf.recycle();
+			inputBuf = null;
+			releaseResources();
+		}
+	}
+
+	private boolean isReadingHeader() {
+		return headerBuf.hasRemaining();
+	}
+
+	private void onHeader(byte[] buf, int off) throws Exception {
+		compressedLen = readHeader(buf, off);
+		if (compressedLen == -1) {
+			compressedLen = 0;
+			finished = true;
+		}
+	}
+
+	private void consumeInputByteBuffer(ByteBuf buf) throws Exception {
+		while (buf.hasRemaining()) {
+			if (isReadingHeader()) {
+				// read block header:
+				if (headerBuf.position() == 0 && buf.remaining() >= headerLength) {
+					onHeader(buf.array(), buf.position());
+					buf.advance(headerLength);
+					headerBuf.position(headerLength);
+				} else {
+					buf.drainTo(headerBuf, min(headerBuf.remaining(), buf.remaining()));
+					if (isReadingHeader())
+						break;
+					onHeader(headerBuf.array(), 0);
+				}
+				assert !isReadingHeader();
+				inputBuf.position(0);
+			}
+
+			if (finished) {
+				break;
+			}
+
+			// read block body:
+			assert !isReadingHeader();
+			ByteBuf outputBuf;
+			if (inputBuf.position() == 0 && buf.remaining() >= compressedLen) {
+				outputBuf = readBody(buf.array(), buf.position());
+				buf.advance(compressedLen);
+			} else {
+				inputBuf = ByteBufPool.resize(inputBuf, compressedLen);
+				buf.drainTo(inputBuf, min(inputBuf.remaining(), buf.remaining()));
+				if (inputBuf.hasRemaining())
+					break;
+				outputBuf = readBody(inputBuf.array(), 0);
+			}
+			inputStreamPosition += headerLength + compressedLen;
+			jmxBufsOutput++;
+			jmxBytesOutput += outputBuf.remaining();
+			downstreamDataReceiver.onData(outputBuf);
+			headerBuf.position(0);
+			assert isReadingHeader();
+		}
+	}
+
+	@Override
+	public final void onData(ByteBuf buf) {
+		jmxBufsInput++;
+		jmxBytesInput += buf.remaining();
+		try {
+			checkState(!finished, "Unexpected byteBuf after EOS block %s : %s", this, buf);
+			if (status <= SUSPENDED) {
+				consumeInputByteBuffer(buf);
+			}
+		} catch (Exception e) {
+			onInternalError(e);
+		} finally {
+			buf.recycle();
+		}
+	}
+
+	@Override
+	public final long getInputStreamPosition() {
+		return inputStreamPosition;
+	}
+
+	public final long getBytesInput() {
+		return jmxBytesInput;
+	}
+
+	public final long getBytesOutput() {
+		return jmxBytesOutput;
+	}
+
+	public final int getBufsInput() {
+		return jmxBufsInput;
+	}
+
+	public final int getBufsOutput() {
+		return jmxBufsOutput;
+	}
+
+	@Override
+	public String toString() {
+		return '{' + super.toString() +
+				" inBytes:" + jmxBytesInput +
+				" outBytes:" + jmxBytesOutput +
+				" inBufs:" + jmxBufsInput +
+				" outBufs:" + jmxBufsOutput +
+				'}';
+	}
+}
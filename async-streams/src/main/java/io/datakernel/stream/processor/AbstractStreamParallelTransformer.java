@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.datakernel.stream.processor;
+
+import io.datakernel.eventloop.Eventloop;
+import io.datakernel.stream.AbstractStreamTransformer_1_1;
+import io.datakernel.stream.StreamDataReceiver;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Transformer which processes independent items on worker threads of executor and sends results in the order
+ * of input items. Number of items which are being processed or wait for sending is bounded, upstream is suspended
+ * when it is reached. Eventloop is kept alive while there are items in processing.
+ *
+ * @param <I> type of input items
+ * @param <O> type of output items
+ */
+abstract class AbstractStreamParallelTransformer<I, O> extends AbstractStreamTransformer_1_1<I, O> implements StreamDataReceiver<I> {
+	private final ExecutorService executor;
+	private final int maxBlocksInFlight;
+
+	private final ArrayDeque<Block<I, O>> blocks = new ArrayDeque<>();
+	private final AtomicBoolean drainPosted = new AtomicBoolean();
+	private final Runnable drainTask = new Runnable() {
+		@Override
+		public void run() {
+			drainPosted.set(false);
+			drain();
+		}
+	};
+
+	private Eventloop.ConcurrentOperationTracker tracker;
+	private boolean endOfStream;
+
+	private static final class Block<I, O> {
+		private final I input;
+		private O output;
+		private Exception error;
+		private volatile boolean done;
+
+		private Block(I input) {
+			this.input = input;
+		}
+	}
+
+	protected AbstractStreamParallelTransformer(Eventloop eventloop, ExecutorService executor, int maxBlocksInFlight) {
+		super(eventloop);
+		checkArgument(maxBlocksInFlight > 0, "Max blocks in flight must be positive");
+		this.executor = checkNotNull(executor);
+		this.maxBlocksInFlight = maxBlocksInFlight;
+	}
+
+	/**
+	 * Processes item, called in worker thread. It takes ownership of input item, also if it throws exception.
+	 */
+	protected abstract O process(I input) throws Exception;
+
+	/**
+	 * Called in eventloop thread for results which will not be sent because transformer is closed
+	 */
+	protected void recycle(O output) {
+	}
+
+	/**
+	 * Called in eventloop thread for items which were not passed to {@link #process(Object)},
+	 * because executor has rejected them
+	 */
+	protected void recycleInput(I input) {
+	}
+
+	/**
+	 * Called in eventloop thread before result is sent
+	 */
+	protected void onOutput(O output) {
+	}
+
+	/**
+	 * Called when all items are processed and sent after end of stream of input
+	 */
+	protected void onProcessedEndOfStream() {
+		sendEndOfStream();
+	}
+
+	@Override
+	public final StreamDataReceiver<I> getDataReceiver() {
+		return this;
+	}
+
+	/**
+	 * Submits item for processing in worker thread
+	 */
+	protected final void submit(I input) {
+		final Block<I, O> block = new Block<>(input);
+		blocks.add(block);
+		if (tracker == null) {
+			tracker = eventloop.startConcurrentOperation();
+		}
+		if (blocks.size() >= maxBlocksInFlight) {
+			suspendUpstream();
+		}
+		try {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						block.output = process(block.input);
+					} catch (Exception e) {
+						block.error = e;
+					}
+					block.done = true;
+					if (drainPosted.compareAndSet(false, true)) {
+						eventloop.postConcurrently(drainTask);
+					}
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			recycleInput(input);
+			block.error = e;
+			block.done = true;
+			drain();
+		}
+	}
+
+	private void drain() {
+		while (!blocks.isEmpty()) {
+			Block<I, O> block = blocks.peek();
+			if (!block.done)
+				break;
+			if (status >= CLOSED) {
+				blocks.poll();
+				if (block.output != null) {
+					recycle(block.output);
+				}
+				continue;
+			}
+			if (status != READY)
+				break;
+			blocks.poll();
+			if (block.error != null) {
+				onInternalError(block.error);
+				continue;
+			}
+			onOutput(block.output);
+			send(block.output);
+		}
+
+		if (blocks.isEmpty() && tracker != null) {
+			tracker.complete();
+			tracker = null;
+		}
+
+		if (status == READY) {
+			if (endOfStream) {
+				if (blocks.isEmpty()) {
+					onProcessedEndOfStream();
+				}
+			} else if (blocks.size() < maxBlocksInFlight) {
+				resumeUpstream();
+			}
+		}
+	}
+
+	@Override
+	public void onEndOfStream() {
+		endOfStream = true;
+		drain();
+	}
+
+	@Override
+	protected void onSuspended() {
+		suspendUpstream();
+	}
+
+	@Override
+	protected void onResumed() {
+		drain();
+	}
+
+	@Override
+	public void onClosed() {
+		super.onClosed();
+		drain();
+	}
+
+	@Override
+	protected void onClosedWithError(Exception e) {
+		super.onClosedWithError(e);
+		drain();
+	}
+
+	public int getBlocksInFlight() {
+		return blocks.size();
+	}
+
+	public int getMaxBlocksInFlight() {
+		return maxBlocksInFlight;
+	}
+}
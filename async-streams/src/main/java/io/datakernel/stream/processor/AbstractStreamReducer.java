@@ -21,10 +21,12 @@ import io.datakernel.eventloop.Eventloop;
 import io.datakernel.stream.AbstractStreamConsumer;
 import io.datakernel.stream.AbstractStreamTransformer_M_1;
 import io.datakernel.stream.StreamConsumer;
+import io.datakernel.stream.StreamDataBatchReceiver;
 import io.datakernel.stream.StreamDataReceiver;
 
 import java.util.ArrayDeque;
 import java.util.Comparator;
+import java.util.List;
 import java.util.PriorityQueue;
 
 import static com.google.common.base.Preconditions.checkArgument;
@@ -52,6 +54,13 @@ public abstract class AbstractStreamReducer<K, O, A> extends AbstractStreamTrans
 	private final PriorityQueue<InternalConsumer> priorityQueue;
 	private int streamsAwaiting;
 
+	private final StreamDataReceiver<O> bufferedReceiver = new StreamDataReceiver<O>() {
+		@Override
+		public void onData(O item) {
+			sendBuffered(item);
+		}
+	};
+
 	private int jmxInputItems;
 	private int jmxOnFirst;
 	private int jmxOnNext;
@@ -103,21 +112,22 @@ public abstract class AbstractStreamReducer<K, O, A> extends AbstractStreamTrans
 	@Override
 	@SuppressWarnings("AssertWithSideEffects")
 	protected void doProduce() {
+		StreamDataReceiver<O> output = isBatchDelivery() ? bufferedReceiver : downstreamDataReceiver;
 		while (status == READY && streamsAwaiting == 0) {
 			InternalConsumer<Object> input = priorityQueue.poll();
 			if (input == null)
 				break;
 			if (key != null && input.headKey.equals(key)) {
 				assert jmxOnNext != ++jmxOnNext;
-				accumulator = input.reducer.onNextItem(downstreamDataReceiver, key, input.headItem, accumulator);
+				accumulator = input.reducer.onNextItem(output, key, input.headItem, accumulator);
 			} else {
 				if (lastInput != null) {
 					assert jmxOnComplete != ++jmxOnComplete;
-					lastInput.reducer.onComplete(downstreamDataReceiver, key, accumulator);
+					lastInput.reducer.onComplete(output, key, accumulator);
 				}
 				key = input.headKey;
 				assert jmxOnFirst != ++jmxOnFirst;
-				accumulator = input.reducer.onFirstItem(downstreamDataReceiver, key, input.headItem);
+				accumulator = input.reducer.onFirstItem(output, key, input.headItem);
 			}
 			input.headItem = input.deque.poll();
 			lastInput = input;
@@ -131,6 +141,7 @@ public abstract class AbstractStreamReducer<K, O, A> extends AbstractStreamTrans
 				}
 			}
 		}
+		flushBuffered();
 
 		if (status == READY) {
 			resumeAllUpstreams();
@@ -139,7 +150,7 @@ public abstract class AbstractStreamReducer<K, O, A> extends AbstractStreamTrans
 		if (status == READY && priorityQueue.isEmpty() && streamsAwaiting == 0) {
 			if (lastInput != null) {
 				assert jmxOnComplete != ++jmxOnComplete;
-				lastInput.reducer.onComplete(downstreamDataReceiver, key, accumulator);
+				lastInput.reducer.onComplete(output, key, accumulator);
 				lastInput = null;
 				key = null;
 				accumulator = null;
@@ -148,7 +159,7 @@ public abstract class AbstractStreamReducer<K, O, A> extends AbstractStreamTrans
 		}
 	}
 
-	private class InternalConsumer<I> extends AbstractStreamConsumer<I> implements StreamDataReceiver<I> {
+	private class InternalConsumer<I> extends AbstractStreamConsumer<I> implements StreamDataBatchReceiver<I> {
 		private final int index = inputs.size();
 
 		private final PriorityQueue<InternalConsumer> priorityQueue;
@@ -192,6 +203,13 @@ public abstract class AbstractStreamReducer<K, O, A> extends AbstractStreamTrans
 			}
 		}
 
+		@Override
+		public void onDataBatch(List<I> items) {
+			for (int i = 0, size = items.size(); i < size; i++) {
+				onData(items.get(i));
+			}
+		}
+
 		@Override
 		public void onEndOfStream() {
 			if (headItem == null) {
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.datakernel.stream.processor;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Bounded lock-free queue for exactly one producer thread and one consumer thread.
+ * Each side caches last seen index of the other side, so shared counters are read only when
+ * queue looks full for producer or empty for consumer.
+ *
+ * @param <T> type of items
+ */
+final class SpscBoundedQueue<T> {
+	private final AtomicReferenceArray<T> buffer;
+	private final int capacity;
+	private final int mask;
+
+	private final AtomicLong head = new AtomicLong();
+	private final AtomicLong tail = new AtomicLong();
+
+	// accessed only by producer thread
+	private long cachedHead;
+
+	// accessed only by consumer thread
+	private long cachedTail;
+
+	SpscBoundedQueue(int capacity) {
+		checkArgument(capacity > 0 && Integer.bitCount(capacity) == 1, "Capacity must be power of 2");
+		this.buffer = new AtomicReferenceArray<>(capacity);
+		this.capacity = capacity;
+		this.mask = capacity - 1;
+	}
+
+	/**
+	 * Adds item to the queue, must be called only from producer thread
+	 *
+	 * @return false if queue is full
+	 */
+	boolean offer(T item) {
+		long t = tail.get();
+		if (t - cachedHead >= capacity) {
+			cachedHead = head.get();
+			if (t - cachedHead >= capacity)
+				return false;
+		}
+		buffer.lazySet((int) t & mask, item);
+		tail.lazySet(t + 1);
+		return true;
+	}
+
+	/**
+	 * Removes item from the queue, must be called only from consumer thread
+	 *
+	 * @return null if queue is empty
+	 */
+	T poll() {
+		long h = head.get();
+		if (h >= cachedTail) {
+			cachedTail = tail.get();
+			if (h >= cachedTail)
+				return null;
+		}
+		int index = (int) h & mask;
+		T item = buffer.get(index);
+		buffer.lazySet(index, null);
+		head.lazySet(h + 1);
+		return item;
+	}
+
+	int size() {
+		long h = head.get();
+		long t = tail.get();
+		return (int) (t - h);
+	}
+
+	int capacity() {
+		return capacity;
+	}
+}
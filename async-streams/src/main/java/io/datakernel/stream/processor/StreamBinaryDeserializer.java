@@ -139,6 +139,7 @@ public final class StreamBinaryDeserializer<T> extends AbstractStreamTransformer
 
 	@Override
 	protected void doProduce() {
+		boolean batch = isBatchDelivery();
 		while (status == READY) {
 			ByteBuf nextBuf = byteBufs.peek();
 			if (nextBuf == null)
@@ -208,8 +209,12 @@ public final class StreamBinaryDeserializer<T> extends AbstractStreamTransformer
 				nextBuf.position(off);
 				//noinspection AssertWithSideEffects
 				assert jmxItems != ++jmxItems;
-				downstreamDataReceiver.onData(item);
+				if (batch)
+					sendBuffered(item);
+				else
+					downstreamDataReceiver.onData(item);
 			}
+			flushBuffered();
 
 			if (status >= END_OF_STREAM)
 				return;
@@ -23,10 +23,13 @@ import io.datakernel.serializer.BufferSerializer;
 import io.datakernel.serializer.SerializationOutputBuffer;
 import io.datakernel.stream.AbstractStreamTransformer_1_1;
 import io.datakernel.stream.AbstractStreamTransformer_1_1_Stateless;
+import io.datakernel.stream.StreamDataBatchReceiver;
 import io.datakernel.stream.StreamDataReceiver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
+
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static java.lang.Math.max;
@@ -38,7 +41,7 @@ import static java.lang.Math.max;
  * @param <T> original type of data
  */
 @SuppressWarnings({"rawtypes", "unchecked"})
-public final class StreamBinarySerializer<T> extends AbstractStreamTransformer_1_1_Stateless<T, ByteBuf> implements StreamSerializer<T>, StreamDataReceiver<T>, StreamBinarySerializerMBean {
+public final class StreamBinarySerializer<T> extends AbstractStreamTransformer_1_1_Stateless<T, ByteBuf> implements StreamSerializer<T>, StreamDataBatchReceiver<T>, StreamBinarySerializerMBean {
 	private static final Logger logger = LoggerFactory.getLogger(StreamBinarySerializer.class);
 	private static final ArrayIndexOutOfBoundsException OUT_OF_BOUNDS_EXCEPTION = new ArrayIndexOutOfBoundsException();
 
@@ -196,6 +199,13 @@ public final class StreamBinarySerializer<T> extends AbstractStreamTransformer_1
 		}
 	}
 
+	@Override
+	public void onDataBatch(List<T> items) {
+		for (int i = 0, size = items.size(); i < size && status < END_OF_STREAM; i++) {
+			onData(items.get(i));
+		}
+	}
+
 	private void onSerializationError(Exception e) {
 		serializationErrors++;
 		if (skipSerializationErrors) {
@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.datakernel.stream.processor;
+
+import io.datakernel.eventloop.Eventloop;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static io.datakernel.stream.processor.StreamDeflateCompressor.MAX_DICTIONARY_SIZE;
+import static java.lang.Math.min;
+
+/**
+ * Contains available compression codecs. LZ4 codecs are fast and fit for hot data,
+ * deflate codecs have higher compression ratio and fit for cold data and for small blocks with dictionary.
+ */
+public final class StreamCompressionCodecs {
+	static final int DICTIONARY_SEGMENT_LENGTH = 16;
+
+	private StreamCompressionCodecs() {
+	}
+
+	/**
+	 * Returns codec with {@link StreamLZ4Compressor#fastCompressor(Eventloop)}
+	 */
+	public static StreamCompressionCodec lz4Fast() {
+		return new StreamCompressionCodec() {
+			@Override
+			public StreamCompressor createCompressor(Eventloop eventloop) {
+				return StreamLZ4Compressor.fastCompressor(eventloop);
+			}
+
+			@Override
+			public StreamDecompressor createDecompressor(Eventloop eventloop) {
+				return new StreamLZ4Decompressor(eventloop);
+			}
+		};
+	}
+
+	/**
+	 * Returns codec with {@link StreamLZ4Compressor#highCompressor(Eventloop, int)}
+	 *
+	 * @param compressionLevel compression level in the same manner as the {@link net.jpountz.lz4.LZ4Factory#highCompressor(int)}
+	 */
+	public static StreamCompressionCodec lz4High(final int compressionLevel) {
+		return new StreamCompressionCodec() {
+			@Override
+			public StreamCompressor createCompressor(Eventloop eventloop) {
+				return StreamLZ4Compressor.highCompressor(eventloop, compressionLevel);
+			}
+
+			@Override
+			public StreamDecompressor createDecompressor(Eventloop eventloop) {
+				return new StreamLZ4Decompressor(eventloop);
+			}
+		};
+	}
+
+	/**
+	 * Returns codec with {@link StreamDeflateCompressor}
+	 *
+	 * @param compressionLevel compression level from 0 to 9
+	 */
+	public static StreamCompressionCodec deflate(int compressionLevel) {
+		return deflate(compressionLevel, null);
+	}
+
+	/**
+	 * Returns codec with {@link StreamDeflateCompressor} which uses preset dictionary
+	 *
+	 * @param compressionLevel compression level from 0 to 9
+	 * @param dictionary       preset dictionary, can be {@code null}
+	 */
+	public static StreamCompressionCodec deflate(final int compressionLevel, final byte[] dictionary) {
+		checkArgument(compressionLevel >= 0 && compressionLevel <= 9, "Compression level must be from 0 to 9, got %s", compressionLevel);
+		checkArgument(dictionary == null || dictionary.length <= MAX_DICTIONARY_SIZE,
+				"Dictionary size must not exceed %s bytes", MAX_DICTIONARY_SIZE);
+		return new StreamCompressionCodec() {
+			@Override
+			public StreamCompressor createCompressor(Eventloop eventloop) {
+				return StreamDeflateCompressor.create(eventloop, compressionLevel, dictionary);
+			}
+
+			@Override
+			public StreamDecompressor createDecompressor(Eventloop eventloop) {
+				return new StreamDeflateDecompressor(eventloop, dictionary);
+			}
+		};
+	}
+
+	/**
+	 * Builds dictionary for {@link #deflate(int, byte[])} from samples of typical blocks.
+	 * Dictionary consists of segments which occur in most samples, the most frequent segments are placed
+	 * at the end of dictionary, where references to them are the shortest.
+	 *
+	 * @param samples samples of data, such as serialized messages
+	 * @param maxSize maximum size of dictionary, up to 32 KB
+	 */
+	public static byte[] trainDictionary(List<byte[]> samples, int maxSize) {
+		checkNotNull(samples);
+		checkArgument(maxSize > 0 && maxSize <= MAX_DICTIONARY_SIZE, "Dictionary size must be from 1 to %s bytes", MAX_DICTIONARY_SIZE);
+
+		// count number of samples in which each segment occurs
+		final Map<String, Integer> occurrences = new HashMap<>();
+		Set<String> sampleSegments = new HashSet<>();
+		for (byte[] sample : samples) {
+			sampleSegments.clear();
+			for (int i = 0; i + DICTIONARY_SEGMENT_LENGTH <= sample.length; i += DICTIONARY_SEGMENT_LENGTH / 2) {
+				sampleSegments.add(new String(sample, i, DICTIONARY_SEGMENT_LENGTH, StandardCharsets.ISO_8859_1));
+			}
+			for (String segment : sampleSegments) {
+				Integer count = occurrences.get(segment);
+				occurrences.put(segment, count == null ? 1 : count + 1);
+			}
+		}
+
+		List<String> segments = new ArrayList<>();
+		for (Map.Entry<String, Integer> entry : occurrences.entrySet()) {
+			if (entry.getValue() > 1) {
+				segments.add(entry.getKey());
+			}
+		}
+		Collections.sort(segments, new Comparator<String>() {
+			@Override
+			public int compare(String o1, String o2) {
+				int result = Integer.compare(occurrences.get(o2), occurrences.get(o1));
+				return result != 0 ? result : o1.compareTo(o2);
+			}
+		});
+
+		int size = min(maxSize, segments.size() * DICTIONARY_SEGMENT_LENGTH) / DICTIONARY_SEGMENT_LENGTH * DICTIONARY_SEGMENT_LENGTH;
+		byte[] dictionary = new byte[size];
+		int pos = size;
+		for (String segment : segments) {
+			if (pos < DICTIONARY_SEGMENT_LENGTH)
+				break;
+			pos -= DICTIONARY_SEGMENT_LENGTH;
+			byte[] bytes = segment.getBytes(StandardCharsets.ISO_8859_1);
+			System.arraycopy(bytes, 0, dictionary, pos, DICTIONARY_SEGMENT_LENGTH);
+		}
+		return dictionary;
+	}
+}
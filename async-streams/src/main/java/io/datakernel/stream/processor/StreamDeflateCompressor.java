@@ -0,0 +1,232 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.datakernel.stream.processor;
+
+import io.datakernel.bytebuf.ByteBuf;
+import io.datakernel.bytebuf.ByteBufPool;
+import io.datakernel.eventloop.Eventloop;
+import io.datakernel.stream.AbstractStreamTransformer_1_1_Stateless;
+import io.datakernel.stream.StreamDataReceiver;
+
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Compresses each received buf as independent deflate block. Blocks can be compressed with preset dictionary,
+ * which significantly improves compression ratio of small blocks, such as RPC messages. The same dictionary
+ * must be used by {@link StreamDeflateDecompressor}.
+ */
+public final class StreamDeflateCompressor extends AbstractStreamTransformer_1_1_Stateless<ByteBuf, ByteBuf> implements StreamDataReceiver<ByteBuf>, StreamCompressor, StreamDeflateCompressorMBean {
+	static final byte[] MAGIC = new byte[]{'D', 'F', 'L', 'B', 'l', 'o', 'c', 'k'};
+	static final int MAGIC_LENGTH = MAGIC.length;
+
+	static final int HEADER_LENGTH =
+			MAGIC_LENGTH    // magic bytes
+					+ 1     // token
+					+ 4     // compressed length
+					+ 4     // decompressed length
+					+ 4     // checksum
+					+ 4;    // dictionary id
+
+	static final int COMPRESSION_METHOD_RAW = 0x10;
+	static final int COMPRESSION_METHOD_DEFLATE = 0x30;
+
+	static final int MAX_DICTIONARY_SIZE = 32 * 1024;
+
+	private final Deflater deflater;
+	private final byte[] dictionary;
+	private final int dictionaryId;
+	private final CRC32 checksum = new CRC32();
+
+	private long jmxBytesInput;
+	private long jmxBytesOutput;
+	private int jmxBufs;
+
+	/**
+	 * Returns new instance of StreamDeflateCompressor
+	 *
+	 * @param eventloop        event loop in which compressor will run
+	 * @param compressionLevel compression level from 0 to 9 in the same manner as the {@link Deflater#setLevel(int)}
+	 */
+	public static StreamDeflateCompressor create(Eventloop eventloop, int compressionLevel) {
+		return new StreamDeflateCompressor(eventloop, compressionLevel, null);
+	}
+
+	/**
+	 * Returns new instance of StreamDeflateCompressor which uses preset dictionary
+	 *
+	 * @param eventloop        event loop in which compressor will run
+	 * @param compressionLevel compression level from 0 to 9 in the same manner as the {@link Deflater#setLevel(int)}
+	 * @param dictionary       preset dictionary, up to 32 KB, see {@link StreamCompressionCodecs#trainDictionary}
+	 */
+	public static StreamDeflateCompressor create(Eventloop eventloop, int compressionLevel, byte[] dictionary) {
+		return new StreamDeflateCompressor(eventloop, compressionLevel, dictionary);
+	}
+
+	private StreamDeflateCompressor(Eventloop eventloop, int compressionLevel, byte[] dictionary) {
+		super(eventloop);
+		checkArgument(compressionLevel >= 0 && compressionLevel <= 9, "Compression level must be from 0 to 9, got %s", compressionLevel);
+		checkArgument(dictionary == null || dictionary.length <= MAX_DICTIONARY_SIZE,
+				"Dictionary size must not exceed %s bytes", MAX_DICTIONARY_SIZE);
+		this.deflater = new Deflater(compressionLevel, true);
+		this.dictionary = dictionary;
+		this.dictionaryId = dictionaryId(dictionary);
+	}
+
+	static int dictionaryId(byte[] dictionary) {
+		if (dictionary == null)
+			return 0;
+		Adler32 adler32 = new Adler32();
+		adler32.update(dictionary, 0, dictionary.length);
+		return (int) adler32.getValue();
+	}
+
+	static void writeIntLE(int i, byte[] buf, int off) {
+		buf[off++] = (byte) i;
+		buf[off++] = (byte) (i >>> 8);
+		buf[off++] = (byte) (i >>> 16);
+		buf[off] = (byte) (i >>> 24);
+	}
+
+	static int readIntLE(byte[] buf, int off) {
+		return (buf[off] & 0xFF)
+				| ((buf[off + 1] & 0xFF) << 8)
+				| ((buf[off + 2] & 0xFF) << 16)
+				| ((buf[off + 3] & 0xFF) << 24);
+	}
+
+	private static void writeHeader(byte[] outputBytes, int compressMethod, int compressedLength, int len,
+	                                int check, int dictionaryId) {
+		System.arraycopy(MAGIC, 0, outputBytes, 0, MAGIC_LENGTH);
+		outputBytes[MAGIC_LENGTH] = (byte) compressMethod;
+		writeIntLE(compressedLength, outputBytes, MAGIC_LENGTH + 1);
+		writeIntLE(len, outputBytes, MAGIC_LENGTH + 5);
+		writeIntLE(check, outputBytes, MAGIC_LENGTH + 9);
+		writeIntLE(dictionaryId, outputBytes, MAGIC_LENGTH + 13);
+		assert MAGIC_LENGTH + 17 == HEADER_LENGTH;
+	}
+
+	private ByteBuf compressBlock(byte[] buffer, int off, int len) {
+		ByteBuf outputBuf = ByteBufPool.allocate(HEADER_LENGTH + len);
+		byte[] outputBytes = outputBuf.array();
+
+		checksum.reset();
+		checksum.update(buffer, off, len);
+		int check = (int) checksum.getValue();
+
+		deflater.reset();
+		if (dictionary != null) {
+			deflater.setDictionary(dictionary);
+		}
+		deflater.setInput(buffer, off, len);
+		deflater.finish();
+		int compressedLength = deflater.deflate(outputBytes, HEADER_LENGTH, len);
+
+		int compressMethod;
+		if (!deflater.finished() || compressedLength >= len) {
+			compressMethod = COMPRESSION_METHOD_RAW;
+			compressedLength = len;
+			System.arraycopy(buffer, off, outputBytes, HEADER_LENGTH, len);
+		} else {
+			compressMethod = COMPRESSION_METHOD_DEFLATE;
+		}
+
+		writeHeader(outputBytes, compressMethod, compressedLength, len, check, dictionaryId);
+		outputBuf.limit(HEADER_LENGTH + compressedLength);
+		return outputBuf;
+	}
+
+	static ByteBuf createEndOfStreamBlock() {
+		ByteBuf outputBuf = ByteBufPool.allocate(HEADER_LENGTH);
+		writeHeader(outputBuf.array(), COMPRESSION_METHOD_RAW, 0, 0, 0, 0);
+		outputBuf.limit(HEADER_LENGTH);
+		return outputBuf;
+	}
+
+	@Override
+	public void onData(ByteBuf buf) {
+		if (status >= END_OF_STREAM)
+			return;
+		try {
+			if (!buf.hasRemaining()) {
+				return;
+			}
+			jmxBufs++;
+			jmxBytesInput += buf.remaining();
+
+			ByteBuf outputBuffer = compressBlock(buf.array(), buf.position(), buf.remaining());
+			jmxBytesOutput += outputBuffer.remaining();
+
+			send(outputBuffer);
+		} catch (Exception e) {
+			onInternalError(e);
+		} finally {
+			buf.recycle();
+		}
+	}
+
+	@Override
+	public void onEndOfStream() {
+		send(createEndOfStreamBlock());
+		sendEndOfStream();
+		deflater.end();
+	}
+
+	@Override
+	public void onClosed() {
+		super.onClosed();
+		deflater.end();
+	}
+
+	@Override
+	protected void onClosedWithError(Exception e) {
+		super.onClosedWithError(e);
+		deflater.end();
+	}
+
+	@Override
+	public StreamDataReceiver<ByteBuf> getDataReceiver() {
+		return this;
+	}
+
+	@Override
+	public long getBytesInput() {
+		return jmxBytesInput;
+	}
+
+	@Override
+	public long getBytesOutput() {
+		return jmxBytesOutput;
+	}
+
+	@Override
+	public int getBufs() {
+		return jmxBufs;
+	}
+
+	@Override
+	public String toString() {
+		return '{' + super.toString() +
+				" inBytes:" + jmxBytesInput +
+				" outBytes:" + jmxBytesOutput +
+				" bufs:" + jmxBufs +
+				'}';
+	}
+}
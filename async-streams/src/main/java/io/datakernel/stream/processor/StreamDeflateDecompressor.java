@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.datakernel.stream.processor;
+
+import io.datakernel.bytebuf.ByteBuf;
+import io.datakernel.bytebuf.ByteBufPool;
+import io.datakernel.eventloop.Eventloop;
+
+import java.io.IOException;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import static io.datakernel.stream.processor.StreamDeflateCompressor.*;
+
+/**
+ * Decompresses stream of blocks created by {@link StreamDeflateCompressor}
+ */
+public final class StreamDeflateDecompressor extends AbstractStreamBlockDecompressor implements StreamDeflateDecompressorMBean {
+	private final Inflater inflater = new Inflater(true);
+	private final byte[] dictionary;
+	private final int dictionaryId;
+	private final CRC32 checksum = new CRC32();
+
+	private int originalLen;
+	private int compressedLen;
+	private int compressionMethod;
+	private int check;
+
+	public StreamDeflateDecompressor(Eventloop eventloop) {
+		this(eventloop, null);
+	}
+
+	/**
+	 * Creates decompressor for blocks compressed with preset dictionary
+	 *
+	 * @param eventloop  event loop in which decompressor will run
+	 * @param dictionary dictionary which was used by compressor
+	 */
+	public StreamDeflateDecompressor(Eventloop eventloop, byte[] dictionary) {
+		super(eventloop, HEADER_LENGTH);
+		this.dictionary = dictionary;
+		this.dictionaryId = dictionaryId(dictionary);
+	}
+
+	@Override
+	protected void releaseResources() {
+		inflater.end();
+	}
+
+	@Override
+	protected int readHeader(byte[] buf, int off) throws IOException {
+		for (int i = 0; i < MAGIC_LENGTH; ++i) {
+			if (buf[off + i] != MAGIC[i]) {
+				throw new IOException("Stream is corrupted");
+			}
+		}
+		compressionMethod = buf[off + MAGIC_LENGTH] & 0xFF;
+		if (compressionMethod != COMPRESSION_METHOD_RAW && compressionMethod != COMPRESSION_METHOD_DEFLATE) {
+			throw new IOException("Stream is corrupted");
+		}
+		compressedLen = readIntLE(buf, off + MAGIC_LENGTH + 1);
+		originalLen = readIntLE(buf, off + MAGIC_LENGTH + 5);
+		check = readIntLE(buf, off + MAGIC_LENGTH + 9);
+		int blockDictionaryId = readIntLE(buf, off + MAGIC_LENGTH + 13);
+		if (originalLen < 0 || compressedLen < 0 || compressedLen > originalLen
+				|| (originalLen != 0 && compressedLen == 0)
+				|| (compressionMethod == COMPRESSION_METHOD_RAW && originalLen != compressedLen)) {
+			throw new IOException("Stream is corrupted");
+		}
+		if (originalLen == 0) {
+			if (check != 0 || blockDictionaryId != 0) {
+				throw new IOException("Stream is corrupted");
+			}
+			return -1;
+		}
+		if (compressionMethod == COMPRESSION_METHOD_DEFLATE && blockDictionaryId != dictionaryId) {
+			throw new IOException("Block is compressed with another dictionary");
+		}
+		return compressedLen;
+	}
+
+	@Override
+	protected ByteBuf readBody(byte[] buf, int off) throws IOException {
+		ByteBuf outputBuf = ByteBufPool.allocate(originalLen);
+		outputBuf.limit(originalLen);
+		try {
+			switch (compressionMethod) {
+				case COMPRESSION_METHOD_RAW:
+					System.arraycopy(buf, off, outputBuf.array(), 0, originalLen);
+					break;
+				case COMPRESSION_METHOD_DEFLATE:
+					inflater.reset();
+					if (dictionary != null) {
+						inflater.setDictionary(dictionary);
+					}
+					inflater.setInput(buf, off, compressedLen);
+					int len;
+					try {
+						len = inflater.inflate(outputBuf.array(), 0, originalLen);
+					} catch (DataFormatException e) {
+						throw new IOException("Stream is corrupted", e);
+					}
+					if (len != originalLen || !inflater.finished()) {
+						throw new IOException("Stream is corrupted");
+					}
+					break;
+				default:
+					throw new AssertionError();
+			}
+			checksum.reset();
+			checksum.update(outputBuf.array(), 0, originalLen);
+			if ((int) checksum.getValue() != check) {
+				throw new IOException("Stream is corrupted");
+			}
+		} catch (IOException e) {
+			outputBuf.recycle();
+			throw e;
+		}
+		return outputBuf;
+	}
+}
@@ -0,0 +1,312 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.datakernel.stream.processor;
+
+import io.datakernel.eventloop.Eventloop;
+import io.datakernel.stream.AbstractStreamConsumer;
+import io.datakernel.stream.AbstractStreamProducer;
+import io.datakernel.stream.StreamConsumer;
+import io.datakernel.stream.StreamDataReceiver;
+import io.datakernel.stream.StreamProducer;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Moves stream from one eventloop to another, which may run in another thread. Input consumer runs
+ * in the input eventloop and puts items into bounded lock-free single producer/single consumer queue,
+ * output producer runs in the output eventloop and takes them from the queue.
+ * Input is suspended when queue reaches high watermark and is resumed by output when queue is drained
+ * to low watermark, so eventloops talk to each other with {@link Eventloop#postConcurrently(Runnable)} only
+ * on these transitions, when output has to be woken up, and on end of stream, close and errors.
+ * Both eventloops are kept alive until the stream is over.
+ *
+ * @param <T> type of items
+ */
+public final class StreamEventloopBridge<T> {
+	public static final int DEFAULT_CAPACITY = 1024;
+
+	private final Eventloop inputEventloop;
+	private final Eventloop outputEventloop;
+
+	private final SpscBoundedQueue<T> queue;
+	private final int highWatermark;
+	private final int lowWatermark;
+
+	private final InputImpl input;
+	private final OutputImpl output;
+
+	private final AtomicBoolean outputWakeupPosted = new AtomicBoolean();
+	private final AtomicBoolean inputResumePosted = new AtomicBoolean();
+	private volatile boolean inputSuspended;
+	private volatile boolean inputEndOfStream;
+
+	/**
+	 * Creates a new instance of bridge with queue of {@link #DEFAULT_CAPACITY} items and watermarks
+	 * at 3/4 and 1/4 of it
+	 *
+	 * @param inputEventloop  eventloop of consumer side
+	 * @param outputEventloop eventloop of producer side
+	 */
+	public StreamEventloopBridge(Eventloop inputEventloop, Eventloop outputEventloop) {
+		this(inputEventloop, outputEventloop, DEFAULT_CAPACITY);
+	}
+
+	public StreamEventloopBridge(Eventloop inputEventloop, Eventloop outputEventloop, int capacity) {
+		this(inputEventloop, outputEventloop, capacity, capacity - capacity / 4, capacity / 4);
+	}
+
+	/**
+	 * Creates a new instance of bridge
+	 *
+	 * @param inputEventloop  eventloop of consumer side
+	 * @param outputEventloop eventloop of producer side
+	 * @param capacity        capacity of queue, power of 2
+	 * @param highWatermark   number of queued items at which input is suspended
+	 * @param lowWatermark    number of queued items at which suspended input is resumed
+	 */
+	public StreamEventloopBridge(Eventloop inputEventloop, Eventloop outputEventloop,
+	                             int capacity, int highWatermark, int lowWatermark) {
+		checkArgument(highWatermark > 0 && highWatermark <= capacity, "High watermark must be in (0, capacity]");
+		checkArgument(lowWatermark >= 0 && lowWatermark < highWatermark, "Low watermark must be in [0, highWatermark)");
+		this.inputEventloop = checkNotNull(inputEventloop);
+		this.outputEventloop = checkNotNull(outputEventloop);
+		this.queue = new SpscBoundedQueue<>(capacity);
+		this.highWatermark = highWatermark;
+		this.lowWatermark = lowWatermark;
+		this.input = new InputImpl();
+		this.output = new OutputImpl();
+	}
+
+	/**
+	 * Returns consumer which runs in the input eventloop
+	 */
+	public StreamConsumer<T> getInput() {
+		return input;
+	}
+
+	/**
+	 * Returns producer which runs in the output eventloop
+	 */
+	public StreamProducer<T> getOutput() {
+		return output;
+	}
+
+	private void wakeupOutput() {
+		if (!outputWakeupPosted.get() && outputWakeupPosted.compareAndSet(false, true)) {
+			outputEventloop.postConcurrently(new Runnable() {
+				@Override
+				public void run() {
+					outputWakeupPosted.set(false);
+					output.onInputAvailable();
+				}
+			});
+		}
+	}
+
+	private void resumeInput() {
+		if (inputResumePosted.compareAndSet(false, true)) {
+			inputEventloop.postConcurrently(new Runnable() {
+				@Override
+				public void run() {
+					inputResumePosted.set(false);
+					input.onOutputDrained();
+				}
+			});
+		}
+	}
+
+	private final class InputImpl extends AbstractStreamConsumer<T> implements StreamDataReceiver<T> {
+		private final ArrayDeque<T> overflow = new ArrayDeque<>();
+		private final Eventloop.ConcurrentOperationTracker tracker;
+		private boolean endOfStreamPending;
+		private boolean complete;
+
+		private InputImpl() {
+			super(inputEventloop);
+			this.tracker = inputEventloop.startConcurrentOperation();
+		}
+
+		@Override
+		public StreamDataReceiver<T> getDataReceiver() {
+			return this;
+		}
+
+		@Override
+		public void onData(T item) {
+			if (!overflow.isEmpty() || !queue.offer(item)) {
+				overflow.add(item);
+			}
+			if (!inputSuspended && queue.size() >= highWatermark) {
+				inputSuspended = true;
+				suspendUpstream();
+			}
+			wakeupOutput();
+		}
+
+		@Override
+		public void onEndOfStream() {
+			endOfStreamPending = true;
+			if (overflow.isEmpty()) {
+				publishEndOfStream();
+			}
+		}
+
+		@Override
+		public void onError(final Exception e) {
+			super.onError(e);
+			complete();
+			outputEventloop.postConcurrently(new Runnable() {
+				@Override
+				public void run() {
+					output.closeWithError(e);
+				}
+			});
+		}
+
+		void onOutputDrained() {
+			if (complete)
+				return;
+			while (!overflow.isEmpty() && queue.offer(overflow.peek())) {
+				overflow.poll();
+			}
+			wakeupOutput();
+			if (!overflow.isEmpty())
+				return;
+			if (endOfStreamPending) {
+				publishEndOfStream();
+			} else if (inputSuspended && queue.size() < highWatermark) {
+				inputSuspended = false;
+				resumeUpstream();
+			}
+		}
+
+		void onOutputClosed(Exception e) {
+			overflow.clear();
+			if (upstreamProducer != null) {
+				if (e == null)
+					closeUpstream();
+				else
+					closeUpstreamWithError(e);
+			}
+			complete();
+		}
+
+		private void publishEndOfStream() {
+			inputSuspended = false;
+			inputEndOfStream = true;
+			wakeupOutput();
+		}
+
+		void complete() {
+			if (!complete) {
+				complete = true;
+				tracker.complete();
+			}
+		}
+	}
+
+	private final class OutputImpl extends AbstractStreamProducer<T> {
+		private final Eventloop.ConcurrentOperationTracker tracker;
+		private boolean complete;
+
+		private OutputImpl() {
+			super(outputEventloop);
+			this.tracker = outputEventloop.startConcurrentOperation();
+		}
+
+		@Override
+		protected void onProducerStarted() {
+			produce();
+		}
+
+		void onInputAvailable() {
+			if (downstreamConsumer != null) {
+				produce();
+			}
+		}
+
+		@Override
+		protected void onResumed() {
+			resumeProduce();
+		}
+
+		@Override
+		protected void doProduce() {
+			boolean batch = isBatchDelivery();
+			while (status == READY) {
+				T item = queue.poll();
+				if (item == null)
+					break;
+				if (batch)
+					sendBuffered(item);
+				else
+					send(item);
+			}
+			flushBuffered();
+
+			if (inputSuspended && queue.size() <= lowWatermark) {
+				resumeInput();
+			}
+
+			// end of stream is published after the last item, so queue is checked once more after reading the flag
+			if (status == READY && inputEndOfStream && queue.size() == 0) {
+				sendEndOfStream();
+				complete();
+				// input eventloop is kept alive until end of stream is delivered, so that it receives close of output
+				inputEventloop.postConcurrently(new Runnable() {
+					@Override
+					public void run() {
+						input.complete();
+					}
+				});
+			}
+		}
+
+		@Override
+		protected void onClosed() {
+			complete();
+			postOutputClosed(null);
+		}
+
+		@Override
+		protected void onClosedWithError(Exception e) {
+			super.onClosedWithError(e);
+			complete();
+			postOutputClosed(e);
+		}
+
+		private void postOutputClosed(final Exception e) {
+			inputEventloop.postConcurrently(new Runnable() {
+				@Override
+				public void run() {
+					input.onOutputClosed(e);
+				}
+			});
+		}
+
+		private void complete() {
+			if (!complete) {
+				complete = true;
+				tracker.complete();
+			}
+		}
+	}
+}
@@ -21,8 +21,11 @@ import com.google.common.base.Predicates;
 import io.datakernel.eventloop.Eventloop;
 import io.datakernel.stream.AbstractStreamTransformer_1_1;
 import io.datakernel.stream.AbstractStreamTransformer_1_1_Stateless;
+import io.datakernel.stream.StreamDataBatchReceiver;
 import io.datakernel.stream.StreamDataReceiver;
 
+import java.util.List;
+
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
@@ -32,7 +35,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
  *
  * @param <T>
  */
-public final class StreamFilter<T> extends AbstractStreamTransformer_1_1_Stateless<T, T> implements StreamDataReceiver<T>, StreamFilterMBean {
+public final class StreamFilter<T> extends AbstractStreamTransformer_1_1_Stateless<T, T> implements StreamDataBatchReceiver<T>, StreamFilterMBean {
 	private final Predicate<T> predicate;
 
 	private int jmxInputItems;
@@ -50,6 +53,10 @@ public final class StreamFilter<T> extends AbstractStreamTransformer_1_1_Statele
 		this.predicate = predicate;
 	}
 
+	Predicate<T> getPredicate() {
+		return predicate;
+	}
+
 	/**
 	 * Returns callback for right sending data, if its predicate always is true, returns dataReceiver
 	 * for sending data without filtering.
@@ -74,6 +81,38 @@ public final class StreamFilter<T> extends AbstractStreamTransformer_1_1_Statele
 		}
 	}
 
+	/**
+	 * Sends items of batch which satisfy predicate to the destination in batches
+	 */
+	@SuppressWarnings("AssertWithSideEffects")
+	@Override
+	public void onDataBatch(List<T> items) {
+		assert (jmxInputItems += items.size()) >= 0;
+		Predicate<T> predicate = this.predicate;
+		int size = items.size();
+		int passed = 0;
+		while (passed < size && predicate.apply(items.get(passed))) {
+			passed++;
+		}
+		assert (jmxOutputItems += passed) >= 0;
+		if (passed == size) {
+			// whole batch satisfies predicate, so it is passed on as is
+			sendBatch(items);
+			return;
+		}
+		for (int i = 0; i < passed; i++) {
+			sendBuffered(items.get(i));
+		}
+		for (int i = passed + 1; i < size; i++) {
+			T item = items.get(i);
+			if (predicate.apply(item)) {
+				assert jmxOutputItems != ++jmxOutputItems;
+				sendBuffered(item);
+			}
+		}
+		flushBuffered();
+	}
+
 	@Override
 	public int getInputItems() {
 		return jmxInputItems;
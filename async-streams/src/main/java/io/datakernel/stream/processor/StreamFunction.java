@@ -21,8 +21,11 @@ import com.google.common.base.Functions;
 import io.datakernel.eventloop.Eventloop;
 import io.datakernel.stream.AbstractStreamTransformer_1_1;
 import io.datakernel.stream.AbstractStreamTransformer_1_1_Stateless;
+import io.datakernel.stream.StreamDataBatchReceiver;
 import io.datakernel.stream.StreamDataReceiver;
 
+import java.util.List;
+
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
@@ -32,7 +35,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
  * @param <I> type of input data
  * @param <O> type of output data
  */
-public final class StreamFunction<I, O> extends AbstractStreamTransformer_1_1_Stateless<I, O> implements StreamDataReceiver<I> {
+public final class StreamFunction<I, O> extends AbstractStreamTransformer_1_1_Stateless<I, O> implements StreamDataBatchReceiver<I> {
 	private final Function<I, O> function;
 
 	/**
@@ -47,6 +50,10 @@ public final class StreamFunction<I, O> extends AbstractStreamTransformer_1_1_St
 		this.function = function;
 	}
 
+	Function<I, O> getFunction() {
+		return function;
+	}
+
 	/**
 	 * Returns callback for right sending data, if its function is identity, returns dataReceiver
 	 * for sending data without filtering.
@@ -66,4 +73,16 @@ public final class StreamFunction<I, O> extends AbstractStreamTransformer_1_1_St
 	public void onData(I item) {
 		downstreamDataReceiver.onData(function.apply(item));
 	}
+
+	/**
+	 * Applies function to batch of received data and sends results to the destination in batches
+	 */
+	@Override
+	public void onDataBatch(List<I> items) {
+		Function<I, O> function = this.function;
+		for (int i = 0, size = items.size(); i < size; i++) {
+			sendBuffered(function.apply(items.get(i)));
+		}
+		flushBuffered();
+	}
 }
@@ -0,0 +1,274 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.datakernel.stream.processor;
+
+import com.google.common.base.Function;
+import com.google.common.base.Functions;
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+import io.datakernel.codegen.AsmFunctionFactory;
+import io.datakernel.codegen.FunctionDef;
+import io.datakernel.codegen.utils.DefiningClassLoader;
+import io.datakernel.eventloop.Eventloop;
+import io.datakernel.stream.AbstractStreamTransformer_1_1;
+import io.datakernel.stream.AbstractStreamTransformer_1_1_Stateless;
+import io.datakernel.stream.StreamDataReceiver;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Throwables.propagate;
+import static io.datakernel.codegen.FunctionDefs.*;
+import static java.util.Arrays.asList;
+
+/**
+ * Represents chain of stateless transformations - filters, functions and mappers - as a single
+ * {@link AbstractStreamTransformer_1_1}. Consecutive filters and functions are fused into one
+ * {@link StreamDataReceiver}, generated with {@link AsmFunctionFactory}, so item passes through the whole chain
+ * within one call instead of hopping through receiver of each transformer, and chain has only one status
+ * and one suspend/resume propagation. Mapper may send any number of items, so it ends fused receiver and
+ * sends items to the receiver of the rest of chain.
+ *
+ * @param <I> type of input data
+ * @param <O> type of output data
+ */
+public final class StreamFusion<I, O> extends AbstractStreamTransformer_1_1_Stateless<I, O> {
+	private static final String DOWNSTREAM = "downstream";
+	private static final String STAGE = "stage";
+
+	private enum StageType {
+		FILTER(Predicate.class), FUNCTION(Function.class), MAPPER(StreamMap.Mapper.class);
+
+		private final Class<?> operationClass;
+
+		StageType(Class<?> operationClass) {
+			this.operationClass = operationClass;
+		}
+	}
+
+	private static final class Stage {
+		private final StageType type;
+		private final Object operation;
+
+		private Stage(StageType type, Object operation) {
+			this.type = type;
+			this.operation = checkNotNull(operation);
+		}
+	}
+
+	private final StreamDataReceiver<I> headReceiver;
+	private final StreamDataReceiver<?> tailReceiver;
+	private final Field tailDownstreamField;
+
+	private StreamFusion(Eventloop eventloop, DefiningClassLoader classLoader, List<Stage> stages) {
+		super(eventloop);
+		List<List<Stage>> segments = new ArrayList<>();
+		List<Stage> segment = new ArrayList<>();
+		for (Stage stage : stages) {
+			segment.add(stage);
+			if (stage.type == StageType.MAPPER) {
+				segments.add(segment);
+				segment = new ArrayList<>();
+			}
+		}
+		if (!segment.isEmpty()) {
+			segments.add(segment);
+		}
+
+		StreamDataReceiver<?> next = null;
+		StreamDataReceiver<?> tail = null;
+		for (int i = segments.size() - 1; i >= 0; i--) {
+			StreamDataReceiver<?> receiver = createReceiver(classLoader, segments.get(i));
+			if (next != null) {
+				setField(receiver, DOWNSTREAM, next);
+			} else {
+				tail = receiver;
+			}
+			next = receiver;
+		}
+		this.headReceiver = cast(next);
+		this.tailReceiver = tail;
+		try {
+			this.tailDownstreamField = tail != null ? tail.getClass().getField(DOWNSTREAM) : null;
+		} catch (NoSuchFieldException e) {
+			throw propagate(e);
+		}
+	}
+
+	/**
+	 * Returns builder of fused chain with input of type T
+	 *
+	 * @param eventloop   eventloop in which fused chain will be running
+	 * @param classLoader class loader for generated receivers, classes of chains with the same structure are reused
+	 * @param <T>         type of input data
+	 */
+	public static <T> Builder<T, T> builder(Eventloop eventloop, DefiningClassLoader classLoader) {
+		return new Builder<>(eventloop, classLoader);
+	}
+
+	/**
+	 * Creates fused chain which processes data like given transformers, streamed one to another in given order.
+	 * Only operations of transformers are used, transformers themselves are not connected to the streams.
+	 *
+	 * @param eventloop    eventloop in which fused chain will be running
+	 * @param classLoader  class loader for generated receivers
+	 * @param transformers instances of {@link StreamFilter}, {@link StreamFunction} and {@link StreamMap}
+	 * @param <I>          type of input data of the first transformer
+	 * @param <O>          type of output data of the last transformer
+	 */
+	public static <I, O> StreamFusion<I, O> fuse(Eventloop eventloop, DefiningClassLoader classLoader,
+	                                             List<? extends AbstractStreamTransformer_1_1_Stateless<?, ?>> transformers) {
+		List<Stage> stages = new ArrayList<>();
+		for (AbstractStreamTransformer_1_1_Stateless<?, ?> transformer : transformers) {
+			if (transformer instanceof StreamFilter) {
+				addStage(stages, StageType.FILTER, ((StreamFilter<?>) transformer).getPredicate());
+			} else if (transformer instanceof StreamFunction) {
+				addStage(stages, StageType.FUNCTION, ((StreamFunction<?, ?>) transformer).getFunction());
+			} else if (transformer instanceof StreamMap) {
+				addStage(stages, StageType.MAPPER, ((StreamMap<?, ?>) transformer).getMapper());
+			} else {
+				throw new IllegalArgumentException("Could not fuse " + transformer);
+			}
+		}
+		return new StreamFusion<>(eventloop, classLoader, stages);
+	}
+
+	public static <I, O> StreamFusion<I, O> fuse(Eventloop eventloop, DefiningClassLoader classLoader,
+	                                             AbstractStreamTransformer_1_1_Stateless<?, ?>... transformers) {
+		return fuse(eventloop, classLoader, asList(transformers));
+	}
+
+	private static void addStage(List<Stage> stages, StageType type, Object operation) {
+		if (operation == Predicates.alwaysTrue() || operation == Functions.identity())
+			return;
+		stages.add(new Stage(type, operation));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T cast(Object object) {
+		return (T) object;
+	}
+
+	private static StreamDataReceiver<?> createReceiver(DefiningClassLoader classLoader, List<Stage> stages) {
+		AsmFunctionFactory<StreamDataReceiver> factory = new AsmFunctionFactory<>(classLoader, StreamDataReceiver.class);
+		factory.field(DOWNSTREAM, StreamDataReceiver.class);
+		for (int i = 0; i < stages.size(); i++) {
+			factory.field(STAGE + i, stages.get(i).type.operationClass);
+		}
+		factory.method("onData", onData(stages, 0, arg(0)));
+
+		StreamDataReceiver<?> receiver = factory.newInstance();
+		for (int i = 0; i < stages.size(); i++) {
+			setField(receiver, STAGE + i, stages.get(i).operation);
+		}
+		return receiver;
+	}
+
+	private static FunctionDef onData(List<Stage> stages, int stage, FunctionDef item) {
+		if (stage == stages.size())
+			return call(field(self(), DOWNSTREAM), "onData", item);
+		FunctionDef operation = field(self(), STAGE + stage);
+		switch (stages.get(stage).type) {
+			case FILTER:
+				return ifThen(call(operation, "apply", item), onData(stages, stage + 1, item));
+			case FUNCTION:
+				return onData(stages, stage + 1, let("item" + stage, call(operation, "apply", item)));
+			case MAPPER:
+				return call(operation, "map", item, field(self(), DOWNSTREAM));
+			default:
+				throw new IllegalArgumentException();
+		}
+	}
+
+	private static void setField(Object receiver, String field, Object value) {
+		try {
+			receiver.getClass().getField(field).set(receiver, value);
+		} catch (NoSuchFieldException | IllegalAccessException e) {
+			throw propagate(e);
+		}
+	}
+
+	/**
+	 * Returns fused receiver of the chain, or receiver of the destination if chain is empty
+	 */
+	@Override
+	public StreamDataReceiver<I> getDataReceiver() {
+		return headReceiver != null ? headReceiver : StreamFusion.<StreamDataReceiver<I>>cast(downstreamDataReceiver);
+	}
+
+	/**
+	 * Connects the last fused receiver to the receiver of the destination
+	 */
+	@Override
+	public void bindDataReceiver() {
+		super.bindDataReceiver();
+		if (tailReceiver != null) {
+			try {
+				tailDownstreamField.set(tailReceiver, downstreamDataReceiver);
+			} catch (IllegalAccessException e) {
+				throw propagate(e);
+			}
+		}
+	}
+
+	/**
+	 * Collects stages of fused chain
+	 *
+	 * @param <I> type of input data of the chain
+	 * @param <O> type of output data of the last added stage
+	 */
+	public static final class Builder<I, O> {
+		private final Eventloop eventloop;
+		private final DefiningClassLoader classLoader;
+		private final List<Stage> stages = new ArrayList<>();
+
+		private Builder(Eventloop eventloop, DefiningClassLoader classLoader) {
+			this.eventloop = checkNotNull(eventloop);
+			this.classLoader = checkNotNull(classLoader);
+		}
+
+		/**
+		 * Adds stage which sends further only items which satisfy predicate
+		 */
+		public Builder<I, O> filter(Predicate<O> predicate) {
+			addStage(stages, StageType.FILTER, predicate);
+			return this;
+		}
+
+		/**
+		 * Adds stage which sends further result of function
+		 */
+		public <R> Builder<I, R> function(Function<O, R> function) {
+			addStage(stages, StageType.FUNCTION, function);
+			return cast(this);
+		}
+
+		/**
+		 * Adds stage which sends further items produced by mapper
+		 */
+		public <R> Builder<I, R> map(StreamMap.Mapper<O, R> mapper) {
+			addStage(stages, StageType.MAPPER, mapper);
+			return cast(this);
+		}
+
+		public StreamFusion<I, O> build() {
+			return new StreamFusion<>(eventloop, classLoader, new ArrayList<>(stages));
+		}
+	}
+}
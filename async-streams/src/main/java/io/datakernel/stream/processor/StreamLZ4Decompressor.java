@@ -19,8 +19,6 @@ package io.datakernel.stream.processor;
 import io.datakernel.bytebuf.ByteBuf;
 import io.datakernel.bytebuf.ByteBufPool;
 import io.datakernel.eventloop.Eventloop;
-import io.datakernel.stream.AbstractStreamTransformer_1_1;
-import io.datakernel.stream.StreamDataReceiver;
 import net.jpountz.lz4.LZ4Exception;
 import net.jpountz.lz4.LZ4Factory;
 import net.jpountz.lz4.LZ4FastDecompressor;
@@ -30,41 +28,26 @@ import net.jpountz.xxhash.XXHashFactory;
 
 import java.io.IOException;
 
-import static com.google.common.base.Preconditions.checkState;
 import static io.datakernel.stream.processor.StreamLZ4Compressor.*;
-import static java.lang.Math.min;
-
-public class StreamLZ4Decompressor extends AbstractStreamTransformer_1_1<ByteBuf, ByteBuf> implements StreamDataReceiver<ByteBuf>, StreamLZ4DecompressorMBean {
-	private static final int INITIAL_BUFFER_SIZE = 256;
 
+public class StreamLZ4Decompressor extends AbstractStreamBlockDecompressor implements StreamLZ4DecompressorMBean {
 	private final LZ4FastDecompressor decompressor;
 	private final StreamingXXHash32 checksum;
 
-	private final ByteBuf headerBuf = ByteBuf.allocate(HEADER_LENGTH);
-
-	private ByteBuf inputBuf;
-	private long inputStreamPosition;
-
-	private long jmxBytesInput;
-	private long jmxBytesOutput;
-	private int jmxBufsInput;
-	private int jmxBufsOutput;
-
 	private final Header header = new Header();
 
-	private final static class Header {
-		private int originalLen;
-		private int compressedLen;
-		private int compressionMethod;
-		private int check;
-		private boolean finished;
+	final static class Header {
+		int originalLen;
+		int compressedLen;
+		int compressionMethod;
+		int check;
+		boolean finished;
 	}
 
 	public StreamLZ4Decompressor(Eventloop eventloop, LZ4FastDecompressor decompressor, StreamingXXHash32 checksum) {
-		super(eventloop);
+		super(eventloop, HEADER_LENGTH);
 		this.decompressor = decompressor;
 		this.checksum = checksum;
-		this.inputBuf = ByteBufPool.allocate(INITIAL_BUFFER_SIZE);
 	}
 
 	public StreamLZ4Decompressor(Eventloop eventloop) {
@@ -72,35 +55,17 @@ public class StreamLZ4Decompressor extends AbstractStreamTransformer_1_1<ByteBuf
 	}
 
 	@Override
-	public StreamDataReceiver<ByteBuf> getDataReceiver() {
-		return this;
-	}
-
-	@Override
-	public void onEndOfStream() {
-		sendEndOfStream();
-	}
-
-	@Override
-	public void onClosed() {
-		super.onClosed();
-		recycleBufs();
+	protected int readHeader(byte[] buf, int off) throws Exception {
+		readHeader(header, buf, off);
+		return header.finished ? -1 : header.compressedLen;
 	}
 
 	@Override
-	protected void onClosedWithError(Exception e) {
-		super.onClosedWithError(e);
-		recycleBufs();
-	}
-
-	private void recycleBufs() {
-		if (inputBuf != null) {
-			inputBuf.recycle();
-			inputBuf = null;
-		}
+	protected ByteBuf readBody(byte[] buf, int off) throws Exception {
+		return readBody(decompressor, checksum, header, buf, off);
 	}
 
-	private static void readHeader(Header header, byte[] buf, int off) throws Exception {
+	static void readHeader(Header header, byte[] buf, int off) throws Exception {
 		for (int i = 0; i < MAGIC_LENGTH; ++i) {
 			if (buf[off + i] != MAGIC[i]) {
 				throw new IOException("Stream is corrupted");
@@ -130,7 +95,7 @@ public class StreamLZ4Decompressor extends AbstractStreamTransformer_1_1<ByteBuf
 		}
 	}
 
-	private static ByteBuf readBody(LZ4FastDecompressor decompressor, StreamingXXHash32 checksum, Header header,
+	static ByteBuf readBody(LZ4FastDecompressor decompressor, StreamingXXHash32 checksum, Header header,
 	                                byte[] buf, int off) throws Exception {
 		ByteBuf outputBuf = ByteBufPool.allocate(header.originalLen);
 		outputBuf.limit(header.originalLen);
@@ -158,103 +123,4 @@ public class StreamLZ4Decompressor extends AbstractStreamTransformer_1_1<ByteBuf
 		}
 		return outputBuf;
 	}
-
-	private boolean isReadingHeader() {
-		return headerBuf.hasRemaining();
-	}
-
-	private void consumeInputByteBuffer(ByteBuf buf) throws Exception {
-		while (buf.hasRemaining()) {
-			if (isReadingHeader()) {
-				// read message header:
-				if (headerBuf.position() == 0 && buf.remaining() >= HEADER_LENGTH) {
-					readHeader(header, buf.array(), buf.position());
-					buf.advance(HEADER_LENGTH);
-					headerBuf.position(HEADER_LENGTH);
-				} else {
-					buf.drainTo(headerBuf, min(headerBuf.remaining(), buf.remaining()));
-					if (isReadingHeader())
-						break;
-					readHeader(header, headerBuf.array(), 0);
-				}
-				assert !isReadingHeader();
-				inputBuf.position(0);
-			}
-
-			if (header.finished) {
-				break;
-			}
-
-			// read message body:
-			assert !isReadingHeader();
-			ByteBuf outputBuf;
-			if (inputBuf.position() == 0 && buf.remaining() >= header.compressedLen) {
-				outputBuf = readBody(decompressor, checksum, header, buf.array(), buf.position());
-				buf.advance(header.compressedLen);
-			} else {
-				inputBuf = ByteBufPool.resize(inputBuf, header.compressedLen);
-				buf.drainTo(inputBuf, min(inputBuf.remaining(), buf.remaining()));
-				if (inputBuf.hasRemaining())
-					break;
-				outputBuf = readBody(decompressor, checksum, header, inputBuf.array(), 0);
-			}
-			inputStreamPosition += HEADER_LENGTH + header.compressedLen;
-			jmxBufsOutput++;
-			jmxBytesOutput += outputBuf.remaining();
-			downstreamDataReceiver.onData(outputBuf);
-			headerBuf.position(0);
-			assert isReadingHeader();
-		}
-	}
-
-	@Override
-	public void onData(ByteBuf buf) {
-		jmxBufsInput++;
-		jmxBytesInput += buf.remaining();
-		try {
-			checkState(!header.finished, "Unexpected byteBuf after LZ4 EOS packet %s : %s", this, buf);
-			if (status <= SUSPENDED) {
-				consumeInputByteBuffer(buf);
-			}
-		} catch (Exception e) {
-			onInternalError(e);
-		} finally {
-			buf.recycle();
-		}
-	}
-
-	public long getInputStreamPosition() {
-		return inputStreamPosition;
-	}
-
-	@Override
-	public long getBytesInput() {
-		return jmxBytesInput;
-	}
-
-	@Override
-	public long getBytesOutput() {
-		return jmxBytesOutput;
-	}
-
-	@Override
-	public int getBufsInput() {
-		return jmxBufsInput;
-	}
-
-	@Override
-	public int getBufsOutput() {
-		return jmxBufsOutput;
-	}
-
-	@SuppressWarnings("AssertWithSideEffects")
-	@Override
-	public String toString() {
-		return '{' + super.toString() +
-				" inBytes:" + jmxBytesInput +
-				" outBytes:" + jmxBytesOutput +
-				" inBufs:" + jmxBufsInput +
-				" outBufs:" + jmxBufsOutput +
-				'}';
-	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.datakernel.stream.processor;
+
+import io.datakernel.bytebuf.ByteBuf;
+import io.datakernel.eventloop.Eventloop;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.xxhash.StreamingXXHash32;
+import net.jpountz.xxhash.XXHashFactory;
+
+import java.util.concurrent.ExecutorService;
+
+import static io.datakernel.stream.processor.StreamLZ4Compressor.*;
+
+/**
+ * Compresses blocks in the same format as {@link StreamLZ4Compressor}, but on worker threads of executor.
+ * Each received buf is compressed as independent block, compressed blocks are sent in the order of input bufs.
+ * Upstream is suspended while number of blocks in flight reaches limit.
+ */
+public final class StreamLZ4ParallelCompressor extends AbstractStreamParallelTransformer<ByteBuf, ByteBuf> implements StreamCompressor, StreamLZ4ParallelCompressorMBean {
+	public static final int DEFAULT_MAX_BLOCKS_IN_FLIGHT = 16;
+
+	private static final ThreadLocal<StreamingXXHash32> CHECKSUM = new ThreadLocal<StreamingXXHash32>() {
+		@Override
+		protected StreamingXXHash32 initialValue() {
+			return XXHashFactory.fastestInstance().newStreamingHash32(DEFAULT_SEED);
+		}
+	};
+
+	private final LZ4Compressor compressor;
+
+	private long jmxBytesInput;
+	private long jmxBytesOutput;
+	private int jmxBufs;
+
+	/**
+	 * Returns new instance of StreamLZ4ParallelCompressor with a {@link LZ4Factory#fastCompressor()}
+	 *
+	 * @param eventloop event loop in which compressor will run
+	 * @param executor  executor for compression of blocks
+	 */
+	public static StreamLZ4ParallelCompressor fastCompressor(Eventloop eventloop, ExecutorService executor) {
+		return fastCompressor(eventloop, executor, DEFAULT_MAX_BLOCKS_IN_FLIGHT);
+	}
+
+	public static StreamLZ4ParallelCompressor fastCompressor(Eventloop eventloop, ExecutorService executor, int maxBlocksInFlight) {
+		return new StreamLZ4ParallelCompressor(eventloop, executor, maxBlocksInFlight, LZ4Factory.fastestInstance().fastCompressor());
+	}
+
+	/**
+	 * Returns new instance of StreamLZ4ParallelCompressor with a {@link LZ4Factory#highCompressor()}
+	 *
+	 * @param eventloop event loop in which compressor will run
+	 * @param executor  executor for compression of blocks
+	 */
+	public static StreamLZ4ParallelCompressor highCompressor(Eventloop eventloop, ExecutorService executor) {
+		return highCompressor(eventloop, executor, DEFAULT_MAX_BLOCKS_IN_FLIGHT);
+	}
+
+	public static StreamLZ4ParallelCompressor highCompressor(Eventloop eventloop, ExecutorService executor, int maxBlocksInFlight) {
+		return new StreamLZ4ParallelCompressor(eventloop, executor, maxBlocksInFlight, LZ4Factory.fastestInstance().highCompressor());
+	}
+
+	/**
+	 * Returns new instance of StreamLZ4ParallelCompressor with a {@link LZ4Factory#highCompressor(int)}
+	 *
+	 * @param eventloop         event loop in which compressor will run
+	 * @param executor          executor for compression of blocks
+	 * @param maxBlocksInFlight maximum number of blocks which are compressed or wait for sending
+	 * @param compressionLevel  compression level in the same manner as the {@link LZ4Factory#highCompressor(int)}
+	 */
+	public static StreamLZ4ParallelCompressor highCompressor(Eventloop eventloop, ExecutorService executor, int maxBlocksInFlight,
+	                                                         int compressionLevel) {
+		return new StreamLZ4ParallelCompressor(eventloop, executor, maxBlocksInFlight,
+				LZ4Factory.fastestInstance().highCompressor(compressionLevel));
+	}
+
+	private StreamLZ4ParallelCompressor(Eventloop eventloop, ExecutorService executor, int maxBlocksInFlight,
+	                                    LZ4Compressor compressor) {
+		super(eventloop, executor, maxBlocksInFlight);
+		this.compressor = compressor;
+	}
+
+	@Override
+	public void onData(ByteBuf buf) {
+		if (status >= END_OF_STREAM) {
+			buf.recycle();
+			return;
+		}
+		jmxBufs++;
+		jmxBytesInput += buf.remaining();
+		submit(buf);
+	}
+
+	@Override
+	protected ByteBuf process(ByteBuf buf) {
+		try {
+			return compressBlock(compressor, CHECKSUM.get(), buf.array(), buf.position(), buf.remaining());
+		} finally {
+			buf.recycle();
+		}
+	}
+
+	@Override
+	protected void onOutput(ByteBuf buf) {
+		jmxBytesOutput += buf.remaining();
+	}
+
+	@Override
+	protected void recycle(ByteBuf buf) {
+		buf.recycle();
+	}
+
+	@Override
+	protected void recycleInput(ByteBuf buf) {
+		buf.recycle();
+	}
+
+	@Override
+	protected void onProcessedEndOfStream() {
+		send(createEndOfStreamBlock());
+		sendEndOfStream();
+	}
+
+	@Override
+	public long getBytesInput() {
+		return jmxBytesInput;
+	}
+
+	@Override
+	public long getBytesOutput() {
+		return jmxBytesOutput;
+	}
+
+	@Override
+	public int getBufs() {
+		return jmxBufs;
+	}
+
+	@Override
+	public String toString() {
+		return '{' + super.toString() +
+				" inBytes:" + jmxBytesInput +
+				" outBytes:" + jmxBytesOutput +
+				" bufs:" + jmxBufs +
+				" inFlight:" + getBlocksInFlight() +
+				'}';
+	}
+}
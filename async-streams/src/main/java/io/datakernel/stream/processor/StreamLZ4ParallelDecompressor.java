@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.datakernel.stream.processor;
+
+import io.datakernel.bytebuf.ByteBuf;
+import io.datakernel.bytebuf.ByteBufPool;
+import io.datakernel.eventloop.Eventloop;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import net.jpountz.xxhash.StreamingXXHash32;
+import net.jpountz.xxhash.XXHashFactory;
+
+import java.util.concurrent.ExecutorService;
+
+import static com.google.common.base.Preconditions.checkState;
+import static io.datakernel.stream.processor.StreamLZ4Compressor.DEFAULT_SEED;
+import static io.datakernel.stream.processor.StreamLZ4Compressor.HEADER_LENGTH;
+import static io.datakernel.stream.processor.StreamLZ4Decompressor.readBody;
+import static io.datakernel.stream.processor.StreamLZ4Decompressor.readHeader;
+import static java.lang.Math.min;
+
+/**
+ * Decompresses stream of {@link StreamLZ4Compressor} blocks on worker threads of executor.
+ * Stream is split into blocks in eventloop thread, blocks are decompressed and checked in parallel and
+ * decompressed bufs are sent in the order of blocks. Upstream is suspended while number of blocks in flight
+ * reaches limit.
+ */
+public final class StreamLZ4ParallelDecompressor extends AbstractStreamParallelTransformer<ByteBuf, ByteBuf> implements StreamLZ4ParallelDecompressorMBean {
+	public static final int DEFAULT_MAX_BLOCKS_IN_FLIGHT = 16;
+
+	private static final ThreadLocal<StreamingXXHash32> CHECKSUM = new ThreadLocal<StreamingXXHash32>() {
+		@Override
+		protected StreamingXXHash32 initialValue() {
+			return XXHashFactory.fastestInstance().newStreamingHash32(DEFAULT_SEED);
+		}
+	};
+
+	private final LZ4FastDecompressor decompressor;
+
+	private final ByteBuf headerBuf = ByteBuf.allocate(HEADER_LENGTH);
+	private final StreamLZ4Decompressor.Header header = new StreamLZ4Decompressor.Header();
+	private ByteBuf blockBuf;
+
+	private long jmxBytesInput;
+	private long jmxBytesOutput;
+	private int jmxBufsInput;
+	private int jmxBufsOutput;
+
+	public StreamLZ4ParallelDecompressor(Eventloop eventloop, ExecutorService executor, int maxBlocksInFlight) {
+		super(eventloop, executor, maxBlocksInFlight);
+		this.decompressor = LZ4Factory.fastestInstance().fastDecompressor();
+	}
+
+	public StreamLZ4ParallelDecompressor(Eventloop eventloop, ExecutorService executor) {
+		this(eventloop, executor, DEFAULT_MAX_BLOCKS_IN_FLIGHT);
+	}
+
+	private void consumeInputByteBuffer(ByteBuf buf) throws Exception {
+		while (buf.hasRemaining()) {
+			if (blockBuf == null) {
+				// read block header:
+				buf.drainTo(headerBuf, min(headerBuf.remaining(), buf.remaining()));
+				if (headerBuf.hasRemaining())
+					break;
+				readHeader(header, headerBuf.array(), 0);
+				headerBuf.position(0);
+				if (header.finished)
+					break;
+				blockBuf = ByteBufPool.allocate(HEADER_LENGTH + header.compressedLen);
+				blockBuf.put(headerBuf.array(), 0, HEADER_LENGTH);
+			}
+
+			// read block body:
+			buf.drainTo(blockBuf, min(blockBuf.remaining(), buf.remaining()));
+			if (blockBuf.hasRemaining())
+				break;
+			blockBuf.flip();
+			submit(blockBuf);
+			blockBuf = null;
+		}
+	}
+
+	@Override
+	public void onData(ByteBuf buf) {
+		jmxBufsInput++;
+		jmxBytesInput += buf.remaining();
+		try {
+			checkState(!header.finished, "Unexpected byteBuf after LZ4 EOS packet %s : %s", this, buf);
+			if (status <= SUSPENDED) {
+				consumeInputByteBuffer(buf);
+			}
+		} catch (Exception e) {
+			onInternalError(e);
+		} finally {
+			buf.recycle();
+		}
+	}
+
+	@Override
+	protected ByteBuf process(ByteBuf block) throws Exception {
+		try {
+			StreamLZ4Decompressor.Header blockHeader = new StreamLZ4Decompressor.Header();
+			readHeader(blockHeader, block.array(), 0);
+			return readBody(decompressor, CHECKSUM.get(), blockHeader, block.array(), HEADER_LENGTH);
+		} finally {
+			block.recycle();
+		}
+	}
+
+	@Override
+	protected void onOutput(ByteBuf buf) {
+		jmxBufsOutput++;
+		jmxBytesOutput += buf.remaining();
+	}
+
+	@Override
+	protected void recycle(ByteBuf buf) {
+		buf.recycle();
+	}
+
+	@Override
+	protected void recycleInput(ByteBuf buf) {
+		buf.recycle();
+	}
+
+	@Override
+	public void onClosed() {
+		super.onClosed();
+		recycleBlockBuf();
+	}
+
+	@Override
+	protected void onClosedWithError(Exception e) {
+		super.onClosedWithError(e);
+		recycleBlockBuf();
+	}
+
+	private void recycleBlockBuf() {
+		if (blockBuf != null) {
+			blockBuf.recycle();
+			blockBuf = null;
+		}
+	}
+
+	@Override
+	public long getBytesInput() {
+		return jmxBytesInput;
+	}
+
+	@Override
+	public long getBytesOutput() {
+		return jmxBytesOutput;
+	}
+
+	@Override
+	public int getBufsInput() {
+		return jmxBufsInput;
+	}
+
+	@Override
+	public int getBufsOutput() {
+		return jmxBufsOutput;
+	}
+
+	@Override
+	public String toString() {
+		return '{' + super.toString() +
+				" inBytes:" + jmxBytesInput +
+				" outBytes:" + jmxBytesOutput +
+				" inBufs:" + jmxBufsInput +
+				" outBufs:" + jmxBufsOutput +
+				" inFlight:" + getBlocksInFlight() +
+				'}';
+	}
+}
@@ -18,8 +18,11 @@ package io.datakernel.stream.processor;
 
 import io.datakernel.eventloop.Eventloop;
 import io.datakernel.stream.AbstractStreamTransformer_1_1_Stateless;
+import io.datakernel.stream.StreamDataBatchReceiver;
 import io.datakernel.stream.StreamDataReceiver;
 
+import java.util.List;
+
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
@@ -30,7 +33,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
  * @param <I> type of input data
  * @param <O> type of output data
  */
-public final class StreamMap<I, O> extends AbstractStreamTransformer_1_1_Stateless<I, O> implements StreamDataReceiver<I>, StreamMapMBean {
+public final class StreamMap<I, O> extends AbstractStreamTransformer_1_1_Stateless<I, O> implements StreamDataBatchReceiver<I>, StreamMapMBean {
 	private int jmxItems;
 
 	/**
@@ -119,6 +122,13 @@ public final class StreamMap<I, O> extends AbstractStreamTransformer_1_1_Statele
 
 	private final Mapper<I, O> mapper;
 
+	private final StreamDataReceiver<O> bufferedReceiver = new StreamDataReceiver<O>() {
+		@Override
+		public void onData(O item) {
+			sendBuffered(item);
+		}
+	};
+
 	/**
 	 * Creates a new instance of stream map
 	 *
@@ -130,6 +140,10 @@ public final class StreamMap<I, O> extends AbstractStreamTransformer_1_1_Statele
 		this.mapper = checkNotNull(mapper);
 	}
 
+	Mapper<I, O> getMapper() {
+		return mapper;
+	}
+
 	/**
 	 * Always return this object
 	 */
@@ -150,6 +164,20 @@ public final class StreamMap<I, O> extends AbstractStreamTransformer_1_1_Statele
 		mapper.map(item, downstreamDataReceiver);
 	}
 
+	/**
+	 * Changes batch of input data and sends results to the destination in batches
+	 */
+	@SuppressWarnings("AssertWithSideEffects")
+	@Override
+	public void onDataBatch(List<I> items) {
+		assert (jmxItems += items.size()) >= 0;
+		Mapper<I, O> mapper = this.mapper;
+		for (int i = 0, size = items.size(); i < size; i++) {
+			mapper.map(items.get(i), bufferedReceiver);
+		}
+		flushBuffered();
+	}
+
 	@Override
 	public int getItems() {
 		return jmxItems;
@@ -16,6 +16,7 @@
 
 package io.datakernel.stream.processor;
 
+import io.datakernel.bytebuf.ByteBuf;
 import io.datakernel.eventloop.Eventloop;
 import io.datakernel.serializer.BufferSerializer;
 import io.datakernel.stream.StreamConsumer;
@@ -49,6 +50,7 @@ public final class StreamMergeSorterStorageImpl<T> implements StreamMergeSorterS
 	private final Path path;
 	private final String filePattern;
 	private final int blockSize;
+	private final StreamCompressionCodec compressionCodec;
 	private int partition;
 
 	/**
@@ -62,6 +64,21 @@ public final class StreamMergeSorterStorageImpl<T> implements StreamMergeSorterS
 	 */
 	public StreamMergeSorterStorageImpl(Eventloop eventloop, ExecutorService executorService, BufferSerializer<T> serializer,
 	                                    Path path, int blockSize) {
+		this(eventloop, executorService, serializer, path, blockSize, StreamCompressionCodecs.lz4Fast());
+	}
+
+	/**
+	 * Creates a new storage which compresses partitions with given codec
+	 *
+	 * @param eventloop        event loop in which storage will run
+	 * @param executorService  executor service for running tasks in new thread
+	 * @param serializer       for serialization to bytes
+	 * @param path             path in which will store received data
+	 * @param blockSize        default buffer size for serializer
+	 * @param compressionCodec codec for compression of partitions
+	 */
+	public StreamMergeSorterStorageImpl(Eventloop eventloop, ExecutorService executorService, BufferSerializer<T> serializer,
+	                                    Path path, int blockSize, StreamCompressionCodec compressionCodec) {
 		this.eventloop = checkNotNull(eventloop);
 		this.executorService = checkNotNull(executorService);
 		this.serializer = checkNotNull(serializer);
@@ -69,6 +86,7 @@ public final class StreamMergeSorterStorageImpl<T> implements StreamMergeSorterS
 		this.filePattern = path.getFileName().toString();
 		checkArgument(blockSize >= 0, "blockSize must be positive value,got %s", blockSize);
 		this.blockSize = blockSize;
+		this.compressionCodec = checkNotNull(compressionCodec);
 	}
 
 	private Path partitionPath(int i) {
@@ -84,7 +102,7 @@ public final class StreamMergeSorterStorageImpl<T> implements StreamMergeSorterS
 		assert partition >= 0;
 		StreamBinarySerializer<T> streamSerializer = new StreamBinarySerializer<>(eventloop, serializer, blockSize, blockSize, 1, false);
 		StreamByteChunker streamByteChunkerBefore = new StreamByteChunker(eventloop, blockSize / 2, blockSize);
-		StreamLZ4Compressor streamCompressor = StreamLZ4Compressor.fastCompressor(eventloop);
+		StreamTransformer<ByteBuf, ByteBuf> streamCompressor = compressionCodec.createCompressor(eventloop);
 		StreamByteChunker streamByteChunkerAfter = new StreamByteChunker(eventloop, blockSize / 2, blockSize);
 		StreamFileWriter streamWriter = StreamFileWriter.createFile(eventloop, executorService, partitionPath(partition++));
 
@@ -106,7 +124,7 @@ public final class StreamMergeSorterStorageImpl<T> implements StreamMergeSorterS
 		assert partition >= 0;
 
 		StreamFileReader streamReader = StreamFileReader.readFileFrom(eventloop, executorService, blockSize, partitionPath(partition), 0L);
-		StreamLZ4Decompressor streamDecompressor = new StreamLZ4Decompressor(eventloop);
+		StreamDecompressor streamDecompressor = compressionCodec.createDecompressor(eventloop);
 		StreamBinaryDeserializer<T> streamDeserializer = new StreamBinaryDeserializer<>(eventloop, serializer, blockSize);
 		streamReader.streamTo(streamDecompressor);
 		streamDecompressor.streamTo(streamDeserializer);
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.datakernel.stream.processor;
+
+import com.google.common.base.Function;
+import io.datakernel.eventloop.Eventloop;
+import io.datakernel.stream.StreamProducer;
+
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Static utility methods for processing stream in several eventloops
+ */
+public final class StreamParallelizer {
+	private StreamParallelizer() {
+	}
+
+	/**
+	 * Creates transformer which runs in given worker eventloop. It is called in the thread of that eventloop.
+	 *
+	 * @param <I> type of input data
+	 * @param <O> type of output data
+	 */
+	public interface TransformerFactory<I, O> {
+		StreamTransformer<I, O> create(Eventloop workerEventloop);
+	}
+
+	/**
+	 * Splits stream with {@link StreamSharder} to worker eventloops, processes each part with its own transformer
+	 * in its worker eventloop and unions results with {@link StreamUnion}. Parts are moved between eventloops
+	 * with {@link StreamEventloopBridge}, so backpressure of each worker is propagated to the sharder and
+	 * the slowest worker limits the whole stream. Order of items is kept only within each part.
+	 * Must be called from the thread of the eventloop, worker eventloops must be running or be run later.
+	 *
+	 * @param eventloop        eventloop of input and output streams
+	 * @param input            input stream
+	 * @param keyFunction      function which returns key for sharder
+	 * @param sharder          sharder which selects worker by key, must return values in [0, workerEventloops.size())
+	 * @param workerEventloops eventloops for transformers
+	 * @param factory          factory of transformers
+	 * @param capacity         capacity of each bridge queue, power of 2
+	 * @return union of streams of all transformers
+	 */
+	public static <K, I, O> StreamProducer<O> parallelize(Eventloop eventloop, StreamProducer<I> input,
+	                                                      Function<I, K> keyFunction, Sharder<K> sharder,
+	                                                      List<? extends Eventloop> workerEventloops,
+	                                                      final TransformerFactory<I, O> factory, int capacity) {
+		checkArgument(!workerEventloops.isEmpty(), "No worker eventloops");
+		StreamSharder<K, I> streamSharder = new StreamSharder<>(eventloop, sharder, keyFunction);
+		StreamUnion<O> streamUnion = new StreamUnion<>(eventloop);
+		input.streamTo(streamSharder);
+
+		for (final Eventloop workerEventloop : workerEventloops) {
+			final StreamEventloopBridge<I> forward = new StreamEventloopBridge<>(eventloop, workerEventloop, capacity);
+			final StreamEventloopBridge<O> backward = new StreamEventloopBridge<>(workerEventloop, eventloop, capacity);
+			streamSharder.newOutput().streamTo(forward.getInput());
+			backward.getOutput().streamTo(streamUnion.newInput());
+			workerEventloop.postConcurrently(new Runnable() {
+				@Override
+				public void run() {
+					StreamTransformer<I, O> transformer = factory.create(workerEventloop);
+					forward.getOutput().streamTo(transformer);
+					transformer.streamTo(backward.getInput());
+				}
+			});
+		}
+		return streamUnion;
+	}
+
+	/**
+	 * Same as {@link #parallelize(Eventloop, StreamProducer, Function, Sharder, List, TransformerFactory, int)},
+	 * with {@link StreamEventloopBridge#DEFAULT_CAPACITY}
+	 */
+	public static <K, I, O> StreamProducer<O> parallelize(Eventloop eventloop, StreamProducer<I> input,
+	                                                      Function<I, K> keyFunction, Sharder<K> sharder,
+	                                                      List<? extends Eventloop> workerEventloops,
+	                                                      TransformerFactory<I, O> factory) {
+		return parallelize(eventloop, input, keyFunction, sharder, workerEventloops, factory,
+				StreamEventloopBridge.DEFAULT_CAPACITY);
+	}
+}
@@ -20,12 +20,14 @@ import com.google.common.base.Function;
 import com.google.common.base.Functions;
 import com.google.common.base.Predicate;
 import com.google.common.collect.Ordering;
+import io.datakernel.codegen.utils.DefiningClassLoader;
 import io.datakernel.eventloop.Eventloop;
 import io.datakernel.eventloop.NioEventloop;
 import io.datakernel.stream.*;
 import io.datakernel.stream.processor.*;
 import org.openjdk.jmh.annotations.*;
 
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import static io.datakernel.serializer.asm.BufferSerializers.intSerializer;
@@ -42,14 +44,19 @@ public class StreamBenchmark {
 	@Param({"1", "10", "10000000"})
 	private int suspendInterval;
 
+	@Param({"false", "true"})
+	private boolean batch;
+
 	private static final int sequenceLength = 1_000_000;
 
+	private final DefiningClassLoader classLoader = new DefiningClassLoader();
+
 	@Benchmark
 	public void baseline() {
 		NioEventloop eventloop = new NioEventloop();
-		SequenceGenerator generator = new SequenceGenerator(eventloop, sequenceLength);
+		SequenceGenerator generator = new SequenceGenerator(eventloop, sequenceLength, batch);
 
-		SuspendConsumer consumer = new SuspendConsumer(eventloop, suspendInterval);
+		SuspendConsumer consumer = newConsumer(eventloop);
 		generator.streamTo(consumer);
 
 		eventloop.run();
@@ -58,7 +65,7 @@ public class StreamBenchmark {
 	@Benchmark
 	public void simpleFilter() {
 		NioEventloop eventloop = new NioEventloop();
-		SequenceGenerator generator = new SequenceGenerator(eventloop, sequenceLength);
+		SequenceGenerator generator = new SequenceGenerator(eventloop, sequenceLength, batch);
 
 		Predicate<Integer> predicate = new Predicate<Integer>() {
 			@Override
@@ -68,7 +75,7 @@ public class StreamBenchmark {
 		};
 		StreamFilter<Integer> filter = new StreamFilter<>(eventloop, predicate);
 
-		SuspendConsumer consumer = new SuspendConsumer(eventloop, suspendInterval);
+		SuspendConsumer consumer = newConsumer(eventloop);
 		generator.streamTo(filter);
 		filter.streamTo(consumer);
 
@@ -78,7 +85,7 @@ public class StreamBenchmark {
 	@Benchmark
 	public void simpleFilterSequence() {
 		NioEventloop eventloop = new NioEventloop();
-		SequenceGenerator generator = new SequenceGenerator(eventloop, sequenceLength);
+		SequenceGenerator generator = new SequenceGenerator(eventloop, sequenceLength, batch);
 
 		Predicate<Integer> predicate = new Predicate<Integer>() {
 			@Override
@@ -97,7 +104,7 @@ public class StreamBenchmark {
 		StreamFilter<Integer> filter9 = new StreamFilter<>(eventloop, predicate);
 		StreamFilter<Integer> filter10 = new StreamFilter<>(eventloop, predicate);
 
-		SuspendConsumer consumer = new SuspendConsumer(eventloop, suspendInterval);
+		SuspendConsumer consumer = newConsumer(eventloop);
 
 		generator.streamTo(filter1);
 		filter1.streamTo(filter2);
@@ -114,10 +121,35 @@ public class StreamBenchmark {
 		eventloop.run();
 	}
 
+	@Benchmark
+	public void fusedFilterSequence() {
+		NioEventloop eventloop = new NioEventloop();
+		SequenceGenerator generator = new SequenceGenerator(eventloop, sequenceLength, batch);
+
+		Predicate<Integer> predicate = new Predicate<Integer>() {
+			@Override
+			public boolean apply(Integer input) {
+				return true;
+			}
+		};
+		StreamFusion.Builder<Integer, Integer> builder = StreamFusion.builder(eventloop, classLoader);
+		for (int i = 0; i < 10; i++) {
+			builder.filter(predicate);
+		}
+		StreamFusion<Integer, Integer> fusion = builder.build();
+
+		SuspendConsumer consumer = newConsumer(eventloop);
+
+		generator.streamTo(fusion);
+		fusion.streamTo(consumer);
+
+		eventloop.run();
+	}
+
 	@Benchmark
 	public void simpleOddFilter() {
 		NioEventloop eventloop = new NioEventloop();
-		SequenceGenerator generator = new SequenceGenerator(eventloop, sequenceLength);
+		SequenceGenerator generator = new SequenceGenerator(eventloop, sequenceLength, batch);
 
 		Predicate<Integer> predicate = new Predicate<Integer>() {
 			@Override
@@ -127,7 +159,7 @@ public class StreamBenchmark {
 		};
 		StreamFilter<Integer> filter = new StreamFilter<>(eventloop, predicate);
 
-		SuspendConsumer consumer = new SuspendConsumer(eventloop, suspendInterval);
+		SuspendConsumer consumer = newConsumer(eventloop);
 		generator.streamTo(filter);
 		filter.streamTo(consumer);
 
@@ -137,11 +169,11 @@ public class StreamBenchmark {
 	@Benchmark
 	public void testForwarder() {
 		NioEventloop eventloop = new NioEventloop();
-		SequenceGenerator generator = new SequenceGenerator(eventloop, sequenceLength);
+		SequenceGenerator generator = new SequenceGenerator(eventloop, sequenceLength, batch);
 
 		StreamForwarder<Integer> forwarder = new StreamForwarder<>(eventloop);
 
-		SuspendConsumer consumer = new SuspendConsumer(eventloop, suspendInterval);
+		SuspendConsumer consumer = newConsumer(eventloop);
 		generator.streamTo(forwarder);
 		forwarder.streamTo(consumer);
 
@@ -151,7 +183,7 @@ public class StreamBenchmark {
 	@Benchmark
 	public void simpleTransformer() {
 		NioEventloop eventloop = new NioEventloop();
-		SequenceGenerator generator = new SequenceGenerator(eventloop, sequenceLength);
+		SequenceGenerator generator = new SequenceGenerator(eventloop, sequenceLength, batch);
 
 		StreamFunction<Integer, Integer> transformer = new StreamFunction<>(eventloop, new Function<Integer, Integer>() {
 			@Override
@@ -160,7 +192,7 @@ public class StreamBenchmark {
 			}
 		});
 
-		SuspendConsumer consumer = new SuspendConsumer(eventloop, suspendInterval);
+		SuspendConsumer consumer = newConsumer(eventloop);
 		generator.streamTo(transformer);
 		transformer.streamTo(consumer);
 
@@ -170,7 +202,7 @@ public class StreamBenchmark {
 	@Benchmark
 	public void transformerAndFilter() {
 		NioEventloop eventloop = new NioEventloop();
-		SequenceGenerator generator = new SequenceGenerator(eventloop, sequenceLength);
+		SequenceGenerator generator = new SequenceGenerator(eventloop, sequenceLength, batch);
 
 		Predicate<Integer> predicate = new Predicate<Integer>() {
 			@Override
@@ -187,7 +219,7 @@ public class StreamBenchmark {
 			}
 		});
 
-		SuspendConsumer consumer = new SuspendConsumer(eventloop, suspendInterval);
+		SuspendConsumer consumer = newConsumer(eventloop);
 		generator.streamTo(filter);
 		filter.streamTo(transformer);
 		transformer.streamTo(consumer);
@@ -195,15 +227,44 @@ public class StreamBenchmark {
 		eventloop.run();
 	}
 
+	@Benchmark
+	public void fusedTransformerAndFilter() {
+		NioEventloop eventloop = new NioEventloop();
+		SequenceGenerator generator = new SequenceGenerator(eventloop, sequenceLength, batch);
+
+		Predicate<Integer> predicate = new Predicate<Integer>() {
+			@Override
+			public boolean apply(Integer input) {
+				return true;
+			}
+		};
+		Function<Integer, Integer> function = new Function<Integer, Integer>() {
+			@Override
+			public Integer apply(Integer input) {
+				return input;
+			}
+		};
+		StreamFusion<Integer, Integer> fusion = StreamFusion.<Integer>builder(eventloop, classLoader)
+				.filter(predicate)
+				.function(function)
+				.build();
+
+		SuspendConsumer consumer = newConsumer(eventloop);
+		generator.streamTo(fusion);
+		fusion.streamTo(consumer);
+
+		eventloop.run();
+	}
+
 	@Benchmark
 	public void streamSorter() {
 		NioEventloop eventloop = new NioEventloop();
-		SequenceGenerator generator = new SequenceGenerator(eventloop, sequenceLength);
+		SequenceGenerator generator = new SequenceGenerator(eventloop, sequenceLength, batch);
 
 		StreamMergeSorterStorage<Integer> storage = new StreamMergeSorterStorageStub<>(eventloop);
 		StreamSorter<Integer, Integer> sorter = new StreamSorter<>(eventloop,
 				storage, Functions.<Integer>identity(), Ordering.<Integer>natural(), true, 1000);
-		SuspendConsumer consumer = new SuspendConsumer(eventloop, suspendInterval);
+		SuspendConsumer consumer = newConsumer(eventloop);
 
 		generator.streamTo(sorter);
 		sorter.getSortedStream().streamTo(consumer);
@@ -214,11 +275,11 @@ public class StreamBenchmark {
 	@Benchmark
 	public void streamSplitter() {
 		NioEventloop eventloop = new NioEventloop();
-		SequenceGenerator generator = new SequenceGenerator(eventloop, sequenceLength);
+		SequenceGenerator generator = new SequenceGenerator(eventloop, sequenceLength, batch);
 		StreamSplitter<Integer> streamConcat = new StreamSplitter<>(eventloop);
 
-		SuspendConsumer consumer1 = new SuspendConsumer(eventloop, suspendInterval);
-		SuspendConsumer consumer2 = new SuspendConsumer(eventloop, suspendInterval);
+		SuspendConsumer consumer1 = newConsumer(eventloop);
+		SuspendConsumer consumer2 = newConsumer(eventloop);
 
 		generator.streamTo(streamConcat);
 		streamConcat.newOutput().streamTo(consumer1);
@@ -229,11 +290,11 @@ public class StreamBenchmark {
 	@Benchmark
 	public void streamSplitUnion() {
 		NioEventloop eventloop = new NioEventloop();
-		SequenceGenerator generator = new SequenceGenerator(eventloop, sequenceLength);
+		SequenceGenerator generator = new SequenceGenerator(eventloop, sequenceLength, batch);
 		StreamSplitter<Integer> streamConcat = new StreamSplitter<>(eventloop);
 
 		StreamUnion<Integer> streamUnion = new StreamUnion<>(eventloop);
-		SuspendConsumer consumer = new SuspendConsumer(eventloop, suspendInterval);
+		SuspendConsumer consumer = newConsumer(eventloop);
 
 		generator.streamTo(streamConcat);
 		streamConcat.newOutput().streamTo(streamUnion.newInput());
@@ -247,7 +308,7 @@ public class StreamBenchmark {
 	public void streamMap() {
 		NioEventloop eventloop = new NioEventloop();
 
-		SequenceGenerator generator = new SequenceGenerator(eventloop, sequenceLength);
+		SequenceGenerator generator = new SequenceGenerator(eventloop, sequenceLength, batch);
 
 		StreamMap.MapperProjection<Integer, KeyValueWrapper> functionToKeyValue = new StreamMap.MapperProjection<Integer, KeyValueWrapper>() {
 			@Override
@@ -266,7 +327,7 @@ public class StreamBenchmark {
 		StreamMap<Integer, KeyValueWrapper> toKeyValueMap = new StreamMap<>(eventloop, functionToKeyValue);
 		StreamMap<KeyValueWrapper, Integer> fromKeyValueMap = new StreamMap<>(eventloop, functionFromKeyValue);
 
-		SuspendConsumer consumer = new SuspendConsumer(eventloop, suspendInterval);
+		SuspendConsumer consumer = newConsumer(eventloop);
 
 		generator.streamTo(toKeyValueMap);
 		toKeyValueMap.streamTo(fromKeyValueMap);
@@ -278,8 +339,8 @@ public class StreamBenchmark {
 	@Benchmark
 	public void reducers() {
 		NioEventloop eventloop = new NioEventloop();
-		SequenceGenerator generator = new SequenceGenerator(eventloop, sequenceLength);
-		SuspendConsumer consumer = new SuspendConsumer(eventloop, suspendInterval);
+		SequenceGenerator generator = new SequenceGenerator(eventloop, sequenceLength, batch);
+		SuspendConsumer consumer = newConsumer(eventloop);
 
 		StreamMap.MapperProjection<Integer, KeyValueWrapper> functionToKeyValue = new StreamMap.MapperProjection<Integer, KeyValueWrapper>() {
 			@Override
@@ -334,11 +395,12 @@ public class StreamBenchmark {
 	@Benchmark
 	public void serializers() {
 		NioEventloop eventloop = new NioEventloop();
-		StreamBenchmark.SequenceGenerator generator = new StreamBenchmark.SequenceGenerator(eventloop, sequenceLength);
+		SequenceGenerator generator = new SequenceGenerator(eventloop, sequenceLength, batch);
 
 		StreamBinarySerializer<Integer> serializerStream = new StreamBinarySerializer<>(eventloop, intSerializer(), 1024, StreamBinarySerializer.MAX_SIZE, 0, false);
 		StreamBinaryDeserializer<Integer> deserializerStream = new StreamBinaryDeserializer<>(eventloop, intSerializer(), 12);
-		SuspendConsumer consumer = new SuspendConsumer(eventloop, suspendInterval);
+		deserializerStream.setBatchDelivery(batch);
+		SuspendConsumer consumer = newConsumer(eventloop);
 
 		generator.streamTo(serializerStream);
 		serializerStream.streamTo(deserializerStream);
@@ -347,6 +409,10 @@ public class StreamBenchmark {
 		eventloop.run();
 	}
 
+	private SuspendConsumer newConsumer(Eventloop eventloop) {
+		return batch ? new BatchSuspendConsumer(eventloop, suspendInterval) : new SuspendConsumer(eventloop, suspendInterval);
+	}
+
 	public static class KeyValueWrapper {
 		final int key;
 		int value;
@@ -381,13 +447,18 @@ public class StreamBenchmark {
 		private final int maxValue;
 		private int currentValue;
 
-		protected SequenceGenerator(Eventloop eventloop, int maxValue) {
+		protected SequenceGenerator(Eventloop eventloop, int maxValue, boolean batch) {
 			super(eventloop);
 			this.maxValue = maxValue;
+			setBatchDelivery(batch);
 		}
 
 		@Override
 		protected void doProduce() {
+			if (isBatchDelivery()) {
+				doProduceBatches();
+				return;
+			}
 
 			while (currentValue < maxValue) {
 				if (status != READY) {
@@ -401,6 +472,20 @@ public class StreamBenchmark {
 			sendEndOfStream();
 		}
 
+		private void doProduceBatches() {
+			while (currentValue < maxValue) {
+				if (status != READY) {
+					flushBuffered();
+					return;
+				}
+
+				sendBuffered(currentValue);
+				currentValue++;
+			}
+
+			sendEndOfStream();
+		}
+
 		@Override
 		protected void onProducerStarted() {
 			produce();
@@ -414,8 +499,8 @@ public class StreamBenchmark {
 
 	public static class SuspendConsumer extends AbstractStreamConsumer<Integer> implements StreamDataReceiver<Integer> {
 
-		private final int suspendPeriod;
-		private int receivedValues = 0;
+		protected final int suspendPeriod;
+		protected int receivedValues = 0;
 
 		public SuspendConsumer(Eventloop eventloop, int suspendPeriod) {
 			super(eventloop);
@@ -449,4 +534,25 @@ public class StreamBenchmark {
 		}
 	}
 
+	public static class BatchSuspendConsumer extends SuspendConsumer implements StreamDataBatchReceiver<Integer> {
+		public BatchSuspendConsumer(Eventloop eventloop, int suspendPeriod) {
+			super(eventloop, suspendPeriod);
+		}
+
+		@Override
+		public void onDataBatch(List<Integer> items) {
+			if (receivedValues >= suspendPeriod) {
+				receivedValues = 0;
+				suspendUpstream();
+				this.eventloop.post(new Runnable() {
+					@Override
+					public void run() {
+						resumeUpstream();
+					}
+				});
+			}
+			receivedValues += items.size();
+		}
+	}
+
 }
@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.datakernel.stream.processor;
+
+import io.datakernel.bytebuf.ByteBuf;
+import io.datakernel.bytebuf.ByteBufPool;
+import io.datakernel.bytebuf.ByteBufQueue;
+import io.datakernel.eventloop.NioEventloop;
+import io.datakernel.stream.StreamConsumers;
+import io.datakernel.stream.StreamProducer;
+import io.datakernel.stream.StreamProducers;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static io.datakernel.bytebuf.ByteBufPool.getPoolItemsString;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.*;
+
+public class StreamCompressionCodecsTest {
+	private static List<byte[]> createMessages(int count, long seed) {
+		Random random = new Random(seed);
+		List<byte[]> messages = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			String message = "{\"type\":\"request\",\"method\":\"getUserProfile\",\"id\":" + random.nextInt(1000000) +
+					",\"timestamp\":" + (1400000000000L + random.nextInt()) + ",\"locale\":\"en_US\",\"fields\":[\"name\",\"email\"]}";
+			messages.add(message.getBytes(UTF_8));
+		}
+		return messages;
+	}
+
+	private static List<ByteBuf> toByteBufs(List<byte[]> messages) {
+		List<ByteBuf> bufs = new ArrayList<>();
+		for (byte[] message : messages) {
+			bufs.add(ByteBuf.wrap(message));
+		}
+		return bufs;
+	}
+
+	private static byte[] byteBufsToByteArray(List<ByteBuf> byteBufs) {
+		ByteBufQueue queue = new ByteBufQueue();
+		for (ByteBuf buf : byteBufs) {
+			queue.add(buf.slice(0, buf.remaining()));
+		}
+		byte[] bytes = new byte[queue.remainingBytes()];
+		queue.drainTo(bytes, 0, bytes.length);
+		return bytes;
+	}
+
+	@Before
+	public void before() {
+		ByteBufPool.clear();
+		ByteBufPool.setSizes(0, Integer.MAX_VALUE);
+	}
+
+	private static long doTest(StreamCompressionCodec compressionCodec, StreamCompressionCodec decompressionCodec,
+	                           List<byte[]> messages) {
+		NioEventloop eventloop = new NioEventloop();
+
+		List<ByteBuf> buffers = toByteBufs(messages);
+		byte[] expected = byteBufsToByteArray(buffers);
+
+		StreamProducer<ByteBuf> source = StreamProducers.ofIterable(eventloop, buffers);
+		StreamCompressor compressor = compressionCodec.createCompressor(eventloop);
+		StreamByteChunker chunker = new StreamByteChunker(eventloop, 64, 128);
+		StreamDecompressor decompressor = decompressionCodec.createDecompressor(eventloop);
+		StreamConsumers.ToList<ByteBuf> consumer = StreamConsumers.toListRandomlySuspending(eventloop);
+
+		source.streamTo(compressor);
+		compressor.streamTo(chunker);
+		chunker.streamTo(decompressor);
+		decompressor.streamTo(consumer);
+
+		eventloop.run();
+
+		byte[] actual = byteBufsToByteArray(consumer.getList());
+		for (ByteBuf buf : consumer.getList()) {
+			buf.recycle();
+		}
+
+		if (decompressor.getError() == null) {
+			assertArrayEquals(expected, actual);
+			assertEquals(StreamProducer.CLOSED, source.getStatus());
+		}
+		assertEquals(getPoolItemsString(), ByteBufPool.getCreatedItems(), ByteBufPool.getPoolItems());
+		return decompressor.getInputStreamPosition();
+	}
+
+	@Test
+	public void testLz4() {
+		doTest(StreamCompressionCodecs.lz4Fast(), StreamCompressionCodecs.lz4Fast(), createMessages(100, 1));
+		doTest(StreamCompressionCodecs.lz4High(10), StreamCompressionCodecs.lz4Fast(), createMessages(100, 1));
+	}
+
+	@Test
+	public void testDeflate() {
+		List<byte[]> messages = createMessages(100, 1);
+		long lz4Size = doTest(StreamCompressionCodecs.lz4Fast(), StreamCompressionCodecs.lz4Fast(), messages);
+		long deflateSize = doTest(StreamCompressionCodecs.deflate(9), StreamCompressionCodecs.deflate(9), messages);
+		assertTrue(deflateSize < lz4Size);
+	}
+
+	@Test
+	public void testDeflateWithDictionary() {
+		byte[] dictionary = StreamCompressionCodecs.trainDictionary(createMessages(1000, 2), 1024);
+		assertTrue(dictionary.length > 0);
+
+		List<byte[]> messages = createMessages(100, 1);
+		long deflateSize = doTest(StreamCompressionCodecs.deflate(6), StreamCompressionCodecs.deflate(6), messages);
+		StreamCompressionCodec codec = StreamCompressionCodecs.deflate(6, dictionary);
+		long dictionarySize = doTest(codec, codec, messages);
+		assertTrue(dictionarySize * 2 < deflateSize);
+	}
+
+	@Test
+	public void testDictionaryMismatch() {
+		byte[] dictionary = StreamCompressionCodecs.trainDictionary(createMessages(1000, 2), 1024);
+		NioEventloop eventloop = new NioEventloop();
+
+		StreamProducer<ByteBuf> source = StreamProducers.ofIterable(eventloop, toByteBufs(createMessages(10, 1)));
+		StreamCompressor compressor = StreamCompressionCodecs.deflate(6, dictionary).createCompressor(eventloop);
+		StreamDecompressor decompressor = StreamCompressionCodecs.deflate(6).createDecompressor(eventloop);
+		StreamConsumers.ToList<ByteBuf> consumer = StreamConsumers.toList(eventloop);
+
+		source.streamTo(compressor);
+		compressor.streamTo(decompressor);
+		decompressor.streamTo(consumer);
+
+		eventloop.run();
+
+		assertNotNull(decompressor.getError());
+		assertEquals("Block is compressed with another dictionary", decompressor.getError().getMessage());
+		assertEquals(getPoolItemsString(), ByteBufPool.getCreatedItems(), ByteBufPool.getPoolItems());
+	}
+
+	private static byte[] compress(StreamCompressionCodec codec, List<byte[]> messages) {
+		NioEventloop eventloop = new NioEventloop();
+
+		StreamProducer<ByteBuf> source = StreamProducers.ofIterable(eventloop, toByteBufs(messages));
+		StreamCompressor compressor = codec.createCompressor(eventloop);
+		StreamConsumers.ToList<ByteBuf> consumer = StreamConsumers.toList(eventloop);
+
+		source.streamTo(compressor);
+		compressor.streamTo(consumer);
+
+		eventloop.run();
+
+		byte[] bytes = byteBufsToByteArray(consumer.getList());
+		for (ByteBuf buf : consumer.getList()) {
+			buf.recycle();
+		}
+		return bytes;
+	}
+
+	private static void doTestTruncated(StreamCompressionCodec codec) {
+		byte[] compressed = compress(codec, createMessages(100, 1));
+		for (int length : new int[]{0, 1, compressed.length / 2, compressed.length - 1}) {
+			NioEventloop eventloop = new NioEventloop();
+
+			StreamProducer<ByteBuf> source = StreamProducers.ofValue(eventloop, ByteBuf.wrap(compressed, 0, length));
+			StreamDecompressor decompressor = codec.createDecompressor(eventloop);
+			List<ByteBuf> decompressed = new ArrayList<>();
+			StreamConsumers.ToList<ByteBuf> consumer = StreamConsumers.toList(eventloop, decompressed);
+
+			source.streamTo(decompressor);
+			decompressor.streamTo(consumer);
+
+			eventloop.run();
+
+			for (ByteBuf buf : decompressed) {
+				buf.recycle();
+			}
+			assertNotNull(decompressor.getError());
+			assertEquals("Stream is corrupted", decompressor.getError().getMessage());
+			assertEquals(getPoolItemsString(), ByteBufPool.getCreatedItems(), ByteBufPool.getPoolItems());
+		}
+	}
+
+	@Test
+	public void testLz4Truncated() {
+		doTestTruncated(StreamCompressionCodecs.lz4Fast());
+	}
+
+	@Test
+	public void testDeflateTruncated() {
+		doTestTruncated(StreamCompressionCodecs.deflate(6));
+	}
+}
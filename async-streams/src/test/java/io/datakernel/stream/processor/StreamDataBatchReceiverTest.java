@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.datakernel.stream.processor;
+
+import com.google.common.base.Function;
+import com.google.common.base.Predicate;
+import io.datakernel.bytebuf.ByteBufPool;
+import io.datakernel.eventloop.Eventloop;
+import io.datakernel.eventloop.NioEventloop;
+import io.datakernel.stream.AbstractStreamProducer;
+import io.datakernel.stream.StreamConsumers;
+import io.datakernel.stream.StreamDataBatchReceiver;
+import io.datakernel.stream.StreamProducer;
+import io.datakernel.stream.StreamProducers;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.datakernel.bytebuf.ByteBufPool.getPoolItemsString;
+import static io.datakernel.serializer.asm.BufferSerializers.intSerializer;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class StreamDataBatchReceiverTest {
+	private static final int ITEMS = 1000;
+
+	@Before
+	public void before() {
+		ByteBufPool.clear();
+		ByteBufPool.setSizes(0, Integer.MAX_VALUE);
+	}
+
+	private static List<Integer> sequence(int size) {
+		List<Integer> list = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			list.add(i);
+		}
+		return list;
+	}
+
+	private static final Predicate<Integer> EVEN = new Predicate<Integer>() {
+		@Override
+		public boolean apply(Integer input) {
+			return input % 2 == 0;
+		}
+	};
+
+	private static final Function<Integer, Integer> INCREMENT = new Function<Integer, Integer>() {
+		@Override
+		public Integer apply(Integer input) {
+			return input + 1;
+		}
+	};
+
+	private static class BatchToList<T> extends StreamConsumers.ToList<T> implements StreamDataBatchReceiver<T> {
+		private final List<Integer> batchSizes = new ArrayList<>();
+
+		public BatchToList(Eventloop eventloop) {
+			super(eventloop);
+		}
+
+		@Override
+		public void onDataBatch(List<T> items) {
+			batchSizes.add(items.size());
+			for (T item : items) {
+				onData(item);
+			}
+		}
+	}
+
+	@Test
+	public void testBatchConsumer() {
+		NioEventloop eventloop = new NioEventloop();
+
+		StreamProducers.OfIterator<Integer> source = new StreamProducers.OfIterator<>(eventloop, sequence(ITEMS).iterator());
+		source.setBatchDelivery(true);
+		StreamFunction<Integer, Integer> function = new StreamFunction<>(eventloop, INCREMENT);
+		StreamFilter<Integer> filter = new StreamFilter<>(eventloop, EVEN);
+		BatchToList<Integer> consumer = new BatchToList<>(eventloop);
+
+		source.streamTo(function);
+		function.streamTo(filter);
+		filter.streamTo(consumer);
+
+		eventloop.run();
+
+		List<Integer> expected = new ArrayList<>();
+		for (int i = 2; i <= ITEMS; i += 2) {
+			expected.add(i);
+		}
+		assertEquals(expected, consumer.getList());
+		assertTrue(consumer.batchSizes.size() < expected.size());
+		int received = 0;
+		for (int batchSize : consumer.batchSizes) {
+			assertTrue(batchSize > 0 && batchSize <= AbstractStreamProducer.MAX_BATCH_SIZE);
+			received += batchSize;
+		}
+		assertEquals(expected.size(), received);
+		assertEquals(StreamProducer.CLOSED, source.getStatus());
+	}
+
+	@Test
+	public void testStreamMap() {
+		NioEventloop eventloop = new NioEventloop();
+
+		StreamProducers.OfIterator<Integer> source = new StreamProducers.OfIterator<>(eventloop, sequence(ITEMS).iterator());
+		source.setBatchDelivery(true);
+		StreamMap<Integer, Integer> map = new StreamMap<>(eventloop, new StreamMap.MapperProjection<Integer, Integer>() {
+			@Override
+			protected Integer apply(Integer input) {
+				return input * 2;
+			}
+		});
+		BatchToList<Integer> consumer = new BatchToList<>(eventloop);
+
+		source.streamTo(map);
+		map.streamTo(consumer);
+
+		eventloop.run();
+
+		List<Integer> expected = new ArrayList<>();
+		for (int i = 0; i < ITEMS; i++) {
+			expected.add(i * 2);
+		}
+		assertEquals(expected, consumer.getList());
+		assertTrue(consumer.batchSizes.size() < expected.size());
+		assertEquals(StreamProducer.CLOSED, source.getStatus());
+	}
+
+	@Test
+	public void testBatchDeliveryDisabledByDefault() {
+		NioEventloop eventloop = new NioEventloop();
+
+		StreamProducer<Integer> source = StreamProducers.ofIterable(eventloop, sequence(ITEMS));
+		StreamFunction<Integer, Integer> function = new StreamFunction<>(eventloop, INCREMENT);
+		BatchToList<Integer> consumer = new BatchToList<>(eventloop);
+
+		source.streamTo(function);
+		function.streamTo(consumer);
+
+		eventloop.run();
+
+		List<Integer> expected = new ArrayList<>();
+		for (int i = 1; i <= ITEMS; i++) {
+			expected.add(i);
+		}
+		assertEquals(expected, consumer.getList());
+		assertTrue(consumer.batchSizes.isEmpty());
+	}
+
+	@Test
+	public void testLegacyConsumer() {
+		NioEventloop eventloop = new NioEventloop();
+
+		StreamProducers.OfIterator<Integer> source = new StreamProducers.OfIterator<>(eventloop, sequence(ITEMS).iterator());
+		source.setBatchDelivery(true);
+		StreamFunction<Integer, Integer> function = new StreamFunction<>(eventloop, INCREMENT);
+		StreamFilter<Integer> filter = new StreamFilter<>(eventloop, EVEN);
+		StreamConsumers.ToList<Integer> consumer = StreamConsumers.toListRandomlySuspending(eventloop);
+
+		source.streamTo(function);
+		function.streamTo(filter);
+		filter.streamTo(consumer);
+
+		eventloop.run();
+
+		List<Integer> expected = new ArrayList<>();
+		for (int i = 2; i <= ITEMS; i += 2) {
+			expected.add(i);
+		}
+		assertEquals(expected, consumer.getList());
+		assertEquals(StreamProducer.CLOSED, source.getStatus());
+	}
+
+	@Test
+	public void testSerializers() {
+		NioEventloop eventloop = new NioEventloop();
+
+		StreamProducer<Integer> source = StreamProducers.ofIterable(eventloop, sequence(ITEMS));
+		StreamBinarySerializer<Integer> serializer = new StreamBinarySerializer<>(eventloop, intSerializer(), 64, StreamBinarySerializer.MAX_SIZE, 0, false);
+		StreamBinaryDeserializer<Integer> deserializer = new StreamBinaryDeserializer<>(eventloop, intSerializer(), 12);
+		deserializer.setBatchDelivery(true);
+		BatchToList<Integer> consumer = new BatchToList<>(eventloop);
+
+		source.streamTo(serializer);
+		serializer.streamTo(deserializer);
+		deserializer.streamTo(consumer);
+
+		eventloop.run();
+
+		assertEquals(sequence(ITEMS), consumer.getList());
+		assertTrue(consumer.batchSizes.size() < ITEMS);
+		assertEquals(getPoolItemsString(), ByteBufPool.getCreatedItems(), ByteBufPool.getPoolItems());
+	}
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.datakernel.stream.processor;
+
+import com.google.common.base.Function;
+import com.google.common.base.Functions;
+import io.datakernel.eventloop.Eventloop;
+import io.datakernel.eventloop.NioEventloop;
+import io.datakernel.stream.StreamConsumers;
+import io.datakernel.stream.StreamProducer;
+import io.datakernel.stream.StreamProducers;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class StreamEventloopBridgeTest {
+	private static List<Integer> sequence(int size) {
+		List<Integer> list = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			list.add(i);
+		}
+		return list;
+	}
+
+	private static Thread start(NioEventloop eventloop) {
+		Thread thread = new Thread(eventloop);
+		thread.start();
+		return thread;
+	}
+
+	@Test
+	public void testBackpressure() throws InterruptedException {
+		NioEventloop inputEventloop = new NioEventloop();
+		NioEventloop outputEventloop = new NioEventloop();
+
+		StreamProducer<Integer> source = StreamProducers.ofIterable(inputEventloop, sequence(10000));
+		StreamEventloopBridge<Integer> bridge = new StreamEventloopBridge<>(inputEventloop, outputEventloop, 16);
+		StreamConsumers.ToList<Integer> consumer = StreamConsumers.toListRandomlySuspending(outputEventloop);
+
+		source.streamTo(bridge.getInput());
+		bridge.getOutput().streamTo(consumer);
+
+		Thread outputThread = start(outputEventloop);
+		inputEventloop.run();
+		outputThread.join();
+
+		assertEquals(sequence(10000), consumer.getList());
+		assertEquals(StreamProducer.CLOSED, source.getStatus());
+	}
+
+	@Test
+	public void testError() throws InterruptedException {
+		NioEventloop inputEventloop = new NioEventloop();
+		NioEventloop outputEventloop = new NioEventloop();
+
+		Exception exception = new Exception("Test Exception");
+		StreamProducer<Integer> source = StreamProducers.closingWithError(inputEventloop, exception);
+		StreamEventloopBridge<Integer> bridge = new StreamEventloopBridge<>(inputEventloop, outputEventloop, 16);
+		StreamConsumers.ToList<Integer> consumer = StreamConsumers.toList(outputEventloop);
+
+		source.streamTo(bridge.getInput());
+		bridge.getOutput().streamTo(consumer);
+
+		Thread outputThread = start(outputEventloop);
+		inputEventloop.run();
+		outputThread.join();
+
+		assertEquals(StreamProducer.CLOSED_WITH_ERROR, bridge.getOutput().getStatus());
+		assertEquals(exception, bridge.getOutput().getError());
+	}
+
+	@Test
+	public void testParallelize() throws InterruptedException {
+		NioEventloop eventloop = new NioEventloop();
+		List<NioEventloop> workerEventloops = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			workerEventloops.add(new NioEventloop());
+		}
+
+		StreamProducer<Integer> source = StreamProducers.ofIterable(eventloop, sequence(10000));
+		StreamProducer<Integer> result = StreamParallelizer.parallelize(eventloop, source,
+				Functions.<Integer>identity(), new Sharders.HashSharder<Integer>(workerEventloops.size()), workerEventloops,
+				new StreamParallelizer.TransformerFactory<Integer, Integer>() {
+					@Override
+					public StreamTransformer<Integer, Integer> create(Eventloop workerEventloop) {
+						return new StreamFunction<>(workerEventloop, new Function<Integer, Integer>() {
+							@Override
+							public Integer apply(Integer input) {
+								return input * 2;
+							}
+						});
+					}
+				}, 64);
+		StreamConsumers.ToList<Integer> consumer = StreamConsumers.toListRandomlySuspending(eventloop);
+		result.streamTo(consumer);
+
+		List<Thread> workerThreads = new ArrayList<>();
+		for (NioEventloop workerEventloop : workerEventloops) {
+			workerThreads.add(start(workerEventloop));
+		}
+		eventloop.run();
+		for (Thread workerThread : workerThreads) {
+			workerThread.join();
+		}
+
+		List<Integer> list = new ArrayList<>(consumer.getList());
+		Collections.sort(list);
+		List<Integer> expected = new ArrayList<>();
+		for (int i = 0; i < 10000; i++) {
+			expected.add(i * 2);
+		}
+		assertEquals(expected, list);
+	}
+}
@@ -16,6 +16,7 @@
 
 package io.datakernel.stream.processor;
 
+import io.datakernel.async.CompletionCallback;
 import io.datakernel.bytebuf.ByteBuf;
 import io.datakernel.bytebuf.ByteBufPool;
 import io.datakernel.bytebuf.ByteBufQueue;
@@ -30,13 +31,17 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.OpenOption;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -127,6 +132,169 @@ public class StreamFileReaderWriterTest {
 		assertEquals(getPoolItemsString(), ByteBufPool.getCreatedItems(), ByteBufPool.getPoolItems());
 	}
 
+	@Test
+	public void testStreamFileReaderMemoryMapped() throws IOException {
+		byte[] fileBytes = Files.readAllBytes(Paths.get("test_data/in.dat"));
+		StreamFileReader reader = StreamFileReader.readFileFully(eventloop, executor,
+				2, Paths.get("test_data/in.dat"))
+				.memoryMapped(true);
+
+		assertArrayEquals(fileBytes, readAll(reader));
+		assertEquals(getPoolItemsString(), ByteBufPool.getCreatedItems(), ByteBufPool.getPoolItems());
+	}
+
+	@Test
+	public void testStreamFileReaderMemoryMappedNoFile() throws IOException {
+		StreamFileReader reader = StreamFileReader.readFileFully(eventloop, executor,
+				2, Paths.get(tempFolder.getRoot().getAbsolutePath(), "absent.dat"))
+				.memoryMapped(true);
+		StreamConsumers.ToList<ByteBuf> consumer = StreamConsumers.toList(eventloop);
+		final List<Exception> errors = new ArrayList<>();
+		consumer.addCompletionCallback(new CompletionCallback() {
+			@Override
+			public void onComplete() {
+			}
+
+			@Override
+			public void onException(Exception exception) {
+				errors.add(exception);
+			}
+		});
+		reader.streamTo(consumer);
+		eventloop.run();
+
+		assertEquals(1, errors.size());
+		assertTrue(errors.get(0) instanceof NoSuchFileException);
+		assertEquals(getPoolItemsString(), ByteBufPool.getCreatedItems(), ByteBufPool.getPoolItems());
+	}
+
+	@Test
+	public void testStreamFileReaderMemoryMappedSegment() throws IOException {
+		byte[] fileBytes = Files.readAllBytes(Paths.get("test_data/in.dat"));
+		StreamFileReader reader = StreamFileReader.readFileSegment(eventloop, executor,
+				4, Paths.get("test_data/in.dat"), 3, fileBytes.length - 5)
+				.memoryMapped(true)
+				.mappingSize(3);
+
+		assertArrayEquals(Arrays.copyOfRange(fileBytes, 3, fileBytes.length - 2), readAll(reader));
+		assertEquals(getPoolItemsString(), ByteBufPool.getCreatedItems(), ByteBufPool.getPoolItems());
+	}
+
+	@Test
+	public void testStreamFileReaderReadAhead() throws IOException {
+		byte[] fileBytes = Files.readAllBytes(Paths.get("test_data/in.dat"));
+		StreamFileReader reader = StreamFileReader.readFileFully(eventloop, executor,
+				3, Paths.get("test_data/in.dat"))
+				.readAhead(4);
+
+		assertArrayEquals(fileBytes, readAll(reader));
+		assertEquals(getPoolItemsString(), ByteBufPool.getCreatedItems(), ByteBufPool.getPoolItems());
+	}
+
+	@Test
+	public void testStreamFileReaderReadAheadSegment() throws IOException {
+		byte[] fileBytes = Files.readAllBytes(Paths.get("test_data/in.dat"));
+		StreamFileReader reader = StreamFileReader.readFileSegment(eventloop, executor,
+				2, Paths.get("test_data/in.dat"), 1, fileBytes.length - 2)
+				.readAhead(3);
+
+		assertArrayEquals(Arrays.copyOfRange(fileBytes, 1, fileBytes.length - 1), readAll(reader));
+		assertEquals(getPoolItemsString(), ByteBufPool.getCreatedItems(), ByteBufPool.getPoolItems());
+	}
+
+	@Test
+	public void testStreamFileWriterCoalescing() throws IOException {
+		File tempFile = tempFolder.newFile("outCoalesced.dat");
+		ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		List<ByteBuf> bufs = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			byte[] bytes = ("item " + i + "\n").getBytes();
+			expected.write(bytes, 0, bytes.length);
+			ByteBuf buf = ByteBufPool.allocate(bytes.length);
+			buf.put(bytes);
+			buf.flip();
+			bufs.add(buf);
+		}
+
+		StreamFileWriter writer = StreamFileWriter.createFile(eventloop, executor, Paths.get(tempFile.getAbsolutePath()))
+				.writeBufferSize(256)
+				.maxPendingWrites(4);
+
+		StreamProducers.ofIterable(eventloop, bufs).streamTo(writer);
+		eventloop.run();
+
+		assertEquals(expected.size(), writer.getPosition());
+		assertArrayEquals(expected.toByteArray(), com.google.common.io.Files.toByteArray(tempFile));
+		assertEquals(getPoolItemsString(), ByteBufPool.getCreatedItems(), ByteBufPool.getPoolItems());
+	}
+
+	@Test
+	public void testStreamFileWriterCoalescingSuspendsBeforeOpen() throws IOException {
+		File tempFile = tempFolder.newFile("outCoalescedSlowOpen.dat");
+		ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		List<ByteBuf> bufs = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			byte[] bytes = ("item " + i + "\n").getBytes();
+			expected.write(bytes, 0, bytes.length);
+			ByteBuf buf = ByteBufPool.allocate(bytes.length);
+			buf.put(bytes);
+			buf.flip();
+			bufs.add(buf);
+		}
+
+		ExecutorService slowExecutor = Executors.newSingleThreadExecutor();
+		final CountDownLatch openLatch = new CountDownLatch(1);
+		slowExecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					openLatch.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+
+		final StreamProducer<ByteBuf> producer = StreamProducers.ofIterable(eventloop, bufs);
+		final StreamFileWriter writer = StreamFileWriter.createFile(eventloop, slowExecutor, Paths.get(tempFile.getAbsolutePath()))
+				.writeBufferSize(256)
+				.maxPendingWrites(4);
+		producer.streamTo(writer);
+
+		final byte[] statusBeforeOpen = new byte[1];
+		final long[] positionBeforeOpen = new long[1];
+		eventloop.schedule(eventloop.currentTimeMillis() + 100, new Runnable() {
+			@Override
+			public void run() {
+				statusBeforeOpen[0] = producer.getStatus();
+				positionBeforeOpen[0] = writer.getPosition();
+				openLatch.countDown();
+			}
+		});
+		eventloop.run();
+		slowExecutor.shutdown();
+
+		assertEquals(StreamProducer.SUSPENDED, statusBeforeOpen[0]);
+		assertEquals(0, positionBeforeOpen[0]);
+		assertEquals(expected.size(), writer.getPosition());
+		assertArrayEquals(expected.toByteArray(), com.google.common.io.Files.toByteArray(tempFile));
+		assertEquals(getPoolItemsString(), ByteBufPool.getCreatedItems(), ByteBufPool.getPoolItems());
+	}
+
+	private byte[] readAll(StreamFileReader reader) {
+		List<ByteBuf> list = new ArrayList<>();
+		reader.streamTo(StreamConsumers.toList(eventloop, list));
+		eventloop.run();
+
+		ByteBufQueue byteQueue = new ByteBufQueue();
+		for (ByteBuf buf : list) {
+			byteQueue.add(buf);
+		}
+		byte[] bytes = new byte[byteQueue.remainingBytes()];
+		byteQueue.drainTo(bytes, 0, bytes.length);
+		return bytes;
+	}
+
 	@Test
 	public void testStreamFileWriter() throws IOException {
 		NioEventloop eventloop = new NioEventloop();
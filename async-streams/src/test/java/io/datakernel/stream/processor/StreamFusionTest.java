@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.datakernel.stream.processor;
+
+import com.google.common.base.Function;
+import com.google.common.base.Predicate;
+import io.datakernel.codegen.utils.DefiningClassLoader;
+import io.datakernel.eventloop.NioEventloop;
+import io.datakernel.stream.StreamConsumers;
+import io.datakernel.stream.StreamDataReceiver;
+import io.datakernel.stream.StreamProducer;
+import io.datakernel.stream.StreamProducers;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+
+public class StreamFusionTest {
+	private static final Predicate<Integer> ODD = new Predicate<Integer>() {
+		@Override
+		public boolean apply(Integer input) {
+			return input % 2 == 1;
+		}
+	};
+
+	private static final Function<Integer, String> TO_STRING = new Function<Integer, String>() {
+		@Override
+		public String apply(Integer input) {
+			return input.toString();
+		}
+	};
+
+	private static final Predicate<String> NOT_FIVE = new Predicate<String>() {
+		@Override
+		public boolean apply(String input) {
+			return !input.equals("5");
+		}
+	};
+
+	private static final StreamMap.Mapper<String, String> TWICE = new StreamMap.Mapper<String, String>() {
+		@Override
+		public void map(String input, StreamDataReceiver<String> output) {
+			output.onData(input);
+			output.onData(input + "'");
+		}
+	};
+
+	private static List<Integer> sequence(int size) {
+		List<Integer> list = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			list.add(i);
+		}
+		return list;
+	}
+
+	@Test
+	public void testFilterFunctionFilter() {
+		NioEventloop eventloop = new NioEventloop();
+
+		StreamProducer<Integer> source = StreamProducers.ofIterable(eventloop, sequence(10));
+		StreamFusion<Integer, String> fusion = StreamFusion.<Integer>builder(eventloop, new DefiningClassLoader())
+				.filter(ODD)
+				.function(TO_STRING)
+				.filter(NOT_FIVE)
+				.build();
+		StreamConsumers.ToList<String> consumer = StreamConsumers.toListRandomlySuspending(eventloop);
+
+		source.streamTo(fusion);
+		fusion.streamTo(consumer);
+
+		assertNotSame(fusion, fusion.getDataReceiver());
+
+		eventloop.run();
+		assertEquals(asList("1", "3", "7", "9"), consumer.getList());
+		assertEquals(StreamProducer.CLOSED, source.getStatus());
+	}
+
+	@Test
+	public void testMapper() {
+		NioEventloop eventloop = new NioEventloop();
+
+		StreamProducer<Integer> source = StreamProducers.ofIterable(eventloop, sequence(6));
+		StreamFusion<Integer, String> fusion = StreamFusion.<Integer>builder(eventloop, new DefiningClassLoader())
+				.filter(ODD)
+				.function(TO_STRING)
+				.map(TWICE)
+				.filter(NOT_FIVE)
+				.build();
+		StreamConsumers.ToList<String> consumer = StreamConsumers.toListOneByOne(eventloop);
+
+		source.streamTo(fusion);
+		fusion.streamTo(consumer);
+
+		eventloop.run();
+		assertEquals(asList("1", "1'", "3", "3'", "5'"), consumer.getList());
+	}
+
+	@Test
+	public void testFuseTransformers() {
+		NioEventloop eventloop = new NioEventloop();
+		DefiningClassLoader classLoader = new DefiningClassLoader();
+
+		StreamProducer<Integer> source1 = StreamProducers.ofIterable(eventloop, sequence(100));
+		StreamFilter<Integer> filter = new StreamFilter<>(eventloop, ODD);
+		StreamFunction<Integer, String> function = new StreamFunction<>(eventloop, TO_STRING);
+		StreamMap<String, String> map = new StreamMap<>(eventloop, TWICE);
+		StreamConsumers.ToList<String> expected = StreamConsumers.toListRandomlySuspending(eventloop);
+
+		source1.streamTo(filter);
+		filter.streamTo(function);
+		function.streamTo(map);
+		map.streamTo(expected);
+
+		StreamProducer<Integer> source2 = StreamProducers.ofIterable(eventloop, sequence(100));
+		StreamFusion<Integer, String> fusion1 = StreamFusion.fuse(eventloop, classLoader, filter, function, map);
+		StreamFusion<Integer, String> fusion2 = StreamFusion.fuse(eventloop, classLoader, filter, function, map);
+		StreamConsumers.ToList<String> consumer = StreamConsumers.toListRandomlySuspending(eventloop);
+
+		source2.streamTo(fusion1);
+		fusion1.streamTo(consumer);
+
+		eventloop.run();
+		assertEquals(expected.getList(), consumer.getList());
+		assertSame(fusion1.getDataReceiver().getClass(), fusion2.getDataReceiver().getClass());
+	}
+
+	@Test
+	public void testEmpty() {
+		NioEventloop eventloop = new NioEventloop();
+
+		StreamProducer<Integer> source = StreamProducers.ofIterable(eventloop, sequence(3));
+		StreamFusion<Integer, Integer> fusion = StreamFusion.<Integer>builder(eventloop, new DefiningClassLoader()).build();
+		StreamConsumers.ToList<Integer> consumer = StreamConsumers.toListOneByOne(eventloop);
+
+		source.streamTo(fusion);
+		fusion.streamTo(consumer);
+
+		eventloop.run();
+		assertEquals(asList(0, 1, 2), consumer.getList());
+	}
+}
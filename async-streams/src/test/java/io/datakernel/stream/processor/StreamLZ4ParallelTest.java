@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.datakernel.stream.processor;
+
+import io.datakernel.bytebuf.ByteBuf;
+import io.datakernel.bytebuf.ByteBufPool;
+import io.datakernel.bytebuf.ByteBufQueue;
+import io.datakernel.eventloop.NioEventloop;
+import io.datakernel.stream.StreamConsumers;
+import io.datakernel.stream.StreamProducer;
+import io.datakernel.stream.StreamProducers;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static io.datakernel.bytebuf.ByteBufPool.getPoolItemsString;
+import static org.junit.Assert.*;
+
+public class StreamLZ4ParallelTest {
+	private ExecutorService executor;
+
+	private static List<ByteBuf> createRandomByteBufs(int count) {
+		List<ByteBuf> buffers = new ArrayList<>();
+		Random random = new Random(123456);
+		for (int i = 0; i < count; i++) {
+			int len = random.nextInt(1000);
+			ByteBuf buf = ByteBuf.allocate(len);
+			int lenUnique = 1 + random.nextInt(len + 1);
+			for (int j = 0; j < len; j++) {
+				buf.array()[j] = (byte) (j % lenUnique + i);
+			}
+			buffers.add(buf);
+		}
+		return buffers;
+	}
+
+	private static byte[] byteBufsToByteArray(List<ByteBuf> byteBufs) {
+		ByteBufQueue queue = new ByteBufQueue();
+		for (ByteBuf buf : byteBufs) {
+			queue.add(buf.slice(0, buf.remaining()));
+		}
+		byte[] bytes = new byte[queue.remainingBytes()];
+		queue.drainTo(bytes, 0, bytes.length);
+		return bytes;
+	}
+
+	@Before
+	public void before() {
+		ByteBufPool.clear();
+		ByteBufPool.setSizes(0, Integer.MAX_VALUE);
+		executor = Executors.newFixedThreadPool(4);
+	}
+
+	@After
+	public void after() {
+		executor.shutdownNow();
+	}
+
+	private void doTest(StreamTransformer<ByteBuf, ByteBuf> compressor, StreamTransformer<ByteBuf, ByteBuf> decompressor,
+	                    NioEventloop eventloop) {
+		List<ByteBuf> buffers = createRandomByteBufs(1000);
+		byte[] expected = byteBufsToByteArray(buffers);
+
+		StreamProducer<ByteBuf> source = StreamProducers.ofIterable(eventloop, buffers);
+		StreamByteChunker postBuf = new StreamByteChunker(eventloop, 64, 128);
+		StreamConsumers.ToList<ByteBuf> consumer = StreamConsumers.toListRandomlySuspending(eventloop);
+
+		source.streamTo(compressor);
+		compressor.streamTo(postBuf);
+		postBuf.streamTo(decompressor);
+		decompressor.streamTo(consumer);
+
+		eventloop.run();
+
+		byte[] actual = byteBufsToByteArray(consumer.getList());
+		for (ByteBuf buf : consumer.getList()) {
+			buf.recycle();
+		}
+
+		assertArrayEquals(expected, actual);
+		assertEquals(StreamProducer.CLOSED, source.getStatus());
+		assertEquals(getPoolItemsString(), ByteBufPool.getCreatedItems(), ByteBufPool.getPoolItems());
+	}
+
+	@Test
+	public void testParallelCompressor() {
+		NioEventloop eventloop = new NioEventloop();
+		StreamLZ4ParallelCompressor compressor = StreamLZ4ParallelCompressor.fastCompressor(eventloop, executor, 4);
+		StreamLZ4Decompressor decompressor = new StreamLZ4Decompressor(eventloop);
+
+		doTest(compressor, decompressor, eventloop);
+		assertEquals(1000, compressor.getBufs());
+		assertEquals(0, compressor.getBlocksInFlight());
+	}
+
+	@Test
+	public void testParallelDecompressor() {
+		NioEventloop eventloop = new NioEventloop();
+		StreamLZ4Compressor compressor = StreamLZ4Compressor.highCompressor(eventloop);
+		StreamLZ4ParallelDecompressor decompressor = new StreamLZ4ParallelDecompressor(eventloop, executor, 4);
+
+		doTest(compressor, decompressor, eventloop);
+		assertEquals(compressor.getBytesInput(), decompressor.getBytesOutput());
+		assertEquals(0, decompressor.getBlocksInFlight());
+	}
+
+	@Test
+	public void testParallelBoth() {
+		NioEventloop eventloop = new NioEventloop();
+		StreamLZ4ParallelCompressor compressor = StreamLZ4ParallelCompressor.highCompressor(eventloop, executor);
+		StreamLZ4ParallelDecompressor decompressor = new StreamLZ4ParallelDecompressor(eventloop, executor);
+
+		doTest(compressor, decompressor, eventloop);
+		assertEquals(compressor.getBytesInput(), decompressor.getBytesOutput());
+		assertEquals(1000, compressor.getBufs());
+	}
+
+	@Test
+	public void testRejectedExecution() {
+		NioEventloop eventloop = new NioEventloop();
+		executor.shutdown();
+		StreamLZ4ParallelCompressor compressor = StreamLZ4ParallelCompressor.fastCompressor(eventloop, executor, 4);
+		ByteBuf buf = ByteBufPool.allocate(100);
+		buf.limit(100);
+
+		StreamProducer<ByteBuf> source = StreamProducers.ofValue(eventloop, buf);
+		StreamConsumers.ToList<ByteBuf> consumer = StreamConsumers.toList(eventloop);
+		source.streamTo(compressor);
+		compressor.streamTo(consumer);
+		eventloop.run();
+
+		assertEquals(StreamProducer.CLOSED_WITH_ERROR, source.getStatus());
+		assertEquals(0, compressor.getBlocksInFlight());
+		assertEquals(getPoolItemsString(), ByteBufPool.getCreatedItems(), ByteBufPool.getPoolItems());
+	}
+}
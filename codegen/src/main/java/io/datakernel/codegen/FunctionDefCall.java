@@ -46,10 +46,7 @@ public final class FunctionDefCall implements FunctionDef {
 	@Override
 	public Type type(Context ctx) {
 		List<Class<?>> argumentClasses = new ArrayList<>();
-		List<Type> argumentTypes = new ArrayList<>();
 		for (FunctionDef argument : arguments) {
-			argument.load(ctx);
-			argumentTypes.add(argument.type(ctx));
 			argumentClasses.add(getJavaType(ctx.getClassLoader(), argument.type(ctx)));
 		}
 
@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.datakernel.codegen;
+
+import org.objectweb.asm.Label;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.commons.GeneratorAdapter;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.datakernel.codegen.Utils.loadAndCast;
+import static org.objectweb.asm.Type.BOOLEAN_TYPE;
+import static org.objectweb.asm.Type.VOID_TYPE;
+
+/**
+ * Defines method which processes function only if condition is true
+ */
+public final class FunctionDefIf implements FunctionDef {
+	private final FunctionDef condition;
+	private final FunctionDef functionDef;
+
+	FunctionDefIf(FunctionDef condition, FunctionDef functionDef) {
+		this.condition = condition;
+		this.functionDef = functionDef;
+	}
+
+	@Override
+	public Type type(Context ctx) {
+		return VOID_TYPE;
+	}
+
+	@Override
+	public Type load(Context ctx) {
+		GeneratorAdapter g = ctx.getGeneratorAdapter();
+		Label labelExit = new Label();
+
+		Type conditionType = condition.load(ctx);
+		checkArgument(conditionType == BOOLEAN_TYPE, "Condition must be boolean, found %s", conditionType);
+		g.ifZCmp(GeneratorAdapter.EQ, labelExit);
+
+		loadAndCast(ctx, functionDef, VOID_TYPE);
+
+		g.mark(labelExit);
+		return VOID_TYPE;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+
+		FunctionDefIf that = (FunctionDefIf) o;
+
+		return condition.equals(that.condition) && functionDef.equals(that.functionDef);
+	}
+
+	@Override
+	public int hashCode() {
+		int result = condition.hashCode();
+		result = 31 * result + functionDef.hashCode();
+		return result;
+	}
+}
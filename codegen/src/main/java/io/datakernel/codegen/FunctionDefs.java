@@ -409,4 +409,15 @@ public final class FunctionDefs {
 		return new FunctionDefCall(owner, methodName, arguments);
 	}
 
+	/**
+	 * Processes function only if condition is true
+	 *
+	 * @param condition   function which returns boolean
+	 * @param functionDef function which will be processed if condition is true, its result is discarded
+	 * @return new instance of the FunctionDefIf
+	 */
+	public static FunctionDefIf ifThen(FunctionDef condition, FunctionDef functionDef) {
+		return new FunctionDefIf(condition, functionDef);
+	}
+
 }
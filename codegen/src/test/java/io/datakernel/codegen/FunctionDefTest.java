@@ -270,6 +270,25 @@ public class FunctionDefTest {
 		assertEquals(testPojo2.hashCode(), test.hash(testPojo2));
 	}
 
+	public interface TestIf {
+		void copyIfNotNegative(TestPojo to, TestPojo from);
+	}
+
+	@org.junit.Test
+	public void testIfThen() {
+		TestIf test = new AsmFunctionFactory<>(new DefiningClassLoader(), TestIf.class)
+				.method("copyIfNotNegative",
+						ifThen(cmpGe(call(arg(1), "getField1"), value(0)),
+								call(arg(0), "setField1", call(arg(1), "getField1"))))
+				.newInstance();
+
+		TestPojo to = new TestPojo(1, 10);
+		test.copyIfNotNegative(to, new TestPojo(-1, 20));
+		assertEquals(1, to.field1);
+		test.copyIfNotNegative(to, new TestPojo(5, 20));
+		assertEquals(5, to.field1);
+	}
+
 	@SuppressWarnings("unchecked")
 	@org.junit.Test
 	public void testComparator() {
@@ -25,8 +25,10 @@ import io.datakernel.stream.file.StreamFileReader;
 import io.datakernel.stream.file.StreamFileWriter;
 import io.datakernel.stream.processor.StreamBinaryDeserializer;
 import io.datakernel.stream.processor.StreamBinarySerializer;
-import io.datakernel.stream.processor.StreamLZ4Compressor;
-import io.datakernel.stream.processor.StreamLZ4Decompressor;
+import io.datakernel.stream.processor.StreamCompressionCodec;
+import io.datakernel.stream.processor.StreamCompressionCodecs;
+import io.datakernel.stream.processor.StreamDecompressor;
+import io.datakernel.stream.processor.StreamTransformer;
 import org.slf4j.Logger;
 
 import java.io.IOException;
@@ -35,6 +37,7 @@ import java.nio.file.Path;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 
+import static com.google.common.base.Preconditions.checkNotNull;
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
@@ -49,6 +52,9 @@ public class LocalFsAggregationStorage implements AggregationStorage {
 
 	private final Path dir;
 
+	private boolean memoryMappedReads;
+	private StreamCompressionCodec compressionCodec = StreamCompressionCodecs.lz4Fast();
+
 	/**
 	 * Constructs an aggregation storage, that runs in the specified event loop, performs blocking IO in the given executor,
 	 * serializes records according to specified cube structure and stores data in the given directory.
@@ -67,6 +73,28 @@ public class LocalFsAggregationStorage implements AggregationStorage {
 		this.dir = dir;
 	}
 
+	/**
+	 * Makes chunk readers map chunk files into memory instead of reading them in executor,
+	 * which is faster for chunks that are likely to be in page cache.
+	 *
+	 * @param memoryMappedReads whether chunks should be read through memory mapping
+	 */
+	public LocalFsAggregationStorage memoryMappedReads(boolean memoryMappedReads) {
+		this.memoryMappedReads = memoryMappedReads;
+		return this;
+	}
+
+	/**
+	 * Sets codec for compression of chunk files, LZ4 by default.
+	 * Chunks are read with the same codec, so it should not be changed for existing chunks.
+	 *
+	 * @param compressionCodec codec for chunk files, for example deflate for cold data
+	 */
+	public LocalFsAggregationStorage compressionCodec(StreamCompressionCodec compressionCodec) {
+		this.compressionCodec = checkNotNull(compressionCodec);
+		return this;
+	}
+
 	private Path path(String aggregationId, long id) {
 		Path tableDir = dir.resolve(aggregationId);
 		Path path = tableDir.resolve(id + ".log");
@@ -92,9 +120,9 @@ public class LocalFsAggregationStorage implements AggregationStorage {
 	public <T> StreamProducer<T> chunkReader(String aggregationId, List<String> dimensions, List<String> measures, Class<T> recordClass, long id) {
 
 		StreamProducer<ByteBuf> streamFileReader = StreamFileReader.readFileFrom(eventloop, executorService, 256 * 1024,
-				path(aggregationId, id), 0L);
+				path(aggregationId, id), 0L).memoryMapped(memoryMappedReads);
 
-		StreamLZ4Decompressor decompressor = new StreamLZ4Decompressor(eventloop);
+		StreamDecompressor decompressor = compressionCodec.createDecompressor(eventloop);
 		BufferSerializer<T> bufferSerializer = cubeStructure.createBufferSerializer(recordClass, dimensions, measures);
 		StreamBinaryDeserializer<T> deserializer = new StreamBinaryDeserializer<>(eventloop, bufferSerializer, StreamBinarySerializer.MAX_SIZE);
 
@@ -108,7 +136,7 @@ public class LocalFsAggregationStorage implements AggregationStorage {
 	public <T> StreamConsumer<T> chunkWriter(String aggregationId, List<String> dimensions, List<String> measures, Class<T> recordClass, long id) {
 		BufferSerializer<T> bufferSerializer = cubeStructure.createBufferSerializer(recordClass, dimensions, measures);
 		StreamBinarySerializer<T> serializer = new StreamBinarySerializer<>(eventloop, bufferSerializer, StreamBinarySerializer.MAX_SIZE, StreamBinarySerializer.MAX_SIZE, 1000, false);
-		StreamLZ4Compressor compressor = StreamLZ4Compressor.fastCompressor(eventloop);
+		StreamTransformer<ByteBuf, ByteBuf> compressor = compressionCodec.createCompressor(eventloop);
 		StreamFileWriter writer = StreamFileWriter.createFile(eventloop, executorService, path(aggregationId, id));
 
 		serializer.streamTo(compressor);
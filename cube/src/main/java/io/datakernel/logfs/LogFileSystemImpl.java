@@ -47,6 +47,8 @@ public final class LogFileSystemImpl implements LogFileSystem {
 	private final ExecutorService executorService;
 	private final Path dir;
 
+	private boolean memoryMappedReads;
+
 	/**
 	 * Constructs a log file system, that runs in the given event loop, runs blocking IO operations in the specified executor,
 	 * stores logs in the given directory.
@@ -62,6 +64,17 @@ public final class LogFileSystemImpl implements LogFileSystem {
 		this.dir = dir;
 	}
 
+	/**
+	 * Makes log readers map log files into memory instead of reading them in executor,
+	 * which speeds up replay of recently written logs that are still in page cache.
+	 *
+	 * @param memoryMappedReads whether logs should be read through memory mapping
+	 */
+	public LogFileSystemImpl memoryMappedReads(boolean memoryMappedReads) {
+		this.memoryMappedReads = memoryMappedReads;
+		return this;
+	}
+
 	private static final class PartitionAndFile {
 		private final String logPartition;
 		private final LogFile logFile;
@@ -188,7 +201,8 @@ public final class LogFileSystemImpl implements LogFileSystem {
 
 	@Override
 	public StreamProducer<ByteBuf> reader(String logPartition, LogFile logFile, long positionFrom) {
-		return StreamFileReader.readFileFrom(eventloop, executorService, 1024 * 1024, path(logPartition, logFile), positionFrom);
+		return StreamFileReader.readFileFrom(eventloop, executorService, 1024 * 1024, path(logPartition, logFile), positionFrom)
+				.memoryMapped(memoryMappedReads);
 	}
 
 	@Override
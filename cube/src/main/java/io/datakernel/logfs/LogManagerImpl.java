@@ -21,27 +21,37 @@ import io.datakernel.eventloop.Eventloop;
 import io.datakernel.serializer.BufferSerializer;
 import io.datakernel.stream.StreamConsumer;
 import io.datakernel.stream.StreamProducer;
+import io.datakernel.stream.processor.StreamCompressionCodec;
+import io.datakernel.stream.processor.StreamCompressionCodecs;
 
 public final class LogManagerImpl<T> implements LogManager<T> {
 	private final Eventloop eventloop;
 	private final LogFileSystem fileSystem;
 	private final BufferSerializer<T> serializer;
+	private final StreamCompressionCodec compressionCodec;
 
 	public LogManagerImpl(Eventloop eventloop, LogFileSystem fileSystem, BufferSerializer<T> serializer) {
+		this(eventloop, fileSystem, serializer, StreamCompressionCodecs.lz4Fast());
+	}
+
+	public LogManagerImpl(Eventloop eventloop, LogFileSystem fileSystem, BufferSerializer<T> serializer,
+	                      StreamCompressionCodec compressionCodec) {
 		this.eventloop = eventloop;
 		this.fileSystem = fileSystem;
 		this.serializer = serializer;
+		this.compressionCodec = compressionCodec;
 	}
 
 	@Override
 	public StreamConsumer<T> consumer(String streamId) {
-		return new LogStreamConsumer<>(eventloop, fileSystem, serializer, streamId);
+		return new LogStreamConsumer<>(eventloop, fileSystem, serializer, streamId, compressionCodec);
 	}
 
 	@Override
 	public StreamProducer<T> producer(String logPartition, LogFile logFile, long position,
 	                                  ResultCallback<LogPosition> positionCallback) {
-		return new LogStreamProducer<>(eventloop, fileSystem, serializer, logPartition, new LogPosition(logFile, position), positionCallback);
+		return new LogStreamProducer<>(eventloop, fileSystem, serializer, logPartition, new LogPosition(logFile, position),
+				positionCallback, compressionCodec);
 	}
 
 }
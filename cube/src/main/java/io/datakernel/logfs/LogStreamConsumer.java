@@ -21,7 +21,8 @@ import io.datakernel.serializer.BufferSerializer;
 import io.datakernel.stream.StreamConsumerDecorator;
 import io.datakernel.stream.StreamDataReceiver;
 import io.datakernel.stream.processor.StreamBinarySerializer;
-import io.datakernel.stream.processor.StreamLZ4Compressor;
+import io.datakernel.stream.processor.StreamCompressionCodec;
+import io.datakernel.stream.processor.StreamCompressor;
 import org.joda.time.DateTimeZone;
 import org.joda.time.format.DateTimeFormat;
 import org.joda.time.format.DateTimeFormatter;
@@ -29,16 +30,16 @@ import org.joda.time.format.DateTimeFormatter;
 @SuppressWarnings("FieldCanBeLocal")
 public class LogStreamConsumer<T> extends StreamConsumerDecorator<T> {
 	private final StreamBinarySerializer<T> streamBinarySerializer;
-	private final StreamLZ4Compressor streamCompressor;
+	private final StreamCompressor streamCompressor;
 	private final LogStreamConsumer_ByteBuffer logStreamConsumer_byteBuffer;
 
 	private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormat.forPattern("yyyy-MM-dd_HH").withZone(DateTimeZone.UTC);
 
 	LogStreamConsumer(Eventloop eventloop, LogFileSystem fileSystem, BufferSerializer<T> serializer,
-	                  String streamId) {
+	                  String streamId, StreamCompressionCodec compressionCodec) {
 		super(eventloop);
 		this.streamBinarySerializer = new StreamBinarySerializer<>(eventloop, serializer, 1024 * 1024, StreamBinarySerializer.MAX_SIZE, 1000, false);
-		this.streamCompressor = StreamLZ4Compressor.fastCompressor(eventloop);
+		this.streamCompressor = compressionCodec.createCompressor(eventloop);
 		this.logStreamConsumer_byteBuffer = new LogStreamConsumer_ByteBuffer(eventloop, DATE_TIME_FORMATTER, fileSystem, streamId);
 
 		this.logStreamConsumer_byteBuffer.setTag(streamId);
@@ -28,7 +28,9 @@ import io.datakernel.stream.StreamProducerDecorator;
 import io.datakernel.stream.StreamProducers;
 import io.datakernel.stream.processor.StreamBinaryDeserializer;
 import io.datakernel.stream.processor.StreamBinarySerializer;
-import io.datakernel.stream.processor.StreamLZ4Decompressor;
+import io.datakernel.stream.processor.StreamCompressionCodec;
+import io.datakernel.stream.processor.StreamCompressionCodecs;
+import io.datakernel.stream.processor.StreamDecompressor;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -39,20 +41,28 @@ public class LogStreamProducer<T> extends StreamProducerDecorator<T> {
 	private final String logPartition;
 	private final LogPosition startPosition;
 	private LogFile currentLogFile;
-	private StreamLZ4Decompressor currentDecompressor;
+	private StreamDecompressor currentDecompressor;
 	private final LogFileSystem fileSystem;
 	private final BufferSerializer<T> serializer;
 	private final ResultCallback<LogPosition> positionCallback;
+	private final StreamCompressionCodec compressionCodec;
 	private final StreamForwarder<T> forwarder;
 
-	public LogStreamProducer(final Eventloop eventloop, LogFileSystem fileSystem, BufferSerializer<T> serializer,
+	public LogStreamProducer(Eventloop eventloop, LogFileSystem fileSystem, BufferSerializer<T> serializer,
 	                         String logPartition, LogPosition startPosition, ResultCallback<LogPosition> positionCallback) {
+		this(eventloop, fileSystem, serializer, logPartition, startPosition, positionCallback, StreamCompressionCodecs.lz4Fast());
+	}
+
+	public LogStreamProducer(final Eventloop eventloop, LogFileSystem fileSystem, BufferSerializer<T> serializer,
+	                         String logPartition, LogPosition startPosition, ResultCallback<LogPosition> positionCallback,
+	                         StreamCompressionCodec compressionCodec) {
 		super(eventloop);
 		this.logPartition = logPartition;
 		this.startPosition = startPosition;
 		this.fileSystem = fileSystem;
 		this.serializer = serializer;
 		this.positionCallback = positionCallback;
+		this.compressionCodec = compressionCodec;
 		this.forwarder = new StreamForwarder<>(eventloop);
 		decorate(forwarder);
 		fileSystem.list(logPartition, new ResultCallback<List<LogFile>>() {
@@ -98,7 +108,7 @@ public class LogStreamProducer<T> extends StreamProducerDecorator<T> {
 
 				StreamProducer<ByteBuf> currentReader = fileSystem.reader(logPartition, currentLogFile,
 						first ? startPosition.getPosition() : 0L);
-				currentDecompressor = new StreamLZ4Decompressor(eventloop);
+				currentDecompressor = compressionCodec.createDecompressor(eventloop);
 				StreamBinaryDeserializer<T> currentDeserializer = new StreamBinaryDeserializer<>(eventloop, serializer, StreamBinarySerializer.MAX_SIZE);
 
 				currentReader.streamTo(currentDecompressor);
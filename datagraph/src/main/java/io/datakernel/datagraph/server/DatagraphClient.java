@@ -22,6 +22,7 @@ import io.datakernel.datagraph.node.Node;
 import io.datakernel.datagraph.server.command.*;
 import io.datakernel.eventloop.ConnectCallback;
 import io.datakernel.eventloop.NioEventloop;
+import io.datakernel.eventloop.SocketConnectionPool;
 import io.datakernel.net.SocketSettings;
 import io.datakernel.serializer.BufferSerializer;
 import io.datakernel.stream.StreamProducer;
@@ -54,6 +55,7 @@ public final class DatagraphClient {
 	private final DatagraphSerialization serialization;
 
 	private SocketSettings socketSettings = defaultSocketSettings();
+	private SocketConnectionPool connectionPool;
 
 	/**
 	 * Constructs a datagraph client that runs in a given event loop and uses the specified DatagraphSerialization object for various serialization purposes.
@@ -66,9 +68,26 @@ public final class DatagraphClient {
 		this.serialization = serialization;
 	}
 
-	public void connectAndExecute(InetSocketAddress address,
+	/**
+	 * Makes client take connections to datagraph servers from the given pool
+	 *
+	 * @param connectionPool pool which belongs to the event loop of this client
+	 */
+	public DatagraphClient connectionPool(SocketConnectionPool connectionPool) {
+		this.connectionPool = connectionPool;
+		return this;
+	}
+
+	private void connect(InetSocketAddress address, ConnectCallback callback) {
+		if (connectionPool != null)
+			connectionPool.connect(address, callback);
+		else
+			eventloop.connect(address, socketSettings, callback);
+	}
+
+	public void connectAndExecute(final InetSocketAddress address,
 	                              @Nullable final MessagingStarter<DatagraphCommand> starter) {
-		eventloop.connect(address, socketSettings, new ConnectCallback() {
+		connect(address, new ConnectCallback() {
 			@Override
 			public void onConnect(SocketChannel socketChannel) {
 				StreamMessagingConnection<DatagraphResponse, DatagraphCommand> connection = new StreamMessagingConnection<>(eventloop, socketChannel,
@@ -83,6 +102,8 @@ public final class DatagraphClient {
 				if (starter != null) {
 					connection.addStarter(starter);
 				}
+				if (connectionPool != null)
+					connectionPool.releaseOnClose(address, connection);
 				connection.register();
 			}
 
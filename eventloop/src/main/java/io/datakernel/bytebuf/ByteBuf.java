@@ -19,6 +19,7 @@ package io.datakernel.bytebuf;
 import com.google.common.annotations.VisibleForTesting;
 
 import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Represent a buffer which can be recycled from itself.Byte buffers can be created either by allocation,
@@ -29,6 +30,10 @@ import java.nio.ByteBuffer;
 public class ByteBuf {
 	protected int refs;
 
+	ByteBufLeakDetector.LeakTracker leakTracker;
+	AtomicLong allocatedBy;
+	Throwable firstRecycle;
+
 	private static final byte[] EMPTY_ARRAY = new byte[0];
 	private static final ByteBuf EMPTY_BUF = new ByteBuf(EMPTY_ARRAY, 0, 0);
 
@@ -93,6 +98,7 @@ public class ByteBuf {
 
 	private final static class ByteBufSlice extends ByteBuf {
 		private final ByteBuf root;
+		private boolean recycled;
 
 		private ByteBufSlice(ByteBuf root, byte[] array, int position, int limit) {
 			super(array, position, limit);
@@ -101,6 +107,9 @@ public class ByteBuf {
 
 		@Override
 		public void recycle() {
+			if (recycled && ByteBufLeakDetector.strict)
+				ByteBufLeakDetector.onRecycledTwice(null);
+			recycled = true;
 			root.recycle();
 		}
 
@@ -168,9 +177,18 @@ public class ByteBuf {
 	 * Resets this ByteBuf, puts it back to byteBufPool
 	 */
 	public void recycle() {
+		if (refs == -1 && ByteBufLeakDetector.strict)
+			ByteBufLeakDetector.onRecycledTwice(firstRecycle);
 		assert !isRecycled();
 		if (refs > 0 && --refs == 0) {
-			assert --refs == -1;
+			if (ByteBufLeakDetector.strict) {
+				refs = -1;
+				firstRecycle = new Throwable("First recycle");
+			} else {
+				assert --refs == -1;
+			}
+			if (leakTracker != null)
+				ByteBufLeakDetector.onRecycle(this);
 			ByteBufPool.recycle(this);
 		}
 	}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.datakernel.bytebuf;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sampling detector of pooled ByteBufs which are garbage collected without being recycled.
+ * For sampled ByteBufs it records allocation stack trace and watches them with weak references,
+ * which are cleared on recycle. ByteBufs which become unreachable while still being watched are reported
+ * to the log and kept in a short list of recent leaks.
+ * <p>
+ * In strict mode recycling of already recycled ByteBuf throws {@link IllegalStateException},
+ * with stack trace of the first recycle as its cause.
+ */
+final class ByteBufLeakDetector {
+	private static final Logger logger = LoggerFactory.getLogger(ByteBufLeakDetector.class);
+
+	private static final int MAX_RECENT_LEAKS = 16;
+
+	static volatile double samplingRate;
+	static volatile boolean strict;
+
+	private static final ReferenceQueue<ByteBuf> referenceQueue = new ReferenceQueue<>();
+	private static final Set<LeakTracker> trackers = Collections.newSetFromMap(new ConcurrentHashMap<LeakTracker, Boolean>());
+	private static final AtomicLong leaks = new AtomicLong();
+	private static final ArrayDeque<String> recentLeaks = new ArrayDeque<>();
+
+	static final class LeakTracker extends WeakReference<ByteBuf> {
+		private final Throwable allocation;
+		private final int size;
+
+		private LeakTracker(ByteBuf buf, Throwable allocation) {
+			super(buf, referenceQueue);
+			this.allocation = allocation;
+			this.size = buf.array().length;
+		}
+	}
+
+	private ByteBufLeakDetector() {
+	}
+
+	static void onAllocate(ByteBuf buf, double samplingRate) {
+		if (samplingRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= samplingRate)
+			return;
+		checkLeaks();
+		LeakTracker tracker = new LeakTracker(buf, new Throwable("ByteBuf allocation"));
+		trackers.add(tracker);
+		buf.leakTracker = tracker;
+	}
+
+	static void onRecycle(ByteBuf buf) {
+		LeakTracker tracker = buf.leakTracker;
+		buf.leakTracker = null;
+		trackers.remove(tracker);
+		tracker.clear();
+	}
+
+	static void onRecycledTwice(Throwable firstRecycle) {
+		throw new IllegalStateException("ByteBuf is recycled twice", firstRecycle);
+	}
+
+	static int checkLeaks() {
+		int count = 0;
+		Reference<? extends ByteBuf> reference;
+		while ((reference = referenceQueue.poll()) != null) {
+			LeakTracker tracker = (LeakTracker) reference;
+			if (!trackers.remove(tracker))
+				continue;
+			count++;
+			leaks.incrementAndGet();
+			StringWriter stackTrace = new StringWriter();
+			tracker.allocation.printStackTrace(new PrintWriter(stackTrace));
+			String report = "ByteBuf of size " + tracker.size + " was garbage collected without recycle, " + stackTrace;
+			logger.error(report);
+			synchronized (recentLeaks) {
+				if (recentLeaks.size() == MAX_RECENT_LEAKS)
+					recentLeaks.poll();
+				recentLeaks.add(report);
+			}
+		}
+		return count;
+	}
+
+	static long getLeaks() {
+		return leaks.get();
+	}
+
+	static int getTrackedItems() {
+		return trackers.size();
+	}
+
+	static List<String> getRecentLeaks() {
+		synchronized (recentLeaks) {
+			return new ArrayList<>(recentLeaks);
+		}
+	}
+
+	static void clear() {
+		for (LeakTracker tracker : trackers) {
+			tracker.clear();
+		}
+		trackers.clear();
+		leaks.set(0);
+		synchronized (recentLeaks) {
+			recentLeaks.clear();
+		}
+		while (referenceQueue.poll() != null) {
+			// discard
+		}
+	}
+}
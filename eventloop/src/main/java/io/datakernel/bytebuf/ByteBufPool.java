@@ -24,8 +24,16 @@ import io.datakernel.util.ConcurrentStack;
 
 import javax.management.MBeanServer;
 import javax.management.ObjectName;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.lang.Integer.numberOfLeadingZeros;
@@ -43,7 +51,175 @@ public final class ByteBufPool {
 	 * Except slabs[32] that contains ByteBufs with size 0
 	 */
 	private static final ConcurrentStack<ByteBuf>[] slabs;
-	private static final int[] created = new int[NUMBER_SLABS];
+	private static final AtomicIntegerArray created = new AtomicIntegerArray(NUMBER_SLABS);
+
+	/**
+	 * Number of ByteBufs in each global slab and their total capacity, maintained alongside slabs
+	 * to enforce pool size limits without traversing slabs.
+	 * ByteBufs which would exceed the limits on recycle are dropped and left to GC.
+	 */
+	private static final AtomicIntegerArray slabItems = new AtomicIntegerArray(NUMBER_SLABS);
+	private static final AtomicLong poolBytes = new AtomicLong();
+	private static volatile long maxPoolBytes = Long.MAX_VALUE;
+	private static volatile long maxSlabBytes = Long.MAX_VALUE;
+	private static final AtomicLong droppedItems = new AtomicLong();
+
+	/**
+	 * Number of pops from each global slab, used to find slabs without demand. ByteBufs of slab,
+	 * which had no pops during idle trimming period, are dropped from pool.
+	 */
+	private static final AtomicIntegerArray slabDemand = new AtomicIntegerArray(NUMBER_SLABS);
+	private static volatile long idleTrimMillis = 0;
+	private static final int[] lastSlabDemand = new int[NUMBER_SLABS];
+	private static final long[] lastSlabActive = new long[NUMBER_SLABS];
+	private static long nextTrimTime;
+	private static long trimmedItems;
+
+	/**
+	 * When enabled, each pooled ByteBuf is attributed to the thread which allocated it,
+	 * so that outstanding (allocated, but not yet recycled) bytes can be reported per eventloop.
+	 */
+	private static volatile boolean threadAccounting = false;
+
+	/**
+	 * Size-classed stacks of direct (off-heap) ByteBuffers, used as long-lived receive buffers of UDP connections.
+	 * Direct buffers are expensive to allocate and are released only by GC, so they are always pooled.
+	 */
+	private static final ConcurrentStack<ByteBuffer>[] directSlabs;
+	private static final AtomicIntegerArray directCreated = new AtomicIntegerArray(NUMBER_SLABS);
+
+	/**
+	 * Per-thread magazines of ByteBufs, one per size class, placed in front of global slabs.
+	 * Each eventloop thread allocates and recycles from its own magazines without CAS,
+	 * refilling from and spilling to global slabs in batches of half magazine capacity.
+	 * Magazines are disabled when magazineCapacity is 0.
+	 * Only threads which called {@link #enableThreadCache()} own magazines, other threads use global slabs directly,
+	 * so that no ByteBufs are stranded in magazines of short-lived or pooled worker threads.
+	 */
+	private static volatile int magazineCapacity = 0;
+	private static volatile int magazineMaxSize = 1 << 16;
+
+	private static final ThreadLocal<ThreadCache> threadCaches = new ThreadLocal<>();
+	private static final ThreadLocal<ThreadCacheStats> threadStats = new ThreadLocal<ThreadCacheStats>() {
+		@Override
+		protected ThreadCacheStats initialValue() {
+			ThreadCacheStats stats = new ThreadCacheStats();
+			pruneCacheStats();
+			cacheStats.add(stats);
+			return stats;
+		}
+	};
+	private static final Queue<ThreadCacheStats> cacheStats = new ConcurrentLinkedQueue<>();
+
+	private static final class Magazine {
+		private final ByteBuf[] bufs;
+		private int size;
+
+		Magazine(int capacity) {
+			this.bufs = new ByteBuf[capacity];
+		}
+	}
+
+	private static final class ThreadCacheStats {
+		private final String threadName = Thread.currentThread().getName();
+		private final WeakReference<Thread> thread = new WeakReference<>(Thread.currentThread());
+		private final AtomicLong outstandingBytes = new AtomicLong();
+		private volatile long hits;
+		private volatile long misses;
+		private volatile long refills;
+		private volatile long spills;
+		private volatile int items;
+	}
+
+	private static final class ThreadCache {
+		private final Magazine[] magazines = new Magazine[NUMBER_SLABS];
+		private final ThreadCacheStats stats = threadStats.get();
+
+		Magazine ensureMagazine(int index, int capacity) {
+			Magazine magazine = magazines[index];
+			if (magazine == null || magazine.bufs.length != capacity) {
+				if (magazine != null)
+					spill(index, magazine, magazine.size);
+				magazine = new Magazine(capacity);
+				magazines[index] = magazine;
+			}
+			return magazine;
+		}
+
+		@SuppressWarnings("NonAtomicOperationOnVolatileField")
+		ByteBuf pop(int index, int capacity) {
+			Magazine magazine = ensureMagazine(index, capacity);
+			if (magazine.size == 0) {
+				int count = slabs[index].popAll(magazine.bufs, 0, Math.max(capacity / 2, 1));
+				onSlabPop(index, count);
+				if (count == 0) {
+					stats.misses++;
+					return null;
+				}
+				magazine.size = count;
+				stats.refills++;
+				stats.items += count;
+			} else {
+				stats.hits++;
+			}
+			ByteBuf buf = magazine.bufs[--magazine.size];
+			magazine.bufs[magazine.size] = null;
+			stats.items--;
+			return buf;
+		}
+
+		@SuppressWarnings("NonAtomicOperationOnVolatileField")
+		void push(int index, int capacity, ByteBuf buf) {
+			Magazine magazine = ensureMagazine(index, capacity);
+			assert !contains(magazine, buf) : "duplicate recycle array";
+			if (magazine.size == magazine.bufs.length) {
+				spill(index, magazine, Math.max(capacity / 2, 1));
+			}
+			magazine.bufs[magazine.size++] = buf;
+			stats.items++;
+		}
+
+		@SuppressWarnings("NonAtomicOperationOnVolatileField")
+		void spill(int index, Magazine magazine, int count) {
+			if (count == 0)
+				return;
+			int from = magazine.size - count;
+			if (reserve(index, count)) {
+				slabs[index].pushAll(magazine.bufs, from, magazine.size);
+			} else {
+				drop(index, count);
+			}
+			for (int i = from; i < magazine.size; i++) {
+				magazine.bufs[i] = null;
+			}
+			magazine.size = from;
+			stats.spills++;
+			stats.items -= count;
+		}
+
+		void flush() {
+			for (int i = 0; i < magazines.length; i++) {
+				Magazine magazine = magazines[i];
+				if (magazine != null)
+					spill(i, magazine, magazine.size);
+			}
+		}
+
+		void clear() {
+			for (int i = 0; i < magazines.length; i++) {
+				magazines[i] = null;
+			}
+			stats.items = 0;
+		}
+
+		private static boolean contains(Magazine magazine, ByteBuf buf) {
+			for (int i = 0; i < magazine.size; i++) {
+				if (magazine.bufs[i] == buf)
+					return true;
+			}
+			return false;
+		}
+	}
 
 	static {
 		//noinspection unchecked
@@ -51,6 +227,11 @@ public final class ByteBufPool {
 		for (int i = 0; i < slabs.length; i++) {
 			slabs[i] = new ConcurrentStack<>();
 		}
+		//noinspection unchecked
+		directSlabs = new ConcurrentStack[NUMBER_SLABS];
+		for (int i = 0; i < directSlabs.length; i++) {
+			directSlabs[i] = new ConcurrentStack<>();
+		}
 	}
 
 	private ByteBufPool() {
@@ -67,6 +248,222 @@ public final class ByteBufPool {
 		ByteBufPool.maxSize = maxSize;
 	}
 
+	/**
+	 * Enables per-thread magazines in front of global slabs.
+	 * Only ByteBufs with capacity up to maxCachedSize are cached in magazines.
+	 *
+	 * @param capacity      number of ByteBufs in each magazine, 0 disables magazines
+	 * @param maxCachedSize maximum capacity of ByteBuf to be cached in magazines
+	 */
+	public static void setThreadCache(int capacity, int maxCachedSize) {
+		checkArgument(capacity >= 0, "Magazine capacity must be non-negative");
+		ByteBufPool.magazineMaxSize = maxCachedSize;
+		ByteBufPool.magazineCapacity = capacity;
+	}
+
+	/**
+	 * Enables sampling leak detection. For sampled ByteBufs allocation stack trace is recorded,
+	 * and they are reported if they are garbage collected without being recycled.
+	 *
+	 * @param samplingRate fraction of allocations to be tracked, from 0.0 (disabled) to 1.0 (all allocations)
+	 */
+	public static void setLeakDetection(double samplingRate) {
+		checkArgument(samplingRate >= 0.0 && samplingRate <= 1.0, "Sampling rate must be in range [0, 1]");
+		ByteBufLeakDetector.samplingRate = samplingRate;
+	}
+
+	/**
+	 * Enables strict mode, in which recycling of already recycled ByteBuf throws {@link IllegalStateException}
+	 * regardless of whether assertions are enabled. It is intended for tests.
+	 *
+	 * @param strict whether strict mode is enabled
+	 */
+	public static void setStrictRecycle(boolean strict) {
+		ByteBufLeakDetector.strict = strict;
+	}
+
+	/**
+	 * Reports sampled ByteBufs which were garbage collected without being recycled since previous check
+	 *
+	 * @return number of newly detected leaks
+	 */
+	public static int checkLeaks() {
+		return ByteBufLeakDetector.checkLeaks();
+	}
+
+	public static long getLeaks() {
+		ByteBufLeakDetector.checkLeaks();
+		return ByteBufLeakDetector.getLeaks();
+	}
+
+	/**
+	 * Sets limits for total capacity of ByteBufs kept in global slabs. ByteBufs recycled above these limits
+	 * are not pooled and are left to GC.
+	 *
+	 * @param maxPoolBytes maximum total capacity of pooled ByteBufs in bytes
+	 * @param maxSlabBytes maximum total capacity of pooled ByteBufs of each size class in bytes
+	 */
+	public static void setPoolLimits(long maxPoolBytes, long maxSlabBytes) {
+		checkArgument(maxPoolBytes >= 0 && maxSlabBytes >= 0, "Pool limits must be non-negative");
+		ByteBufPool.maxPoolBytes = maxPoolBytes;
+		ByteBufPool.maxSlabBytes = maxSlabBytes;
+	}
+
+	/**
+	 * Enables trimming of idle slabs: ByteBufs of size class, which was not allocated from global slabs
+	 * for idleMillis, are removed from pool and left to GC. Trimming is performed by running eventloops.
+	 *
+	 * @param idleMillis idle period in milliseconds, 0 disables trimming
+	 */
+	public static void setIdleSlabTrimming(long idleMillis) {
+		checkArgument(idleMillis >= 0, "Idle period must be non-negative");
+		ByteBufPool.idleTrimMillis = idleMillis;
+	}
+
+	/**
+	 * Enables attribution of outstanding ByteBufs to threads which allocated them
+	 *
+	 * @param threadAccounting whether accounting is enabled
+	 */
+	public static void setThreadAccounting(boolean threadAccounting) {
+		ByteBufPool.threadAccounting = threadAccounting;
+	}
+
+	/**
+	 * Trims idle slabs if trimming is enabled and trimming period has passed since the previous trim.
+	 * It is called periodically by eventloops, and may be called from any thread.
+	 *
+	 * @param currentTimeMillis current time
+	 * @return number of ByteBufs removed from pool
+	 */
+	public static int trimIdleSlabs(long currentTimeMillis) {
+		long idleMillis = idleTrimMillis;
+		if (idleMillis == 0)
+			return 0;
+		synchronized (lastSlabDemand) {
+			if (currentTimeMillis < nextTrimTime)
+				return 0;
+			nextTrimTime = currentTimeMillis + Math.max(idleMillis / 4, 1);
+			int result = 0;
+			for (int i = 0; i < NUMBER_SLABS; i++) {
+				int demand = slabDemand.get(i);
+				if (demand != lastSlabDemand[i] || lastSlabActive[i] == 0) {
+					lastSlabDemand[i] = demand;
+					lastSlabActive[i] = currentTimeMillis;
+				} else if (currentTimeMillis - lastSlabActive[i] >= idleMillis) {
+					int count = 0;
+					while (slabs[i].pop() != null) {
+						count++;
+					}
+					slabItems.addAndGet(i, -count);
+					poolBytes.addAndGet(-count * slotSize(i));
+					created.addAndGet(i, -count);
+					result += count;
+				}
+			}
+			trimmedItems += result;
+			return result;
+		}
+	}
+
+	private static long slotSize(int index) {
+		return (1L << index) & 0xffffffffL;
+	}
+
+	private static boolean reserve(int index, int count) {
+		long slotSize = slotSize(index);
+		long bytes = count * slotSize;
+		int items;
+		do {
+			items = slabItems.get(index);
+			if ((items + count) * slotSize > maxSlabBytes)
+				return false;
+		} while (!slabItems.compareAndSet(index, items, items + count));
+		long pooled;
+		do {
+			pooled = poolBytes.get();
+			if (pooled + bytes > maxPoolBytes) {
+				slabItems.addAndGet(index, -count);
+				return false;
+			}
+		} while (!poolBytes.compareAndSet(pooled, pooled + bytes));
+		return true;
+	}
+
+	private static void drop(int index, int count) {
+		created.addAndGet(index, -count);
+		droppedItems.addAndGet(count);
+	}
+
+	private static void onSlabPop(int index, int count) {
+		slabDemand.incrementAndGet(index);
+		if (count != 0) {
+			slabItems.addAndGet(index, -count);
+			poolBytes.addAndGet(-count * slotSize(index));
+		}
+	}
+
+	/**
+	 * Returns total capacity of ByteBufs, which were allocated by the given thread and are not recycled yet.
+	 * Thread accounting must be enabled.
+	 *
+	 * @param thread allocating thread
+	 */
+	public static long getOutstandingBytes(Thread thread) {
+		pruneCacheStats();
+		long result = 0;
+		for (ThreadCacheStats stats : cacheStats) {
+			if (stats.thread.get() == thread)
+				result += stats.outstandingBytes.get();
+		}
+		return result;
+	}
+
+	/**
+	 * Removes stats of threads which have terminated. ByteBufs allocated by such threads
+	 * still decrement their counters on recycle, but are no longer reported.
+	 */
+	private static void pruneCacheStats() {
+		for (Iterator<ThreadCacheStats> it = cacheStats.iterator(); it.hasNext(); ) {
+			Thread thread = it.next().thread.get();
+			if (thread == null || !thread.isAlive())
+				it.remove();
+		}
+	}
+
+	/**
+	 * Creates magazines for current thread, so that its allocations and recycles go through them
+	 * while magazines are enabled by {@link #setThreadCache(int, int)}.
+	 * It is called by eventloop thread on start, each call must be paired with {@link #disableThreadCache()}.
+	 */
+	public static void enableThreadCache() {
+		if (threadCaches.get() == null)
+			threadCaches.set(new ThreadCache());
+	}
+
+	/**
+	 * Returns all ByteBufs from magazines of current thread to global slabs and removes its magazines and stats.
+	 * It is called by eventloop thread on exit.
+	 */
+	public static void disableThreadCache() {
+		ThreadCache cache = threadCaches.get();
+		if (cache == null)
+			return;
+		cache.flush();
+		threadCaches.remove();
+		threadStats.remove();
+		cacheStats.remove(cache.stats);
+	}
+
+	/**
+	 * Returns all ByteBufs from magazines of current thread to global slabs, keeping magazines of thread.
+	 */
+	public static void flushThreadCache() {
+		ThreadCache cache = threadCaches.get();
+		if (cache != null)
+			cache.flush();
+	}
+
 	/**
 	 * Allocates a new byte buffer from this pool.
 	 * The new buffer's position will be zero, its size will be its size and each of its elements will be
@@ -80,21 +477,71 @@ public final class ByteBufPool {
 			return ByteBuf.allocate(size);
 		}
 		int index = 32 - numberOfLeadingZeros(size - 1); // index==32 for size==0
-		ConcurrentStack<ByteBuf> queue = slabs[index];
-		ByteBuf buf = queue.pop();
+		int capacity = magazineCapacity;
+		ThreadCache cache;
+		ByteBuf buf;
+		if (capacity != 0 && size <= magazineMaxSize && (cache = threadCaches.get()) != null) {
+			buf = cache.pop(index, capacity);
+		} else {
+			buf = slabs[index].pop();
+			onSlabPop(index, buf != null ? 1 : 0);
+		}
 		if (buf != null) {
 			buf.refs = 1;
+			buf.firstRecycle = null;
 			buf.position(0);
 			buf.limit(size);
 		} else {
 			byte[] array = new byte[1 << index];
-			created[index]++;
+			created.incrementAndGet(index);
 			buf = ByteBuf.wrap(array, 0, size);
 			buf.refs = 1;
 		}
+		if (threadAccounting) {
+			AtomicLong outstandingBytes = threadStats.get().outstandingBytes;
+			outstandingBytes.addAndGet(buf.array.length);
+			buf.allocatedBy = outstandingBytes;
+		}
+		double samplingRate = ByteBufLeakDetector.samplingRate;
+		if (samplingRate != 0.0)
+			ByteBufLeakDetector.onAllocate(buf, samplingRate);
 		return buf;
 	}
 
+	/**
+	 * Allocates a direct byte buffer from this pool.
+	 * The new buffer's position will be zero, its limit will be size, its capacity will be
+	 * the nearest power of two which is not less than size.
+	 *
+	 * @param size new buffers size in bytes
+	 * @return the direct ByteBuffer
+	 */
+	public static ByteBuffer allocateDirect(int size) {
+		int index = 32 - numberOfLeadingZeros(size - 1); // index==32 for size==0
+		ByteBuffer buffer = directSlabs[index].pop();
+		if (buffer == null) {
+			buffer = ByteBuffer.allocateDirect(1 << index);
+			directCreated.incrementAndGet(index);
+		}
+		buffer.clear();
+		buffer.limit(size);
+		return buffer;
+	}
+
+	/**
+	 * Puts back direct ByteBuffer which was taken from pool
+	 *
+	 * @param buffer direct ByteBuffer for recycling
+	 */
+	public static void recycleDirect(ByteBuffer buffer) {
+		assert buffer.isDirect();
+		assert Integer.bitCount(buffer.capacity()) == 1 : "ByteBuffer was not allocated from pool";
+		int index = 32 - numberOfLeadingZeros(buffer.capacity() - 1);
+		ConcurrentStack<ByteBuffer> queue = directSlabs[index];
+		assert !queue.contains(buffer) : "duplicate recycle direct buffer";
+		queue.push(buffer);
+	}
+
 	/**
 	 * Returns new buffer and recycles buffer from arguments.
 	 *
@@ -203,7 +650,19 @@ public final class ByteBufPool {
 		int index = 32 - numberOfLeadingZeros(buf.array.length - 1);
 		ConcurrentStack<ByteBuf> queue = slabs[index];
 		assert !queue.contains(buf) : "duplicate recycle array";
-		queue.push(buf);
+		if (buf.allocatedBy != null) {
+			buf.allocatedBy.addAndGet(-buf.array.length);
+			buf.allocatedBy = null;
+		}
+		int capacity = magazineCapacity;
+		ThreadCache cache;
+		if (capacity != 0 && buf.array.length <= magazineMaxSize && (cache = threadCaches.get()) != null) {
+			cache.push(index, capacity, buf);
+		} else if (reserve(index, 1)) {
+			queue.push(buf);
+		} else {
+			drop(index, 1);
+		}
 	}
 
 	@VisibleForTesting
@@ -212,12 +671,32 @@ public final class ByteBufPool {
 	}
 
 	/**
-	 * Removes all items from this pool
+	 * Removes all items from this pool and from magazines of current thread
 	 */
 	public static void clear() {
 		for (int i = 0; i < ByteBufPool.NUMBER_SLABS; i++) {
 			slabs[i].clear();
-			created[i] = 0;
+			created.set(i, 0);
+			slabItems.set(i, 0);
+		}
+		poolBytes.set(0);
+		synchronized (lastSlabDemand) {
+			Arrays.fill(lastSlabActive, 0L);
+			nextTrimTime = 0;
+		}
+		ThreadCache cache = threadCaches.get();
+		if (cache != null)
+			cache.clear();
+		ByteBufLeakDetector.clear();
+	}
+
+	/**
+	 * Removes all direct buffers from this pool, leaving them to GC
+	 */
+	public static void clearDirect() {
+		for (int i = 0; i < ByteBufPool.NUMBER_SLABS; i++) {
+			directSlabs[i].clear();
+			directCreated.set(i, 0);
 		}
 	}
 
@@ -253,6 +732,176 @@ public final class ByteBufPool {
 				return ByteBufPool.getPoolSize() / 1024;
 			}
 
+			@Override
+			public int getDirectCreatedItems() {
+				int items = 0;
+				for (int i = 0; i < directCreated.length(); i++) {
+					items += directCreated.get(i);
+				}
+				return items;
+			}
+
+			@Override
+			public int getDirectPoolItems() {
+				int result = 0;
+				for (ConcurrentStack<ByteBuffer> slab : directSlabs) {
+					result += slab.size();
+				}
+				return result;
+			}
+
+			@Override
+			public long getDirectPoolSizeKB() {
+				long result = 0;
+				for (int i = 0; i < directSlabs.length - 1; i++) {
+					result += (1L << i) * directSlabs[i].size();
+				}
+				return result / 1024;
+			}
+
+			@Override
+			public List<String> getDirectPoolSlabs() {
+				Joiner joiner = Joiner.on(',');
+				List<String> result = new ArrayList<>(directSlabs.length + 1);
+				result.add("SlotSize,Created,InPool,Total(Kb)");
+				for (int i = 0; i < directSlabs.length; i++) {
+					if (directCreated.get(i) == 0)
+						continue;
+					long slotSize = 1L << i;
+					int count = directSlabs[i].size();
+					result.add(joiner.join(slotSize & 0xffffffffL, directCreated.get(i), count, slotSize * count / 1024));
+				}
+				return result;
+			}
+
+			@Override
+			public int getCacheItems() {
+				return ByteBufPool.getCacheItems();
+			}
+
+			@Override
+			public long getCacheHits() {
+				long result = 0;
+				for (ThreadCacheStats stats : cacheStats) {
+					result += stats.hits;
+				}
+				return result;
+			}
+
+			@Override
+			public long getCacheMisses() {
+				long result = 0;
+				for (ThreadCacheStats stats : cacheStats) {
+					result += stats.misses;
+				}
+				return result;
+			}
+
+			@Override
+			public String getCacheHitRate() {
+				long hits = 0;
+				long total = 0;
+				for (ThreadCacheStats stats : cacheStats) {
+					hits += stats.hits;
+					total += stats.hits + stats.refills + stats.misses;
+				}
+				return total == 0 ? "" : String.format("%.2f%% (%d of %d)", hits * 100.0 / total, hits, total);
+			}
+
+			@Override
+			public long getCacheRefills() {
+				long result = 0;
+				for (ThreadCacheStats stats : cacheStats) {
+					result += stats.refills;
+				}
+				return result;
+			}
+
+			@Override
+			public long getCacheSpills() {
+				long result = 0;
+				for (ThreadCacheStats stats : cacheStats) {
+					result += stats.spills;
+				}
+				return result;
+			}
+
+			@Override
+			public List<String> getCacheThreads() {
+				Joiner joiner = Joiner.on(',');
+				List<String> result = new ArrayList<>();
+				result.add("Thread,Hits,Misses,Refills,Spills,Cached");
+				for (ThreadCacheStats stats : cacheStats) {
+					result.add(joiner.join(stats.threadName, stats.hits, stats.misses, stats.refills, stats.spills, stats.items));
+				}
+				return result;
+			}
+
+			@Override
+			public long getMaxPoolSizeKB() {
+				return maxPoolBytes == Long.MAX_VALUE ? -1 : maxPoolBytes / 1024;
+			}
+
+			@Override
+			public long getMaxSlabSizeKB() {
+				return maxSlabBytes == Long.MAX_VALUE ? -1 : maxSlabBytes / 1024;
+			}
+
+			@Override
+			public long getDroppedItems() {
+				return droppedItems.get();
+			}
+
+			@Override
+			public long getIdleSlabTrimmingMillis() {
+				return idleTrimMillis;
+			}
+
+			@Override
+			public long getTrimmedItems() {
+				synchronized (lastSlabDemand) {
+					return trimmedItems;
+				}
+			}
+
+			@Override
+			public List<String> getOutstandingThreads() {
+				Joiner joiner = Joiner.on(',');
+				List<String> result = new ArrayList<>();
+				result.add("Thread,Outstanding(Kb)");
+				pruneCacheStats();
+				for (ThreadCacheStats stats : cacheStats) {
+					result.add(joiner.join(stats.threadName, stats.outstandingBytes.get() / 1024));
+				}
+				return result;
+			}
+
+			@Override
+			public double getLeakSamplingRate() {
+				return ByteBufLeakDetector.samplingRate;
+			}
+
+			@Override
+			public void setLeakSamplingRate(double samplingRate) {
+				setLeakDetection(samplingRate);
+			}
+
+			@Override
+			public long getLeaks() {
+				return ByteBufPool.getLeaks();
+			}
+
+			@Override
+			public int getLeakTrackedItems() {
+				return ByteBufLeakDetector.getTrackedItems();
+			}
+
+			@Override
+			public List<String> getRecentLeaks() {
+				ByteBufLeakDetector.checkLeaks();
+				return ByteBufLeakDetector.getRecentLeaks();
+			}
+
 			@Override
 			public List<String> getPoolSlabs() {
 				assert slabs.length == 33 : "Except slabs[32] that contains ByteBufs with size 0";
@@ -262,7 +911,7 @@ public final class ByteBufPool {
 				for (int i = 0; i < slabs.length; i++) {
 					long slotSize = 1L << i;
 					int count = slabs[i].size();
-					result.add(joiner.join(slotSize & 0xffffffffL, created[i], count, slotSize * count / 1024));
+					result.add(joiner.join(slotSize & 0xffffffffL, created.get(i), count, slotSize * count / 1024));
 				}
 				return result;
 			}
@@ -271,15 +920,25 @@ public final class ByteBufPool {
 
 	public static int getCreatedItems() {
 		int items = 0;
-		for (int n : created) {
-			items += n;
+		for (int i = 0; i < NUMBER_SLABS; i++) {
+			items += created.get(i);
 		}
 		return items;
 	}
 
 	public static int getCreatedItems(int slab) {
 		checkArgument(slab >= 0 && slab < slabs.length);
-		return created[slab];
+		return created.get(slab);
+	}
+
+	public static int getDirectCreatedItems(int slab) {
+		checkArgument(slab >= 0 && slab < directSlabs.length);
+		return directCreated.get(slab);
+	}
+
+	public static int getDirectPoolItems(int slab) {
+		checkArgument(slab >= 0 && slab < directSlabs.length);
+		return directSlabs[slab].size();
 	}
 
 	public static int getPoolItems(int slab) {
@@ -295,6 +954,14 @@ public final class ByteBufPool {
 		return result;
 	}
 
+	public static int getCacheItems() {
+		int result = 0;
+		for (ThreadCacheStats stats : cacheStats) {
+			result += stats.items;
+		}
+		return result;
+	}
+
 	public static String getPoolItemsString() {
 		StringBuilder sb = new StringBuilder();
 		for (int i = 0; i < ByteBufPool.NUMBER_SLABS; ++i) {
@@ -29,4 +29,48 @@ public interface ByteBufPoolMXBean {
 	long getPoolSizeKB();
 
 	List<String> getPoolSlabs();
+
+	int getDirectCreatedItems();
+
+	int getDirectPoolItems();
+
+	long getDirectPoolSizeKB();
+
+	List<String> getDirectPoolSlabs();
+
+	int getCacheItems();
+
+	long getCacheHits();
+
+	long getCacheMisses();
+
+	String getCacheHitRate();
+
+	long getCacheRefills();
+
+	long getCacheSpills();
+
+	List<String> getCacheThreads();
+
+	long getMaxPoolSizeKB();
+
+	long getMaxSlabSizeKB();
+
+	long getDroppedItems();
+
+	long getIdleSlabTrimmingMillis();
+
+	long getTrimmedItems();
+
+	List<String> getOutstandingThreads();
+
+	double getLeakSamplingRate();
+
+	void setLeakSamplingRate(double samplingRate);
+
+	long getLeaks();
+
+	int getLeakTrackedItems();
+
+	List<String> getRecentLeaks();
 }
\ No newline at end of file
@@ -145,6 +145,33 @@ public final class ByteBufQueue {
 		return result;
 	}
 
+	/**
+	 * Returns view over {@code exactSize} bytes of queue if queue has enough bytes, otherwise over all bytes from queue.
+	 * Unlike {@link #takeExactSize(int)}, bytes are never copied: queued ByteBufs and slices of them become
+	 * components of returned view.
+	 *
+	 * @param exactSize amount of bytes to return
+	 * @return view with {@code exactSize} or less bytes
+	 */
+	public CompositeByteBuf takeCompositeExactSize(int exactSize) {
+		CompositeByteBuf result = CompositeByteBuf.empty();
+		while (exactSize > 0 && hasRemaining()) {
+			ByteBuf buf = takeMaxSize(exactSize);
+			exactSize -= buf.remaining();
+			result.add(buf);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns view over all remaining bytes from queue, without copying them
+	 *
+	 * @return view with all remaining bytes
+	 */
+	public CompositeByteBuf takeCompositeRemaining() {
+		return takeCompositeExactSize(remainingBytes());
+	}
+
 	/**
 	 * Creates and returns ByteBuf with all remaining bytes from queue
 	 *
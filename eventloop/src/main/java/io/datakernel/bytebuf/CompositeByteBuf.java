@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.datakernel.bytebuf;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+import static java.lang.System.arraycopy;
+
+/**
+ * Read-only view over a sequence of {@link ByteBuf}s, which represents their remaining bytes as a single range.
+ * It owns its components: they are usually ref-counted slices of pooled buffers, taken from {@link ByteBufQueue}
+ * without copying, and they are recycled together with this view.
+ * <p>
+ * Contiguous ByteBuf is produced only on {@link #toByteBuf()}, and only if view consists of more than one component.
+ */
+public final class CompositeByteBuf {
+	private static final ByteBuf[] NO_BUFS = new ByteBuf[0];
+
+	private ByteBuf[] bufs;
+	private int size;
+	private int remaining;
+	private boolean recycled;
+
+	private CompositeByteBuf(ByteBuf[] bufs, int size, int remaining) {
+		this.bufs = bufs;
+		this.size = size;
+		this.remaining = remaining;
+	}
+
+	/**
+	 * Returns an empty view
+	 */
+	public static CompositeByteBuf empty() {
+		return new CompositeByteBuf(NO_BUFS, 0, 0);
+	}
+
+	/**
+	 * Returns view which consists of single buffer, the view becomes owner of this buffer
+	 *
+	 * @param buf buffer for wrapping
+	 */
+	public static CompositeByteBuf wrap(ByteBuf buf) {
+		return new CompositeByteBuf(new ByteBuf[]{buf}, 1, buf.remaining());
+	}
+
+	void add(ByteBuf buf) {
+		assert !recycled;
+		if (size == bufs.length) {
+			ByteBuf[] newBufs = new ByteBuf[Math.max(4, size * 2)];
+			arraycopy(bufs, 0, newBufs, 0, size);
+			bufs = newBufs;
+		}
+		bufs[size++] = buf;
+		remaining += buf.remaining();
+	}
+
+	/**
+	 * Returns total number of remaining bytes in all components
+	 */
+	public int remaining() {
+		return remaining;
+	}
+
+	public boolean hasRemaining() {
+		return remaining != 0;
+	}
+
+	/**
+	 * Returns number of components of this view
+	 */
+	public int remainingBufs() {
+		return size;
+	}
+
+	/**
+	 * Returns n-th component of this view, it remains owned by this view
+	 *
+	 * @param n index of component
+	 */
+	public ByteBuf peekBuf(int n) {
+		checkElementIndex(n, size);
+		return bufs[n];
+	}
+
+	/**
+	 * Returns byte at the given index, counted from the first remaining byte of this view
+	 *
+	 * @param index index of byte
+	 */
+	public byte at(int index) {
+		checkElementIndex(index, remaining);
+		for (int i = 0; ; i++) {
+			ByteBuf buf = bufs[i];
+			if (index < buf.remaining())
+				return buf.peek(index);
+			index -= buf.remaining();
+		}
+	}
+
+	/**
+	 * Copies {@code length} bytes starting from {@code offset} of this view to the array, without consuming them
+	 *
+	 * @param offset     offset in this view
+	 * @param dest       destination array
+	 * @param destOffset offset in destination array
+	 * @param length     number of bytes to copy
+	 */
+	public void copyTo(int offset, byte[] dest, int destOffset, int length) {
+		checkPositionIndexes(offset, offset + length, remaining);
+		for (int i = 0; i < size && length > 0; i++) {
+			ByteBuf buf = bufs[i];
+			int bufRemaining = buf.remaining();
+			if (offset >= bufRemaining) {
+				offset -= bufRemaining;
+				continue;
+			}
+			int n = Math.min(bufRemaining - offset, length);
+			arraycopy(buf.array(), buf.position() + offset, dest, destOffset, n);
+			offset = 0;
+			destOffset += n;
+			length -= n;
+		}
+	}
+
+	/**
+	 * Copies all remaining bytes of this view to the destination buffer and advances its position,
+	 * this view is not changed
+	 *
+	 * @param dest destination buffer
+	 */
+	public void copyTo(ByteBuf dest) {
+		for (int i = 0; i < size; i++) {
+			dest.put(bufs[i].array(), bufs[i].position(), bufs[i].remaining());
+		}
+	}
+
+	/**
+	 * Converts this view to contiguous ByteBuf and transfers its ownership to caller. View must not be used after it.
+	 * If view consists of single component, it is returned as is, otherwise bytes are copied to pool-allocated buffer.
+	 */
+	public ByteBuf toByteBuf() {
+		assert !recycled;
+		recycled = true;
+		if (size == 0)
+			return ByteBuf.empty();
+		if (size == 1)
+			return bufs[0];
+		ByteBuf result = ByteBufPool.allocate(remaining);
+		copyTo(0, result.array(), 0, remaining);
+		for (int i = 0; i < size; i++) {
+			bufs[i].recycle();
+		}
+		return result;
+	}
+
+	/**
+	 * Recycles all components of this view
+	 */
+	public void recycle() {
+		assert !recycled;
+		recycled = true;
+		for (int i = 0; i < size; i++) {
+			bufs[i].recycle();
+		}
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < size; i++) {
+			sb.append(bufs[i]);
+		}
+		return sb.toString();
+	}
+}
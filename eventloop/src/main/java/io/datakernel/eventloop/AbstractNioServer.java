@@ -33,6 +33,7 @@ import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
 import java.util.List;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static io.datakernel.net.ServerSocketSettings.DEFAULT_BACKLOG;
@@ -55,6 +56,8 @@ public abstract class AbstractNioServer<S extends AbstractNioServer<S>> implemen
 	 */
 	private ServerSocketSettings serverSocketSettings = DEFAULT_SERVER_SOCKET_SETTINGS;
 	private SocketSettings socketSettings = defaultSocketSettings();
+	private int minReceiveBufferSize;
+	private int maxReceiveBufferSize;
 
 	protected final NioEventloop eventloop;
 
@@ -87,6 +90,18 @@ public abstract class AbstractNioServer<S extends AbstractNioServer<S>> implemen
 		return self();
 	}
 
+	/**
+	 * Enables adaptive receive buffer sizing for accepted connections, bounds are rounded up to powers of two.
+	 *
+	 * @see SocketConnection#setAdaptiveReceiveBufferSize(int, int)
+	 */
+	public S adaptiveReceiveBufferSize(int minSize, int maxSize) {
+		checkArgument(minSize > 0 && minSize <= maxSize, "Illegal receive buffer size bounds: %s..%s", minSize, maxSize);
+		this.minReceiveBufferSize = minSize;
+		this.maxReceiveBufferSize = maxSize;
+		return self();
+	}
+
 	public S setListenAddresses(InetSocketAddress... listenAddresses) {
 		this.listenAddresses = checkNotNull(listenAddresses);
 		return self();
@@ -234,6 +249,9 @@ public abstract class AbstractNioServer<S extends AbstractNioServer<S>> implemen
 		totalAccepts++;
 		prepareSocket(socketChannel);
 		SocketConnection connection = createConnection(socketChannel);
+		if (minReceiveBufferSize != 0) {
+			connection.setAdaptiveReceiveBufferSize(minReceiveBufferSize, maxReceiveBufferSize);
+		}
 		connection.register();
 		if (acceptOnce) {
 			close();
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.datakernel.eventloop;
+
+import io.datakernel.jmx.StatsCounter;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Sheds load of servers based on measured queueing delay of requests rather than on eventloop load heuristics,
+ * as opposed to {@link ThrottlingController}. Queueing delay of request is the time since I/O events of
+ * the current eventloop tick became ready, see {@link NioEventloop#getEventsArrivalTime()}.
+ */
+public final class AdmissionController implements AdmissionControllerMBean {
+	private final NioEventloop eventloop;
+	private final AdmissionPolicy policy;
+
+	// JMX
+	private long admittedRequests;
+	private long rejectedRequests;
+	private final StatsCounter queueingDelay = new StatsCounter();
+
+	public AdmissionController(NioEventloop eventloop, AdmissionPolicy policy) {
+		this.eventloop = checkNotNull(eventloop);
+		this.policy = checkNotNull(policy);
+	}
+
+	public static AdmissionController createCoDelAdmissionController(NioEventloop eventloop) {
+		return new AdmissionController(eventloop, new CoDelAdmissionPolicy());
+	}
+
+	public AdmissionPolicy getPolicy() {
+		return policy;
+	}
+
+	/**
+	 * Should be called by server before processing each request.
+	 *
+	 * @return true if request should be processed, false if it should be rejected
+	 */
+	public boolean admitRequest() {
+		assert eventloop.inEventloopThread();
+		long now = eventloop.refreshTimestampAndGet();
+		long delay = Math.max(0L, now - eventloop.getEventsArrivalTime());
+		queueingDelay.add((int) delay);
+		if (policy.admit(delay, now)) {
+			admittedRequests++;
+			return true;
+		}
+		rejectedRequests++;
+		return false;
+	}
+
+	// JMX
+	@Override
+	public long getAdmittedRequests() {
+		return admittedRequests;
+	}
+
+	@Override
+	public long getRejectedRequests() {
+		return rejectedRequests;
+	}
+
+	@Override
+	public String getQueueingDelayMillis() {
+		return queueingDelay.toString();
+	}
+
+	@Override
+	public void resetStats() {
+		admittedRequests = 0;
+		rejectedRequests = 0;
+		queueingDelay.reset();
+	}
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.datakernel.eventloop;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * CoDel-style admission policy. If queueing delay did not fall below target delay during the whole interval,
+ * queue is considered standing and requests which have waited longer than target delay are rejected
+ * during the next interval. Otherwise only requests which have waited longer than the whole interval are rejected.
+ */
+public final class CoDelAdmissionPolicy implements AdmissionPolicy, CoDelAdmissionPolicyMBean {
+	public static final long DEFAULT_TARGET_DELAY = 5L;
+	public static final long DEFAULT_INTERVAL = 100L;
+
+	private long targetDelay;
+	private long interval;
+
+	private long intervalStart;
+	private long minDelay = Long.MAX_VALUE;
+	private boolean overloaded;
+
+	// JMX
+	private long overloadedIntervals;
+
+	public CoDelAdmissionPolicy(long targetDelay, long interval) {
+		checkArgument(targetDelay >= 0 && targetDelay < interval, "Target delay must be less than interval");
+		this.targetDelay = targetDelay;
+		this.interval = interval;
+	}
+
+	public CoDelAdmissionPolicy() {
+		this(DEFAULT_TARGET_DELAY, DEFAULT_INTERVAL);
+	}
+
+	@Override
+	public boolean admit(long queueingDelay, long now) {
+		if (now - intervalStart >= interval) {
+			overloaded = minDelay != Long.MAX_VALUE && minDelay > targetDelay;
+			if (overloaded)
+				overloadedIntervals++;
+			intervalStart = now;
+			minDelay = Long.MAX_VALUE;
+		}
+		if (queueingDelay < minDelay)
+			minDelay = queueingDelay;
+		return queueingDelay <= (overloaded ? targetDelay : interval);
+	}
+
+	// JMX
+	@Override
+	public long getTargetDelay() {
+		return targetDelay;
+	}
+
+	@Override
+	public void setTargetDelay(long targetDelay) {
+		checkArgument(targetDelay >= 0 && targetDelay < interval, "Target delay must be less than interval");
+		this.targetDelay = targetDelay;
+	}
+
+	@Override
+	public long getInterval() {
+		return interval;
+	}
+
+	@Override
+	public void setInterval(long interval) {
+		checkArgument(targetDelay < interval, "Target delay must be less than interval");
+		this.interval = interval;
+	}
+
+	@Override
+	public boolean isOverloaded() {
+		return overloaded;
+	}
+
+	@Override
+	public long getOverloadedIntervals() {
+		return overloadedIntervals;
+	}
+
+	@Override
+	public void resetStats() {
+		overloadedIntervals = 0;
+	}
+}
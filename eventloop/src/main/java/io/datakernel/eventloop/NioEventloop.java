@@ -19,6 +19,7 @@ package io.datakernel.eventloop;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Stopwatch;
 import io.datakernel.annotation.Nullable;
+import io.datakernel.bytebuf.ByteBufPool;
 import io.datakernel.jmx.CompositeDataBuilder;
 import io.datakernel.jmx.LastExceptionCounter;
 import io.datakernel.jmx.MBeanFormat;
@@ -28,6 +29,7 @@ import io.datakernel.net.SocketSettings;
 import io.datakernel.time.CurrentTimeProvider;
 import io.datakernel.time.CurrentTimeProviderSystem;
 import io.datakernel.util.ExceptionMarker;
+import io.datakernel.util.MpscArrayQueue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -46,6 +48,7 @@ import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static io.datakernel.jmx.MBeanUtils.register;
 
 /**
@@ -61,6 +64,7 @@ public final class NioEventloop implements Eventloop, Runnable, NioEventloopMBea
 
 	private static final TimeoutException CONNECT_TIMEOUT = new TimeoutException("Connection timed out");
 	private static final long DEFAULT_EVENT_TIMEOUT = 20L;
+	private static final long LOAD_PERIOD = 100L;
 
 	/**
 	 * Collection of local tasks which was added from this thread.
@@ -70,18 +74,30 @@ public final class NioEventloop implements Eventloop, Runnable, NioEventloopMBea
 	/**
 	 * Collection of concurrent tasks which was added from other threads.
 	 */
-	private final ConcurrentLinkedQueue<Runnable> concurrentTasks = new ConcurrentLinkedQueue<>();
+	private final Queue<Runnable> concurrentTasks;
+
+	/**
+	 * Concurrent tasks which did not fit into bounded queue of concurrent tasks. While it is not empty,
+	 * new concurrent tasks are added here too, so that tasks from each thread are executed in order of posting.
+	 */
+	private final Queue<Runnable> concurrentTasksOverflow = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Set by the first concurrent post after the event loop prepares to select, so that
+	 * subsequent posts do not wake up the selector again.
+	 */
+	private final AtomicBoolean wakeupPending = new AtomicBoolean();
 
 	/**
 	 * Collection of scheduled tasks that are scheduled at particular timestamp.
 	 */
-	private final PriorityQueue<ScheduledRunnable> scheduledTasks = new PriorityQueue<>();
+	private final ScheduledQueue scheduledTasks;
 
 	/**
 	 * Collection of background tasks,
 	 * which mean that if eventloop contains only background tasks, it will be closed
 	 */
-	private final PriorityQueue<ScheduledRunnable> backgroundTasks = new PriorityQueue<>();
+	private final ScheduledQueue backgroundTasks;
 
 	/**
 	 * Count of concurrent operations in other threads, non-zero value prevents event loop from termination.
@@ -94,12 +110,23 @@ public final class NioEventloop implements Eventloop, Runnable, NioEventloopMBea
 
 	private long timeBeforeSelectorSelect;
 	private long timeAfterSelectorSelect;
+	private long eventsArrivalTime;
 
 	/**
 	 * The NIO selector which selects a set of keys whose corresponding channels
 	 */
 	private Selector selector;
 
+	/**
+	 * If true, selected keys of the selector are replaced with array-backed {@link SelectedKeySet}
+	 */
+	private boolean optimizeSelectedKeys;
+
+	/**
+	 * Array-backed selected keys of current selector, null if default set is used
+	 */
+	private SelectedKeySet selectedKeySet;
+
 	/**
 	 * The thread where eventloop is running
 	 */
@@ -122,11 +149,34 @@ public final class NioEventloop implements Eventloop, Runnable, NioEventloopMBea
 
 	public ThrottlingController throttlingController;
 
+	private volatile StallDetector stallDetector;
+
 	/**
 	 * Count of selected keys for last Selector.select()
 	 */
 	private int lastSelectedKeys;
 
+	/**
+	 * Idle strategy: number of non-blocking selects, and then of non-blocking selects after yielding the thread,
+	 * performed before blocking select
+	 */
+	private int spinSelects;
+	private int yieldSelects;
+
+	/**
+	 * Count of consecutive loop iterations without selected keys and concurrent tasks
+	 */
+	private int idleSelects;
+
+	/**
+	 * Count of registered keys and percentage of time spent outside of selector select during the last
+	 * load period, published for other threads, for example for dispatching of accepted connections
+	 */
+	private final AtomicInteger registeredKeys = new AtomicInteger();
+	private final AtomicInteger loadPercent = new AtomicInteger();
+	private long loadBusyTime;
+	private long loadTotalTime;
+
 	// JMX
 	private static final ExceptionMarker ACCEPT_MARKER = NioEventloopStats.exceptionMarker(NioEventloop.class, "AcceptException");
 	private static final ExceptionMarker CONNECT_MARKER = NioEventloopStats.exceptionMarker(NioEventloop.class, "ConnectException");
@@ -154,14 +204,48 @@ public final class NioEventloop implements Eventloop, Runnable, NioEventloopMBea
 	 * @param timeProvider provider for retrieving time on each cycle of event loop. Useful for unit testing.
 	 */
 	public NioEventloop(CurrentTimeProvider timeProvider) {
+		this(timeProvider, false);
+	}
+
+	/**
+	 * Creates a new instance of Eventloop with given timeProvider and implementation of scheduled tasks queues
+	 *
+	 * @param timeProvider provider for retrieving time on each cycle of event loop. Useful for unit testing.
+	 * @param timingWheel  if true, scheduled and background tasks are kept in hierarchical timing wheels
+	 *                     with O(1) scheduling and cancellation, otherwise in binary heaps
+	 */
+	public NioEventloop(CurrentTimeProvider timeProvider, boolean timingWheel) {
+		this(timeProvider, timingWheel, 0);
+	}
+
+	/**
+	 * Creates a new instance of Eventloop with given timeProvider, implementation of scheduled tasks queues
+	 * and queue of concurrent tasks
+	 *
+	 * @param timeProvider            provider for retrieving time on each cycle of event loop. Useful for unit testing.
+	 * @param timingWheel             if true, scheduled and background tasks are kept in hierarchical timing wheels
+	 *                                with O(1) scheduling and cancellation, otherwise in binary heaps
+	 * @param concurrentTasksCapacity if positive, concurrent tasks are kept in bounded allocation-free
+	 *                                {@link MpscArrayQueue} of this capacity, tasks which do not fit are kept
+	 *                                in unbounded overflow queue; if 0, in unbounded {@link ConcurrentLinkedQueue}
+	 */
+	public NioEventloop(CurrentTimeProvider timeProvider, boolean timingWheel, int concurrentTasksCapacity) {
 		this.timeProvider = timeProvider;
-		refreshTimestampAndGet();
+		this.concurrentTasks = concurrentTasksCapacity != 0 ?
+				new MpscArrayQueue<Runnable>(concurrentTasksCapacity) :
+				new ConcurrentLinkedQueue<Runnable>();
+		long timestamp = refreshTimestampAndGet();
+		this.scheduledTasks = timingWheel ? new ScheduledTimingWheel(timestamp) : new ScheduledHeapQueue();
+		this.backgroundTasks = timingWheel ? new ScheduledTimingWheel(timestamp) : new ScheduledHeapQueue();
 	}
 
 	private void openSelector() {
 		if (selector == null) {
 			try {
 				selector = SelectorProvider.provider().openSelector();
+				if (optimizeSelectedKeys) {
+					selectedKeySet = SelectedKeySet.install(selector);
+				}
 			} catch (Exception exception) {
 				logger.error("Could not open selector", exception);
 				throw new RuntimeException(exception);
@@ -177,6 +261,7 @@ public final class NioEventloop implements Eventloop, Runnable, NioEventloopMBea
 			try {
 				selector.close();
 				selector = null;
+				selectedKeySet = null;
 			} catch (Exception exception) {
 				logger.error("Could not close selector", exception);
 				throw new RuntimeException(exception);
@@ -191,10 +276,44 @@ public final class NioEventloop implements Eventloop, Runnable, NioEventloopMBea
 		return selector;
 	}
 
+	/**
+	 * Sets whether selected keys are collected into array instead of {@code HashSet}, so that dispatch loop
+	 * iterates them by index without garbage. If JDK selector does not allow it, default set is used.
+	 * On Java 9 and later it requires {@code --add-opens java.base/sun.nio.ch=ALL-UNNAMED}.
+	 *
+	 * @param optimizeSelectedKeys true for array-backed selected keys
+	 */
+	public void optimizeSelectedKeys(boolean optimizeSelectedKeys) {
+		assert inEventloopThread();
+		this.optimizeSelectedKeys = optimizeSelectedKeys;
+		if (selector != null && optimizeSelectedKeys && selectedKeySet == null) {
+			selectedKeySet = SelectedKeySet.install(selector);
+		}
+	}
+
+	public boolean isOptimizedSelectedKeys() {
+		return selectedKeySet != null;
+	}
+
 	public boolean inEventloopThread() {
 		return eventloopThread == null || eventloopThread == Thread.currentThread();
 	}
 
+	/**
+	 * Sets idle strategy of this eventloop, which trades CPU for latency. After the last I/O event or concurrent task
+	 * eventloop polls selector without blocking for {@code spinSelects} iterations, then for {@code yieldSelects}
+	 * iterations yielding the thread before each poll, and only then blocks in select with timeout.
+	 * By default both values are 0, so eventloop blocks right away.
+	 *
+	 * @param spinSelects  number of busy-spinning non-blocking selects
+	 * @param yieldSelects number of non-blocking selects preceded by {@link Thread#yield()}
+	 */
+	public void setIdleStrategy(int spinSelects, int yieldSelects) {
+		checkArgument(spinSelects >= 0 && yieldSelects >= 0, "Number of selects can not be negative");
+		this.spinSelects = spinSelects;
+		this.yieldSelects = yieldSelects;
+	}
+
 	/**
 	 * Sets the flag keep alive, if it is true it means that working of this Eventloop will be
 	 * continued even in case when all tasks have been executed and it doesn't have selected keys.
@@ -212,7 +331,7 @@ public final class NioEventloop implements Eventloop, Runnable, NioEventloopMBea
 	private boolean isKeepAlive() {
 		if (breakEventloop)
 			return false;
-		return !localTasks.isEmpty() || !scheduledTasks.isEmpty() || !concurrentTasks.isEmpty()
+		return !localTasks.isEmpty() || !scheduledTasks.isEmpty() || hasConcurrentTasks()
 				|| concurrentOperationsCount.get() > 0
 				|| keepAlive || !selector.keys().isEmpty();
 	}
@@ -236,6 +355,7 @@ public final class NioEventloop implements Eventloop, Runnable, NioEventloopMBea
 			eventloopThread.setName(threadName);
 		ensureSelector();
 		breakEventloop = false;
+		ByteBufPool.enableThreadCache();
 
 		timeBeforeSelectorSelect = timeAfterSelectorSelect = 0;
 		while (isKeepAlive()) {
@@ -245,9 +365,17 @@ public final class NioEventloop implements Eventloop, Runnable, NioEventloopMBea
 				statsCounters.incMonitoringLoop();
 				updateBusinessLogicTimeStats();
 
-				selector.select(getSelectTimeout());
+				StallDetector stallDetector = this.stallDetector;
+				if (stallDetector != null)
+					stallDetector.beforeSelect();
+
+				wakeupPending.set(false);
+				select();
 				updateSelectorSelectTimeStats();
 
+				if (stallDetector != null)
+					stallDetector.afterSelect();
+
 				processSelectedKeys(selector.selectedKeys());
 				executeConcurrentTasks();
 				executeScheduledTasks();
@@ -259,6 +387,7 @@ public final class NioEventloop implements Eventloop, Runnable, NioEventloopMBea
 			}
 		}
 
+		ByteBufPool.disableThreadCache();
 		eventloopThread = null;
 		if (selector.keys().isEmpty()) {
 			closeSelector();
@@ -268,6 +397,24 @@ public final class NioEventloop implements Eventloop, Runnable, NioEventloopMBea
 		}
 	}
 
+	private void select() throws IOException {
+		long timeout = getSelectTimeout();
+		int selectedKeys;
+		if (timeout == 0L || idleSelects < spinSelects) {
+			selectedKeys = selector.selectNow();
+		} else if (idleSelects < spinSelects + yieldSelects) {
+			Thread.yield();
+			selectedKeys = selector.selectNow();
+		} else {
+			selectedKeys = selector.select(timeout);
+		}
+		if (selectedKeys != 0 || hasConcurrentTasks()) {
+			idleSelects = 0;
+		} else if (idleSelects != Integer.MAX_VALUE) {
+			idleSelects++;
+		}
+	}
+
 	private void updateBusinessLogicTimeStats() {
 		timeBeforeSelectorSelect = refreshTimestampAndGet();
 		if (timeAfterSelectorSelect != 0) {
@@ -280,35 +427,41 @@ public final class NioEventloop implements Eventloop, Runnable, NioEventloopMBea
 	}
 
 	private void updateSelectorSelectTimeStats() {
+		long businessLogicTime = timeAfterSelectorSelect != 0 ? timeBeforeSelectorSelect - timeAfterSelectorSelect : 0L;
+		long previousTimeAfterSelectorSelect = timeAfterSelectorSelect;
 		timeAfterSelectorSelect = refreshTimestampAndGet();
 		long selectorSelectTime = timeAfterSelectorSelect - timeBeforeSelectorSelect;
+		// events which have not woken blocked selector up were pending since previous select
+		eventsArrivalTime = (selectorSelectTime != 0 || previousTimeAfterSelectorSelect == 0) ?
+				timeAfterSelectorSelect : previousTimeAfterSelectorSelect;
 		statsCounters.updateSelectorSelectTime(selectorSelectTime);
+		updateLoad(businessLogicTime, selectorSelectTime);
+	}
+
+	private void updateLoad(long businessLogicTime, long selectorSelectTime) {
+		registeredKeys.lazySet(selector.keys().size());
+		loadBusyTime += businessLogicTime;
+		loadTotalTime += businessLogicTime + selectorSelectTime;
+		if (loadTotalTime >= LOAD_PERIOD) {
+			loadPercent.lazySet((int) (loadBusyTime * 100 / loadTotalTime));
+			loadBusyTime = 0;
+			loadTotalTime = 0;
+			ByteBufPool.trimIdleSlabs(currentTimeMillis());
+		}
 	}
 
 	private long getSelectTimeout() {
-		if (!concurrentTasks.isEmpty())
-			return 1L;
+		if (hasConcurrentTasks())
+			return 0L;
 		if (scheduledTasks.isEmpty() && backgroundTasks.isEmpty())
 			return DEFAULT_EVENT_TIMEOUT;
-		long timeout = Math.min(getTimeBeforeExecution(scheduledTasks), getTimeBeforeExecution(backgroundTasks));
+		long timeout = Math.min(scheduledTasks.getTimeBeforeExecution(currentTimeMillis(), DEFAULT_EVENT_TIMEOUT),
+				backgroundTasks.getTimeBeforeExecution(currentTimeMillis(), DEFAULT_EVENT_TIMEOUT));
 		if (timeout < 1L)
 			return 1L;
 		return Math.min(DEFAULT_EVENT_TIMEOUT, timeout);
 	}
 
-	private long getTimeBeforeExecution(PriorityQueue<ScheduledRunnable> taskQueue) {
-		while (!taskQueue.isEmpty()) {
-			ScheduledRunnable first = taskQueue.peek();
-			assert first != null; // unreachable condition
-			if (first.isCancelled()) {
-				taskQueue.poll();
-				continue;
-			}
-			return first.getTimestamp() - currentTimeMillis();
-		}
-		return DEFAULT_EVENT_TIMEOUT;
-	}
-
 	/**
 	 * Processes selected keys related to various I/O events: accept, connect, read, write.
 	 *
@@ -324,36 +477,52 @@ public final class NioEventloop implements Eventloop, Runnable, NioEventloopMBea
 
 		Stopwatch sw = statsCounters.isMonitoring() ? Stopwatch.createStarted() : null;
 
-		Iterator<SelectionKey> iterator = selectedKeys.iterator();
-		while (iterator.hasNext()) {
-			SelectionKey key = iterator.next();
-			iterator.remove();
-
-			if (!key.isValid()) {
-				invalidKeys++;
-				continue;
-			}
+		SelectedKeySet keySet = selectedKeySet;
+		SelectionKey[] keys = keySet != null ? keySet.keys : null;
+		Iterator<SelectionKey> iterator = keys == null ? selectedKeys.iterator() : null;
+		try {
+			for (int i = 0; keys != null ? i < lastSelectedKeys : iterator.hasNext(); i++) {
+				SelectionKey key;
+				if (keys != null) {
+					key = keys[i];
+				} else {
+					key = iterator.next();
+					iterator.remove();
+				}
 
-			if (key.isAcceptable()) {
-				onAccept(key);
-				acceptKeys++;
-			} else if (key.isConnectable()) {
-				onConnect(key);
-				connectKeys++;
-			} else {
-				if (key.isReadable()) {
-					onRead(key);
-					readKeys++;
+				if (!key.isValid()) {
+					invalidKeys++;
+					continue;
 				}
-				if (key.isValid()) {
-					if (key.isWritable()) {
-						onWrite(key);
-						writeKeys++;
-					}
+
+				if (stallDetector != null)
+					stallDetector.beforeTask(key.attachment());
+
+				if (key.isAcceptable()) {
+					onAccept(key);
+					acceptKeys++;
+				} else if (key.isConnectable()) {
+					onConnect(key);
+					connectKeys++;
 				} else {
-					invalidKeys++;
+					if (key.isReadable()) {
+						onRead(key);
+						readKeys++;
+					}
+					if (key.isValid()) {
+						if (key.isWritable()) {
+							onWrite(key);
+							writeKeys++;
+						}
+					} else {
+						invalidKeys++;
+					}
 				}
 			}
+		} finally {
+			if (keySet != null) {
+				keySet.clear();
+			}
 		}
 		statsCounters.updateSelectedKeysTimeStats(sw);
 		statsCounters.updateSelectedKeysStats(lastSelectedKeys, invalidKeys, acceptKeys, connectKeys, readKeys, writeKeys);
@@ -378,6 +547,8 @@ public final class NioEventloop implements Eventloop, Runnable, NioEventloopMBea
 				sw.reset();
 				sw.start();
 			}
+			if (stallDetector != null)
+				stallDetector.beforeTask(item);
 
 			try {
 				item.run();
@@ -406,13 +577,17 @@ public final class NioEventloop implements Eventloop, Runnable, NioEventloopMBea
 		while (true) {
 			Runnable runnable = concurrentTasks.poll();
 			if (runnable == null) {
-				break;
+				runnable = concurrentTasksOverflow.poll();
+				if (runnable == null)
+					break;
 			}
 
 			if (sw != null) {
 				sw.reset();
 				sw.start();
 			}
+			if (stallDetector != null)
+				stallDetector.beforeTask(runnable);
 
 			try {
 				runnable.run();
@@ -440,30 +615,23 @@ public final class NioEventloop implements Eventloop, Runnable, NioEventloopMBea
 		executeScheduledTasks(backgroundTasks);
 	}
 
-	private void executeScheduledTasks(PriorityQueue<ScheduledRunnable> taskQueue) {
+	private void executeScheduledTasks(ScheduledQueue taskQueue) {
 		int newRunnables = 0;
 		Stopwatch swTotal = statsCounters.isMonitoring() ? Stopwatch.createStarted() : null;
 		Stopwatch sw = statsCounters.isMonitoring() ? Stopwatch.createUnstarted() : null;
 
 		for (; ; ) {
-			ScheduledRunnable peeked = taskQueue.peek();
-			if (peeked == null)
-				break;
-			if (peeked.isCancelled()) {
-				taskQueue.poll();
-				continue;
-			}
-			if (peeked.getTimestamp() >= currentTimeMillis()) {
+			ScheduledRunnable polled = taskQueue.pollExpired(currentTimeMillis());
+			if (polled == null)
 				break;
-			}
-			ScheduledRunnable polled = taskQueue.poll();
-			assert polled == peeked;
 
 			Runnable runnable = polled.getRunnable();
 			if (sw != null) {
 				sw.reset();
 				sw.start();
 			}
+			if (stallDetector != null)
+				stallDetector.beforeTask(runnable);
 
 			try {
 				runnable.run();
@@ -767,15 +935,29 @@ public final class NioEventloop implements Eventloop, Runnable, NioEventloopMBea
 
 	/**
 	 * Posts a new task from other threads.
-	 * Wakes up the selector if necessary.
+	 * Wakes up the selector if necessary, only the first post after event loop has prepared to select
+	 * performs actual wakeup.
 	 * This is the preferred method of communicating with this eventloop from other threads.
+	 * If concurrent tasks queue is bounded and full, task is added to unbounded overflow queue,
+	 * so posting thread never waits for event loop.
 	 *
 	 * @param runnable runnable of this task
 	 */
 	@Override
 	public void postConcurrently(Runnable runnable) {
-		concurrentTasks.offer(runnable);
-		if (selector != null) {
+		if (!concurrentTasksOverflow.isEmpty() || !concurrentTasks.offer(runnable)) {
+			concurrentTasksOverflow.add(runnable);
+		}
+		wakeup();
+	}
+
+	private boolean hasConcurrentTasks() {
+		return !concurrentTasks.isEmpty() || !concurrentTasksOverflow.isEmpty();
+	}
+
+	private void wakeup() {
+		Selector selector = this.selector;
+		if (selector != null && wakeupPending.compareAndSet(false, true)) {
 			selector.wakeup();
 		}
 	}
@@ -808,8 +990,8 @@ public final class NioEventloop implements Eventloop, Runnable, NioEventloopMBea
 
 	private ScheduledRunnable addScheduledTask(long timestamp, Runnable runnable, boolean background) {
 		ScheduledRunnable scheduledRunnable = new ScheduledRunnable(timestamp, runnable);
-		PriorityQueue<ScheduledRunnable> taskQueue = background ? backgroundTasks : scheduledTasks;
-		taskQueue.offer(scheduledRunnable);
+		ScheduledQueue taskQueue = background ? backgroundTasks : scheduledTasks;
+		taskQueue.add(scheduledRunnable);
 		return scheduledRunnable;
 	}
 
@@ -847,6 +1029,14 @@ public final class NioEventloop implements Eventloop, Runnable, NioEventloopMBea
 		return timestamp;
 	}
 
+	/**
+	 * Returns estimated time when I/O events processed in the current tick became ready.
+	 * Difference between current time and this value is queueing delay of requests received in this tick.
+	 */
+	public long getEventsArrivalTime() {
+		return eventsArrivalTime;
+	}
+
 	/**
 	 * Returns current time of this eventloop
 	 */
@@ -861,6 +1051,14 @@ public final class NioEventloop implements Eventloop, Runnable, NioEventloopMBea
 		register(mbeanServer, MBeanFormat.name(domain, type, NioEventloopStats.class), statsCounters);
 	}
 
+	void updateReadStats(int bufferSize, int numRead) {
+		statsCounters.updateReadStats(bufferSize, numRead);
+	}
+
+	void updateGatheringWriteStats(int buffers) {
+		statsCounters.updateGatheringWriteStats(buffers);
+	}
+
 	public LastExceptionCounter getExceptionCounter(ExceptionMarker marker) {
 		return statsCounters.getExceptionCounter(marker);
 	}
@@ -889,7 +1087,7 @@ public final class NioEventloop implements Eventloop, Runnable, NioEventloopMBea
 
 	@Override
 	public int getConcurrentRunnables() {
-		return concurrentTasks.size();
+		return concurrentTasks.size() + concurrentTasksOverflow.size();
 	}
 
 	@Override
@@ -902,6 +1100,34 @@ public final class NioEventloop implements Eventloop, Runnable, NioEventloopMBea
 		return scheduledTasks.size();
 	}
 
+	/**
+	 * Returns count of channels registered in this eventloop, as of its last selector select.
+	 * May be called from any thread.
+	 */
+	@Override
+	public int getRegisteredKeys() {
+		return registeredKeys.get();
+	}
+
+	/**
+	 * Returns percentage of time this eventloop has spent outside of selector select during the last
+	 * {@value #LOAD_PERIOD} ms period. May be called from any thread.
+	 */
+	@Override
+	public int getLoadPercent() {
+		return loadPercent.get();
+	}
+
+	/**
+	 * Returns total capacity of pooled ByteBufs allocated in this eventloop thread and not recycled yet.
+	 * Requires {@link ByteBufPool#setThreadAccounting(boolean) thread accounting} to be enabled.
+	 */
+	@Override
+	public long getByteBufOutstandingKB() {
+		Thread thread = eventloopThread;
+		return thread == null ? 0 : ByteBufPool.getOutstandingBytes(thread) / 1024;
+	}
+
 	@Override
 	public CompositeData getThrottlingControllerState() throws OpenDataException {
 		if (throttlingController == null)
@@ -921,6 +1147,14 @@ public final class NioEventloop implements Eventloop, Runnable, NioEventloopMBea
 				.build();
 	}
 
+	void setStallDetector(StallDetector stallDetector) {
+		this.stallDetector = stallDetector;
+	}
+
+	Thread getEventloopThread() {
+		return eventloopThread;
+	}
+
 	@Override
 	public String getThreadName() {
 		return (eventloopThread == null) ? null : eventloopThread.getName();
@@ -30,6 +30,12 @@ public interface NioEventloopMBean {
 
 	int getScheduledRunnables();
 
+	int getRegisteredKeys();
+
+	int getLoadPercent();
+
+	long getByteBufOutstandingKB();
+
 	CompositeData getThrottlingControllerState() throws OpenDataException;
 
 	String getThreadName();
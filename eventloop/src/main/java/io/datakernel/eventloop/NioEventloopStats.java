@@ -71,6 +71,12 @@ public final class NioEventloopStats implements NioEventloopStatsMBean {
 	private final DynamicStatsCounter localTasksStats = new DynamicStatsCounter(1 << 16);
 	private final DynamicStatsCounter concurrentTasksStats = new DynamicStatsCounter(1 << 16);
 	private final DynamicStatsCounter scheduledTasksStats = new DynamicStatsCounter(1 << 16);
+	private final DynamicStatsCounter writeBuffersStats = new DynamicStatsCounter(1 << 16);
+	private final DynamicStatsCounter readBufferSizeStats = new DynamicStatsCounter(1 << 16);
+	private final DynamicStatsCounter readBytesStats = new DynamicStatsCounter(1 << 16);
+
+	private final LatencyHistogram selectorSelectTimeHistogram = new LatencyHistogram();
+	private final LatencyHistogram businessLogicTimeHistogram = new LatencyHistogram();
 
 	private final StatsCounter localTaskDuration = new StatsCounter();
 	private final DurationRunnable lastLongestLocalRunnable = new DurationRunnable();
@@ -78,6 +84,9 @@ public final class NioEventloopStats implements NioEventloopStatsMBean {
 	private final DurationRunnable lastLongestConcurrentRunnable = new DurationRunnable();
 	private final StatsCounter scheduledTaskDuration = new StatsCounter();
 	private final DurationRunnable lastLongestScheduledRunnable = new DurationRunnable();
+	private final LatencyHistogram localTaskHistogram = new LatencyHistogram();
+	private final LatencyHistogram concurrentTaskHistogram = new LatencyHistogram();
+	private final LatencyHistogram scheduledTaskHistogram = new LatencyHistogram();
 
 	private final StatsCounter selectedKeysTimeStats = new StatsCounter();
 	private final StatsCounter localTasksTimeStats = new StatsCounter();
@@ -110,6 +119,7 @@ public final class NioEventloopStats implements NioEventloopStatsMBean {
 
 		if (!isMonitoring())
 			return;
+		businessLogicTimeHistogram.record(businessLogicTime);
 		if (businessLogicTime > longLoopMillis) {
 			longLoopsRate.incNumerator();
 			longLoopLocalTasksStats.add(localTasksStats.getLastValue());
@@ -128,6 +138,8 @@ public final class NioEventloopStats implements NioEventloopStatsMBean {
 
 	void updateSelectorSelectTime(long selectorSelectTime) {
 		selectorSelectTimeStats.add((int) selectorSelectTime);
+		if (isMonitoring())
+			selectorSelectTimeHistogram.record(selectorSelectTime);
 	}
 
 	void updateSelectedKeysStats(int lastSelectedKeys, int invalidKeys, int acceptKeys, int connectKeys, int readKeys, int writeKeys) {
@@ -139,15 +151,25 @@ public final class NioEventloopStats implements NioEventloopStatsMBean {
 		writeKeysStats.add(writeKeys);
 	}
 
+	void updateReadStats(int bufferSize, int numRead) {
+		readBufferSizeStats.add(bufferSize);
+		readBytesStats.add(numRead);
+	}
+
+	void updateGatheringWriteStats(int buffers) {
+		writeBuffersStats.add(buffers);
+	}
+
 	void updateSelectedKeysTimeStats(@Nullable Stopwatch sw) {
 		if (sw != null)
 			selectedKeysTimeStats.add((int) sw.elapsed(TimeUnit.MILLISECONDS));
 	}
 
-	private void updateTaskDuration(StatsCounter counter, DurationRunnable longestCounter, Runnable runnable, @Nullable Stopwatch sw) {
+	private void updateTaskDuration(StatsCounter counter, LatencyHistogram histogram, DurationRunnable longestCounter, Runnable runnable, @Nullable Stopwatch sw) {
 		if (sw != null) {
 			int elapsed = (int) sw.elapsed(TimeUnit.MICROSECONDS);
 			counter.add(elapsed);
+			histogram.record(elapsed);
 			if (elapsed > longestCounter.getDuration()) {
 				longestCounter.update(runnable, elapsed);
 			}
@@ -155,7 +177,7 @@ public final class NioEventloopStats implements NioEventloopStatsMBean {
 	}
 
 	void updateLocalTaskDuration(Runnable runnable, @Nullable Stopwatch sw) {
-		updateTaskDuration(localTaskDuration, lastLongestLocalRunnable, runnable, sw);
+		updateTaskDuration(localTaskDuration, localTaskHistogram, lastLongestLocalRunnable, runnable, sw);
 	}
 
 	void updateLocalTasksStats(int newTasks, @Nullable Stopwatch sw) {
@@ -165,7 +187,7 @@ public final class NioEventloopStats implements NioEventloopStatsMBean {
 	}
 
 	void updateConcurrentTaskDuration(Runnable runnable, @Nullable Stopwatch sw) {
-		updateTaskDuration(concurrentTaskDuration, lastLongestConcurrentRunnable, runnable, sw);
+		updateTaskDuration(concurrentTaskDuration, concurrentTaskHistogram, lastLongestConcurrentRunnable, runnable, sw);
 	}
 
 	void updateConcurrentTasksStats(int newTasks, @Nullable Stopwatch sw) {
@@ -175,7 +197,7 @@ public final class NioEventloopStats implements NioEventloopStatsMBean {
 	}
 
 	void updateScheduledTaskDuration(Runnable runnable, @Nullable Stopwatch sw) {
-		updateTaskDuration(scheduledTaskDuration, lastLongestScheduledRunnable, runnable, sw);
+		updateTaskDuration(scheduledTaskDuration, scheduledTaskHistogram, lastLongestScheduledRunnable, runnable, sw);
 	}
 
 	void updateScheduledTasksStats(int newTasks, @Nullable Stopwatch sw) {
@@ -352,6 +374,8 @@ public final class NioEventloopStats implements NioEventloopStatsMBean {
 	public void resetStats() {
 		selectorSelectTimeStats.reset();
 		businessLogicTimeStats.reset();
+		selectorSelectTimeHistogram.reset();
+		businessLogicTimeHistogram.reset();
 
 		selectedKeysStats.reset();
 		invalidKeysStats.reset();
@@ -363,10 +387,16 @@ public final class NioEventloopStats implements NioEventloopStatsMBean {
 		localTasksStats.reset();
 		concurrentTasksStats.reset();
 		scheduledTasksStats.reset();
+		writeBuffersStats.reset();
+		readBufferSizeStats.reset();
+		readBytesStats.reset();
 
 		localTaskDuration.reset();
 		concurrentTaskDuration.reset();
 		scheduledTaskDuration.reset();
+		localTaskHistogram.reset();
+		concurrentTaskHistogram.reset();
+		scheduledTaskHistogram.reset();
 
 		selectedKeysTimeStats.reset();
 		localTasksTimeStats.reset();
@@ -480,6 +510,36 @@ public final class NioEventloopStats implements NioEventloopStatsMBean {
 		return writeKeysStats.toString();
 	}
 
+	@Override
+	public int getReadBufferSize() {
+		return readBufferSizeStats.getLastValue();
+	}
+
+	@Override
+	public String getReadBufferSizeStats() {
+		return readBufferSizeStats.toString();
+	}
+
+	@Override
+	public int getReadBytesPerCall() {
+		return readBytesStats.getLastValue();
+	}
+
+	@Override
+	public String getReadBytesPerCallStats() {
+		return readBytesStats.toString();
+	}
+
+	@Override
+	public int getWriteBuffersPerCall() {
+		return writeBuffersStats.getLastValue();
+	}
+
+	@Override
+	public String getWriteBuffersPerCallStats() {
+		return writeBuffersStats.toString();
+	}
+
 	@Override
 	public int getSelectedKeysMillis() {
 		return selectedKeysTimeStats.getLast();
@@ -500,6 +560,11 @@ public final class NioEventloopStats implements NioEventloopStatsMBean {
 		return businessLogicTimeStats.toString();
 	}
 
+	@Override
+	public String getBusinessLogicMillisPercentiles() {
+		return businessLogicTimeHistogram.toString();
+	}
+
 	@Override
 	public long getSelectorSelectMillis() {
 		return selectorSelectTimeStats.getLastValue();
@@ -510,6 +575,11 @@ public final class NioEventloopStats implements NioEventloopStatsMBean {
 		return selectorSelectTimeStats.toString();
 	}
 
+	@Override
+	public String getSelectorSelectMillisPercentiles() {
+		return selectorSelectTimeHistogram.toString();
+	}
+
 	@Override
 	public CompositeData[] getLastExceptions() throws OpenDataException {
 		if (exceptionCounters.isEmpty())
@@ -532,6 +602,11 @@ public final class NioEventloopStats implements NioEventloopStatsMBean {
 		return localTaskDuration.toString();
 	}
 
+	@Override
+	public String getLocalTaskPercentiles() {
+		return localTaskHistogram.toString();
+	}
+
 	@Override
 	public String getLocalTaskLongestMicros() {
 		return lastLongestLocalRunnable.toString();
@@ -567,6 +642,11 @@ public final class NioEventloopStats implements NioEventloopStatsMBean {
 		return concurrentTaskDuration.toString();
 	}
 
+	@Override
+	public String getConcurrentTaskPercentiles() {
+		return concurrentTaskHistogram.toString();
+	}
+
 	@Override
 	public String getConcurrentTaskLongestMicros() {
 		return lastLongestConcurrentRunnable.toString();
@@ -602,6 +682,11 @@ public final class NioEventloopStats implements NioEventloopStatsMBean {
 		return scheduledTaskDuration.toString();
 	}
 
+	@Override
+	public String getScheduledTaskPercentiles() {
+		return scheduledTaskHistogram.toString();
+	}
+
 	@Override
 	public String getScheduledTaskLongestMicros() {
 		return lastLongestScheduledRunnable.toString();
@@ -56,6 +56,18 @@ public interface NioEventloopStatsMBean {
 
 	String getWriteKeysStats();
 
+	int getReadBufferSize();
+
+	String getReadBufferSizeStats();
+
+	int getReadBytesPerCall();
+
+	String getReadBytesPerCallStats();
+
+	int getWriteBuffersPerCall();
+
+	String getWriteBuffersPerCallStats();
+
 	int getConcurrentTasksPerLoop();
 
 	String getConcurrentTasksPerLoopStats();
@@ -72,24 +84,34 @@ public interface NioEventloopStatsMBean {
 
 	String getBusinessLogicMillisStats();
 
+	String getBusinessLogicMillisPercentiles();
+
 	long getSelectorSelectMillis();
 
 	String getSelectorSelectMillisStats();
 
+	String getSelectorSelectMillisPercentiles();
+
 	CompositeData[] getLastExceptions() throws OpenDataException;
 
 	int getConcurrentTaskMicros();
 
 	String getConcurrentTaskStats();
 
+	String getConcurrentTaskPercentiles();
+
 	int getLocalTaskMicros();
 
 	String getLocalTaskStats();
 
+	String getLocalTaskPercentiles();
+
 	int getScheduledTaskMicros();
 
 	String getScheduledTaskStats();
 
+	String getScheduledTaskPercentiles();
+
 	String getConcurrentTaskLongestMicros();
 
 	String getLocalTaskLongestMicros();
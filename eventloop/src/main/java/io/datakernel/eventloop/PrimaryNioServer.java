@@ -18,14 +18,42 @@ package io.datakernel.eventloop;
 
 import java.nio.channels.SocketChannel;
 import java.util.Collection;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
  * It is the {@link AbstractNioServer} which only handles accepting to it. It contains collection of
  * other {@link NioServer}, and when takes place new accept to it, it forwards request to other server
- * from collection with round-robin algorithm.
+ * from collection, selected according to {@link DispatchPolicy}.
+ * <p>
+ * Alternatively, if the OS supports it, each worker server may listen on the same port by itself,
+ * see {@link io.datakernel.net.ServerSocketSettings#reusePort(boolean)}.
  */
 public final class PrimaryNioServer extends AbstractNioServer<PrimaryNioServer> {
+	public enum DispatchPolicy {
+		/**
+		 * Workers are selected in turn
+		 */
+		ROUND_ROBIN,
+		/**
+		 * Worker whose eventloop has the least registered channels is selected
+		 */
+		LEAST_CONNECTIONS,
+		/**
+		 * Worker whose eventloop has spent the least time outside of selector select is selected,
+		 * ties are resolved by the least registered channels
+		 */
+		LEAST_LOADED
+	}
+
 	private NioServer[] workerNioServers;
+	private DispatchPolicy dispatchPolicy = DispatchPolicy.ROUND_ROBIN;
+
+	/**
+	 * Connections which were handed off to workers, but are not yet registered in their eventloops
+	 */
+	private AtomicIntegerArray pendingAccepts;
 
 	private int currentAcceptor = 0;
 
@@ -51,8 +79,7 @@ public final class PrimaryNioServer extends AbstractNioServer<PrimaryNioServer>
 	 */
 	@SuppressWarnings("unchecked")
 	public PrimaryNioServer workerNioServers(Collection<? extends NioServer> workerNioServers) {
-		this.workerNioServers = workerNioServers.toArray(new NioServer[workerNioServers.size()]);
-		return this;
+		return workerNioServers(workerNioServers.toArray(new NioServer[workerNioServers.size()]));
 	}
 
 	/**
@@ -64,6 +91,18 @@ public final class PrimaryNioServer extends AbstractNioServer<PrimaryNioServer>
 	@SuppressWarnings("unchecked")
 	public PrimaryNioServer workerNioServers(NioServer... workerNioServers) {
 		this.workerNioServers = workerNioServers;
+		this.pendingAccepts = new AtomicIntegerArray(workerNioServers.length);
+		return this;
+	}
+
+	/**
+	 * Sets the policy of selecting worker server for each accepted connection
+	 *
+	 * @param dispatchPolicy dispatch policy, {@link DispatchPolicy#ROUND_ROBIN} by default
+	 * @return this PrimaryNioServer
+	 */
+	public PrimaryNioServer dispatchPolicy(DispatchPolicy dispatchPolicy) {
+		this.dispatchPolicy = checkNotNull(dispatchPolicy);
 		return this;
 	}
 
@@ -78,9 +117,31 @@ public final class PrimaryNioServer extends AbstractNioServer<PrimaryNioServer>
 		throw new UnsupportedOperationException();
 	}
 
+	private int selectWorker() {
+		int n = workerNioServers.length;
+		int selected = currentAcceptor;
+		if (dispatchPolicy != DispatchPolicy.ROUND_ROBIN) {
+			int minLoad = Integer.MAX_VALUE;
+			int minConnections = Integer.MAX_VALUE;
+			for (int i = 0; i < n; i++) {
+				int worker = (currentAcceptor + i) % n;
+				NioEventloop workerEventloop = workerNioServers[worker].getNioEventloop();
+				int load = dispatchPolicy == DispatchPolicy.LEAST_LOADED ? workerEventloop.getLoadPercent() : 0;
+				int connections = workerEventloop.getRegisteredKeys() + pendingAccepts.get(worker);
+				if (load < minLoad || load == minLoad && connections < minConnections) {
+					minLoad = load;
+					minConnections = connections;
+					selected = worker;
+				}
+			}
+		}
+		currentAcceptor = (currentAcceptor + 1) % n;
+		return selected;
+	}
+
 	/**
 	 * On accepting this server forwards a received socketChannel, and calls onAccept() of the specify worker server.
-	 * Method uses round-robin algorithm to select to which server task will be forwarded
+	 * Worker server is selected according to dispatch policy of this server
 	 *
 	 * @param socketChannel the incoming socketChannel.
 	 */
@@ -89,16 +150,21 @@ public final class PrimaryNioServer extends AbstractNioServer<PrimaryNioServer>
 		assert eventloop.inEventloopThread();
 		totalAccepts++;
 
-		final NioServer nioServer = workerNioServers[currentAcceptor];
-		currentAcceptor = (currentAcceptor + 1) % workerNioServers.length;
+		final int worker = selectWorker();
+		final NioServer nioServer = workerNioServers[worker];
 		NioEventloop eventloop = nioServer.getNioEventloop();
 		if (eventloop == this.eventloop) {
 			nioServer.onAccept(socketChannel);
 		} else {
+			pendingAccepts.incrementAndGet(worker);
 			eventloop.postConcurrently(new Runnable() {
 				@Override
 				public void run() {
-					nioServer.onAccept(socketChannel);
+					try {
+						nioServer.onAccept(socketChannel);
+					} finally {
+						pendingAccepts.decrementAndGet(worker);
+					}
 				}
 			});
 		}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.datakernel.eventloop;
+
+import java.util.PriorityQueue;
+
+/**
+ * Binary heap of scheduled runnables. Adding takes O(log n), cancelled runnables are removed lazily,
+ * when they reach the head of the heap.
+ */
+final class ScheduledHeapQueue implements ScheduledQueue {
+	private final PriorityQueue<ScheduledRunnable> queue = new PriorityQueue<>();
+
+	@Override
+	public void add(ScheduledRunnable scheduledRunnable) {
+		queue.offer(scheduledRunnable);
+	}
+
+	@Override
+	public ScheduledRunnable pollExpired(long currentTime) {
+		for (; ; ) {
+			ScheduledRunnable peeked = queue.peek();
+			if (peeked == null)
+				return null;
+			if (peeked.isCancelled()) {
+				queue.poll();
+				continue;
+			}
+			if (peeked.getTimestamp() >= currentTime) {
+				return null;
+			}
+			return queue.poll();
+		}
+	}
+
+	@Override
+	public long getTimeBeforeExecution(long currentTime, long defaultTime) {
+		while (!queue.isEmpty()) {
+			ScheduledRunnable first = queue.peek();
+			assert first != null; // unreachable condition
+			if (first.isCancelled()) {
+				queue.poll();
+				continue;
+			}
+			return first.getTimestamp() - currentTime;
+		}
+		return defaultTime;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return queue.isEmpty();
+	}
+
+	@Override
+	public int size() {
+		return queue.size();
+	}
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.datakernel.eventloop;
+
+/**
+ * Collection of {@link ScheduledRunnable} which are ordered by their timestamps,
+ * used by {@link NioEventloop} for scheduled and background tasks.
+ */
+interface ScheduledQueue {
+	/**
+	 * Adds the scheduled runnable to this queue
+	 */
+	void add(ScheduledRunnable scheduledRunnable);
+
+	/**
+	 * Removes and returns the scheduled runnable which timestamp is less than current time,
+	 * skipping cancelled runnables
+	 *
+	 * @param currentTime current time of eventloop
+	 * @return expired scheduled runnable or null if there are no expired runnables
+	 */
+	ScheduledRunnable pollExpired(long currentTime);
+
+	/**
+	 * Returns time in milliseconds before execution of the next scheduled runnable,
+	 * or defaultTime if there is no runnable which should be executed earlier
+	 *
+	 * @param currentTime current time of eventloop
+	 * @param defaultTime maximum time which will be returned
+	 */
+	long getTimeBeforeExecution(long currentTime, long defaultTime);
+
+	boolean isEmpty();
+
+	int size();
+}
@@ -28,6 +28,11 @@ public class ScheduledRunnable implements Comparable<ScheduledRunnable>, AsyncCa
 	private boolean cancelled;
 	private boolean complete;
 
+	// intrusive links of ScheduledTimingWheel
+	ScheduledTimingWheel.Bucket bucket;
+	ScheduledRunnable prev;
+	ScheduledRunnable next;
+
 	/**
 	 * Initializes a new instance of ScheduledRunnable
 	 *
@@ -69,6 +74,9 @@ public class ScheduledRunnable implements Comparable<ScheduledRunnable>, AsyncCa
 	public void cancel() {
 		this.cancelled = true;
 		this.runnable = null;
+		if (bucket != null) {
+			bucket.remove(this);
+		}
 	}
 
 	public void complete() {
@@ -0,0 +1,208 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.datakernel.eventloop;
+
+/**
+ * Hierarchical hashed timing wheel of scheduled runnables with 1 millisecond resolution.
+ * <p>
+ * Level 0 has 256 slots of 1 ms, each next level has 64 slots which are 64 times longer than
+ * slots of the previous level, so five levels cover 2^32 ms; more distant runnables are placed at
+ * the last slot and re-placed on each cascade. When the wheel passes the slot boundary of a level,
+ * runnables from the corresponding slot of the upper level are cascaded down.
+ * <p>
+ * Slots are intrusive doubly-linked lists, so adding and cancelling runnable take O(1),
+ * and cancelled runnables are removed from the wheel immediately.
+ */
+final class ScheduledTimingWheel implements ScheduledQueue {
+	private static final int LEVELS = 5;
+	private static final int[] SHIFTS = {0, 8, 14, 20, 26};
+	private static final int[] MASKS = {255, 63, 63, 63, 63};
+	private static final long MAX_DELTA = (1L << 32) - 1;
+
+	final class Bucket {
+		private final int level;
+		private ScheduledRunnable head;
+		private ScheduledRunnable tail;
+
+		private Bucket(int level) {
+			this.level = level;
+		}
+
+		private void add(ScheduledRunnable scheduledRunnable) {
+			scheduledRunnable.bucket = this;
+			scheduledRunnable.prev = tail;
+			scheduledRunnable.next = null;
+			if (tail == null)
+				head = scheduledRunnable;
+			else
+				tail.next = scheduledRunnable;
+			tail = scheduledRunnable;
+			levelSizes[level]++;
+			size++;
+		}
+
+		void remove(ScheduledRunnable scheduledRunnable) {
+			assert scheduledRunnable.bucket == this;
+			if (scheduledRunnable.prev == null)
+				head = scheduledRunnable.next;
+			else
+				scheduledRunnable.prev.next = scheduledRunnable.next;
+			if (scheduledRunnable.next == null)
+				tail = scheduledRunnable.prev;
+			else
+				scheduledRunnable.next.prev = scheduledRunnable.prev;
+			scheduledRunnable.prev = null;
+			scheduledRunnable.next = null;
+			scheduledRunnable.bucket = null;
+			levelSizes[level]--;
+			size--;
+		}
+
+		private ScheduledRunnable poll() {
+			ScheduledRunnable result = head;
+			if (result != null)
+				remove(result);
+			return result;
+		}
+	}
+
+	private final Bucket[][] buckets = new Bucket[LEVELS][];
+
+	/**
+	 * Runnables which timestamps have already passed, in order of expiration
+	 */
+	private final Bucket expired = new Bucket(LEVELS);
+
+	private final int[] levelSizes = new int[LEVELS + 1];
+	private int size;
+
+	/**
+	 * Next tick of the wheel which is not processed yet
+	 */
+	private long wheelTime;
+
+	ScheduledTimingWheel(long currentTime) {
+		for (int level = 0; level < LEVELS; level++) {
+			buckets[level] = new Bucket[MASKS[level] + 1];
+			for (int i = 0; i < buckets[level].length; i++) {
+				buckets[level][i] = new Bucket(level);
+			}
+		}
+		this.wheelTime = currentTime;
+	}
+
+	@Override
+	public void add(ScheduledRunnable scheduledRunnable) {
+		assert scheduledRunnable.bucket == null;
+		long timestamp = scheduledRunnable.getTimestamp();
+		if (timestamp < wheelTime) {
+			expired.add(scheduledRunnable);
+			return;
+		}
+		long delta = timestamp - wheelTime;
+		if (delta > MAX_DELTA) {
+			delta = MAX_DELTA;
+			timestamp = wheelTime + MAX_DELTA;
+		}
+		int level = 0;
+		while (level < LEVELS - 1 && delta >= (1L << SHIFTS[level + 1])) {
+			level++;
+		}
+		int index = (int) ((timestamp >>> SHIFTS[level]) & MASKS[level]);
+		buckets[level][index].add(scheduledRunnable);
+	}
+
+	@Override
+	public ScheduledRunnable pollExpired(long currentTime) {
+		advance(currentTime);
+		return expired.poll();
+	}
+
+	private void advance(long currentTime) {
+		while (wheelTime < currentTime) {
+			if (size == levelSizes[LEVELS]) {
+				wheelTime = currentTime;
+				break;
+			}
+			int index = (int) (wheelTime & MASKS[0]);
+			if (index == 0) {
+				cascade(1);
+			}
+			if (levelSizes[0] == 0) {
+				// skip ticks until the next cascade of the lowest non-empty level
+				int level = 1;
+				while (levelSizes[level] == 0) {
+					level++;
+				}
+				long step = 1L << SHIFTS[level];
+				wheelTime = Math.min((wheelTime | (step - 1)) + 1, currentTime);
+				continue;
+			}
+			Bucket bucket = buckets[0][index];
+			ScheduledRunnable scheduledRunnable;
+			while ((scheduledRunnable = bucket.poll()) != null) {
+				expired.add(scheduledRunnable);
+			}
+			wheelTime++;
+		}
+	}
+
+	private void cascade(int level) {
+		if (level == LEVELS)
+			return;
+		int index = (int) ((wheelTime >>> SHIFTS[level]) & MASKS[level]);
+		if (index == 0) {
+			cascade(level + 1);
+		}
+		Bucket bucket = buckets[level][index];
+		ScheduledRunnable scheduledRunnable;
+		while ((scheduledRunnable = bucket.poll()) != null) {
+			add(scheduledRunnable);
+		}
+	}
+
+	@Override
+	public long getTimeBeforeExecution(long currentTime, long defaultTime) {
+		if (levelSizes[LEVELS] != 0)
+			return 0;
+		if (size == 0)
+			return defaultTime;
+		if (levelSizes[0] != 0) {
+			for (long time = wheelTime; time < wheelTime + MASKS[0] + 1 && time - currentTime < defaultTime; time++) {
+				if (buckets[0][(int) (time & MASKS[0])].head != null)
+					return time - currentTime;
+			}
+			return defaultTime;
+		}
+		int level = 1;
+		while (levelSizes[level] == 0) {
+			level++;
+		}
+		long step = 1L << SHIFTS[level];
+		return Math.min(((wheelTime | (step - 1)) + 1) - currentTime, defaultTime);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.datakernel.eventloop;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Field;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Array-backed set of selected keys, which replaces {@code HashSet} inside JDK selector implementation.
+ * Selector only adds keys to it, so it can be iterated by index and cleared without
+ * iterator allocation and hash operations.
+ * <p>
+ * {@link #contains(Object)} always returns false, since epoll and kqueue report each channel once per select,
+ * and {@link #remove(Object)} does nothing, keys of cancelled channels are skipped as invalid.
+ */
+final class SelectedKeySet extends AbstractSet<SelectionKey> {
+	private static final Logger logger = LoggerFactory.getLogger(SelectedKeySet.class);
+
+	SelectionKey[] keys = new SelectionKey[1024];
+	private int size;
+
+	/**
+	 * Replaces selected keys of given selector with new instance of SelectedKeySet.
+	 * On Java 9 and later it requires {@code --add-opens java.base/sun.nio.ch=ALL-UNNAMED}.
+	 *
+	 * @return installed set, or null if selector implementation does not allow replacement
+	 */
+	static SelectedKeySet install(Selector selector) {
+		try {
+			Class<?> selectorImplClass = Class.forName("sun.nio.ch.SelectorImpl", false, ClassLoader.getSystemClassLoader());
+			if (!selectorImplClass.isInstance(selector))
+				return null;
+			Field selectedKeysField = selectorImplClass.getDeclaredField("selectedKeys");
+			Field publicSelectedKeysField = selectorImplClass.getDeclaredField("publicSelectedKeys");
+			selectedKeysField.setAccessible(true);
+			publicSelectedKeysField.setAccessible(true);
+
+			SelectedKeySet selectedKeySet = new SelectedKeySet();
+			selectedKeysField.set(selector, selectedKeySet);
+			publicSelectedKeysField.set(selector, selectedKeySet);
+			return selectedKeySet;
+		} catch (Exception | LinkageError e) {
+			logger.debug("Could not replace selected keys of {}, falling back to default set: {}", selector, e.toString());
+			return null;
+		}
+	}
+
+	@Override
+	public boolean add(SelectionKey key) {
+		if (key == null)
+			return false;
+		if (size == keys.length) {
+			keys = Arrays.copyOf(keys, size * 2);
+		}
+		keys[size++] = key;
+		return true;
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		return false;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return false;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(keys, 0, size, null);
+		size = 0;
+	}
+
+	@Override
+	public Iterator<SelectionKey> iterator() {
+		return new Iterator<SelectionKey>() {
+			private int index;
+
+			@Override
+			public boolean hasNext() {
+				return index < size;
+			}
+
+			@Override
+			public SelectionKey next() {
+				if (!hasNext())
+					throw new NoSuchElementException();
+				return keys[index++];
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+}
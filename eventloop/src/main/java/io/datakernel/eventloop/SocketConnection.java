@@ -24,6 +24,7 @@ import java.nio.channels.Channel;
 import java.nio.channels.SelectableChannel;
 import java.nio.channels.SelectionKey;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static io.datakernel.eventloop.NioEventloopStats.exceptionMarker;
 
 /**
@@ -32,6 +33,7 @@ import static io.datakernel.eventloop.NioEventloopStats.exceptionMarker;
 public abstract class SocketConnection {
 	private static final Logger logger = LoggerFactory.getLogger(SocketConnection.class);
 	private static final int DEFAULT_RECEIVE_BUFFER_SIZE = 8 * 1024;
+	private static final int MAX_ADAPTIVE_RECEIVE_BUFFER_SIZE = 1 << 30;
 
 	protected final NioEventloop eventloop;
 
@@ -41,6 +43,14 @@ public abstract class SocketConnection {
 
 	protected int receiveBufferSize = DEFAULT_RECEIVE_BUFFER_SIZE;
 
+	/**
+	 * Bounds for adaptive receive buffer size, 0 if receive buffer size is fixed
+	 */
+	protected int minReceiveBufferSize;
+	protected int maxReceiveBufferSize;
+
+	private Runnable closeListener;
+
 	protected long lifeTime;
 	protected long readTime;
 	protected long writeTime;
@@ -65,6 +75,35 @@ public abstract class SocketConnection {
 		return eventloop;
 	}
 
+	/**
+	 * Enables adaptive sizing of receive buffer. Size starts from current receive buffer size, it is doubled
+	 * after each read which fills the whole buffer, and halved after several consecutive reads which fill
+	 * less than half of it. Bounds and current size are rounded up to powers of two, which are size classes
+	 * of {@link io.datakernel.bytebuf.ByteBufPool}, so that whole capacity of pooled buffers is used for reads.
+	 *
+	 * @param minSize lower bound of receive buffer size
+	 * @param maxSize upper bound of receive buffer size
+	 */
+	public final void setAdaptiveReceiveBufferSize(int minSize, int maxSize) {
+		checkArgument(minSize > 0 && minSize <= maxSize && maxSize <= MAX_ADAPTIVE_RECEIVE_BUFFER_SIZE,
+				"Illegal receive buffer size bounds: %s..%s", minSize, maxSize);
+		this.minReceiveBufferSize = roundUpToPowerOfTwo(minSize);
+		this.maxReceiveBufferSize = roundUpToPowerOfTwo(maxSize);
+		this.receiveBufferSize = Math.min(Math.max(roundUpToPowerOfTwo(receiveBufferSize), minReceiveBufferSize), maxReceiveBufferSize);
+	}
+
+	private static int roundUpToPowerOfTwo(int size) {
+		return 1 << (32 - Integer.numberOfLeadingZeros(size - 1));
+	}
+
+	public final boolean isAdaptiveReceiveBufferSize() {
+		return minReceiveBufferSize != 0;
+	}
+
+	public final int getReceiveBufferSize() {
+		return receiveBufferSize;
+	}
+
 	private void updateInterests(int newOps) {
 		ops = newOps;
 		if (key != null) {
@@ -144,12 +183,26 @@ public abstract class SocketConnection {
 				public void run() {
 					closeChannel();
 					onClosed();
+					notifyCloseListener();
 				}
 			});
 		}
 		onRegistered();
 	}
 
+	/**
+	 * Sets task which is run after this connection is closed and {@link #onClosed()} is called
+	 */
+	void setCloseListener(Runnable closeListener) {
+		this.closeListener = closeListener;
+	}
+
+	private void notifyCloseListener() {
+		if (closeListener != null) {
+			closeListener.run();
+		}
+	}
+
 	/**
 	 * It called after completing registering this connection.
 	 */
@@ -175,6 +228,7 @@ public abstract class SocketConnection {
 			logger.error("onClosed() error in {}", this, e);
 			eventloop.updateExceptionCounter(CLOSE_MARKER, e, toString());
 		}
+		notifyCloseListener();
 	}
 
 	private void closeChannel() {
@@ -0,0 +1,614 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.datakernel.eventloop;
+
+import io.datakernel.async.CompletionCallback;
+import io.datakernel.net.SocketSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.*;
+
+import static com.google.common.base.Preconditions.*;
+
+/**
+ * Pool of outbound TCP connections which belongs to a single {@link NioEventloop}.
+ * <p>
+ * Channels are handed out with {@link #connect(InetSocketAddress, ConnectCallback)} either from the idle
+ * connections of the destination or by establishing a new one. Protocols which can reuse a connection
+ * return it with {@link #release(InetSocketAddress, SocketChannel)}. Other channels are closed by their owners,
+ * connections built on them should be passed to {@link #releaseOnClose(InetSocketAddress, SocketConnection)},
+ * so that their closing immediately frees place for requests waiting at the connections limit, otherwise closed
+ * channels are dropped from the pool lazily. For destinations added with
+ * {@link #warmUp(InetSocketAddress)} the pool keeps {@code minIdleConnections} connected channels ready.
+ * <p>
+ * Idle channels are probed with {@link HealthCheck} before being handed out and periodically. Failed connects
+ * are retried with exponential backoff with jitter, and the number of connections to a single destination is
+ * bounded, excessive requests wait for a connection to become available.
+ * <p>
+ * All methods must be called from the eventloop thread.
+ */
+public final class SocketConnectionPool implements NioService, SocketConnectionPoolMBean {
+	private static final Logger logger = LoggerFactory.getLogger(SocketConnectionPool.class);
+
+	public static final int DEFAULT_MAX_CONNECTIONS_PER_ADDRESS = Integer.MAX_VALUE;
+	public static final long DEFAULT_HEALTH_CHECK_INTERVAL = 1000L;
+	public static final long DEFAULT_MAX_IDLE_TIME = 60 * 1000L;
+	public static final long DEFAULT_INITIAL_BACKOFF = 100L;
+	public static final long DEFAULT_MAX_BACKOFF = 30 * 1000L;
+
+	/**
+	 * Probe which tells whether idle channel can still be used.
+	 */
+	public interface HealthCheck {
+		boolean isHealthy(SocketChannel socketChannel);
+	}
+
+	/**
+	 * Treats channel as broken if peer has closed it or has sent unexpected data while it was idle.
+	 */
+	public static final HealthCheck DEFAULT_HEALTH_CHECK = new HealthCheck() {
+		@Override
+		public boolean isHealthy(SocketChannel socketChannel) {
+			if (!socketChannel.isOpen() || !socketChannel.isConnected())
+				return false;
+			try {
+				return socketChannel.read(ByteBuffer.allocate(1)) == 0;
+			} catch (IOException e) {
+				return false;
+			}
+		}
+	};
+
+	private static final class IdleChannel {
+		private final SocketChannel socketChannel;
+		private final long idleSince;
+
+		private IdleChannel(SocketChannel socketChannel, long idleSince) {
+			this.socketChannel = socketChannel;
+			this.idleSince = idleSince;
+		}
+	}
+
+	private static final class Destination {
+		private final InetSocketAddress address;
+		private final ArrayDeque<IdleChannel> idle = new ArrayDeque<>();
+		private final ArrayList<SocketChannel> leased = new ArrayList<>();
+		private final ArrayDeque<ConnectCallback> waiters = new ArrayDeque<>();
+		private int connecting;
+		private int warming;
+		private int failures;
+		private long backoffUntil;
+		private boolean warm;
+
+		private Destination(InetSocketAddress address) {
+			this.address = address;
+		}
+
+		private int connections() {
+			return idle.size() + leased.size() + connecting;
+		}
+	}
+
+	private final NioEventloop eventloop;
+	private final SocketSettings socketSettings;
+	private final HashMap<InetSocketAddress, Destination> destinations = new HashMap<>();
+	private final Random random = new Random();
+
+	// settings
+	private int minIdleConnections;
+	private int maxConnectionsPerAddress = DEFAULT_MAX_CONNECTIONS_PER_ADDRESS;
+	private int connectTimeout;
+	private int reconnectAttempts;
+	private long initialBackoff = DEFAULT_INITIAL_BACKOFF;
+	private long maxBackoff = DEFAULT_MAX_BACKOFF;
+	private long maxIdleTime = DEFAULT_MAX_IDLE_TIME;
+	private long healthCheckInterval = DEFAULT_HEALTH_CHECK_INTERVAL;
+	private HealthCheck healthCheck = DEFAULT_HEALTH_CHECK;
+
+	private boolean running;
+	private ScheduledRunnable scheduledCheck;
+
+	// JMX
+	private long successfulConnects;
+	private long failedConnects;
+	private long idleHits;
+	private long healthCheckFailures;
+	private long expiredConnections;
+
+	private final Runnable checkTask = new Runnable() {
+		@Override
+		public void run() {
+			scheduledCheck = null;
+			check();
+			if (!destinations.isEmpty())
+				scheduleCheck();
+		}
+	};
+
+	public SocketConnectionPool(NioEventloop eventloop, SocketSettings socketSettings) {
+		this.eventloop = checkNotNull(eventloop);
+		this.socketSettings = checkNotNull(socketSettings);
+	}
+
+	public SocketConnectionPool minIdleConnections(int minIdleConnections) {
+		checkArgument(minIdleConnections >= 0, "Min idle connections must be non-negative");
+		this.minIdleConnections = minIdleConnections;
+		return this;
+	}
+
+	public SocketConnectionPool maxConnectionsPerAddress(int maxConnectionsPerAddress) {
+		checkArgument(maxConnectionsPerAddress > 0, "Max connections per address must be positive");
+		this.maxConnectionsPerAddress = maxConnectionsPerAddress;
+		return this;
+	}
+
+	public SocketConnectionPool connectTimeout(int connectTimeout) {
+		checkArgument(connectTimeout >= 0, "Connect timeout must be non-negative");
+		this.connectTimeout = connectTimeout;
+		return this;
+	}
+
+	/**
+	 * Sets number of retries of failed connect, {@link SocketReconnector#RECONNECT_ALWAYS} retries forever
+	 */
+	public SocketConnectionPool reconnectAttempts(int reconnectAttempts) {
+		checkArgument(reconnectAttempts >= 0, "Reconnect attempts must be non-negative");
+		this.reconnectAttempts = reconnectAttempts;
+		return this;
+	}
+
+	/**
+	 * Sets delays between connect attempts to failed destination. Delay doubles after each consecutive failure
+	 * up to the given maximum, actual delay is randomly chosen between half and full of it.
+	 */
+	public SocketConnectionPool backoff(long initialBackoff, long maxBackoff) {
+		checkArgument(initialBackoff > 0 && initialBackoff <= maxBackoff, "Illegal backoff bounds: %s..%s", initialBackoff, maxBackoff);
+		this.initialBackoff = initialBackoff;
+		this.maxBackoff = maxBackoff;
+		return this;
+	}
+
+	/**
+	 * Sets time after which idle connections over {@code minIdleConnections} are closed
+	 */
+	public SocketConnectionPool maxIdleTime(long maxIdleTime) {
+		checkArgument(maxIdleTime > 0, "Max idle time must be positive");
+		this.maxIdleTime = maxIdleTime;
+		return this;
+	}
+
+	public SocketConnectionPool healthCheckInterval(long healthCheckInterval) {
+		checkArgument(healthCheckInterval > 0, "Health check interval must be positive");
+		this.healthCheckInterval = healthCheckInterval;
+		return this;
+	}
+
+	public SocketConnectionPool healthCheck(HealthCheck healthCheck) {
+		this.healthCheck = checkNotNull(healthCheck);
+		return this;
+	}
+
+	/**
+	 * Makes pool keep {@code minIdleConnections} connected channels to the given address while it is running.
+	 */
+	public SocketConnectionPool warmUp(InetSocketAddress address) {
+		Destination destination = ensureDestination(address);
+		destination.warm = true;
+		if (running)
+			replenish(destination);
+		return this;
+	}
+
+	public SocketSettings getSocketSettings() {
+		return socketSettings;
+	}
+
+	/**
+	 * Hands out connected channel to the given address. Channel is taken from idle connections if possible,
+	 * otherwise new connection is established, or callback waits until the number of connections to
+	 * this address drops below limit.
+	 *
+	 * @param address  address to connect to
+	 * @param callback callback which receives connected channel
+	 */
+	public void connect(InetSocketAddress address, ConnectCallback callback) {
+		assert eventloop.inEventloopThread();
+		Destination destination = ensureDestination(address);
+		purgeClosed(destination);
+		SocketChannel socketChannel = pollIdle(destination);
+		if (socketChannel != null) {
+			idleHits++;
+			destination.leased.add(socketChannel);
+			replenish(destination);
+			callback.onConnect(socketChannel);
+			return;
+		}
+		if (destination.connections() >= maxConnectionsPerAddress) {
+			destination.waiters.add(callback);
+			return;
+		}
+		startConnect(destination, reconnectAttempts, callback);
+	}
+
+	/**
+	 * Returns channel obtained with {@link #connect(InetSocketAddress, ConnectCallback)} to the pool for reuse.
+	 * Channel must not be used by its previous owner any longer.
+	 *
+	 * @param address       address which channel was obtained for
+	 * @param socketChannel released channel
+	 */
+	public void release(InetSocketAddress address, SocketChannel socketChannel) {
+		assert eventloop.inEventloopThread();
+		Destination destination = destinations.get(address);
+		if (!socketChannel.isOpen()) {
+			// closed channel may have been already dropped from the pool
+			if (destination != null && destination.leased.remove(socketChannel))
+				serveWaiters(destination);
+			return;
+		}
+		checkArgument(destination != null && destination.leased.remove(socketChannel),
+				"Channel %s is not leased from pool", socketChannel);
+		SelectionKey key = socketChannel.keyFor(eventloop.ensureSelector());
+		if (key != null) {
+			key.interestOps(0);
+			key.attach(null);
+		}
+		addIdle(destination, socketChannel);
+	}
+
+	/**
+	 * Makes the given connection return its channel to the pool as soon as the connection is closed.
+	 *
+	 * @param address    address which channel of connection was obtained for
+	 * @param connection connection built on channel obtained with {@link #connect(InetSocketAddress, ConnectCallback)}
+	 */
+	public void releaseOnClose(final InetSocketAddress address, SocketConnection connection) {
+		final SocketChannel socketChannel = (SocketChannel) connection.getChannel();
+		connection.setCloseListener(new Runnable() {
+			@Override
+			public void run() {
+				release(address, socketChannel);
+			}
+		});
+	}
+
+	@Override
+	public NioEventloop getNioEventloop() {
+		return eventloop;
+	}
+
+	@Override
+	public void start(CompletionCallback callback) {
+		checkState(eventloop.inEventloopThread());
+		if (!running) {
+			running = true;
+			for (Destination destination : destinations.values()) {
+				replenish(destination);
+			}
+		}
+		callback.onComplete();
+	}
+
+	/**
+	 * Stops warming up destinations, closes idle connections and fails waiting callbacks
+	 */
+	@Override
+	public void stop(CompletionCallback callback) {
+		checkState(eventloop.inEventloopThread());
+		running = false;
+		if (scheduledCheck != null) {
+			scheduledCheck.cancel();
+			scheduledCheck = null;
+		}
+		for (Destination destination : new ArrayList<>(destinations.values())) {
+			for (IdleChannel idleChannel : destination.idle) {
+				closeQuietly(idleChannel.socketChannel);
+			}
+			destination.idle.clear();
+			ConnectCallback waiter;
+			while ((waiter = destination.waiters.poll()) != null) {
+				waiter.onException(new IOException("Connection pool is stopped"));
+			}
+		}
+		callback.onComplete();
+	}
+
+	private Destination ensureDestination(InetSocketAddress address) {
+		Destination destination = destinations.get(address);
+		if (destination == null) {
+			destination = new Destination(address);
+			destinations.put(address, destination);
+			if (scheduledCheck == null)
+				scheduleCheck();
+		}
+		return destination;
+	}
+
+	private void scheduleCheck() {
+		scheduledCheck = eventloop.scheduleBackground(eventloop.currentTimeMillis() + healthCheckInterval, checkTask);
+	}
+
+	private void check() {
+		long now = eventloop.currentTimeMillis();
+		for (Destination destination : new ArrayList<>(destinations.values())) {
+			purgeClosed(destination);
+			int size = destination.idle.size();
+			for (int i = 0; i < size; i++) {
+				IdleChannel idleChannel = destination.idle.pollFirst();
+				if (!healthCheck.isHealthy(idleChannel.socketChannel)) {
+					healthCheckFailures++;
+					closeQuietly(idleChannel.socketChannel);
+				} else if (now - idleChannel.idleSince >= maxIdleTime && (!destination.warm || destination.idle.size() + size - i > minIdleConnections)) {
+					expiredConnections++;
+					closeQuietly(idleChannel.socketChannel);
+				} else {
+					destination.idle.addLast(idleChannel);
+				}
+			}
+			serveWaiters(destination);
+			replenish(destination);
+			if (destination.connections() == 0 && destination.waiters.isEmpty() && !destination.warm)
+				destinations.remove(destination.address);
+		}
+	}
+
+	private void purgeClosed(Destination destination) {
+		boolean purged = false;
+		Iterator<SocketChannel> it = destination.leased.iterator();
+		while (it.hasNext()) {
+			if (!it.next().isOpen()) {
+				it.remove();
+				purged = true;
+			}
+		}
+		if (purged)
+			serveWaiters(destination);
+	}
+
+	private SocketChannel pollIdle(Destination destination) {
+		IdleChannel idleChannel;
+		while ((idleChannel = destination.idle.pollLast()) != null) {
+			if (healthCheck.isHealthy(idleChannel.socketChannel))
+				return idleChannel.socketChannel;
+			healthCheckFailures++;
+			closeQuietly(idleChannel.socketChannel);
+		}
+		return null;
+	}
+
+	private void addIdle(Destination destination, SocketChannel socketChannel) {
+		ConnectCallback waiter = destination.waiters.poll();
+		if (waiter != null) {
+			destination.leased.add(socketChannel);
+			waiter.onConnect(socketChannel);
+			return;
+		}
+		destination.idle.addLast(new IdleChannel(socketChannel, eventloop.currentTimeMillis()));
+	}
+
+	private void serveWaiters(Destination destination) {
+		while (!destination.waiters.isEmpty()) {
+			SocketChannel socketChannel = pollIdle(destination);
+			if (socketChannel != null) {
+				destination.leased.add(socketChannel);
+				destination.waiters.poll().onConnect(socketChannel);
+			} else if (destination.connections() < maxConnectionsPerAddress) {
+				startConnect(destination, reconnectAttempts, destination.waiters.poll());
+			} else {
+				break;
+			}
+		}
+	}
+
+	private void replenish(Destination destination) {
+		if (!running || !destination.warm || eventloop.currentTimeMillis() < destination.backoffUntil)
+			return;
+		while (destination.idle.size() + destination.warming < minIdleConnections
+				&& destination.connections() < maxConnectionsPerAddress) {
+			destination.warming++;
+			startConnect(destination, 0, null);
+		}
+	}
+
+	private void startConnect(final Destination destination, final int reconnectAttempts, final ConnectCallback callback) {
+		destination.connecting++;
+		long now = eventloop.currentTimeMillis();
+		if (now >= destination.backoffUntil) {
+			doConnect(destination, reconnectAttempts, callback);
+			return;
+		}
+		schedule(destination.backoffUntil, callback != null, new Runnable() {
+			@Override
+			public void run() {
+				doConnect(destination, reconnectAttempts, callback);
+			}
+		});
+	}
+
+	private void doConnect(final Destination destination, final int reconnectAttempts, final ConnectCallback callback) {
+		eventloop.connect(destination.address, socketSettings, connectTimeout, new ConnectCallback() {
+			@Override
+			public void onConnect(SocketChannel socketChannel) {
+				destination.connecting--;
+				destination.failures = 0;
+				destination.backoffUntil = 0;
+				successfulConnects++;
+				SelectionKey key = socketChannel.keyFor(eventloop.ensureSelector());
+				if (key != null) {
+					key.interestOps(0);
+					key.attach(null);
+				}
+				if (callback != null) {
+					destination.leased.add(socketChannel);
+					callback.onConnect(socketChannel);
+				} else {
+					destination.warming--;
+					if (!running && destination.waiters.isEmpty()) {
+						closeQuietly(socketChannel);
+						return;
+					}
+					addIdle(destination, socketChannel);
+				}
+			}
+
+			@Override
+			public void onException(Exception exception) {
+				failedConnects++;
+				destination.failures++;
+				long backoff = backoff(destination.failures);
+				destination.backoffUntil = eventloop.currentTimeMillis() + backoff;
+				if (reconnectAttempts > 0) {
+					if (logger.isWarnEnabled()) {
+						logger.warn("Connection failed, reconnecting to {} in {} ms: {}", destination.address, backoff, exception.toString());
+					}
+					schedule(destination.backoffUntil, callback != null, new Runnable() {
+						@Override
+						public void run() {
+							doConnect(destination,
+									reconnectAttempts == SocketReconnector.RECONNECT_ALWAYS ? SocketReconnector.RECONNECT_ALWAYS : (reconnectAttempts - 1),
+									callback);
+						}
+					});
+					return;
+				}
+				destination.connecting--;
+				if (callback != null) {
+					if (logger.isWarnEnabled()) {
+						logger.warn("Could not connect to {}: {}", destination.address, exception.toString());
+					}
+					callback.onException(exception);
+				} else {
+					destination.warming--;
+				}
+				serveWaiters(destination);
+			}
+		});
+	}
+
+	private void schedule(long timestamp, boolean awaited, Runnable runnable) {
+		// pending requests keep eventloop alive, warm up connects do not
+		if (awaited)
+			eventloop.schedule(timestamp, runnable);
+		else
+			eventloop.scheduleBackground(timestamp, runnable);
+	}
+
+	private long backoff(int failures) {
+		long delay = initialBackoff << Math.min(failures - 1, 30);
+		if (delay <= 0 || delay > maxBackoff)
+			delay = maxBackoff;
+		long half = delay / 2;
+		return half + (long) (random.nextDouble() * (delay - half));
+	}
+
+	private static void closeQuietly(SocketChannel socketChannel) {
+		try {
+			socketChannel.close();
+		} catch (IOException e) {
+			logger.warn("Could not close {}", socketChannel, e);
+		}
+	}
+
+	// JMX
+	@Override
+	public int getIdleConnections() {
+		int result = 0;
+		for (Destination destination : destinations.values()) {
+			result += destination.idle.size();
+		}
+		return result;
+	}
+
+	@Override
+	public int getLeasedConnections() {
+		int result = 0;
+		for (Destination destination : destinations.values()) {
+			result += destination.leased.size();
+		}
+		return result;
+	}
+
+	@Override
+	public int getPendingConnects() {
+		int result = 0;
+		for (Destination destination : destinations.values()) {
+			result += destination.connecting;
+		}
+		return result;
+	}
+
+	@Override
+	public int getWaitingRequests() {
+		int result = 0;
+		for (Destination destination : destinations.values()) {
+			result += destination.waiters.size();
+		}
+		return result;
+	}
+
+	@Override
+	public List<String> getDestinations() {
+		List<String> result = new ArrayList<>();
+		for (Destination destination : destinations.values()) {
+			result.add(destination.address + " idle: " + destination.idle.size() + ", leased: " + destination.leased.size()
+					+ ", connecting: " + destination.connecting + ", waiting: " + destination.waiters.size()
+					+ ", failures: " + destination.failures);
+		}
+		return result;
+	}
+
+	@Override
+	public long getSuccessfulConnects() {
+		return successfulConnects;
+	}
+
+	@Override
+	public long getFailedConnects() {
+		return failedConnects;
+	}
+
+	@Override
+	public long getIdleHits() {
+		return idleHits;
+	}
+
+	@Override
+	public long getHealthCheckFailures() {
+		return healthCheckFailures;
+	}
+
+	@Override
+	public long getExpiredConnections() {
+		return expiredConnections;
+	}
+
+	@Override
+	public void resetStats() {
+		successfulConnects = 0;
+		failedConnects = 0;
+		idleHits = 0;
+		healthCheckFailures = 0;
+		expiredConnections = 0;
+	}
+}
@@ -41,6 +41,7 @@ public final class SocketReconnector implements AsyncGetter<SocketChannel> {
 	private final SocketSettings socketSettings;
 	private final int reconnectAttempts;
 	private final long reconnectTimeout;
+	private final SocketConnectionPool connectionPool;
 
 	/**
 	 * Creates a new instance of SocketReconnector
@@ -58,6 +59,7 @@ public final class SocketReconnector implements AsyncGetter<SocketChannel> {
 		this.socketSettings = checkNotNull(socketSettings);
 		this.reconnectAttempts = reconnectAttempts;
 		this.reconnectTimeout = reconnectTimeout;
+		this.connectionPool = null;
 	}
 
 	/**
@@ -71,9 +73,25 @@ public final class SocketReconnector implements AsyncGetter<SocketChannel> {
 		this(eventloop, address, socketSettings, 0, 0);
 	}
 
+	/**
+	 * Creates a new instance of SocketReconnector which takes connections from the pool,
+	 * reconnect attempts and delays between them are configured in the pool
+	 *
+	 * @param connectionPool pool from which socketChannels will be taken
+	 * @param address        address to which socketChannels will be connected.
+	 */
+	public SocketReconnector(SocketConnectionPool connectionPool, InetSocketAddress address) {
+		this.eventloop = connectionPool.getNioEventloop();
+		this.address = checkNotNull(address);
+		this.socketSettings = connectionPool.getSocketSettings();
+		this.reconnectAttempts = 0;
+		this.reconnectTimeout = 0;
+		this.connectionPool = connectionPool;
+	}
+
 	@Override
 	public void get(final ResultCallback<SocketChannel> callback) {
-		reconnect(eventloop, address, socketSettings, reconnectAttempts, reconnectTimeout, new ConnectCallback() {
+		reconnect(new ConnectCallback() {
 			@Override
 			public void onConnect(SocketChannel socketChannel) {
 				callback.onResult(socketChannel);
@@ -92,6 +110,12 @@ public final class SocketReconnector implements AsyncGetter<SocketChannel> {
 	 * @param connectCallback callback which will be called after connecting
 	 */
 	public void reconnect(ConnectCallback connectCallback) {
+		if (connectionPool != null) {
+			if (connectCallback instanceof AsyncCancellableStatus && ((AsyncCancellableStatus) connectCallback).isCancelled())
+				return;
+			connectionPool.connect(address, connectCallback);
+			return;
+		}
 		reconnect(eventloop, address, socketSettings, reconnectAttempts, reconnectTimeout, connectCallback);
 	}
 
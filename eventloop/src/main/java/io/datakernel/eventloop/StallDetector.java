@@ -0,0 +1,280 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.datakernel.eventloop;
+
+import io.datakernel.jmx.MBeanFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Watchdog which detects eventloop iterations taking longer than threshold.
+ * <p>
+ * Eventloop thread only publishes start time of current iteration and currently executed task with ordered writes,
+ * all checks are performed by separate daemon thread. When a stall is detected, the stack trace of eventloop thread
+ * is sampled once, and the stall is stored into a bounded ring buffer of recent stalls, exposed via JMX.
+ */
+public final class StallDetector implements StallDetectorMBean {
+	private static final Logger logger = LoggerFactory.getLogger(StallDetector.class);
+
+	public static final long DEFAULT_THRESHOLD_MILLIS = 100L;
+	public static final int DEFAULT_CAPACITY = 64;
+
+	private static final int MAX_STACK_DEPTH = 32;
+
+	private static final class Stall {
+		private final long timestamp;
+		private final long tickStart;
+		private final String task;
+		private final StackTraceElement[] stackTrace;
+		private volatile long durationMillis;
+
+		Stall(long timestamp, long tickStart, String task, StackTraceElement[] stackTrace, long durationMillis) {
+			this.timestamp = timestamp;
+			this.tickStart = tickStart;
+			this.task = task;
+			this.stackTrace = stackTrace;
+			this.durationMillis = durationMillis;
+		}
+	}
+
+	private final NioEventloop eventloop;
+	private final Stall[] stalls;
+
+	// written by eventloop thread
+	private final AtomicLong tickStart = new AtomicLong();
+	private final AtomicReference<Object> currentTask = new AtomicReference<>();
+
+	// written by watchdog thread
+	private volatile Stall lastStall;
+	private int nextStall;
+	private volatile long stallsCount;
+
+	private volatile long thresholdMillis;
+	private Thread watchdog;
+
+	public StallDetector(NioEventloop eventloop) {
+		this(eventloop, DEFAULT_THRESHOLD_MILLIS, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates a new stall detector for the eventloop
+	 *
+	 * @param eventloop       eventloop to be watched
+	 * @param thresholdMillis iteration duration which is considered a stall
+	 * @param capacity        number of recent stalls to keep
+	 */
+	public StallDetector(NioEventloop eventloop, long thresholdMillis, int capacity) {
+		checkArgument(thresholdMillis > 0, "Threshold must be positive");
+		checkArgument(capacity > 0, "Capacity must be positive");
+		this.eventloop = eventloop;
+		this.thresholdMillis = thresholdMillis;
+		this.stalls = new Stall[capacity];
+	}
+
+	/**
+	 * Attaches this detector to its eventloop and starts the watchdog thread
+	 */
+	public synchronized void start() {
+		checkState(watchdog == null, "Stall detector is already started");
+		watchdog = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				watch();
+			}
+		}, "stall-detector");
+		watchdog.setDaemon(true);
+		eventloop.setStallDetector(this);
+		watchdog.start();
+	}
+
+	/**
+	 * Detaches this detector from its eventloop and stops the watchdog thread
+	 */
+	public synchronized void stop() {
+		if (watchdog == null)
+			return;
+		eventloop.setStallDetector(null);
+		watchdog.interrupt();
+		watchdog = null;
+		tickStart.set(0L);
+		currentTask.set(null);
+	}
+
+	// eventloop thread
+	void afterSelect() {
+		tickStart.lazySet(System.nanoTime());
+	}
+
+	void beforeSelect() {
+		tickStart.lazySet(0L);
+		currentTask.lazySet(null);
+	}
+
+	void beforeTask(Object task) {
+		currentTask.lazySet(task);
+	}
+
+	// watchdog thread
+	private void watch() {
+		Thread thread = Thread.currentThread();
+		while (!thread.isInterrupted()) {
+			long threshold = thresholdMillis;
+			try {
+				Thread.sleep(Math.max(1L, threshold / 4));
+			} catch (InterruptedException e) {
+				break;
+			}
+			check(threshold);
+		}
+	}
+
+	private void check(long threshold) {
+		long start = tickStart.get();
+		if (start == 0L)
+			return;
+		long durationMillis = (System.nanoTime() - start) / 1000000L;
+		if (durationMillis < threshold)
+			return;
+
+		Stall stall = lastStall;
+		if (stall != null && stall.tickStart == start) {
+			stall.durationMillis = durationMillis;
+			return;
+		}
+
+		Object task = currentTask.get();
+		Thread eventloopThread = eventloop.getEventloopThread();
+		StackTraceElement[] stackTrace = eventloopThread == null ? new StackTraceElement[0] : eventloopThread.getStackTrace();
+		if (stackTrace.length > MAX_STACK_DEPTH)
+			stackTrace = Arrays.copyOf(stackTrace, MAX_STACK_DEPTH);
+		if (tickStart.get() != start)
+			return; // iteration has completed while sampling
+		stall = new Stall(System.currentTimeMillis(), start, task == null ? "" : task.getClass().getName(), stackTrace, durationMillis);
+		synchronized (stalls) {
+			stalls[nextStall] = stall;
+			nextStall = (nextStall + 1) % stalls.length;
+		}
+		lastStall = stall;
+		stallsCount++;
+		logger.warn("Eventloop {} is stalled for {} ms in {}", eventloop, durationMillis, stall.task);
+	}
+
+	private List<Stall> getRecentStalls() {
+		List<Stall> result = new ArrayList<>();
+		synchronized (stalls) {
+			for (int i = 0; i < stalls.length; i++) {
+				Stall stall = stalls[(nextStall + stalls.length - 1 - i) % stalls.length];
+				if (stall == null)
+					break;
+				result.add(stall);
+			}
+		}
+		return result;
+	}
+
+	// JMX
+	@Override
+	public long getThresholdMillis() {
+		return thresholdMillis;
+	}
+
+	@Override
+	public void setThresholdMillis(long thresholdMillis) {
+		checkArgument(thresholdMillis > 0, "Threshold must be positive");
+		this.thresholdMillis = thresholdMillis;
+	}
+
+	@Override
+	public long getStallsCount() {
+		return stallsCount;
+	}
+
+	@Override
+	public String[] getStalls() {
+		List<Stall> recentStalls = getRecentStalls();
+		if (recentStalls.isEmpty())
+			return null;
+		List<String> result = new ArrayList<>();
+		result.add("DateTime,DurationMillis,Task,At");
+		for (Stall stall : recentStalls) {
+			result.add(MBeanFormat.formatDateTime(stall.timestamp) + "," + stall.durationMillis + "," + stall.task + ","
+					+ (stall.stackTrace.length == 0 ? "" : stall.stackTrace[0]));
+		}
+		return result.toArray(new String[result.size()]);
+	}
+
+	@Override
+	public String[] getTopOffenders() {
+		List<Stall> recentStalls = getRecentStalls();
+		if (recentStalls.isEmpty())
+			return null;
+		final Map<String, long[]> offenders = new HashMap<>();
+		for (Stall stall : recentStalls) {
+			long[] stats = offenders.get(stall.task);
+			if (stats == null) {
+				stats = new long[3];
+				offenders.put(stall.task, stats);
+			}
+			stats[0]++;
+			stats[1] += stall.durationMillis;
+			stats[2] = Math.max(stats[2], stall.durationMillis);
+		}
+		List<String> tasks = new ArrayList<>(offenders.keySet());
+		Collections.sort(tasks, new Comparator<String>() {
+			@Override
+			public int compare(String task1, String task2) {
+				return Long.compare(offenders.get(task2)[1], offenders.get(task1)[1]);
+			}
+		});
+		List<String> result = new ArrayList<>();
+		result.add("Task,Stalls,TotalMillis,MaxMillis");
+		for (String task : tasks) {
+			long[] stats = offenders.get(task);
+			result.add(task + "," + stats[0] + "," + stats[1] + "," + stats[2]);
+		}
+		return result.toArray(new String[result.size()]);
+	}
+
+	@Override
+	public String[] getLastStallStackTrace() {
+		Stall stall = lastStall;
+		if (stall == null)
+			return null;
+		String[] result = new String[stall.stackTrace.length];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = stall.stackTrace[i].toString();
+		}
+		return result;
+	}
+
+	@Override
+	public void resetStats() {
+		synchronized (stalls) {
+			Arrays.fill(stalls, null);
+			nextStall = 0;
+		}
+		lastStall = null;
+		stallsCount = 0;
+	}
+}
@@ -17,6 +17,7 @@
 package io.datakernel.eventloop;
 
 import io.datakernel.annotation.Nullable;
+import io.datakernel.async.CompletionCallback;
 import io.datakernel.bytebuf.ByteBuf;
 import io.datakernel.bytebuf.ByteBufPool;
 import io.datakernel.bytebuf.ByteBufQueue;
@@ -24,19 +25,46 @@ import io.datakernel.bytebuf.ByteBufQueue;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
 import java.nio.channels.SelectableChannel;
 import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkState;
 
 /**
  * Represent the TCP connection, which is {@link SocketConnection}. It is created with socketChannel
  * and in which sides can exchange {@link ByteBuf}.
  */
 public abstract class TcpSocketConnection extends SocketConnection {
+	private static final int MAX_GATHERING_BUFFERS = 64;
+	private static final int MAX_GATHERING_BYTES = 256 * 1024;
+	private static final int SHRINK_AFTER_SMALL_READS = 4;
+
 	protected final SocketChannel channel;
 	protected final InetSocketAddress remoteSocketAddress;
 	protected final ByteBufQueue writeQueue;
 	protected final ByteBufQueue readQueue;
 
+	/**
+	 * Reusable array for gathering writes, allocated on first write of several buffers
+	 */
+	private ByteBuffer[] writeBuffers;
+
+	/**
+	 * Number of consecutive reads which filled less than half of receive buffer
+	 */
+	private int smallReads;
+
+	/**
+	 * File region which is being transferred to the socket after queued ByteBufs, null if there is no transfer
+	 */
+	private FileChannel transferFile;
+	private long transferPosition;
+	private long transferRemaining;
+	private CompletionCallback transferCallback;
+
 	/**
 	 * Creates a new instance of TcpSocketConnection
 	 *
@@ -74,31 +102,53 @@ public abstract class TcpSocketConnection extends SocketConnection {
 			return;
 		}
 
-		if (numRead == 0) {
+		if (numRead <= 0) {
 			buf.recycle();
+			if (numRead == -1)
+				onReadEndOfStreamInternal();
 			return;
 		}
 
-		if (numRead == -1) {
-			buf.recycle();
-			try {
-				onReadEndOfStream();
-				if (isRegistered()) {
-					readInterest(false); // prevent spinning if connection is still open
-				}
-			} catch (Exception e) {
-				onInternalException(e);
-			}
-			return;
+		readTime = eventloop.currentTimeMillis();
+		updateReceiveBufferSize(numRead);
+
+		buf.flip();
+		try {
+			onRead(buf);
+		} catch (Exception e) {
+			onInternalException(e);
 		}
+	}
 
-		if (numRead > 0) {
-			readTime = eventloop.currentTimeMillis();
+	/**
+	 * Adapts receive buffer size to the amount of data actually read, if adaptive sizing is enabled.
+	 * Read stats of eventloop are collected only for connections with adaptive sizing.
+	 *
+	 * @see SocketConnection#setAdaptiveReceiveBufferSize(int, int)
+	 */
+	private void updateReceiveBufferSize(int numRead) {
+		if (minReceiveBufferSize == 0)
+			return;
+		eventloop.updateReadStats(receiveBufferSize, numRead);
+		if (numRead >= receiveBufferSize) {
+			smallReads = 0;
+			receiveBufferSize = Math.min(receiveBufferSize * 2, maxReceiveBufferSize);
+		} else if (numRead <= receiveBufferSize / 2) {
+			if (++smallReads >= SHRINK_AFTER_SMALL_READS) {
+				smallReads = 0;
+				receiveBufferSize = Math.max(receiveBufferSize / 2, minReceiveBufferSize);
+			}
+		} else {
+			smallReads = 0;
 		}
+	}
 
-		buf.flip();
+	private void onReadEndOfStreamInternal() {
 		try {
-			onRead(buf);
+			onReadEndOfStream();
+			if (isRegistered()) {
+				readInterest(false); // prevent spinning if connection is still open
+			}
 		} catch (Exception e) {
 			onInternalException(e);
 		}
@@ -116,40 +166,38 @@ public abstract class TcpSocketConnection extends SocketConnection {
 	protected abstract void onRead();
 
 	/**
-	 * Peeks ByteBuf from writeQueue, and sends its bytes to address.
+	 * Peeks ByteBuf from writeQueue, and sends its bytes to address. When writeQueue is empty,
+	 * continues transfer of file region, if any.
 	 */
 	private void doWrite() {
-		boolean wasWritten = false;
+		int written;
+		try {
+			written = writeHeap();
+		} catch (IOException e) {
+			onInternalException(e);
+			return;
+		}
 
-		while (!writeQueue.isEmpty()) {
-			ByteBuf buf = writeQueue.peekBuf();
-			ByteBuffer byteBuffer = buf.toByteBuffer();
-			int remainingOld = buf.remaining();
+		if (written > 0) {
+			writeTime = eventloop.currentTimeMillis();
+		}
+
+		if (transferFile != null && writeQueue.isEmpty()) {
 			try {
-				channelWrite(byteBuffer);
-				buf.setByteBuffer(byteBuffer);
+				if (doTransfer() > 0) {
+					writeTime = eventloop.currentTimeMillis();
+				}
 			} catch (IOException e) {
+				completeTransfer(e);
 				onInternalException(e);
 				return;
 			}
-
-			int remainingNew = buf.remaining();
-			if (remainingNew != remainingOld) {
-				wasWritten = true;
-			}
-
-			if (remainingNew > 0) {
-				break;
+			if (transferRemaining == 0) {
+				completeTransfer(null);
 			}
-			writeQueue.take();
-			buf.recycle();
 		}
 
-		if (wasWritten) {
-			writeTime = eventloop.currentTimeMillis();
-		}
-
-		if (writeQueue.isEmpty()) {
+		if (writeQueue.isEmpty() && transferFile == null) {
 			try {
 				onWriteFlushed();
 			} catch (Exception e) {
@@ -161,7 +209,104 @@ public abstract class TcpSocketConnection extends SocketConnection {
 		}
 	}
 
+	/**
+	 * Writes queued ByteBufs with single gathering write, bounded by number of buffers and bytes.
+	 * Queue is advanced only by number of actually written bytes.
+	 */
+	private int writeHeap() throws IOException {
+		int written = 0;
+		while (!writeQueue.isEmpty()) {
+			int queued = writeQueue.remainingBufs();
+			if (queued == 1) {
+				ByteBuf buf = writeQueue.peekBuf();
+				ByteBuffer byteBuffer = buf.toByteBuffer();
+				int size = buf.remaining();
+				int numWritten = channelWrite(byteBuffer);
+				eventloop.updateGatheringWriteStats(1);
+				writeQueue.advance(numWritten);
+				written += numWritten;
+				if (numWritten < size)
+					break;
+				continue;
+			}
+
+			if (writeBuffers == null) {
+				writeBuffers = new ByteBuffer[MAX_GATHERING_BUFFERS];
+			}
+			int count = 0;
+			int size = 0;
+			while (count < queued && count < MAX_GATHERING_BUFFERS && size < MAX_GATHERING_BYTES) {
+				ByteBuf buf = writeQueue.peekBuf(count);
+				writeBuffers[count++] = buf.toByteBuffer();
+				size += buf.remaining();
+			}
+			int numWritten;
+			try {
+				numWritten = (int) channelWrite(writeBuffers, 0, count);
+			} finally {
+				Arrays.fill(writeBuffers, 0, count, null);
+			}
+			eventloop.updateGatheringWriteStats(count);
+			writeQueue.advance(numWritten);
+			written += numWritten;
+			if (numWritten < size)
+				break;
+		}
+		return written;
+	}
+
+	private long doTransfer() throws IOException {
+		long transferred = 0;
+		while (transferRemaining != 0) {
+			long numTransferred = transferFile.transferTo(transferPosition, transferRemaining, channel);
+			if (numTransferred <= 0)
+				break;
+			transferPosition += numTransferred;
+			transferRemaining -= numTransferred;
+			transferred += numTransferred;
+		}
+		return transferred;
+	}
+
+	private void completeTransfer(@Nullable Exception e) {
+		CompletionCallback callback = transferCallback;
+		transferFile = null;
+		transferCallback = null;
+		transferRemaining = 0;
+		if (e == null) {
+			callback.onComplete();
+		} else {
+			callback.onException(e);
+		}
+	}
+
+	/**
+	 * Transfers region of file to the socket with {@link FileChannel#transferTo}, bypassing user space buffers
+	 * where OS supports it (sendfile). Region is sent after all ByteBufs which are already queued for writing,
+	 * no further writes are allowed until the callback is called. File is not closed by this connection.
+	 * <p>
+	 * Note that transfer is performed in eventloop thread, so reading of the file which is not in OS page cache
+	 * may block it.
+	 *
+	 * @param file     file to transfer from
+	 * @param position position in the file to start from
+	 * @param count    number of bytes to transfer, it is truncated to the size of the file
+	 * @param callback callback which is called when the region is written to the socket or transfer has failed
+	 */
+	protected void transferFrom(FileChannel file, long position, long count, CompletionCallback callback) throws IOException {
+		checkState(transferFile == null, "File transfer is already in progress");
+		long remaining = Math.max(0L, Math.min(count, file.size() - position));
+		this.transferFile = file;
+		this.transferPosition = position;
+		this.transferRemaining = remaining;
+		this.transferCallback = callback;
+		if (writeQueue.isEmpty()) {
+			doWrite();
+		}
+	}
+
 	protected void write(ByteBuf buf) {
+		checkState(transferFile == null, "File transfer is in progress");
 		if (writeQueue.isEmpty()) {
 			writeQueue.add(buf);
 			doWrite();
@@ -174,6 +319,10 @@ public abstract class TcpSocketConnection extends SocketConnection {
 		return channel.write(byteBuffer);
 	}
 
+	protected long channelWrite(ByteBuffer[] byteBuffers, int offset, int length) throws IOException {
+		return channel.write(byteBuffers, offset, length);
+	}
+
 	/**
 	 * This method is called if writeInterest is on and it is possible to write to the channel.
 	 */
@@ -189,6 +338,9 @@ public abstract class TcpSocketConnection extends SocketConnection {
 	public void onClosed() {
 		readQueue.clear();
 		writeQueue.clear();
+		if (transferFile != null) {
+			completeTransfer(new ClosedChannelException());
+		}
 	}
 
 	@Override
@@ -26,9 +26,17 @@ import java.nio.ByteBuffer;
 import java.nio.channels.DatagramChannel;
 import java.nio.channels.SelectableChannel;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
 
 /**
  * Represent I/O handler of UDP {@link DatagramChannel}
+ * <p>
+ * In batch mode, up to batch size datagrams are received per read readiness through a single reusable direct buffer,
+ * copied into pooled ByteBufs of their exact size and delivered together to {@link #onReadBatch(List)}.
+ * Sent packets are queued and flushed by a single task posted to eventloop, up to batch size packets at a time.
  */
 public abstract class UdpSocketConnection extends SocketConnection {
 	public static final int DEFAULT_UDP_BUFFER_SIZE = 16384;
@@ -36,6 +44,19 @@ public abstract class UdpSocketConnection extends SocketConnection {
 	protected final DatagramChannel channel;
 	protected final ArrayDeque<UdpPacket> writeQueue = new ArrayDeque<>();
 
+	private int batchSize;
+	private ByteBuffer receiveBuffer;
+	private final ArrayList<UdpPacket> readBatch = new ArrayList<>();
+	private boolean flushPosted;
+	private final Runnable flushTask = new Runnable() {
+		@Override
+		public void run() {
+			flushPosted = false;
+			if (isRegistered())
+				onWriteReady();
+		}
+	};
+
 	/**
 	 * Creates new instance of UDP connection
 	 *
@@ -48,11 +69,29 @@ public abstract class UdpSocketConnection extends SocketConnection {
 		this.receiveBufferSize = DEFAULT_UDP_BUFFER_SIZE;
 	}
 
+	/**
+	 * Enables batch mode for this connection
+	 *
+	 * @param batchSize maximum number of datagrams received or sent at once, 0 disables batch mode
+	 */
+	public final void setBatchSize(int batchSize) {
+		checkArgument(batchSize >= 0, "Batch size must be non-negative");
+		this.batchSize = batchSize;
+	}
+
+	public final int getBatchSize() {
+		return batchSize;
+	}
+
 	/**
 	 * This method reads received bytes, creates UDP packet with it and call its method onRead() with this packet.
 	 */
 	@Override
 	public void onReadReady() {
+		if (batchSize != 0) {
+			readBatch();
+			return;
+		}
 		ByteBuf buf = null;
 		try {
 			while (isRegistered()) {
@@ -78,6 +117,38 @@ public abstract class UdpSocketConnection extends SocketConnection {
 		}
 	}
 
+	private void readBatch() {
+		if (receiveBuffer == null || receiveBuffer.capacity() < receiveBufferSize) {
+			if (receiveBuffer != null)
+				ByteBufPool.recycleDirect(receiveBuffer);
+			receiveBuffer = ByteBufPool.allocateDirect(receiveBufferSize);
+		}
+		IOException exception = null;
+		try {
+			while (readBatch.size() < batchSize) {
+				receiveBuffer.clear();
+				SocketAddress sourceAddress = channel.receive(receiveBuffer);
+				if (sourceAddress == null)
+					break;
+				receiveBuffer.flip();
+				ByteBuf buf = ByteBufPool.allocate(receiveBuffer.remaining());
+				receiveBuffer.get(buf.array(), 0, buf.limit());
+				readBatch.add(new UdpPacket(buf, (InetSocketAddress) sourceAddress));
+			}
+		} catch (IOException e) {
+			exception = e;
+		}
+		if (!readBatch.isEmpty()) {
+			try {
+				onReadBatch(readBatch);
+			} finally {
+				readBatch.clear();
+			}
+		}
+		if (exception != null)
+			onInternalException(exception);
+	}
+
 	/**
 	 * It processes received UDP packet to this server.
 	 *
@@ -85,6 +156,23 @@ public abstract class UdpSocketConnection extends SocketConnection {
 	 */
 	protected abstract void onRead(UdpPacket packet);
 
+	/**
+	 * Processes packets received during single read readiness in batch mode. Ownership of packets is passed to
+	 * this method, but the list itself is reused after it returns. By default calls {@link #onRead(UdpPacket)}
+	 * for each packet.
+	 *
+	 * @param packets the received packets
+	 */
+	protected void onReadBatch(List<UdpPacket> packets) {
+		for (UdpPacket packet : packets) {
+			if (!isRegistered()) {
+				packet.recycle();
+				continue;
+			}
+			onRead(packet);
+		}
+	}
+
 	/**
 	 * Sends UDPpacket  from argument
 	 *
@@ -92,7 +180,14 @@ public abstract class UdpSocketConnection extends SocketConnection {
 	 */
 	public void send(UdpPacket packet) {
 		writeQueue.add(packet);
-		onWriteReady();
+		if (batchSize == 0) {
+			onWriteReady();
+			return;
+		}
+		if (!flushPosted && writeQueue.size() == 1) {
+			flushPosted = true;
+			eventloop.post(flushTask);
+		}
 	}
 
 	/**
@@ -102,7 +197,8 @@ public abstract class UdpSocketConnection extends SocketConnection {
 	public void onWriteReady() {
 		boolean wasWritten = false;
 
-		while (!writeQueue.isEmpty()) {
+		int maxPackets = batchSize != 0 ? batchSize : Integer.MAX_VALUE;
+		for (int i = 0; i < maxPackets && !writeQueue.isEmpty(); i++) {
 			UdpPacket packet = writeQueue.peek();
 			ByteBuffer buf = packet.getBuf().toByteBuffer();
 
@@ -156,6 +252,10 @@ public abstract class UdpSocketConnection extends SocketConnection {
 			packet.recycle();
 		}
 		writeQueue.clear();
+		if (receiveBuffer != null) {
+			ByteBufPool.recycleDirect(receiveBuffer);
+			receiveBuffer = null;
+		}
 	}
 
 	public String getChannelInfo() {
@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.datakernel.jmx;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Fixed-size log-linear histogram of non-negative values, suited for latencies.
+ * <p>
+ * Values below 16 are counted exactly; every larger power-of-two range is split
+ * into 16 linear sub-buckets, so reported percentiles are within ~6% of the recorded values.
+ * All memory is allocated up front, {@link #record(long)} never allocates.
+ * Like other counters in this package it is not thread-safe and is meant to be updated from a single thread.
+ */
+public final class LatencyHistogram {
+	private static final int SUB_BITS = 4;
+	private static final int SUB_BUCKETS = 1 << SUB_BITS;
+	private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB_BUCKETS;
+
+	private final long[] counts = new long[BUCKETS];
+	private long count;
+	private long max;
+
+	public void record(long value) {
+		if (value < 0)
+			value = 0;
+		counts[index(value)]++;
+		count++;
+		if (value > max)
+			max = value;
+	}
+
+	public void reset() {
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] = 0;
+		}
+		count = 0;
+		max = 0;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public long getMax() {
+		return max;
+	}
+
+	/**
+	 * Returns the highest value of the bucket which contains the given percentile of recorded values
+	 *
+	 * @param percentile percentile in range [0, 100]
+	 */
+	public long getPercentile(double percentile) {
+		checkArgument(percentile >= 0.0 && percentile <= 100.0, "Percentile must be in range [0, 100]");
+		if (count == 0)
+			return 0;
+		long rank = (long) Math.ceil(percentile / 100.0 * count);
+		if (rank < 1)
+			rank = 1;
+		long seen = 0;
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if (seen >= rank)
+				return Math.min(upperBound(i), max);
+		}
+		return max;
+	}
+
+	public long getP50() {
+		return getPercentile(50.0);
+	}
+
+	public long getP90() {
+		return getPercentile(90.0);
+	}
+
+	public long getP99() {
+		return getPercentile(99.0);
+	}
+
+	public long getP999() {
+		return getPercentile(99.9);
+	}
+
+	static int index(long value) {
+		if (value < SUB_BUCKETS)
+			return (int) value;
+		int exp = 63 - Long.numberOfLeadingZeros(value);
+		int sub = (int) (value >>> (exp - SUB_BITS)) & (SUB_BUCKETS - 1);
+		return ((exp - SUB_BITS + 1) << SUB_BITS) + sub;
+	}
+
+	static long upperBound(int index) {
+		if (index < SUB_BUCKETS)
+			return index;
+		int exp = (index >>> SUB_BITS) + SUB_BITS - 1;
+		int sub = index & (SUB_BUCKETS - 1);
+		long lower = (long) (SUB_BUCKETS + sub) << (exp - SUB_BITS);
+		return lower + (1L << (exp - SUB_BITS)) - 1;
+	}
+
+	@Override
+	public String toString() {
+		if (count == 0)
+			return "";
+		return String.format("p50: %d p90: %d p99: %d p999: %d max: %d count: %d",
+				getP50(), getP90(), getP99(), getP999(), max, count);
+	}
+}
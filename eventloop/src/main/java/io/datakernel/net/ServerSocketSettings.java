@@ -17,6 +17,8 @@
 package io.datakernel.net;
 
 import java.io.IOException;
+import java.net.SocketOption;
+import java.net.StandardSocketOptions;
 import java.nio.channels.ServerSocketChannel;
 
 import static com.google.common.base.Preconditions.checkState;
@@ -34,14 +36,48 @@ public class ServerSocketSettings {
 	protected static final byte TRUE = 1;
 	protected static final byte FALSE = 0;
 
+	/**
+	 * SO_REUSEPORT option, available since Java 9, or null if this runtime does not provide it
+	 */
+	private static final SocketOption<Boolean> SO_REUSEPORT = reusePortOption();
+
 	private final int backlog;
 	private final int receiveBufferSize;
 	private final byte reuseAddress;
+	private final byte reusePort;
 
 	protected ServerSocketSettings(int backlog, int receiveBufferSize, byte reuseAddress) {
+		this(backlog, receiveBufferSize, reuseAddress, DEF_BOOL);
+	}
+
+	protected ServerSocketSettings(int backlog, int receiveBufferSize, byte reuseAddress, byte reusePort) {
 		this.backlog = backlog;
 		this.receiveBufferSize = receiveBufferSize;
 		this.reuseAddress = reuseAddress;
+		this.reusePort = reusePort;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static SocketOption<Boolean> reusePortOption() {
+		try {
+			return (SocketOption<Boolean>) StandardSocketOptions.class.getField("SO_REUSEPORT").get(null);
+		} catch (ReflectiveOperationException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns true if several server sockets may be bound to the same port with {@link #reusePort(boolean)},
+	 * which requires both Java 9+ runtime and OS support
+	 */
+	public static boolean isReusePortSupported() {
+		if (SO_REUSEPORT == null)
+			return false;
+		try (ServerSocketChannel channel = ServerSocketChannel.open()) {
+			return channel.supportedOptions().contains(SO_REUSEPORT);
+		} catch (IOException e) {
+			return false;
+		}
 	}
 
 	public ServerSocketSettings() {
@@ -53,15 +89,25 @@ public class ServerSocketSettings {
 	}
 
 	public ServerSocketSettings backlog(int backlog) {
-		return new ServerSocketSettings(backlog, receiveBufferSize, reuseAddress);
+		return new ServerSocketSettings(backlog, receiveBufferSize, reuseAddress, reusePort);
 	}
 
 	public ServerSocketSettings receiveBufferSize(int receiveBufferSize) {
-		return new ServerSocketSettings(backlog, receiveBufferSize, reuseAddress);
+		return new ServerSocketSettings(backlog, receiveBufferSize, reuseAddress, reusePort);
 	}
 
 	public ServerSocketSettings reuseAddress(boolean reuseAddress) {
-		return new ServerSocketSettings(backlog, receiveBufferSize, reuseAddress ? TRUE : FALSE);
+		return new ServerSocketSettings(backlog, receiveBufferSize, reuseAddress ? TRUE : FALSE, reusePort);
+	}
+
+	/**
+	 * Allows several server sockets, typically one per worker eventloop, to listen on the same port,
+	 * with incoming connections distributed among them by the OS.
+	 *
+	 * @see #isReusePortSupported()
+	 */
+	public ServerSocketSettings reusePort(boolean reusePort) {
+		return new ServerSocketSettings(backlog, receiveBufferSize, reuseAddress, reusePort ? TRUE : FALSE);
 	}
 
 	public void applySettings(ServerSocketChannel channel) throws IOException {
@@ -71,6 +117,11 @@ public class ServerSocketSettings {
 		if (reuseAddress != DEF_BOOL) {
 			channel.setOption(SO_REUSEADDR, reuseAddress != FALSE);
 		}
+		if (reusePort != DEF_BOOL) {
+			if (SO_REUSEPORT == null || !channel.supportedOptions().contains(SO_REUSEPORT))
+				throw new IOException("SO_REUSEPORT is not supported");
+			channel.setOption(SO_REUSEPORT, reusePort != FALSE);
+		}
 	}
 
 	public int getBacklog() {
@@ -94,4 +145,13 @@ public class ServerSocketSettings {
 		checkState(hasReuseAddress());
 		return reuseAddress != FALSE;
 	}
+
+	public boolean hasReusePort() {
+		return reusePort != DEF_BOOL;
+	}
+
+	public boolean getReusePort() {
+		checkState(hasReusePort());
+		return reusePort != FALSE;
+	}
 }
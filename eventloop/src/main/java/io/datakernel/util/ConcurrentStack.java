@@ -46,6 +46,30 @@ public final class ConcurrentStack<E> implements Iterable<E> {
 		} while (!head.compareAndSet(oldHead, newHead));
 	}
 
+	/**
+	 * Pushes items from array range with a single successful CAS for the whole batch
+	 *
+	 * @param items array of items to push
+	 * @param from  index of the first item, inclusive
+	 * @param to    index of the last item, exclusive
+	 */
+	public void pushAll(E[] items, int from, int to) {
+		if (from >= to)
+			return;
+		Node<E> newHead = new Node<>(items[from]);
+		Node<E> tail = newHead;
+		for (int i = from + 1; i < to; i++) {
+			Node<E> node = new Node<>(items[i]);
+			tail.next = node;
+			tail = node;
+		}
+		Node<E> oldHead;
+		do {
+			oldHead = head.get();
+			tail.next = oldHead;
+		} while (!head.compareAndSet(oldHead, newHead));
+	}
+
 	public E pop() {
 		Node<E> oldHead;
 		Node<E> newHead;
@@ -58,6 +82,37 @@ public final class ConcurrentStack<E> implements Iterable<E> {
 		return oldHead.item;
 	}
 
+	/**
+	 * Pops up to maxItems items into array with a single successful CAS for the whole batch
+	 *
+	 * @param items    destination array
+	 * @param offset   index in destination array for the first popped item
+	 * @param maxItems maximum number of items to pop
+	 * @return number of popped items
+	 */
+	public int popAll(E[] items, int offset, int maxItems) {
+		Node<E> oldHead;
+		Node<E> newHead;
+		int count;
+		do {
+			oldHead = head.get();
+			if (oldHead == null)
+				return 0;
+			newHead = oldHead;
+			count = 0;
+			while (newHead != null && count < maxItems) {
+				newHead = newHead.next;
+				count++;
+			}
+		} while (!head.compareAndSet(oldHead, newHead));
+		Node<E> node = oldHead;
+		for (int i = 0; i < count; i++) {
+			items[offset + i] = node.item;
+			node = node.next;
+		}
+		return count;
+	}
+
 	public E peek() {
 		Node<E> node = head.get();
 		return node == null ? null : node.item;
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.datakernel.util;
+
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Bounded lock-free queue for multiple producers and a single consumer, backed by a ring array.
+ * Unlike {@link java.util.concurrent.ConcurrentLinkedQueue}, it does not allocate on {@link #offer(Object)}.
+ * Only one thread may call {@link #poll()} and {@link #peek()} at a time.
+ *
+ * @param <E> type of elements
+ */
+public final class MpscArrayQueue<E> extends AbstractQueue<E> {
+	private final AtomicReferenceArray<E> buffer;
+	private final int mask;
+	private final int capacity;
+
+	private final AtomicLong producerIndex = new AtomicLong();
+	private final AtomicLong consumerIndex = new AtomicLong();
+
+	/**
+	 * Creates a new instance of MpscArrayQueue
+	 *
+	 * @param capacity maximum number of elements, rounded up to power of two
+	 */
+	public MpscArrayQueue(int capacity) {
+		checkArgument(capacity > 0 && capacity <= 1 << 30, "Illegal capacity: %s", capacity);
+		this.capacity = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+		this.mask = this.capacity - 1;
+		this.buffer = new AtomicReferenceArray<>(this.capacity);
+	}
+
+	public int capacity() {
+		return capacity;
+	}
+
+	/**
+	 * Inserts element into this queue, if it is not full. May be called from any thread.
+	 *
+	 * @param e element to insert
+	 * @return false if queue is full
+	 */
+	@Override
+	public boolean offer(E e) {
+		checkNotNull(e);
+		long index;
+		do {
+			index = producerIndex.get();
+			if (index - consumerIndex.get() >= capacity)
+				return false;
+		} while (!producerIndex.compareAndSet(index, index + 1));
+		buffer.lazySet((int) index & mask, e);
+		return true;
+	}
+
+	/**
+	 * Retrieves and removes the head of this queue. Must be called from the consumer thread only.
+	 * If a producer has claimed the head slot but has not yet published its element, waits for it.
+	 */
+	@Override
+	public E poll() {
+		long index = consumerIndex.get();
+		int offset = (int) index & mask;
+		E e = buffer.get(offset);
+		if (e == null) {
+			if (index == producerIndex.get())
+				return null;
+			do {
+				e = buffer.get(offset);
+			} while (e == null);
+		}
+		buffer.lazySet(offset, null);
+		consumerIndex.lazySet(index + 1);
+		return e;
+	}
+
+	@Override
+	public E peek() {
+		long index = consumerIndex.get();
+		int offset = (int) index & mask;
+		E e = buffer.get(offset);
+		if (e == null) {
+			if (index == producerIndex.get())
+				return null;
+			do {
+				e = buffer.get(offset);
+			} while (e == null);
+		}
+		return e;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return consumerIndex.get() == producerIndex.get();
+	}
+
+	@Override
+	public int size() {
+		long consumer = consumerIndex.get();
+		long size = producerIndex.get() - consumer;
+		return (int) Math.max(0, Math.min(size, capacity));
+	}
+
+	/**
+	 * Returns weakly consistent iterator over elements, which were in this queue at the moment of call.
+	 * Elements consumed or added during iteration may be skipped. Removal is not supported.
+	 */
+	@Override
+	public Iterator<E> iterator() {
+		final long end = producerIndex.get();
+		final long start = Math.max(consumerIndex.get(), end - capacity);
+		return new Iterator<E>() {
+			private long index = start;
+			private E next = advance();
+
+			private E advance() {
+				while (index < end) {
+					long i = index++;
+					E e = buffer.get((int) i & mask);
+					if (e != null && consumerIndex.get() <= i)
+						return e;
+				}
+				return null;
+			}
+
+			@Override
+			public boolean hasNext() {
+				return next != null;
+			}
+
+			@Override
+			public E next() {
+				if (next == null)
+					throw new NoSuchElementException();
+				E e = next;
+				next = advance();
+				return e;
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+}
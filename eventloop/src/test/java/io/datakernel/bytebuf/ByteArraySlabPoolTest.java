@@ -143,4 +143,84 @@ public class ByteArraySlabPoolTest {
 		checkReallocate(100, 101, false);
 	}
 
+	@Test
+	public void testThreadCache() {
+		ByteBufPool.clear();
+		ByteBufPool.setSizes(16, 64);
+		ByteBufPool.setThreadCache(4, 64);
+		ByteBufPool.enableThreadCache();
+		try {
+			ByteBuf[] bufs = new ByteBuf[6];
+			for (int i = 0; i < bufs.length; i++) {
+				bufs[i] = ByteBufPool.allocate(32);
+			}
+			assertEquals(6, ByteBufPool.getCreatedItems(5));
+
+			for (ByteBuf buf : bufs) {
+				buf.recycle();
+			}
+			assertEquals(2, ByteBufPool.getPoolItems(5));
+			assertEquals(4, ByteBufPool.getCacheItems());
+
+			for (int i = 0; i < bufs.length; i++) {
+				bufs[i] = ByteBufPool.allocate(32);
+			}
+			assertEquals(6, ByteBufPool.getCreatedItems(5));
+			assertEquals(0, ByteBufPool.getPoolItems(5));
+			assertEquals(0, ByteBufPool.getCacheItems());
+
+			for (ByteBuf buf : bufs) {
+				buf.recycle();
+			}
+			ByteBufPool.flushThreadCache();
+			assertEquals(6, ByteBufPool.getPoolItems(5));
+			assertEquals(0, ByteBufPool.getCacheItems());
+		} finally {
+			ByteBufPool.disableThreadCache();
+			ByteBufPool.setThreadCache(0, 0);
+			ByteBufPool.clear();
+		}
+	}
+
+	@Test
+	public void testThreadCacheOnlyForEnabledThreads() throws InterruptedException {
+		ByteBufPool.clear();
+		ByteBufPool.setSizes(16, 64);
+		ByteBufPool.setThreadCache(4, 64);
+		try {
+			Thread worker = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					ByteBuf[] bufs = new ByteBuf[3];
+					for (int i = 0; i < bufs.length; i++) {
+						bufs[i] = ByteBufPool.allocate(32);
+					}
+					for (ByteBuf buf : bufs) {
+						buf.recycle();
+					}
+				}
+			});
+			worker.start();
+			worker.join();
+			assertEquals(3, ByteBufPool.getCreatedItems(5));
+			assertEquals(3, ByteBufPool.getPoolItems(5));
+			assertEquals(0, ByteBufPool.getCacheItems());
+
+			ByteBufPool.enableThreadCache();
+			ByteBuf buf = ByteBufPool.allocate(32);
+			buf.recycle();
+			assertEquals(1, ByteBufPool.getPoolItems(5));
+			assertEquals(2, ByteBufPool.getCacheItems());
+
+			ByteBufPool.disableThreadCache();
+			assertEquals(3, ByteBufPool.getPoolItems(5));
+			assertEquals(0, ByteBufPool.getCacheItems());
+			assertEquals(3, ByteBufPool.getCreatedItems(5));
+		} finally {
+			ByteBufPool.disableThreadCache();
+			ByteBufPool.setThreadCache(0, 0);
+			ByteBufPool.clear();
+		}
+	}
+
 }
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.datakernel.bytebuf;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ByteBufLeakDetectorTest {
+	@Before
+	public void before() {
+		ByteBufPool.clear();
+		ByteBufPool.setSizes(0, Integer.MAX_VALUE);
+	}
+
+	@After
+	public void after() {
+		ByteBufPool.setLeakDetection(0.0);
+		ByteBufPool.setStrictRecycle(false);
+		ByteBufPool.clear();
+	}
+
+	private static void leak(int size) {
+		ByteBufPool.allocate(size);
+	}
+
+	@Test
+	public void testLeakDetected() throws InterruptedException {
+		ByteBufPool.setLeakDetection(1.0);
+
+		ByteBufPool.allocate(100).recycle();
+		leak(200);
+
+		for (int i = 0; i < 50 && ByteBufPool.getLeaks() == 0; i++) {
+			System.gc();
+			Thread.sleep(10);
+		}
+
+		assertEquals(1, ByteBufPool.getLeaks());
+		List<String> leaks = ByteBufLeakDetector.getRecentLeaks();
+		assertEquals(1, leaks.size());
+		assertTrue(leaks.get(0).contains("size 256"));
+		assertTrue(leaks.get(0).contains("leak"));
+		assertEquals(0, ByteBufLeakDetector.getTrackedItems());
+	}
+
+	@Test
+	public void testDisabledByDefault() {
+		ByteBuf buf = ByteBufPool.allocate(100);
+		assertNull(buf.leakTracker);
+		buf.recycle();
+		assertEquals(0, ByteBufLeakDetector.getTrackedItems());
+	}
+
+	@Test
+	public void testStrictDoubleRecycle() {
+		ByteBufPool.setStrictRecycle(true);
+		ByteBuf buf = ByteBufPool.allocate(100);
+		buf.recycle();
+		try {
+			buf.recycle();
+			fail();
+		} catch (IllegalStateException e) {
+			assertNotNull(e.getCause());
+			assertEquals("First recycle", e.getCause().getMessage());
+		}
+	}
+
+	@Test
+	public void testStrictDoubleRecycleOfSlice() {
+		ByteBufPool.setStrictRecycle(true);
+		ByteBuf buf = ByteBufPool.allocate(100);
+		ByteBuf slice = buf.slice(0, 10);
+		slice.recycle();
+		try {
+			slice.recycle();
+			fail();
+		} catch (IllegalStateException e) {
+			assertFalse(buf.isRecycled());
+		}
+		buf.recycle();
+		assertTrue(buf.isRecycled());
+	}
+}
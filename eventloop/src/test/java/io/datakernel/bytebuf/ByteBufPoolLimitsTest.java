@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.datakernel.bytebuf;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.datakernel.bytebuf.ByteBufPool.getPoolItemsString;
+import static org.junit.Assert.assertEquals;
+
+public class ByteBufPoolLimitsTest {
+	@Before
+	public void before() {
+		ByteBufPool.clear();
+		ByteBufPool.setSizes(0, Integer.MAX_VALUE);
+	}
+
+	@After
+	public void after() {
+		ByteBufPool.setPoolLimits(Long.MAX_VALUE, Long.MAX_VALUE);
+		ByteBufPool.setIdleSlabTrimming(0);
+		ByteBufPool.setThreadAccounting(false);
+		ByteBufPool.clear();
+	}
+
+	private static void allocateAndRecycle(int count, int size) {
+		List<ByteBuf> bufs = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			bufs.add(ByteBufPool.allocate(size));
+		}
+		for (ByteBuf buf : bufs) {
+			buf.recycle();
+		}
+	}
+
+	@Test
+	public void testSlabLimit() {
+		ByteBufPool.setPoolLimits(Long.MAX_VALUE, 1024);
+		allocateAndRecycle(4, 512);
+		allocateAndRecycle(4, 100);
+
+		assertEquals(2, ByteBufPool.getPoolItems(9));
+		assertEquals(4, ByteBufPool.getPoolItems(7));
+		assertEquals(getPoolItemsString(), ByteBufPool.getCreatedItems(), ByteBufPool.getPoolItems());
+	}
+
+	@Test
+	public void testPoolLimit() {
+		ByteBufPool.setPoolLimits(2048, Long.MAX_VALUE);
+		allocateAndRecycle(3, 1024);
+		allocateAndRecycle(3, 512);
+
+		assertEquals(2, ByteBufPool.getPoolItems(10));
+		assertEquals(0, ByteBufPool.getPoolItems(9));
+		assertEquals(getPoolItemsString(), ByteBufPool.getCreatedItems(), ByteBufPool.getPoolItems());
+
+		ByteBuf buf = ByteBufPool.allocate(1024);
+		allocateAndRecycle(1, 512);
+		assertEquals(1, ByteBufPool.getPoolItems(9));
+		buf.recycle();
+		assertEquals(1, ByteBufPool.getPoolItems(10));
+		assertEquals(getPoolItemsString(), ByteBufPool.getCreatedItems(), ByteBufPool.getPoolItems());
+	}
+
+	@Test
+	public void testIdleSlabTrimming() {
+		ByteBufPool.setIdleSlabTrimming(1000);
+		allocateAndRecycle(3, 1024);
+		allocateAndRecycle(3, 64);
+
+		long time = 1000000L;
+		assertEquals(0, ByteBufPool.trimIdleSlabs(time));
+		allocateAndRecycle(1, 64);
+		assertEquals(0, ByteBufPool.trimIdleSlabs(time + 600));
+		assertEquals(3, ByteBufPool.trimIdleSlabs(time + 1200));
+
+		assertEquals(0, ByteBufPool.getPoolItems(10));
+		assertEquals(3, ByteBufPool.getPoolItems(6));
+		assertEquals(getPoolItemsString(), ByteBufPool.getCreatedItems(), ByteBufPool.getPoolItems());
+	}
+
+	@Test
+	public void testThreadAccounting() {
+		ByteBufPool.setThreadAccounting(true);
+		ByteBuf buf1 = ByteBufPool.allocate(1000);
+		ByteBuf buf2 = ByteBufPool.allocate(100);
+		assertEquals(1024 + 128, ByteBufPool.getOutstandingBytes(Thread.currentThread()));
+
+		buf1.recycle();
+		assertEquals(128, ByteBufPool.getOutstandingBytes(Thread.currentThread()));
+		buf2.recycle();
+		assertEquals(0, ByteBufPool.getOutstandingBytes(Thread.currentThread()));
+	}
+
+	@Test
+	public void testThreadAccountingOfTerminatedThread() throws InterruptedException {
+		ByteBufPool.setThreadAccounting(true);
+		final ByteBuf[] bufs = new ByteBuf[1];
+		Thread worker = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				bufs[0] = ByteBufPool.allocate(1000);
+			}
+		});
+		worker.start();
+		worker.join();
+		assertEquals(0, ByteBufPool.getOutstandingBytes(worker));
+		bufs[0].recycle();
+		assertEquals(0, ByteBufPool.getOutstandingBytes(worker));
+	}
+
+	@Test
+	public void testConcurrentSlabLimit() throws InterruptedException {
+		ByteBufPool.setPoolLimits(Long.MAX_VALUE, 64 * 1024);
+		Thread[] threads = new Thread[4];
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					for (int j = 0; j < 100; j++) {
+						allocateAndRecycle(64, 1024);
+					}
+				}
+			});
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(64, ByteBufPool.getPoolItems(10));
+	}
+
+	@Test
+	public void testConcurrentCreatedItems() throws InterruptedException {
+		ByteBufPool.setPoolLimits(Long.MAX_VALUE, 0);
+		Thread[] threads = new Thread[4];
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					for (int j = 0; j < 1000; j++) {
+						allocateAndRecycle(32, 1024);
+					}
+				}
+			});
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(0, ByteBufPool.getCreatedItems(10));
+		assertEquals(0, ByteBufPool.getPoolItems(10));
+	}
+}
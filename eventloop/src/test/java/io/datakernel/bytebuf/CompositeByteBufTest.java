@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.datakernel.bytebuf;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static io.datakernel.bytebuf.ByteBufPool.getPoolItemsString;
+import static org.junit.Assert.*;
+
+public class CompositeByteBufTest {
+	@Before
+	public void before() {
+		ByteBufPool.clear();
+		ByteBufPool.setSizes(0, Integer.MAX_VALUE);
+	}
+
+	private static ByteBuf pooled(String s) {
+		ByteBuf buf = ByteBufPool.allocate(s.length());
+		buf.put(s.getBytes());
+		buf.flip();
+		return buf;
+	}
+
+	private static String toString(ByteBuf buf) {
+		return new String(buf.array(), buf.position(), buf.remaining());
+	}
+
+	@Test
+	public void testTakeCompositeDoesNotCopy() {
+		ByteBufQueue queue = new ByteBufQueue();
+		ByteBuf first = pooled("Hello, ");
+		ByteBuf second = pooled("World!");
+		queue.add(first);
+		queue.add(second);
+
+		CompositeByteBuf composite = queue.takeCompositeExactSize(9);
+		assertEquals(9, composite.remaining());
+		assertEquals(2, composite.remainingBufs());
+		assertSame(first, composite.peekBuf(0));
+		assertSame(second.array(), composite.peekBuf(1).array());
+		assertEquals('W', composite.at(7));
+		assertEquals('o', composite.at(8));
+		assertEquals(4, queue.remainingBytes());
+
+		byte[] bytes = new byte[5];
+		composite.copyTo(5, bytes, 0, 4);
+		assertEquals(", Wo", new String(bytes, 0, 4));
+
+		composite.recycle();
+		assertFalse(second.isRecycled());
+		queue.clear();
+		assertEquals(getPoolItemsString(), ByteBufPool.getCreatedItems(), ByteBufPool.getPoolItems());
+	}
+
+	@Test
+	public void testToByteBuf() {
+		ByteBufQueue queue = new ByteBufQueue();
+		ByteBuf single = pooled("single");
+		queue.add(single);
+		ByteBuf buf = queue.takeCompositeRemaining().toByteBuf();
+		assertSame(single, buf);
+		buf.recycle();
+
+		queue.add(pooled("ab"));
+		queue.add(pooled("cd"));
+		queue.add(pooled("ef"));
+		buf = queue.takeCompositeRemaining().toByteBuf();
+		assertEquals("abcdef", toString(buf));
+		buf.recycle();
+
+		assertEquals(0, queue.takeCompositeRemaining().toByteBuf().remaining());
+		assertEquals(getPoolItemsString(), ByteBufPool.getCreatedItems(), ByteBufPool.getPoolItems());
+	}
+
+	@Test
+	public void testCopyToByteBuf() {
+		ByteBufQueue queue = new ByteBufQueue();
+		queue.add(pooled("abc"));
+		queue.add(pooled("def"));
+		CompositeByteBuf composite = queue.takeCompositeRemaining();
+
+		ByteBuf dest = ByteBuf.allocate(8);
+		dest.put((byte) '>');
+		composite.copyTo(dest);
+		dest.flip();
+		assertEquals(">abcdef", toString(dest));
+		assertEquals(6, composite.remaining());
+
+		composite.recycle();
+		assertEquals(getPoolItemsString(), ByteBufPool.getCreatedItems(), ByteBufPool.getPoolItems());
+	}
+}
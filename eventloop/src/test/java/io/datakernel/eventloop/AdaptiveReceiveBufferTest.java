@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.datakernel.eventloop;
+
+import io.datakernel.bytebuf.ByteBuf;
+import io.datakernel.net.SocketSettings;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SocketChannel;
+
+import static org.junit.Assert.assertEquals;
+
+public class AdaptiveReceiveBufferTest {
+	private static final int PORT = 9925;
+	private static final int MIN_SIZE = 256;
+	private static final int MAX_SIZE = 64 * 1024;
+	private static final int BULK_SIZE = 4 * 1024 * 1024;
+	private static final int SMALL_MESSAGES = 64;
+
+	private int receivedBytes;
+	private int smallMessages;
+	private int maxObservedBufferSize;
+	private int lastObservedBufferSize;
+
+	private final class ServerConnection extends TcpSocketConnection {
+		public ServerConnection(NioEventloop eventloop, SocketChannel socketChannel) {
+			super(eventloop, socketChannel);
+		}
+
+		@Override
+		protected void onRead() {
+			maxObservedBufferSize = Math.max(maxObservedBufferSize, receiveBufferSize);
+			int bytes = readQueue.remainingBytes();
+			readQueue.advance(bytes);
+			if (receivedBytes < BULK_SIZE) {
+				receivedBytes += bytes;
+				if (receivedBytes == BULK_SIZE) {
+					write(ByteBuf.wrap(new byte[1]));
+				}
+			} else {
+				smallMessages++;
+				lastObservedBufferSize = receiveBufferSize;
+				write(ByteBuf.wrap(new byte[1]));
+			}
+		}
+	}
+
+	private static final class ClientConnection extends TcpSocketConnection {
+		private int countdown = SMALL_MESSAGES;
+
+		public ClientConnection(NioEventloop eventloop, SocketChannel socketChannel) {
+			super(eventloop, socketChannel);
+		}
+
+		@Override
+		public void onRegistered() {
+			for (int i = 0; i < BULK_SIZE / MAX_SIZE; i++) {
+				write(ByteBuf.wrap(new byte[MAX_SIZE]));
+			}
+		}
+
+		@Override
+		protected void onRead() {
+			readQueue.advance(readQueue.remainingBytes());
+			if (countdown-- == 0) {
+				close();
+				return;
+			}
+			write(ByteBuf.wrap(new byte[10]));
+		}
+	}
+
+	@Test
+	public void testAdaptiveReceiveBuffer() throws IOException {
+		final NioEventloop eventloop = new NioEventloop();
+		SimpleNioServer server = new SimpleNioServer(eventloop) {
+			@Override
+			protected SocketConnection createConnection(SocketChannel socketChannel) {
+				return new ServerConnection(eventloop, socketChannel);
+			}
+		};
+		server.adaptiveReceiveBufferSize(MIN_SIZE, MAX_SIZE).acceptOnce().setListenPort(PORT);
+		server.listen();
+
+		eventloop.connect(new InetSocketAddress("localhost", PORT), new SocketSettings(), new ConnectCallback() {
+			@Override
+			public void onConnect(SocketChannel socketChannel) {
+				new ClientConnection(eventloop, socketChannel).register();
+			}
+
+			@Override
+			public void onException(Exception exception) {
+				System.err.println("Could not connect:\n" + exception);
+			}
+		});
+
+		eventloop.run();
+
+		assertEquals(BULK_SIZE, receivedBytes);
+		assertEquals(SMALL_MESSAGES, smallMessages);
+		assertEquals(MAX_SIZE, maxObservedBufferSize);
+		assertEquals(MIN_SIZE, lastObservedBufferSize);
+	}
+
+	@Test
+	public void testBoundsRoundedToPowersOfTwo() throws IOException {
+		NioEventloop eventloop = new NioEventloop();
+		try (SocketChannel socketChannel = SocketChannel.open()) {
+			TcpSocketConnection connection = new ServerConnection(eventloop, socketChannel);
+			connection.setAdaptiveReceiveBufferSize(100, 3000);
+			assertEquals(4096, connection.getReceiveBufferSize());
+			assertEquals(128, connection.minReceiveBufferSize);
+			assertEquals(4096, connection.maxReceiveBufferSize);
+		}
+	}
+}
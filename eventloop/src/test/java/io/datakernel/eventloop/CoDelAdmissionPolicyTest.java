@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.datakernel.eventloop;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CoDelAdmissionPolicyTest {
+	@Test
+	public void testAdmitsUnderTarget() {
+		CoDelAdmissionPolicy policy = new CoDelAdmissionPolicy(5, 100);
+		for (long now = 1000; now < 2000; now += 10) {
+			assertTrue(policy.admit(now % 20 == 0 ? 50 : 1, now));
+		}
+		assertFalse(policy.isOverloaded());
+		assertEquals(0, policy.getOverloadedIntervals());
+	}
+
+	@Test
+	public void testShedsStandingQueue() {
+		CoDelAdmissionPolicy policy = new CoDelAdmissionPolicy(5, 100);
+		long now = 1000;
+		// queue delay never drops below target during first interval, but requests are still admitted
+		for (; now < 1100; now += 10) {
+			assertTrue(policy.admit(20, now));
+		}
+		// standing queue detected, requests waiting longer than target are rejected
+		assertFalse(policy.admit(20, now));
+		assertTrue(policy.isOverloaded());
+		assertTrue(policy.admit(3, now + 10));
+		for (now += 20; now < 1200; now += 10) {
+			policy.admit(20, now);
+		}
+		// queue has drained below target once during interval, back to normal
+		assertTrue(policy.admit(20, now));
+		assertFalse(policy.isOverloaded());
+		assertEquals(1, policy.getOverloadedIntervals());
+	}
+
+	@Test
+	public void testRejectsDelayOverInterval() {
+		CoDelAdmissionPolicy policy = new CoDelAdmissionPolicy(5, 100);
+		assertTrue(policy.admit(100, 1000));
+		assertFalse(policy.admit(101, 1001));
+	}
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.datakernel.eventloop;
+
+import io.datakernel.bytebuf.ByteBuf;
+import io.datakernel.bytebuf.ByteBufPool;
+import io.datakernel.net.SocketSettings;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+import static io.datakernel.bytebuf.ByteBufPool.getPoolItemsString;
+import static org.junit.Assert.*;
+
+public class GatheringWriteTest {
+	private static final int PORT = 9941;
+	private static final int BUFS = 10;
+	private static final int BUF_SIZE = 100;
+	private static final int MAX_WRITE = 7;
+
+	/**
+	 * Writes at most {@code MAX_WRITE} bytes per call, so that every write is short
+	 */
+	private static class ShortWritingConnection extends TcpSocketConnection {
+		private int gatheringWrites;
+		private int shortWrites;
+
+		ShortWritingConnection(NioEventloop eventloop, SocketChannel socketChannel) {
+			super(eventloop, socketChannel);
+		}
+
+		@Override
+		public void onRegistered() {
+			for (int i = 0; i < BUFS; i++) {
+				ByteBuf buf = ByteBufPool.allocate(BUF_SIZE);
+				for (int j = 0; j < BUF_SIZE; j++) {
+					buf.put((byte) (i * BUF_SIZE + j));
+				}
+				buf.flip();
+				write(buf);
+			}
+		}
+
+		@Override
+		protected int channelWrite(ByteBuffer byteBuffer) throws IOException {
+			return writeLimited(byteBuffer, byteBuffer.remaining());
+		}
+
+		@Override
+		protected long channelWrite(ByteBuffer[] byteBuffers, int offset, int length) throws IOException {
+			gatheringWrites++;
+			int size = 0;
+			for (int i = offset; i < offset + length; i++) {
+				size += byteBuffers[i].remaining();
+			}
+			for (int i = offset; i < offset + length; i++) {
+				if (byteBuffers[i].hasRemaining())
+					return writeLimited(byteBuffers[i], size);
+			}
+			return 0;
+		}
+
+		private int writeLimited(ByteBuffer byteBuffer, int size) throws IOException {
+			ByteBuffer slice = byteBuffer.slice();
+			slice.limit(Math.min(slice.remaining(), MAX_WRITE));
+			int written = channel.write(slice);
+			byteBuffer.position(byteBuffer.position() + written);
+			if (written < size)
+				shortWrites++;
+			return written;
+		}
+
+		@Override
+		protected void onWriteFlushed() {
+			close();
+		}
+
+		@Override
+		protected void onRead() {
+			readQueue.clear();
+		}
+	}
+
+	private static class CollectingServer extends SimpleNioServer {
+		private final ByteArrayOutputStream received = new ByteArrayOutputStream();
+
+		CollectingServer(NioEventloop eventloop) {
+			super(eventloop);
+		}
+
+		@Override
+		protected SocketConnection createConnection(SocketChannel socketChannel) {
+			return new TcpSocketConnection(eventloop, socketChannel) {
+				@Override
+				protected void onRead() {
+					while (!readQueue.isEmpty()) {
+						ByteBuf buf = readQueue.take();
+						received.write(buf.array(), buf.position(), buf.remaining());
+						buf.recycle();
+					}
+				}
+
+				@Override
+				protected void onReadEndOfStream() {
+					close();
+					CollectingServer.this.close();
+				}
+			};
+		}
+	}
+
+	@Before
+	public void before() {
+		ByteBufPool.clear();
+		ByteBufPool.setSizes(0, Integer.MAX_VALUE);
+	}
+
+	@Test
+	public void testPartialGatheringWrites() throws IOException {
+		final NioEventloop eventloop = new NioEventloop();
+		CollectingServer server = new CollectingServer(eventloop);
+		server.acceptOnce().setListenPort(PORT);
+		server.listen();
+
+		final ShortWritingConnection[] client = new ShortWritingConnection[1];
+		eventloop.connect(new InetSocketAddress("localhost", PORT), new SocketSettings(), new ConnectCallback() {
+			@Override
+			public void onConnect(SocketChannel socketChannel) {
+				client[0] = new ShortWritingConnection(eventloop, socketChannel);
+				client[0].register();
+			}
+
+			@Override
+			public void onException(Exception exception) {
+				fail("Could not connect: " + exception);
+			}
+		});
+		eventloop.run();
+
+		byte[] expected = new byte[BUFS * BUF_SIZE];
+		for (int i = 0; i < expected.length; i++) {
+			expected[i] = (byte) i;
+		}
+		assertArrayEquals(expected, server.received.toByteArray());
+		assertTrue(client[0].gatheringWrites > 0);
+		assertTrue(client[0].shortWrites > BUFS);
+		assertEquals(getPoolItemsString(), ByteBufPool.getCreatedItems(), ByteBufPool.getPoolItems());
+	}
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.datakernel.eventloop;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Measures round-trip latency of tasks posted to eventloop from other thread
+ * with blocking, yielding and busy-spinning idle strategies.
+ */
+public class IdleStrategyBenchmark {
+	private static final int WARMUP = 2_000;
+	private static final int ITERATIONS = 20_000;
+	private static final long PAUSE_NANOS = 50_000;
+
+	private static long[] round(int spinSelects, int yieldSelects) throws InterruptedException {
+		final NioEventloop eventloop = new NioEventloop();
+		eventloop.setIdleStrategy(spinSelects, yieldSelects);
+		eventloop.keepAlive(true);
+		Thread eventloopThread = new Thread(eventloop);
+		eventloopThread.start();
+
+		final AtomicBoolean done = new AtomicBoolean();
+		Runnable task = new Runnable() {
+			@Override
+			public void run() {
+				done.set(true);
+			}
+		};
+
+		long[] latencies = new long[ITERATIONS];
+		for (int i = -WARMUP; i < ITERATIONS; i++) {
+			long pause = System.nanoTime() + PAUSE_NANOS;
+			while (System.nanoTime() < pause) {
+				Thread.yield(); // let eventloop become idle
+			}
+			done.set(false);
+			long start = System.nanoTime();
+			eventloop.postConcurrently(task);
+			while (!done.get()) {
+				Thread.yield();
+			}
+			if (i >= 0) {
+				latencies[i] = System.nanoTime() - start;
+			}
+		}
+
+		eventloop.keepAlive(false);
+		eventloopThread.join();
+		Arrays.sort(latencies);
+		return latencies;
+	}
+
+	private static void print(String name, long[] latencies) {
+		System.out.printf("%-10s p50: %6.1f us, p99: %6.1f us, p99.9: %6.1f us%n", name,
+				latencies[latencies.length / 2] / 1e3,
+				latencies[(int) (latencies.length * 0.99)] / 1e3,
+				latencies[(int) (latencies.length * 0.999)] / 1e3);
+	}
+
+	public static void main(String[] args) throws Exception {
+		print("blocking", round(0, 0));
+		print("yield", round(0, Integer.MAX_VALUE));
+		print("spin", round(Integer.MAX_VALUE, 0));
+	}
+}
@@ -28,6 +28,7 @@ import static io.datakernel.util.ByteBufStrings.decodeAscii;
 import static io.datakernel.util.ByteBufStrings.encodeAscii;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
 
 public class PingPongSocketConnectionTest {
 	public static final int PORT = 9921;
@@ -100,13 +101,25 @@ public class PingPongSocketConnectionTest {
 
 	@Test
 	public void testPingPong() throws IOException {
+		doTestPingPong(PORT, false);
+	}
+
+	@Test
+	public void testPingPongOptimizedSelectedKeys() throws IOException {
+		doTestPingPong(PORT + 5, true);
+	}
+
+	private void doTestPingPong(int port, boolean optimizeSelectedKeys) throws IOException {
 		final NioEventloop eventloop = new NioEventloop();
+		eventloop.optimizeSelectedKeys(optimizeSelectedKeys);
 		TestServer server = new TestServer(eventloop);
-		server.acceptOnce().setListenPort(PORT);
+		server.acceptOnce().setListenPort(port);
 
 		server.listen();
+		if (optimizeSelectedKeys)
+			assumeTrue("JDK selector does not allow replacing selected keys", eventloop.isOptimizedSelectedKeys());
 
-		eventloop.connect(new InetSocketAddress("localhost", PORT), new SocketSettings(), new ConnectCallback() {
+		eventloop.connect(new InetSocketAddress("localhost", port), new SocketSettings(), new ConnectCallback() {
 					@Override
 					public void onConnect(SocketChannel socketChannel) {
 						PingPongConnection pingPongConnection = PingPongConnection.clientConnection(eventloop, socketChannel, PING, PONG, ITERATIONS);
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.datakernel.eventloop;
+
+import io.datakernel.time.CurrentTimeProviderSystem;
+
+/**
+ * Measures throughput of tasks posted to eventloop from other threads,
+ * with unbounded and bounded queue of concurrent tasks.
+ */
+public class PostConcurrentlyBenchmark {
+	private static final int PRODUCERS = 4;
+	private static final int TASKS_PER_PRODUCER = 5_000_000;
+	private static final int BOUNDED_CAPACITY = 64 * 1024;
+	private static final int ROUNDS = 5;
+
+	private static long round(int concurrentTasksCapacity) throws InterruptedException {
+		final NioEventloop eventloop = new NioEventloop(CurrentTimeProviderSystem.instance(), false, concurrentTasksCapacity);
+		eventloop.keepAlive(true);
+		final Runnable task = new Runnable() {
+			private int count;
+
+			@Override
+			public void run() {
+				if (++count == PRODUCERS * TASKS_PER_PRODUCER) {
+					eventloop.keepAlive(false);
+				}
+			}
+		};
+
+		Thread eventloopThread = new Thread(eventloop);
+		Thread[] producers = new Thread[PRODUCERS];
+		for (int i = 0; i < PRODUCERS; i++) {
+			producers[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					for (int j = 0; j < TASKS_PER_PRODUCER; j++) {
+						eventloop.postConcurrently(task);
+					}
+				}
+			});
+		}
+
+		long start = System.nanoTime();
+		eventloopThread.start();
+		for (Thread producer : producers) {
+			producer.start();
+		}
+		for (Thread producer : producers) {
+			producer.join();
+		}
+		eventloopThread.join();
+		return System.nanoTime() - start;
+	}
+
+	public static void main(String[] args) throws Exception {
+		for (int capacity : new int[]{0, BOUNDED_CAPACITY, 0, BOUNDED_CAPACITY}) {
+			long best = Long.MAX_VALUE;
+			for (int i = 0; i < ROUNDS; i++) {
+				best = Math.min(best, round(capacity));
+			}
+			System.out.printf("%s queue: %.1f M tasks/s%n", capacity == 0 ? "unbounded" : "bounded",
+					PRODUCERS * (double) TASKS_PER_PRODUCER * 1e3 / best);
+		}
+	}
+}
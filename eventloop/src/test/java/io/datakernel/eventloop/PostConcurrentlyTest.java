@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.datakernel.eventloop;
+
+import io.datakernel.time.CurrentTimeProviderSystem;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class PostConcurrentlyTest {
+	private static final int TASKS = 10000;
+
+	private static final class Receiver {
+		private final NioEventloop eventloop = new NioEventloop(CurrentTimeProviderSystem.instance(), false, 4);
+		private final Eventloop.ConcurrentOperationTracker tracker = eventloop.startConcurrentOperation();
+		private final List<Integer> received = new ArrayList<>();
+
+		private void sendTo(final Receiver other) {
+			eventloop.postConcurrently(new Runnable() {
+				@Override
+				public void run() {
+					for (int i = 0; i < TASKS; i++) {
+						final int value = i;
+						other.eventloop.postConcurrently(new Runnable() {
+							@Override
+							public void run() {
+								other.received.add(value);
+								if (other.received.size() == TASKS) {
+									other.tracker.complete();
+								}
+							}
+						});
+					}
+				}
+			});
+		}
+	}
+
+	@Test(timeout = 10000)
+	public void testEventloopsPostingToEachOther() throws InterruptedException {
+		Receiver receiver1 = new Receiver();
+		Receiver receiver2 = new Receiver();
+		receiver1.sendTo(receiver2);
+		receiver2.sendTo(receiver1);
+
+		Thread thread1 = new Thread(receiver1.eventloop);
+		Thread thread2 = new Thread(receiver2.eventloop);
+		thread1.start();
+		thread2.start();
+		thread1.join();
+		thread2.join();
+
+		for (Receiver receiver : new Receiver[]{receiver1, receiver2}) {
+			assertEquals(TASKS, receiver.received.size());
+			for (int i = 0; i < TASKS; i++) {
+				assertEquals(i, (int) receiver.received.get(i));
+			}
+			assertEquals(0, receiver.eventloop.getConcurrentRunnables());
+		}
+	}
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.datakernel.eventloop;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ScheduledTimingWheelTest {
+	private static final Runnable NOP = new Runnable() {
+		@Override
+		public void run() {
+		}
+	};
+
+	private static List<ScheduledRunnable> pollAll(ScheduledQueue queue, long currentTime) {
+		List<ScheduledRunnable> result = new ArrayList<>();
+		ScheduledRunnable scheduledRunnable;
+		while ((scheduledRunnable = queue.pollExpired(currentTime)) != null) {
+			assertTrue(scheduledRunnable.getTimestamp() < currentTime);
+			result.add(scheduledRunnable);
+		}
+		return result;
+	}
+
+	@Test
+	public void testCancel() {
+		ScheduledTimingWheel wheel = new ScheduledTimingWheel(1000);
+		ScheduledRunnable first = new ScheduledRunnable(1010, NOP);
+		ScheduledRunnable second = new ScheduledRunnable(1010, NOP);
+		ScheduledRunnable distant = new ScheduledRunnable(1000 + (1L << 40), NOP);
+		wheel.add(first);
+		wheel.add(second);
+		wheel.add(distant);
+		assertEquals(3, wheel.size());
+
+		first.cancel();
+		distant.cancel();
+		assertEquals(1, wheel.size());
+
+		assertNull(wheel.pollExpired(1010));
+		assertSame(second, wheel.pollExpired(1011));
+		assertTrue(wheel.isEmpty());
+	}
+
+	@Test
+	public void testSameAsHeap() {
+		Random random = new Random(1L);
+		long currentTime = 1_000_000_000L;
+		ScheduledTimingWheel wheel = new ScheduledTimingWheel(currentTime);
+		ScheduledHeapQueue heap = new ScheduledHeapQueue();
+		List<ScheduledRunnable[]> scheduled = new ArrayList<>();
+
+		for (int round = 0; round < 10_000; round++) {
+			int adds = random.nextInt(10);
+			for (int i = 0; i < adds; i++) {
+				long delay;
+				switch (random.nextInt(4)) {
+					case 0:
+						delay = random.nextInt(300) - 10;
+						break;
+					case 1:
+						delay = random.nextInt(20_000);
+						break;
+					case 2:
+						delay = random.nextInt(10_000_000);
+						break;
+					default:
+						delay = (long) random.nextInt(Integer.MAX_VALUE) * random.nextInt(8);
+				}
+				ScheduledRunnable wheelRunnable = new ScheduledRunnable(currentTime + delay, NOP);
+				ScheduledRunnable heapRunnable = new ScheduledRunnable(currentTime + delay, NOP);
+				wheel.add(wheelRunnable);
+				heap.add(heapRunnable);
+				scheduled.add(new ScheduledRunnable[]{wheelRunnable, heapRunnable});
+			}
+			if (!scheduled.isEmpty() && random.nextInt(3) == 0) {
+				ScheduledRunnable[] pair = scheduled.remove(random.nextInt(scheduled.size()));
+				pair[0].cancel();
+				pair[1].cancel();
+			}
+
+			long step = random.nextInt(10) == 0 ? random.nextInt(1_000_000) : random.nextInt(50);
+			currentTime += step;
+
+			List<ScheduledRunnable> fromWheel = pollAll(wheel, currentTime);
+			List<ScheduledRunnable> fromHeap = pollAll(heap, currentTime);
+			assertEquals(timestamps(fromHeap), timestamps(fromWheel));
+		}
+
+		currentTime += 1L << 36;
+		assertEquals(timestamps(pollAll(heap, currentTime)), timestamps(pollAll(wheel, currentTime)));
+		assertTrue(wheel.isEmpty());
+	}
+
+	private static List<Long> timestamps(List<ScheduledRunnable> scheduledRunnables) {
+		List<Long> result = new ArrayList<>();
+		for (ScheduledRunnable scheduledRunnable : scheduledRunnables) {
+			result.add(scheduledRunnable.getTimestamp());
+		}
+		Collections.sort(result);
+		return result;
+	}
+}
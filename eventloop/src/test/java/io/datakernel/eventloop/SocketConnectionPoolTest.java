@@ -0,0 +1,272 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.datakernel.eventloop;
+
+import io.datakernel.net.SocketSettings;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.datakernel.async.AsyncCallbacks.ignoreCompletionCallback;
+import static org.junit.Assert.*;
+
+public class SocketConnectionPoolTest {
+	private static final int PORT = 9931;
+	private static final InetSocketAddress ADDRESS = new InetSocketAddress("localhost", PORT);
+
+	private static class SinkServer extends SimpleNioServer {
+		private final List<SocketConnection> connections = new ArrayList<>();
+
+		SinkServer(NioEventloop eventloop) {
+			super(eventloop);
+		}
+
+		@Override
+		protected SocketConnection createConnection(SocketChannel socketChannel) {
+			SocketConnection connection = new TcpSocketConnection(eventloop, socketChannel) {
+				@Override
+				protected void onRead() {
+					readQueue.clear();
+				}
+			};
+			connections.add(connection);
+			return connection;
+		}
+
+		void closeConnections() {
+			for (SocketConnection connection : connections) {
+				connection.close();
+			}
+			connections.clear();
+		}
+	}
+
+	private static class RecordingCallback implements ConnectCallback {
+		private SocketChannel socketChannel;
+		private Exception exception;
+
+		@Override
+		public void onConnect(SocketChannel socketChannel) {
+			this.socketChannel = socketChannel;
+		}
+
+		@Override
+		public void onException(Exception exception) {
+			this.exception = exception;
+		}
+	}
+
+	@Test
+	public void testWarmUpAndReuse() throws IOException {
+		final NioEventloop eventloop = new NioEventloop();
+		final SinkServer server = new SinkServer(eventloop);
+		server.setListenPort(PORT);
+		server.listen();
+
+		final SocketConnectionPool pool = new SocketConnectionPool(eventloop, new SocketSettings())
+				.minIdleConnections(2)
+				.warmUp(ADDRESS);
+		pool.start(ignoreCompletionCallback());
+
+		final RecordingCallback callback = new RecordingCallback();
+		eventloop.schedule(eventloop.currentTimeMillis() + 100, new Runnable() {
+			@Override
+			public void run() {
+				assertEquals(2, pool.getIdleConnections());
+				pool.connect(ADDRESS, callback);
+				assertNotNull(callback.socketChannel);
+				assertEquals(1, pool.getIdleHits());
+				assertEquals(1, pool.getLeasedConnections());
+
+				pool.release(ADDRESS, callback.socketChannel);
+				assertEquals(0, pool.getLeasedConnections());
+				assertTrue(pool.getIdleConnections() >= 2);
+			}
+		});
+		eventloop.schedule(eventloop.currentTimeMillis() + 200, new Runnable() {
+			@Override
+			public void run() {
+				assertEquals(3, pool.getSuccessfulConnects());
+				pool.stop(ignoreCompletionCallback());
+				server.close();
+				server.closeConnections();
+			}
+		});
+		eventloop.run();
+
+		assertEquals(0, pool.getIdleConnections());
+	}
+
+	@Test
+	public void testConnectionsLimit() throws IOException {
+		final NioEventloop eventloop = new NioEventloop();
+		final SinkServer server = new SinkServer(eventloop);
+		server.setListenPort(PORT + 1);
+		server.listen();
+		final InetSocketAddress address = new InetSocketAddress("localhost", PORT + 1);
+
+		final SocketConnectionPool pool = new SocketConnectionPool(eventloop, new SocketSettings())
+				.maxConnectionsPerAddress(1);
+
+		final RecordingCallback first = new RecordingCallback();
+		final RecordingCallback second = new RecordingCallback();
+		pool.connect(address, first);
+		pool.connect(address, second);
+		assertEquals(1, pool.getPendingConnects());
+		assertEquals(1, pool.getWaitingRequests());
+
+		eventloop.schedule(eventloop.currentTimeMillis() + 100, new Runnable() {
+			@Override
+			public void run() {
+				assertNotNull(first.socketChannel);
+				assertNull(second.socketChannel);
+
+				pool.release(address, first.socketChannel);
+				assertSame(first.socketChannel, second.socketChannel);
+				assertEquals(0, pool.getWaitingRequests());
+				assertEquals(1, pool.getSuccessfulConnects());
+
+				pool.release(address, second.socketChannel);
+				pool.stop(ignoreCompletionCallback());
+				server.close();
+				server.closeConnections();
+			}
+		});
+		eventloop.run();
+	}
+
+	@Test
+	public void testReleaseOnClose() throws IOException {
+		final NioEventloop eventloop = new NioEventloop();
+		final SinkServer server = new SinkServer(eventloop);
+		server.setListenPort(PORT + 4);
+		server.listen();
+		final InetSocketAddress address = new InetSocketAddress("localhost", PORT + 4);
+
+		final SocketConnectionPool pool = new SocketConnectionPool(eventloop, new SocketSettings())
+				.maxConnectionsPerAddress(1)
+				.healthCheckInterval(60 * 1000L);
+
+		final RecordingCallback first = new RecordingCallback();
+		final RecordingCallback second = new RecordingCallback();
+		pool.connect(address, first);
+
+		eventloop.schedule(eventloop.currentTimeMillis() + 100, new Runnable() {
+			@Override
+			public void run() {
+				SocketConnection connection = new TcpSocketConnection(eventloop, first.socketChannel) {
+					@Override
+					protected void onRead() {
+						readQueue.clear();
+					}
+				};
+				pool.releaseOnClose(address, connection);
+				connection.register();
+
+				pool.connect(address, second);
+				assertEquals(1, pool.getWaitingRequests());
+
+				connection.close();
+				assertEquals(0, pool.getWaitingRequests());
+				assertEquals(0, pool.getLeasedConnections());
+			}
+		});
+		eventloop.schedule(eventloop.currentTimeMillis() + 200, new Runnable() {
+			@Override
+			public void run() {
+				assertNotNull(second.socketChannel);
+				assertEquals(1, pool.getLeasedConnections());
+				assertEquals(2, pool.getSuccessfulConnects());
+
+				pool.release(address, second.socketChannel);
+				pool.stop(ignoreCompletionCallback());
+				server.close();
+				server.closeConnections();
+			}
+		});
+		eventloop.run();
+	}
+
+	@Test
+	public void testHealthCheck() throws IOException {
+		final NioEventloop eventloop = new NioEventloop();
+		final SinkServer server = new SinkServer(eventloop);
+		server.setListenPort(PORT + 2);
+		server.listen();
+		final InetSocketAddress address = new InetSocketAddress("localhost", PORT + 2);
+
+		final SocketConnectionPool pool = new SocketConnectionPool(eventloop, new SocketSettings());
+		final RecordingCallback first = new RecordingCallback();
+		final RecordingCallback second = new RecordingCallback();
+		pool.connect(address, first);
+
+		eventloop.schedule(eventloop.currentTimeMillis() + 100, new Runnable() {
+			@Override
+			public void run() {
+				pool.release(address, first.socketChannel);
+				server.closeConnections();
+			}
+		});
+		eventloop.schedule(eventloop.currentTimeMillis() + 200, new Runnable() {
+			@Override
+			public void run() {
+				pool.connect(address, second);
+				assertEquals(1, pool.getHealthCheckFailures());
+				assertFalse(first.socketChannel.isOpen());
+			}
+		});
+		eventloop.schedule(eventloop.currentTimeMillis() + 300, new Runnable() {
+			@Override
+			public void run() {
+				assertNotNull(second.socketChannel);
+				assertNotSame(first.socketChannel, second.socketChannel);
+				assertEquals(2, pool.getSuccessfulConnects());
+
+				pool.release(address, second.socketChannel);
+				pool.stop(ignoreCompletionCallback());
+				server.close();
+				server.closeConnections();
+			}
+		});
+		eventloop.run();
+	}
+
+	@Test
+	public void testReconnectWithBackoff() {
+		final NioEventloop eventloop = new NioEventloop();
+		SocketConnectionPool pool = new SocketConnectionPool(eventloop, new SocketSettings())
+				.reconnectAttempts(2)
+				.backoff(10, 40);
+
+		RecordingCallback callback = new RecordingCallback();
+		long start = eventloop.currentTimeMillis();
+		pool.connect(new InetSocketAddress("localhost", PORT + 3), callback);
+		eventloop.run();
+
+		assertNotNull(callback.exception);
+		assertNull(callback.socketChannel);
+		assertEquals(3, pool.getFailedConnects());
+		assertEquals(0, pool.getPendingConnects());
+		// at least halves of 10 and 20 ms backoffs
+		assertTrue(eventloop.currentTimeMillis() - start >= 15);
+	}
+}
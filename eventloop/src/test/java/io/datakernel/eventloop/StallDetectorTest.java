@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.datakernel.eventloop;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class StallDetectorTest {
+	private static final class SleepingTask implements Runnable {
+		@Override
+		public void run() {
+			try {
+				Thread.sleep(300);
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+		}
+	}
+
+	@Test
+	public void testStall() {
+		NioEventloop eventloop = new NioEventloop();
+		StallDetector stallDetector = new StallDetector(eventloop, 50, 4);
+		stallDetector.start();
+
+		for (int i = 0; i < 10; i++) {
+			eventloop.post(new Runnable() {
+				@Override
+				public void run() {
+				}
+			});
+		}
+		eventloop.post(new SleepingTask());
+		eventloop.run();
+		stallDetector.stop();
+
+		assertEquals(1, stallDetector.getStallsCount());
+
+		String[] stalls = stallDetector.getStalls();
+		assertEquals(2, stalls.length);
+		assertTrue(stalls[1].contains(SleepingTask.class.getName()));
+
+		String[] offenders = stallDetector.getTopOffenders();
+		assertEquals(2, offenders.length);
+		assertTrue(offenders[1].startsWith(SleepingTask.class.getName() + ",1,"));
+
+		boolean sleeping = false;
+		for (String frame : stallDetector.getLastStallStackTrace()) {
+			sleeping |= frame.contains("SleepingTask.run");
+		}
+		assertTrue(sleeping);
+
+		stallDetector.resetStats();
+		assertEquals(0, stallDetector.getStallsCount());
+		assertNull(stallDetector.getStalls());
+	}
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.datakernel.eventloop;
+
+import io.datakernel.bytebuf.ByteBuf;
+import io.datakernel.bytebuf.ByteBufPool;
+import io.datakernel.net.SocketSettings;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Measures echo throughput of a single connection over loopback.
+ */
+public class TcpEchoBenchmark {
+	private static final int PORT = 9923;
+	private static final int MESSAGE_SIZE = 4 * 1024;
+	private static final int PIPELINE = 16;
+	private static final long TOTAL_BYTES = 1L << 30;
+	private static final int ROUNDS = 5;
+
+	private static class EchoConnection extends TcpSocketConnection {
+		EchoConnection(NioEventloop eventloop, SocketChannel socketChannel) {
+			super(eventloop, socketChannel);
+		}
+
+		@Override
+		protected void onRead() {
+			while (!readQueue.isEmpty()) {
+				write(readQueue.take());
+			}
+		}
+	}
+
+	private static class ClientConnection extends TcpSocketConnection {
+		private final byte[] message = new byte[MESSAGE_SIZE];
+		private long sent;
+		private long received;
+
+		ClientConnection(NioEventloop eventloop, SocketChannel socketChannel) {
+			super(eventloop, socketChannel);
+		}
+
+		@Override
+		public void onRegistered() {
+			for (int i = 0; i < PIPELINE; i++) {
+				send();
+			}
+		}
+
+		private void send() {
+			if (sent >= TOTAL_BYTES)
+				return;
+			ByteBuf buf = ByteBufPool.allocate(MESSAGE_SIZE);
+			buf.put(message);
+			buf.flip();
+			sent += MESSAGE_SIZE;
+			write(buf);
+		}
+
+		@Override
+		protected void onRead() {
+			while (!readQueue.isEmpty()) {
+				ByteBuf buf = readQueue.take();
+				long before = received / MESSAGE_SIZE;
+				received += buf.remaining();
+				buf.recycle();
+				for (long i = before; i < received / MESSAGE_SIZE; i++) {
+					send();
+				}
+			}
+			if (received >= TOTAL_BYTES) {
+				close();
+			}
+		}
+	}
+
+	private static long round() throws IOException {
+		final NioEventloop eventloop = new NioEventloop();
+		SimpleNioServer server = new SimpleNioServer(eventloop) {
+			@Override
+			protected SocketConnection createConnection(SocketChannel socketChannel) {
+				return new EchoConnection(eventloop, socketChannel);
+			}
+		};
+		server.acceptOnce().setListenPort(PORT);
+		server.listen();
+
+		eventloop.connect(new InetSocketAddress("localhost", PORT), new SocketSettings(), new ConnectCallback() {
+			@Override
+			public void onConnect(SocketChannel socketChannel) {
+				ClientConnection connection = new ClientConnection(eventloop, socketChannel);
+				connection.register();
+			}
+
+			@Override
+			public void onException(Exception exception) {
+				throw new RuntimeException(exception);
+			}
+		});
+
+		long start = System.nanoTime();
+		eventloop.run();
+		return System.nanoTime() - start;
+	}
+
+	public static void main(String[] args) throws Exception {
+		long best = Long.MAX_VALUE;
+		for (int i = 0; i < ROUNDS; i++) {
+			best = Math.min(best, round());
+		}
+		System.out.printf("%.1f MB/s%n", TOTAL_BYTES * 1e9 / best / (1 << 20));
+	}
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.datakernel.eventloop;
+
+import io.datakernel.bytebuf.ByteBuf;
+import io.datakernel.bytebuf.ByteBufPool;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.DatagramChannel;
+
+import static io.datakernel.eventloop.NioEventloop.createDatagramChannel;
+import static io.datakernel.net.DatagramSocketSettings.defaultDatagramSocketSettings;
+
+/**
+ * Compares echo packet rate of datagram connections with and without batching.
+ */
+public class UdpEchoBenchmark {
+	private static final InetSocketAddress SERVER_ADDRESS = new InetSocketAddress("localhost", 9924);
+	private static final int PACKET_SIZE = 64;
+	private static final int WINDOW = 256;
+	private static final long DURATION = 3000L;
+	private static final long REFILL_INTERVAL = 50L;
+	private static final int ROUNDS = 3;
+
+	private static class EchoConnection extends UdpSocketConnection {
+		EchoConnection(NioEventloop eventloop, DatagramChannel datagramChannel) {
+			super(eventloop, datagramChannel);
+		}
+
+		@Override
+		protected void onRead(UdpPacket packet) {
+			send(packet);
+		}
+	}
+
+	private static class ClientConnection extends UdpSocketConnection {
+		private final byte[] message = new byte[PACKET_SIZE];
+		private long sent;
+		private long received;
+
+		ClientConnection(NioEventloop eventloop, DatagramChannel datagramChannel) {
+			super(eventloop, datagramChannel);
+		}
+
+		void refill() {
+			// lost datagrams shrink the window, top it up periodically
+			while (sent - received < WINDOW) {
+				sendPacket();
+			}
+		}
+
+		private void sendPacket() {
+			ByteBuf buf = ByteBufPool.allocate(PACKET_SIZE);
+			buf.put(message);
+			buf.flip();
+			sent++;
+			send(new UdpPacket(buf, SERVER_ADDRESS));
+		}
+
+		@Override
+		protected void onRead(UdpPacket packet) {
+			packet.recycle();
+			received++;
+			if (isRegistered()) {
+				sendPacket();
+			}
+		}
+	}
+
+	private static long round(int batchSize) throws IOException {
+		final NioEventloop eventloop = new NioEventloop();
+
+		final EchoConnection server = new EchoConnection(eventloop,
+				createDatagramChannel(defaultDatagramSocketSettings(), SERVER_ADDRESS, null));
+		server.setBatchSize(batchSize);
+		server.register();
+
+		final ClientConnection client = new ClientConnection(eventloop,
+				createDatagramChannel(defaultDatagramSocketSettings(), null, null));
+		client.setBatchSize(batchSize);
+		client.register();
+
+		final long end = eventloop.currentTimeMillis() + DURATION;
+		eventloop.post(new Runnable() {
+			@Override
+			public void run() {
+				if (eventloop.currentTimeMillis() >= end) {
+					client.close();
+					server.close();
+					return;
+				}
+				client.refill();
+				eventloop.schedule(eventloop.currentTimeMillis() + REFILL_INTERVAL, this);
+			}
+		});
+
+		eventloop.run();
+		return client.received * 1000L / DURATION;
+	}
+
+	public static void main(String[] args) throws Exception {
+		for (int batchSize : new int[]{0, 16, 64, 0, 16, 64}) {
+			long best = 0;
+			for (int i = 0; i < ROUNDS; i++) {
+				best = Math.max(best, round(batchSize));
+			}
+			System.out.printf("batch size %d: %d packets/s%n", batchSize, best);
+		}
+	}
+}
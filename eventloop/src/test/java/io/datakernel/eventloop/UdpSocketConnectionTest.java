@@ -24,12 +24,17 @@ import org.junit.Test;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.nio.channels.DatagramChannel;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import static io.datakernel.bytebuf.ByteBufPool.getPoolItemsString;
 import static io.datakernel.eventloop.NioEventloop.createDatagramChannel;
 import static io.datakernel.net.DatagramSocketSettings.defaultDatagramSocketSettings;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class UdpSocketConnectionTest {
 	private static final int SERVER_PORT = 45555;
@@ -139,4 +144,65 @@ public class UdpSocketConnectionTest {
 
 		assertEquals(getPoolItemsString(), ByteBufPool.getCreatedItems(), ByteBufPool.getPoolItems());
 	}
+
+	@Test
+	public void testBatchEcho() throws Exception {
+		final int packets = 100;
+		final List<Integer> batchSizes = new ArrayList<>();
+		final Set<Byte> received = new HashSet<>();
+		eventloop.post(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					DatagramChannel serverChannel = createDatagramChannel(defaultDatagramSocketSettings(), SERVER_ADDRESS, null);
+					final UdpSocketConnection serverConnection = new UdpSocketConnection(eventloop, serverChannel) {
+						@Override
+						protected void onReadBatch(List<UdpPacket> batch) {
+							batchSizes.add(batch.size());
+							super.onReadBatch(batch);
+						}
+
+						@Override
+						protected void onRead(UdpPacket packet) {
+							send(packet);
+						}
+					};
+					serverConnection.setBatchSize(16);
+					serverConnection.register();
+
+					DatagramChannel clientChannel = createDatagramChannel(defaultDatagramSocketSettings(), null, null);
+					UdpSocketConnection clientConnection = new UdpSocketConnection(eventloop, clientChannel) {
+						@Override
+						protected void onRead(UdpPacket packet) {
+							assertEquals(8, packet.getBuf().remaining());
+							received.add(packet.getBuf().peek(0));
+							packet.recycle();
+							if (received.size() == packets) {
+								close();
+								serverConnection.close();
+							}
+						}
+					};
+					clientConnection.setBatchSize(16);
+					clientConnection.register();
+
+					for (int i = 0; i < packets; i++) {
+						byte[] bytes = bytesToSend.clone();
+						bytes[0] = (byte) i;
+						clientConnection.send(new UdpPacket(ByteBuf.wrap(bytes), SERVER_ADDRESS));
+					}
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		});
+
+		eventloop.run();
+
+		assertEquals(packets, received.size());
+		for (int batchSize : batchSizes) {
+			assertTrue(batchSize <= 16);
+		}
+		assertEquals(getPoolItemsString(), ByteBufPool.getCreatedItems(), ByteBufPool.getPoolItems());
+	}
 }
\ No newline at end of file
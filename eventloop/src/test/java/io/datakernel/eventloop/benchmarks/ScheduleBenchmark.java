@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.datakernel.eventloop.benchmarks;
+
+import io.datakernel.eventloop.NioEventloop;
+import io.datakernel.eventloop.ScheduledRunnable;
+import io.datakernel.time.SettableCurrentTimeProvider;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedules and cancels timers on top of 1M outstanding timers, like per-request timeouts do.
+ */
+@Warmup(iterations = 4)
+@Measurement(iterations = 8)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(2)
+@Threads(1)
+public class ScheduleBenchmark {
+	private static final int OUTSTANDING_TIMERS = 1_000_000;
+	private static final int MAX_DELAY = 60_000;
+
+	private static final Runnable NOP = new Runnable() {
+		@Override
+		public void run() {
+		}
+	};
+
+	@Param({"false", "true"})
+	private boolean timingWheel;
+
+	private NioEventloop eventloop;
+	private final Random random = new Random(1L);
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		eventloop = new NioEventloop(new SettableCurrentTimeProvider(0L), timingWheel);
+		for (int i = 0; i < OUTSTANDING_TIMERS; i++) {
+			eventloop.schedule(random.nextInt(MAX_DELAY), NOP);
+		}
+	}
+
+	@Benchmark
+	public ScheduledRunnable scheduleAndCancel() {
+		ScheduledRunnable scheduledRunnable = eventloop.schedule(random.nextInt(MAX_DELAY), NOP);
+		scheduledRunnable.cancel();
+		return scheduledRunnable;
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		eventloop = null;
+	}
+}
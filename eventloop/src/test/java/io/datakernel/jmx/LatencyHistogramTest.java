@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.datakernel.jmx;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+	@Test
+	public void testBuckets() {
+		int prevIndex = -1;
+		for (long value = 0; value < 1 << 20; value++) {
+			int index = LatencyHistogram.index(value);
+			assertTrue(index == prevIndex || index == prevIndex + 1);
+			assertTrue(value <= LatencyHistogram.upperBound(index));
+			prevIndex = index;
+		}
+		assertEquals(Long.MAX_VALUE, LatencyHistogram.upperBound(LatencyHistogram.index(Long.MAX_VALUE)));
+	}
+
+	@Test
+	public void testSmallValuesAreExact() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 1; i <= 10; i++) {
+			histogram.record(i);
+		}
+		assertEquals(10, histogram.getCount());
+		assertEquals(5, histogram.getP50());
+		assertEquals(9, histogram.getP90());
+		assertEquals(10, histogram.getP99());
+		assertEquals(10, histogram.getMax());
+		assertEquals(1, histogram.getPercentile(0));
+
+		histogram.reset();
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getP99());
+		assertEquals("", histogram.toString());
+	}
+
+	@Test
+	public void testRelativeError() {
+		Random random = new Random(1);
+		LatencyHistogram histogram = new LatencyHistogram();
+		long[] values = new long[100000];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = (long) Math.abs(random.nextGaussian() * 100000);
+			histogram.record(values[i]);
+		}
+		Arrays.sort(values);
+
+		for (double percentile : new double[]{50.0, 90.0, 99.0, 99.9}) {
+			long expected = values[(int) Math.ceil(percentile / 100.0 * values.length) - 1];
+			long actual = histogram.getPercentile(percentile);
+			assertTrue(actual >= expected);
+			assertTrue(actual <= expected + expected / 16);
+		}
+		assertEquals(values[values.length - 1], histogram.getPercentile(100.0));
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.datakernel.util;
+
+import org.junit.Test;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+
+public class MpscArrayQueueTest {
+	@Test
+	public void testBounded() {
+		MpscArrayQueue<Integer> queue = new MpscArrayQueue<>(3);
+		assertEquals(4, queue.capacity());
+		assertTrue(queue.isEmpty());
+		assertNull(queue.poll());
+
+		for (int round = 0; round < 3; round++) {
+			for (int i = 0; i < 4; i++) {
+				assertTrue(queue.offer(i));
+			}
+			assertFalse(queue.offer(4));
+			assertEquals(4, queue.size());
+			assertEquals(0, (int) queue.peek());
+			for (int i = 0; i < 4; i++) {
+				assertEquals(i, (int) queue.poll());
+			}
+			assertTrue(queue.isEmpty());
+			assertNull(queue.poll());
+		}
+	}
+
+	@Test
+	public void testIterator() {
+		MpscArrayQueue<Integer> queue = new MpscArrayQueue<>(4);
+		assertFalse(queue.iterator().hasNext());
+		for (int i = 0; i < 4; i++) {
+			queue.offer(i);
+		}
+		queue.poll();
+		queue.offer(4);
+
+		assertEquals(asList(1, 2, 3, 4), newArrayList(queue));
+		assertTrue(queue.contains(3));
+		assertFalse(queue.contains(0));
+		assertEquals("[1, 2, 3, 4]", queue.toString());
+	}
+
+	@Test
+	public void testConcurrentProducers() throws InterruptedException {
+		final int producers = 4;
+		final int items = 100000;
+		final MpscArrayQueue<long[]> queue = new MpscArrayQueue<>(1024);
+
+		Thread[] threads = new Thread[producers];
+		for (int i = 0; i < producers; i++) {
+			final int producer = i;
+			threads[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					for (int j = 0; j < items; j++) {
+						long[] item = {producer, j};
+						while (!queue.offer(item)) {
+							Thread.yield();
+						}
+					}
+				}
+			});
+			threads[i].start();
+		}
+
+		int[] expected = new int[producers];
+		for (int received = 0; received < producers * items; ) {
+			long[] item = queue.poll();
+			if (item == null) {
+				Thread.yield();
+				continue;
+			}
+			int producer = (int) item[0];
+			assertEquals(expected[producer]++, item[1]);
+			received++;
+		}
+
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertTrue(queue.isEmpty());
+		for (int i = 0; i < producers; i++) {
+			assertEquals(items, expected[i]);
+		}
+	}
+}
@@ -18,6 +18,7 @@ package io.datakernel.http;
 
 import io.datakernel.bytebuf.ByteBuf;
 import io.datakernel.bytebuf.ByteBufQueue;
+import io.datakernel.bytebuf.CompositeByteBuf;
 import io.datakernel.eventloop.NioEventloop;
 import io.datakernel.eventloop.TcpSocketConnection;
 import io.datakernel.util.ByteBufStrings;
@@ -105,9 +106,9 @@ public abstract class AbstractHttpConnection extends TcpSocketConnection {
 	/**
 	 * This method is called after reading Http message.
 	 *
-	 * @param bodyBuf the received message
+	 * @param bodyBuf the received message body, as a view over received buffers
 	 */
-	protected abstract void onHttpMessage(ByteBuf bodyBuf);
+	protected abstract void onHttpMessage(CompositeByteBuf bodyBuf);
 
 	private ByteBuf takeLine() {
 		int offset = 0;
@@ -188,7 +189,7 @@ public abstract class AbstractHttpConnection extends TcpSocketConnection {
 			if (actualBytes == bytesToRead) {
 //				if (!readQueue.isEmpty())
 //					throw new IllegalStateException("Extra bytes outside of HTTP message");
-				onHttpMessage(bodyQueue.takeRemaining());
+				onHttpMessage(bodyQueue.takeCompositeRemaining());
 			}
 		} else {
 			assert reading == CHUNK || reading == CHUNK_LENGTH;
@@ -237,7 +238,7 @@ public abstract class AbstractHttpConnection extends TcpSocketConnection {
 							throw new IllegalArgumentException("Could not found end of chunks");
 //						if (!readQueue.isEmpty())
 //							throw new IllegalStateException("Extra bytes outside of chunk");
-						onHttpMessage(bodyQueue.takeRemaining());
+						onHttpMessage(bodyQueue.takeCompositeRemaining());
 						return;
 					}
 				} else
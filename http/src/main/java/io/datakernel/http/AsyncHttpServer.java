@@ -19,12 +19,15 @@ package io.datakernel.http;
 import com.google.common.base.Joiner;
 import com.google.common.base.Stopwatch;
 import io.datakernel.async.AsyncCancellable;
+import io.datakernel.async.ResultCallback;
 import io.datakernel.eventloop.AbstractNioServer;
+import io.datakernel.eventloop.AdmissionController;
 import io.datakernel.eventloop.NioEventloop;
 import io.datakernel.eventloop.SocketConnection;
 import io.datakernel.http.ExposedLinkedList.Node;
 import io.datakernel.http.server.AsyncHttpServlet;
 import io.datakernel.jmx.DynamicStatsCounter;
+import io.datakernel.jmx.LatencyHistogram;
 import io.datakernel.jmx.MBeanFormat;
 import io.datakernel.jmx.StatsCounter;
 
@@ -47,13 +50,16 @@ public final class AsyncHttpServer extends AbstractNioServer<AsyncHttpServer> im
 	private final Runnable expiredConnectionsTask = createExpiredConnectionsTask();
 
 	private final AsyncHttpServlet servlet;
+	private final AsyncHttpServlet monitoredServlet = createMonitoredServlet();
 
 	private AsyncCancellable scheduleExpiredConnectionCheck;
 	private final char[] headerChars;
+	private AdmissionController admissionController;
 
 	//JMX
 	private final StatsCounter timeCheckExpired = new StatsCounter();
 	private final DynamicStatsCounter expiredConnections = new DynamicStatsCounter(1 << 10);
+	private final LatencyHistogram serveTime = new LatencyHistogram();
 	private boolean monitoring;
 
 	/**
@@ -74,6 +80,14 @@ public final class AsyncHttpServer extends AbstractNioServer<AsyncHttpServer> im
 		this.headerChars = chars;
 	}
 
+	/**
+	 * Makes server respond with 503 to requests which are rejected by the given controller
+	 */
+	public AsyncHttpServer admissionController(AdmissionController admissionController) {
+		this.admissionController = admissionController;
+		return this;
+	}
+
 	private Runnable createExpiredConnectionsTask() {
 		return new Runnable() {
 			@Override
@@ -85,6 +99,36 @@ public final class AsyncHttpServer extends AbstractNioServer<AsyncHttpServer> im
 		};
 	}
 
+	private AsyncHttpServlet createMonitoredServlet() {
+		return new AsyncHttpServlet() {
+			@Override
+			public void serveAsync(HttpRequest request, final ResultCallback<HttpResponse> callback) {
+				if (admissionController != null && !admissionController.admitRequest()) {
+					callback.onResult(HttpResponse.create(503));
+					return;
+				}
+				if (!monitoring) {
+					servlet.serveAsync(request, callback);
+					return;
+				}
+				final long startTime = System.nanoTime();
+				servlet.serveAsync(request, new ResultCallback<HttpResponse>() {
+					@Override
+					public void onResult(HttpResponse result) {
+						serveTime.record((System.nanoTime() - startTime) / 1000L);
+						callback.onResult(result);
+					}
+
+					@Override
+					public void onException(Exception exception) {
+						serveTime.record((System.nanoTime() - startTime) / 1000L);
+						callback.onException(exception);
+					}
+				});
+			}
+		};
+	}
+
 	private void scheduleExpiredConnectionCheck() {
 		scheduleExpiredConnectionCheck = eventloop.schedule(eventloop.currentTimeMillis() + CHECK_PERIOD, expiredConnectionsTask);
 	}
@@ -126,7 +170,7 @@ public final class AsyncHttpServer extends AbstractNioServer<AsyncHttpServer> im
 	protected SocketConnection createConnection(SocketChannel socketChannel) {
 		assert eventloop.inEventloopThread();
 
-		HttpServerConnection connection = new HttpServerConnection(eventloop, socketChannel, servlet, connectionsList, headerChars);
+		HttpServerConnection connection = new HttpServerConnection(eventloop, socketChannel, monitoredServlet, connectionsList, headerChars);
 		if (connectionsList.isEmpty())
 			scheduleExpiredConnectionCheck();
 		return connection;
@@ -168,6 +212,7 @@ public final class AsyncHttpServer extends AbstractNioServer<AsyncHttpServer> im
 	@Override
 	public void resetStats() {
 		timeCheckExpired.reset();
+		serveTime.reset();
 	}
 
 	@Override
@@ -180,6 +225,11 @@ public final class AsyncHttpServer extends AbstractNioServer<AsyncHttpServer> im
 		return timeCheckExpired.toString();
 	}
 
+	@Override
+	public String getServeTimeMicrosPercentiles() {
+		return serveTime.toString();
+	}
+
 	@Override
 	public String getExpiredConnectionsStats() {
 		return expiredConnections.toString();
@@ -27,6 +27,8 @@ public interface AsyncHttpServerMBean extends AbstractNioServerMBean {
 
 	String getTimeCheckExpiredMicrosStats();
 
+	String getServeTimeMicrosPercentiles();
+
 	String getExpiredConnectionsStats();
 
 	int getConnectionsCount();
@@ -19,6 +19,7 @@ package io.datakernel.http;
 import io.datakernel.async.AsyncCancellable;
 import io.datakernel.async.ResultCallback;
 import io.datakernel.bytebuf.ByteBuf;
+import io.datakernel.bytebuf.CompositeByteBuf;
 import io.datakernel.eventloop.NioEventloop;
 
 import java.io.IOException;
@@ -139,9 +140,9 @@ final class HttpClientConnection extends AbstractHttpConnection {
 	 * @param bodyBuf the received message
 	 */
 	@Override
-	protected void onHttpMessage(ByteBuf bodyBuf) {
+	protected void onHttpMessage(CompositeByteBuf bodyBuf) {
 		assert isRegistered();
-		response.body(bodyBuf);
+		response.setBody(bodyBuf);
 		ResultCallback<HttpResponse> callback = this.callback;
 		this.callback = null;
 		callback.onResult(response);
@@ -163,7 +164,7 @@ final class HttpClientConnection extends AbstractHttpConnection {
 		assert eventloop.inEventloopThread();
 		if (callback != null) {
 			if (reading == BODY && contentLength == -1) {
-				onHttpMessage(bodyQueue.takeRemaining());
+				onHttpMessage(bodyQueue.takeCompositeRemaining());
 			} else {
 				onException(CLOSED_CONNECTION);
 			}
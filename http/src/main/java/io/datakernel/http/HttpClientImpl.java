@@ -28,8 +28,10 @@ import io.datakernel.dns.DnsException;
 import io.datakernel.eventloop.ConnectCallback;
 import io.datakernel.eventloop.NioEventloop;
 import io.datakernel.eventloop.NioService;
+import io.datakernel.eventloop.SocketConnectionPool;
 import io.datakernel.http.ExposedLinkedList.Node;
 import io.datakernel.jmx.DynamicStatsCounter;
+import io.datakernel.jmx.LatencyHistogram;
 import io.datakernel.jmx.MBeanFormat;
 import io.datakernel.jmx.StatsCounter;
 import io.datakernel.net.SocketSettings;
@@ -76,10 +78,12 @@ public class HttpClientImpl implements HttpClientAsync, NioService, HttpClientIm
 	private boolean blockLocalAddresses = false;
 	private long bindExceptionBlockTimeout = 24 * 60 * 60 * 1000L;
 	private int countPendingSocketConnect;
+	private SocketConnectionPool connectionPool;
 
 	//JMX
 	private final StatsCounter timeCheckExpired = new StatsCounter();
 	private final DynamicStatsCounter expiredConnections = new DynamicStatsCounter(1 << 10);
+	private final LatencyHistogram responseTime = new LatencyHistogram();
 	private boolean monitoring;
 
 	private int inetAddressIdx = 0;
@@ -122,6 +126,15 @@ public class HttpClientImpl implements HttpClientAsync, NioService, HttpClientIm
 		this.blockLocalAddresses = blockLocalAddresses;
 	}
 
+	/**
+	 * Sets pool from which new connections are taken when there is no free keep-alive connection to the address.
+	 * Connect timeout of the pool is used instead of request timeout for such connections.
+	 * Channels of such connections are returned to the pool when connections are closed.
+	 */
+	public void setConnectionPool(SocketConnectionPool connectionPool) {
+		this.connectionPool = connectionPool;
+	}
+
 	private Runnable createExpiredConnectionsTask() {
 		return new Runnable() {
 			@Override
@@ -241,7 +254,24 @@ public class HttpClientImpl implements HttpClientAsync, NioService, HttpClientIm
 		assert eventloop.inEventloopThread();
 
 		logger.trace("Calling {}", request);
-		getUrlAsync(request, timeout, callback);
+		getUrlAsync(request, timeout, monitoring ? monitoredCallback(callback) : callback);
+	}
+
+	private ResultCallback<HttpResponse> monitoredCallback(final ResultCallback<HttpResponse> callback) {
+		final long startTime = System.nanoTime();
+		return new ResultCallback<HttpResponse>() {
+			@Override
+			public void onResult(HttpResponse result) {
+				responseTime.record((System.nanoTime() - startTime) / 1000L);
+				callback.onResult(result);
+			}
+
+			@Override
+			public void onException(Exception exception) {
+				responseTime.record((System.nanoTime() - startTime) / 1000L);
+				callback.onException(exception);
+			}
+		};
 	}
 
 	private void getUrlAsync(final HttpRequest request, final int timeout, final ResultCallback<HttpResponse> callback) {
@@ -292,11 +322,13 @@ public class HttpClientImpl implements HttpClientAsync, NioService, HttpClientIm
 			return;
 		}
 
-		eventloop.connect(address, socketSettings, timeout, new ConnectCallback() {
+		ConnectCallback connectCallback = new ConnectCallback() {
 			@Override
 			public void onConnect(SocketChannel socketChannel) {
 				removePendingSocketConnect(address);
 				HttpClientConnection connection = createConnection(socketChannel);
+				if (connectionPool != null)
+					connectionPool.releaseOnClose(address, connection);
 				connection.register();
 				if (timeoutTime <= eventloop.currentTimeMillis()) {
 					// timeout for this request, reuse for other requests
@@ -326,7 +358,11 @@ public class HttpClientImpl implements HttpClientAsync, NioService, HttpClientIm
 			public String toString() {
 				return address.toString();
 			}
-		});
+		};
+		if (connectionPool != null)
+			connectionPool.connect(address, connectCallback);
+		else
+			eventloop.connect(address, socketSettings, timeout, connectCallback);
 		addPendingSocketConnect(address);
 	}
 
@@ -444,6 +480,7 @@ public class HttpClientImpl implements HttpClientAsync, NioService, HttpClientIm
 	@Override
 	public void resetStats() {
 		timeCheckExpired.reset();
+		responseTime.reset();
 	}
 
 	@Override
@@ -466,6 +503,11 @@ public class HttpClientImpl implements HttpClientAsync, NioService, HttpClientIm
 		return timeCheckExpired.toString();
 	}
 
+	@Override
+	public String getResponseTimeMicrosPercentiles() {
+		return responseTime.toString();
+	}
+
 	@Override
 	public String[] getAddressConnections() {
 		if (ipConnectionLists.isEmpty())
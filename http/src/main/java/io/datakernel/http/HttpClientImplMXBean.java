@@ -30,6 +30,8 @@ public interface HttpClientImplMXBean {
 
 	String getTimeCheckExpiredMicrosStats();
 
+	String getResponseTimeMicrosPercentiles();
+
 	DynamicStatsCounter getExpiredConnectionsStats(); // MXBean
 
 	int getConnectionsCount();
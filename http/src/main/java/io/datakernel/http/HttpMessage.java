@@ -17,6 +17,7 @@
 package io.datakernel.http;
 
 import io.datakernel.bytebuf.ByteBuf;
+import io.datakernel.bytebuf.CompositeByteBuf;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -34,6 +35,7 @@ public abstract class HttpMessage {
 	private final ArrayList<HttpHeaderValue> headers = new ArrayList<>();
 	private ArrayList<ByteBuf> headerBufs;
 	protected ByteBuf body;
+	private CompositeByteBuf compositeBody;
 
 	protected HttpMessage() {
 	}
@@ -169,13 +171,31 @@ public abstract class HttpMessage {
 	}
 
 	/**
-	 * Returns the body of this message
+	 * Returns the body of this message. Received body which spans several network reads is merged into
+	 * single buffer on the first call.
 	 */
 	public ByteBuf getBody() {
 		assert !recycled;
+		if (compositeBody != null) {
+			body = compositeBody.toByteBuf();
+			compositeBody = null;
+		}
 		return body;
 	}
 
+	/**
+	 * Returns the body of this message as a view over received buffers, without merging them.
+	 * View remains owned by this message.
+	 */
+	public CompositeByteBuf getCompositeBody() {
+		assert !recycled;
+		if (compositeBody == null && body != null) {
+			compositeBody = CompositeByteBuf.wrap(body);
+			body = null;
+		}
+		return compositeBody;
+	}
+
 	/**
 	 * Removes the body of this message and returns it. After its method, owner of
 	 * body of this HttpMessage is changed, and it will not be automatically recycled in HTTP client or HTTP server.
@@ -183,7 +203,7 @@ public abstract class HttpMessage {
 	 * @return the body
 	 */
 	public ByteBuf detachBody() {
-		ByteBuf buf = body;
+		ByteBuf buf = getBody();
 		body = null;
 		return buf;
 	}
@@ -195,20 +215,48 @@ public abstract class HttpMessage {
 	 */
 	protected void setBody(ByteBuf body) {
 		assert !recycled;
-		if (this.body != null)
-			this.body.recycle();
+		recycleBody();
 		this.body = body;
 	}
 
 	/**
-	 * Recycles body and header. You should do it before reusing.
+	 * Sets the body for this message as a view over received buffers
+	 *
+	 * @param body the new body
 	 */
-	protected void recycleBufs() {
+	protected void setBody(CompositeByteBuf body) {
 		assert !recycled;
+		recycleBody();
+		this.compositeBody = body;
+	}
+
+	protected boolean hasBody() {
+		return body != null || compositeBody != null;
+	}
+
+	protected int getBodySize() {
+		if (compositeBody != null)
+			return compositeBody.remaining();
+		return body != null ? body.remaining() : 0;
+	}
+
+	private void recycleBody() {
 		if (body != null) {
 			body.recycle();
 			body = null;
 		}
+		if (compositeBody != null) {
+			compositeBody.recycle();
+			compositeBody = null;
+		}
+	}
+
+	/**
+	 * Recycles body and header. You should do it before reusing.
+	 */
+	protected void recycleBufs() {
+		assert !recycled;
+		recycleBody();
 		if (headerBufs != null) {
 			for (ByteBuf headerBuf : headerBufs) {
 				headerBuf.recycle();
@@ -249,6 +297,8 @@ public abstract class HttpMessage {
 		assert !recycled;
 		if (body != null) {
 			buf.put(body);
+		} else if (compositeBody != null) {
+			compositeBody.copyTo(buf);
 		}
 	}
 
@@ -260,8 +310,7 @@ public abstract class HttpMessage {
 			size += 2 + header.size() + 2 + entry.estimateSize(); // CR,LF,header,": ",value
 		}
 		size += 4; // CR,LF,CR,LF
-		if (body != null)
-			size += body.remaining();
+		size += getBodySize();
 		return size;
 	}
 
@@ -273,8 +273,8 @@ public final class HttpRequest extends HttpMessage {
 	 */
 	public ByteBuf write() {
 		assert !recycled;
-		if (body != null || method != GET) {
-			setHeader(HttpHeader.ofDecimal(CONTENT_LENGTH, body == null ? 0 : body.remaining()));
+		if (hasBody() || method != GET) {
+			setHeader(HttpHeader.ofDecimal(CONTENT_LENGTH, getBodySize()));
 		}
 		int estimatedSize = estimateSize(LONGEST_HTTP_METHOD_SIZE
 				+ 1 // SPACE
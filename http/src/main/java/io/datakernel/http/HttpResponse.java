@@ -310,10 +310,10 @@ public final class HttpResponse extends HttpMessage {
 	 */
 	public ByteBuf write() {
 		assert !recycled;
-		if (code >= 400 && getBody() == null) {
+		if (code >= 400 && !hasBody()) {
 			setBody(DEFAULT_CODE_BODIES.get(code));
 		}
-		setHeader(HttpHeader.ofDecimal(CONTENT_LENGTH, body == null ? 0 : body.remaining()));
+		setHeader(HttpHeader.ofDecimal(CONTENT_LENGTH, getBodySize()));
 		int estimateSize = estimateSize(LONGEST_FIRST_LINE_SIZE);
 		ByteBuf buf = ByteBufPool.allocate(estimateSize);
 
@@ -18,6 +18,7 @@ package io.datakernel.http;
 
 import io.datakernel.async.ResultCallback;
 import io.datakernel.bytebuf.ByteBuf;
+import io.datakernel.bytebuf.CompositeByteBuf;
 import io.datakernel.eventloop.NioEventloop;
 import io.datakernel.http.exception.HttpException;
 import io.datakernel.http.exception.ServiceIllegalArgumentException;
@@ -182,9 +183,9 @@ final class HttpServerConnection extends AbstractHttpConnection {
 	 * @param bodyBuf the received message
 	 */
 	@Override
-	protected void onHttpMessage(ByteBuf bodyBuf) {
+	protected void onHttpMessage(CompositeByteBuf bodyBuf) {
 		reading = NOTHING;
-		request.body(bodyBuf);
+		request.setBody(bodyBuf);
 		request.remoteAddress(remoteAddress);
 		servlet.serveAsync(request, new ResultCallback<HttpResponse>() {
 			@Override
@@ -32,18 +32,21 @@ public class HttpBenchmark extends Benchmark {
 	private NioEventloopRunner eventloopRunner;
 	private HttpClientAsync httpClient;
 	private final int port;
+	private final boolean optimizeSelectedKeys;
 
 	private int complete = 0;
 	private int fails = 0;
 
-	public HttpBenchmark(int port) throws Exception {
-		super("Http Requests/Responses", 3, 100, 1_000);
+	public HttpBenchmark(int port, boolean optimizeSelectedKeys) throws Exception {
+		super("Http Requests/Responses" + (optimizeSelectedKeys ? " (optimized selected keys)" : ""), 3, 100, 1_000);
 		this.port = port;
+		this.optimizeSelectedKeys = optimizeSelectedKeys;
 	}
 
 	@Override
 	protected void setUp() throws Exception {
 		eventloop = new NioEventloop();
+		eventloop.optimizeSelectedKeys(optimizeSelectedKeys);
 		eventloopRunner = new NioEventloopRunner(eventloop);
 		AsyncHttpServer server = HelloWorldServer.helloWorldServer(eventloop, port);
 		eventloopRunner.addNioServers(server);
@@ -104,8 +107,8 @@ public class HttpBenchmark extends Benchmark {
 	}
 
 	public static void main(String[] args) throws Exception {
-		Benchmark benchmark = new HttpBenchmark(47777);
-		benchmark.run();
+		new HttpBenchmark(47777, false).run();
+		new HttpBenchmark(47778, true).run();
 	}
 
 }
@@ -19,6 +19,9 @@ package io.datakernel.http;
 import io.datakernel.async.ResultCallback;
 import io.datakernel.bytebuf.ByteBuf;
 import io.datakernel.bytebuf.ByteBufPool;
+import io.datakernel.bytebuf.CompositeByteBuf;
+import io.datakernel.eventloop.AdmissionController;
+import io.datakernel.eventloop.AdmissionPolicy;
 import io.datakernel.eventloop.NioEventloop;
 import io.datakernel.http.server.AsyncHttpServlet;
 import org.junit.Assert;
@@ -168,6 +171,37 @@ public class HttpServerTest {
 		assertEquals(getPoolItemsString(), ByteBufPool.getCreatedItems(), ByteBufPool.getPoolItems());
 	}
 
+	@Test
+	public void testAdmissionControllerRejects() throws Exception {
+		NioEventloop eventloop = new NioEventloop();
+
+		AdmissionController admissionController = new AdmissionController(eventloop, new AdmissionPolicy() {
+			@Override
+			public boolean admit(long queueingDelay, long now) {
+				return false;
+			}
+		});
+		AsyncHttpServer server = blockingHttpServer(eventloop).admissionController(admissionController);
+		int port = (int) (System.currentTimeMillis() % 1000 + 40000);
+		server.setListenPort(port);
+		server.listen();
+		Thread thread = new Thread(eventloop);
+		thread.start();
+
+		Socket socket = new Socket();
+
+		socket.connect(new InetSocketAddress(port));
+		writeByRandomParts(socket, "GET /abc HTTP1.1\r\nHost: localhost\r\n\r\n");
+		readAndAssert(socket.getInputStream(), "HTTP/1.1 503 Service Unavailable\r\nContent-Length: 106\r\n\r\nThe server is temporarily unable to service your request due to maintenance downtime or capacity problems.");
+		socket.close();
+
+		server.closeFuture();
+		thread.join();
+
+		assertEquals(1, admissionController.getRejectedRequests());
+		assertEquals(getPoolItemsString(), ByteBufPool.getCreatedItems(), ByteBufPool.getPoolItems());
+	}
+
 	@Test
 	public void testNoKeepAlive() throws Exception {
 		NioEventloop eventloop = new NioEventloop();
@@ -228,6 +262,45 @@ public class HttpServerTest {
 		thread.join();
 	}
 
+	@Test
+	public void testBodySpanningReads() throws Exception {
+		NioEventloop eventloop = new NioEventloop();
+		AsyncHttpServer server = new AsyncHttpServer(eventloop, new AsyncHttpServlet() {
+			@Override
+			public void serveAsync(HttpRequest request, ResultCallback<HttpResponse> callback) {
+				CompositeByteBuf body = request.getCompositeBody();
+				ByteBuf buf = ByteBufPool.allocate(body.remaining());
+				body.copyTo(buf);
+				buf.flip();
+				callback.onResult(HttpResponse.create().body(buf));
+			}
+		});
+		int port = (int) (System.currentTimeMillis() % 1000 + 40000);
+		server.setListenPort(port);
+		server.listen();
+		Thread thread = new Thread(eventloop);
+		thread.start();
+
+		Socket socket = new Socket();
+		socket.connect(new InetSocketAddress(port));
+
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 1000; i++) {
+			sb.append(i).append(',');
+		}
+		String body = sb.toString();
+		for (int i = 0; i < 10; i++) {
+			writeByRandomParts(socket, "POST /abc HTTP1.1\r\nHost: localhost\r\nConnection: keep-alive\r\nContent-Length: " + body.length() + "\r\n\r\n" + body);
+			readAndAssert(socket.getInputStream(), "HTTP/1.1 200 OK\r\nConnection: keep-alive\r\nContent-Length: " + body.length() + "\r\n\r\n" + body);
+		}
+		socket.close();
+
+		server.closeFuture();
+		thread.join();
+
+		assertEquals(getPoolItemsString(), ByteBufPool.getCreatedItems(), ByteBufPool.getPoolItems());
+	}
+
 	public static void main(String[] args) throws Exception {
 		NioEventloop eventloop = new NioEventloop();
 		AsyncHttpServer server = blockingHttpServer(eventloop).setListenPort(8888);
@@ -21,6 +21,7 @@ import io.datakernel.bytebuf.ByteBufPool;
 import io.datakernel.eventloop.NioEventloop;
 import io.datakernel.eventloop.PrimaryNioServer;
 import io.datakernel.http.server.AsyncHttpServlet;
+import io.datakernel.net.ServerSocketSettings;
 import io.datakernel.service.NioEventloopRunner;
 import org.junit.Assert;
 import org.junit.Before;
@@ -40,6 +41,7 @@ import static io.datakernel.util.ByteBufStrings.decodeAscii;
 import static io.datakernel.util.ByteBufStrings.encodeAscii;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
 
 public class WorkerServersTest {
 	final static int PORT = 9444;
@@ -68,6 +70,101 @@ public class WorkerServersTest {
 		Assert.assertEquals(expected, decodeAscii(bytes));
 	}
 
+	private void requestAndClose(Socket socket, int workerN) throws IOException {
+		socket.getOutputStream().write(encodeAscii("GET /hello HTTP1.1\r\nHost: localhost\r\nConnection: close\n\r\n"));
+		readAndAssert(socket.getInputStream(), "HTTP/1.1 200 OK\r\nContent-Length: 22\r\n\r\nHello world: worker #" + workerN);
+		assertTrue(toByteArray(socket.getInputStream()).length == 0);
+		socket.close();
+	}
+
+	private ArrayList<AsyncHttpServer> startWorkerServers() {
+		ArrayList<AsyncHttpServer> workerServers = new ArrayList<>();
+		for (int i = 0; i < WORKERS; i++) {
+			NioEventloop eventloop = new NioEventloop();
+			eventloop.keepAlive(true);
+			workerServers.add(echoServer(eventloop, i));
+			new Thread(eventloop).start();
+		}
+		return workerServers;
+	}
+
+	private void stopWorkerServers(ArrayList<AsyncHttpServer> workerServers) throws ExecutionException, InterruptedException {
+		for (AsyncHttpServer server : workerServers) {
+			server.getNioEventloop().keepAlive(false);
+			server.closeFuture().get();
+		}
+	}
+
+	@Test
+	public void leastConnectionsWorkers() throws IOException, ExecutionException, InterruptedException {
+		ArrayList<AsyncHttpServer> workerServers = startWorkerServers();
+
+		NioEventloop primaryEventloop = new NioEventloop();
+		PrimaryNioServer primaryNioServer = PrimaryNioServer.create(primaryEventloop)
+				.workerNioServers(workerServers)
+				.dispatchPolicy(PrimaryNioServer.DispatchPolicy.LEAST_CONNECTIONS)
+				.setListenPort(PORT + 1);
+		primaryNioServer.listen();
+
+		Thread primaryThread = new Thread(primaryEventloop);
+		primaryThread.start();
+
+		Socket[] sockets = new Socket[WORKERS];
+		for (int i = 0; i < WORKERS; i++) {
+			sockets[i] = new Socket();
+			sockets[i].connect(new InetSocketAddress(PORT + 1));
+		}
+		requestAndClose(sockets[1], 1);
+		Thread.sleep(200); // wait for worker #1 to deregister closed connection
+
+		// only worker #1 has no connections, while round-robin would select worker #0
+		Socket socket = new Socket();
+		socket.connect(new InetSocketAddress(PORT + 1));
+		requestAndClose(socket, 1);
+		for (int i = 0; i < WORKERS; i++) {
+			if (i != 1)
+				requestAndClose(sockets[i], i);
+		}
+
+		primaryNioServer.closeFuture().get();
+		primaryThread.join();
+		stopWorkerServers(workerServers);
+
+		assertEquals(getPoolItemsString(), ByteBufPool.getCreatedItems(), ByteBufPool.getPoolItems());
+	}
+
+	@Test
+	public void reusePortWorkers() throws IOException, ExecutionException, InterruptedException {
+		assumeTrue(ServerSocketSettings.isReusePortSupported());
+		ArrayList<AsyncHttpServer> workerServers = startWorkerServers();
+
+		for (final AsyncHttpServer server : workerServers) {
+			server.serverSocketSettings(AsyncHttpServer.DEFAULT_SERVER_SOCKET_SETTINGS.reusePort(true))
+					.setListenPort(PORT + 2)
+					.listenFuture().get();
+		}
+
+		boolean[] accepted = new boolean[WORKERS];
+		for (int i = 0; i < 64; i++) {
+			Socket socket = new Socket();
+			socket.connect(new InetSocketAddress(PORT + 2));
+			socket.getOutputStream().write(encodeAscii("GET /hello HTTP1.1\r\nHost: localhost\r\nConnection: close\n\r\n"));
+			String response = decodeAscii(toByteArray(socket.getInputStream()));
+			socket.close();
+			assertTrue(response, response.startsWith("HTTP/1.1 200 OK\r\n"));
+			accepted[response.charAt(response.length() - 1) - '0'] = true;
+		}
+		int acceptingWorkers = 0;
+		for (boolean b : accepted) {
+			if (b) acceptingWorkers++;
+		}
+		assertTrue(acceptingWorkers > 1);
+
+		stopWorkerServers(workerServers);
+
+		assertEquals(getPoolItemsString(), ByteBufPool.getCreatedItems(), ByteBufPool.getPoolItems());
+	}
+
 	@Test
 	public void simpleWorkers() throws IOException, ExecutionException, InterruptedException {
 		final ArrayList<AsyncHttpServer> workerServers = new ArrayList<>();
@@ -24,6 +24,7 @@ import io.datakernel.async.ResultCallback;
 import io.datakernel.eventloop.ConnectCallback;
 import io.datakernel.eventloop.NioEventloop;
 import io.datakernel.eventloop.NioService;
+import io.datakernel.eventloop.SocketConnectionPool;
 import io.datakernel.eventloop.SocketReconnector;
 import io.datakernel.jmx.LastExceptionCounter;
 import io.datakernel.jmx.MBeanFormat;
@@ -64,6 +65,7 @@ public final class RpcClient implements NioService, RpcClientMBean {
 		private RpcMessage.RpcMessageData pingMessage;
 		private Integer countAwaitsConnects;
 		private Logger parentLogger;
+		private SocketConnectionPool connectionPool;
 
 		public Builder(NioEventloop eventloop) {
 			this(eventloop, new RpcClientSettings());
@@ -128,6 +130,14 @@ public final class RpcClient implements NioService, RpcClientMBean {
 			return this;
 		}
 
+		/**
+		 * Makes client take connections from the given pool, which applies its backoff to reconnects
+		 */
+		public Builder connectionPool(SocketConnectionPool connectionPool) {
+			this.connectionPool = checkNotNull(connectionPool);
+			return this;
+		}
+
 		public Builder parentLogger(Logger logger) {
 			checkNotNull(logger, "Logger must not be null");
 			this.parentLogger = logger;
@@ -166,6 +176,7 @@ public final class RpcClient implements NioService, RpcClientMBean {
 	private final RpcMessage.RpcMessageData pingMessage;
 	private final long pingIntervalMillis;
 	private final long pingAmountFailed;
+	private final SocketConnectionPool connectionPool;
 
 	private AsyncCancellable schedulePingTask;
 	private boolean running;
@@ -193,6 +204,7 @@ public final class RpcClient implements NioService, RpcClientMBean {
 		this.pingIntervalMillis = builder.settings.getPingIntervalMillis();
 		this.pingAmountFailed = builder.settings.getPingAmountFailed();
 		this.addressesString = addresses.toString();
+		this.connectionPool = builder.connectionPool;
 		this.logger = LoggerFactory.getLogger((builder.parentLogger == null) ? RpcClient.class.getSimpleName() :
 				builder.parentLogger.getName() + "$" + RpcClient.class.getSimpleName());
 	}
@@ -277,7 +289,7 @@ public final class RpcClient implements NioService, RpcClientMBean {
 		}
 
 		logger.info("Connecting {}", address);
-		eventloop.connect(address, socketSettings, new ConnectCallback() {
+		ConnectCallback callback = new ConnectCallback() {
 			@Override
 			public void onConnect(SocketChannel socketChannel) {
 				StatusListener statusListener = new StatusListener() {
@@ -295,6 +307,8 @@ public final class RpcClient implements NioService, RpcClientMBean {
 					}
 				};
 				RpcClientConnection connection = new RpcClientConnection(eventloop, socketChannel, timeoutPrecision, serializer, protocolFactory, statusListener);
+				if (connectionPool != null)
+					connectionPool.releaseOnClose(address, connection.getSocketConnection());
 				connection.getSocketConnection().register();
 				successfulConnects++;
 				logger.info("Connection to {} established", address);
@@ -317,7 +331,11 @@ public final class RpcClient implements NioService, RpcClientMBean {
 					connectCallback.onException(exception);
 				}
 			}
-		});
+		};
+		if (connectionPool != null)
+			connectionPool.connect(address, callback);
+		else
+			eventloop.connect(address, socketSettings, callback);
 	}
 
 	public void scheduleReconnect(final InetSocketAddress address, final int reconnectAttempts, final CompletionCallback connectCallback) {
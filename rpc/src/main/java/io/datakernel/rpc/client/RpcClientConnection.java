@@ -23,6 +23,7 @@ import io.datakernel.eventloop.NioEventloop;
 import io.datakernel.eventloop.SocketConnection;
 import io.datakernel.jmx.DynamicStatsCounter;
 import io.datakernel.jmx.LastExceptionCounter;
+import io.datakernel.jmx.LatencyHistogram;
 import io.datakernel.jmx.StatsCounter;
 import io.datakernel.rpc.protocol.*;
 import org.slf4j.Logger;
@@ -36,6 +37,7 @@ import java.util.Map;
 import java.util.PriorityQueue;
 
 import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static org.slf4j.LoggerFactory.getLogger;
 
 public final class RpcClientConnection implements RpcConnection, RpcClientConnectionMBean {
@@ -98,6 +100,8 @@ public final class RpcClientConnection implements RpcConnection, RpcClientConnec
 	private final StatsCounter timeProcessResult = new StatsCounter();
 	private final StatsCounter timeProcessException = new StatsCounter();
 	private final StatsCounter timeSendPacket = new StatsCounter();
+	private final Map<Integer, Long> requestStartTimes = new HashMap<>();
+	private final LatencyHistogram responseTime = new LatencyHistogram();
 	private final LastExceptionCounter lastTimeoutException = new LastExceptionCounter("TimeoutException");
 	private final LastExceptionCounter lastRemoteException = new LastExceptionCounter("RemoteException");
 	private final LastExceptionCounter lastInternalException = new LastExceptionCounter("InternalException");
@@ -138,6 +142,8 @@ public final class RpcClientConnection implements RpcConnection, RpcClientConnec
 		addTimeoutCookie(timeoutCookie);
 		requests.put(cookieCounter, callback);
 		pendingRequests.add(requests.size());
+		if (monitoring)
+			requestStartTimes.put(cookieCounter, System.nanoTime());
 		Stopwatch stopwatch = monitoring ? Stopwatch.createStarted() : null;
 		try {
 			protocol.sendMessage(new RpcMessage(cookieCounter, request));
@@ -145,6 +151,7 @@ public final class RpcClientConnection implements RpcConnection, RpcClientConnec
 			if (logger.isErrorEnabled())
 				logger.error("Send RpcMessage {} failed", request, e);
 			removeTimeoutCookie(timeoutCookie);
+			requestStartTimes.remove(cookieCounter);
 			returnProtocolError(requests.remove(cookieCounter), e);
 		} finally {
 			if (stopwatch != null)
@@ -195,6 +202,7 @@ public final class RpcClientConnection implements RpcConnection, RpcClientConnec
 		ResultCallback<? extends RpcMessage.RpcMessageData> callback = requests.remove(timeoutCookie.getCookie());
 		if (callback == null)
 			return;
+		requestStartTimes.remove(timeoutCookie.getCookie());
 		expiredRequests++;
 		returnTimeout(callback, new RpcTimeoutException("Timeout (" + timeoutCookie.getElapsedTime() + "/" + timeoutCookie.getTimeoutMillis()
 				+ " ms) for server response for request ID " + timeoutCookie.getCookie()));
@@ -255,7 +263,13 @@ public final class RpcClientConnection implements RpcConnection, RpcClientConnec
 
 	@SuppressWarnings("unchecked")
 	private <T extends RpcMessage.RpcMessageData> ResultCallback<T> getResultCallback(RpcMessage message) {
-		return (ResultCallback<T>) requests.remove(message.getCookie());
+		ResultCallback<T> callback = (ResultCallback<T>) requests.remove(message.getCookie());
+		if (callback != null && !requestStartTimes.isEmpty()) {
+			Long startTime = requestStartTimes.remove(message.getCookie());
+			if (startTime != null)
+				responseTime.record(NANOSECONDS.toMicros(System.nanoTime() - startTime));
+		}
+		return callback;
 	}
 
 	public void close() {
@@ -279,6 +293,7 @@ public final class RpcClientConnection implements RpcConnection, RpcClientConnec
 	}
 
 	private void closeNotify() {
+		requestStartTimes.clear();
 		for (Integer cookie : new HashSet<>(requests.keySet())) {
 			returnProtocolError(requests.remove(cookie), new RpcException("Connection closed."));
 		}
@@ -303,6 +318,7 @@ public final class RpcClientConnection implements RpcConnection, RpcClientConnec
 	@Override
 	public void stopMonitoring() {
 		monitoring = false;
+		requestStartTimes.clear();
 		protocol.stopMonitoring();
 	}
 
@@ -324,6 +340,7 @@ public final class RpcClientConnection implements RpcConnection, RpcClientConnec
 		timeProcessException.reset();
 		timeProcessResult.reset();
 		timeSendPacket.reset();
+		responseTime.reset();
 		protocol.reset();
 	}
 
@@ -377,6 +394,11 @@ public final class RpcClientConnection implements RpcConnection, RpcClientConnec
 		return timeSendPacket.toString();
 	}
 
+	@Override
+	public String getResponseTimeMicrosPercentiles() {
+		return responseTime.toString();
+	}
+
 	@Override
 	public CompositeData getLastTimeoutException() {
 		return lastTimeoutException.compositeData();
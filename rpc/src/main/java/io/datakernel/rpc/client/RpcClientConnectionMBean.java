@@ -48,6 +48,8 @@ public interface RpcClientConnectionMBean {
 
 	String getSendPacketTimeStats();
 
+	String getResponseTimeMicrosPercentiles();
+
 	CompositeData getLastTimeoutException();
 
 	CompositeData getLastProtocolException();
@@ -100,8 +100,8 @@ abstract class RpcStreamProtocol implements RpcProtocol {
 
 	private final Sender sender;
 	private final Receiver receiver;
-	private final StreamLZ4Compressor compressor;
-	private final StreamLZ4Decompressor decompressor;
+	private final StreamCompressor compressor;
+	private final StreamDecompressor decompressor;
 	private final StreamSerializer<RpcMessage> serializer;
 	private final StreamDeserializer<RpcMessage> deserializer;
 	private final boolean compression;
@@ -119,8 +119,8 @@ abstract class RpcStreamProtocol implements RpcProtocol {
 		deserializer = new StreamBinaryDeserializer<>(eventloop, checkNotNull(messageSerializer).getSerializer(), settings.getMaxPacketSize());
 		compression = settings.isCompression();
 		if (compression) {
-			compressor = StreamLZ4Compressor.fastCompressor(eventloop);
-			decompressor = new StreamLZ4Decompressor(eventloop);
+			compressor = settings.getCompressionCodec().createCompressor(eventloop);
+			decompressor = settings.getCompressionCodec().createDecompressor(eventloop);
 		} else {
 			compressor = null;
 			decompressor = null;
@@ -17,8 +17,11 @@
 package io.datakernel.rpc.protocol.stream;
 
 import io.datakernel.stream.processor.StreamBinarySerializer;
+import io.datakernel.stream.processor.StreamCompressionCodec;
+import io.datakernel.stream.processor.StreamCompressionCodecs;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
 
 public class RpcStreamProtocolSettings {
 	public static final int DEFAULT_PACKET_SIZE = 16;
@@ -27,6 +30,7 @@ public class RpcStreamProtocolSettings {
 	private int defaultPacketSize = DEFAULT_PACKET_SIZE;
 	private int maxPacketSize = MAX_PACKET_SIZE;
 	private boolean compression;
+	private StreamCompressionCodec compressionCodec = StreamCompressionCodecs.lz4Fast();
 
 	public RpcStreamProtocolSettings packetSize(int defaultPacketSize, int maxPacketSize) {
 		checkArgument(defaultPacketSize > 0);
@@ -41,6 +45,16 @@ public class RpcStreamProtocolSettings {
 		return this;
 	}
 
+	/**
+	 * Enables compression with given codec, such as deflate with dictionary trained on typical messages.
+	 * Client and server must use the same codec.
+	 */
+	public RpcStreamProtocolSettings compressionCodec(StreamCompressionCodec compressionCodec) {
+		this.compression = true;
+		this.compressionCodec = checkNotNull(compressionCodec);
+		return this;
+	}
+
 	public int getDefaultPacketSize() {
 		return defaultPacketSize;
 	}
@@ -53,4 +67,8 @@ public class RpcStreamProtocolSettings {
 		return compression;
 	}
 
+	public StreamCompressionCodec getCompressionCodec() {
+		return compressionCodec;
+	}
+
 }
@@ -17,6 +17,7 @@
 package io.datakernel.rpc.server;
 
 import io.datakernel.eventloop.AbstractNioServer;
+import io.datakernel.eventloop.AdmissionController;
 import io.datakernel.eventloop.NioEventloop;
 import io.datakernel.eventloop.SocketConnection;
 import io.datakernel.rpc.protocol.RpcMessageSerializer;
@@ -36,6 +37,7 @@ public final class RpcServer extends AbstractNioServer<RpcServer> implements Rpc
 		private RequestHandlers handlers;
 		private RpcMessageSerializer serializer;
 		private RpcProtocolFactory protocolFactory;
+		private AdmissionController admissionController;
 
 		public Builder(NioEventloop eventloop) {
 			this.eventloop = checkNotNull(eventloop);
@@ -56,6 +58,14 @@ public final class RpcServer extends AbstractNioServer<RpcServer> implements Rpc
 			return this;
 		}
 
+		/**
+		 * Makes server reply with error to requests which are rejected by the given controller
+		 */
+		public Builder admissionController(AdmissionController admissionController) {
+			this.admissionController = admissionController;
+			return this;
+		}
+
 		public RpcServer build() {
 			checkNotNull(serializer, "RpcMessageSerializer is no set");
 			checkNotNull(protocolFactory, "RpcProtocolFactory is no set");
@@ -67,12 +77,14 @@ public final class RpcServer extends AbstractNioServer<RpcServer> implements Rpc
 	private final RequestHandlers handlers;
 	private final RpcProtocolFactory protocolFactory;
 	private final RpcMessageSerializer serializer;
+	private final AdmissionController admissionController;
 
 	private RpcServer(Builder builder) {
 		super(builder.eventloop);
 		this.handlers = checkNotNull(builder.handlers, "RequestHandlers is not set");
 		this.protocolFactory = builder.protocolFactory;
 		this.serializer = builder.serializer;
+		this.admissionController = builder.admissionController;
 	}
 
 	@Override
@@ -88,7 +100,7 @@ public final class RpcServer extends AbstractNioServer<RpcServer> implements Rpc
 				connections.remove(socketChannel);
 			}
 		};
-		RpcServerConnection serverConnection = new RpcServerConnection(eventloop, socketChannel, serializer, handlers, protocolFactory, statusListener);
+		RpcServerConnection serverConnection = new RpcServerConnection(eventloop, socketChannel, serializer, handlers, protocolFactory, statusListener, admissionController);
 		return serverConnection.getSocketConnection();
 	}
 
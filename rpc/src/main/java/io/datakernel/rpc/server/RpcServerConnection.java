@@ -17,9 +17,11 @@
 package io.datakernel.rpc.server;
 
 import io.datakernel.async.ResultCallback;
+import io.datakernel.eventloop.AdmissionController;
 import io.datakernel.eventloop.NioEventloop;
 import io.datakernel.eventloop.SocketConnection;
 import io.datakernel.jmx.LastExceptionCounter;
+import io.datakernel.jmx.LatencyHistogram;
 import io.datakernel.jmx.StatsCounter;
 import io.datakernel.rpc.protocol.*;
 import io.datakernel.time.CurrentTimeProvider;
@@ -31,6 +33,8 @@ import javax.management.openmbean.CompositeData;
 import javax.management.openmbean.OpenDataException;
 import java.nio.channels.SocketChannel;
 
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
 public final class RpcServerConnection implements RpcConnection, RpcServerConnectionMBean {
 
 	public interface StatusListener {
@@ -40,32 +44,53 @@ public final class RpcServerConnection implements RpcConnection, RpcServerConnec
 	}
 
 	private static final Logger logger = LoggerFactory.getLogger(RpcServerConnection.class);
+	private static final RpcRemoteException OVERLOADED_EXCEPTION = new RpcRemoteException("Request is rejected, server is overloaded");
+
 	private final NioEventloop eventloop;
 	private final RpcProtocol protocol;
 	private final RequestHandlers handlers;
 	private final StatusListener statusListener;
+	private final AdmissionController admissionController;
 
 	// JMX
 	private final LastExceptionCounter lastRemoteException = new LastExceptionCounter("RemoteException");
 	private final LastExceptionCounter lastInternalException = new LastExceptionCounter("InternalException");
 	private final CurrentTimeProvider statsTimeProvider = CurrentTimeProviderSystem.instance();
 	private final StatsCounter timeExecution = new StatsCounter();
+	private final LatencyHistogram timeExecutionMicros = new LatencyHistogram();
 	private int successfulResponses = 0;
 	private int errorResponses = 0;
 	private boolean monitoring;
 
 	public RpcServerConnection(NioEventloop eventloop, SocketChannel socketChannel, RpcMessageSerializer serializer, RequestHandlers handlers,
-	                           RpcProtocolFactory protocolFactory, StatusListener statusListener) {
+	                           RpcProtocolFactory protocolFactory, StatusListener statusListener, AdmissionController admissionController) {
 		this.eventloop = eventloop;
 		this.protocol = protocolFactory.create(this, socketChannel, serializer, true);
 		this.handlers = handlers;
 		this.statusListener = statusListener;
+		this.admissionController = admissionController;
+	}
+
+	public RpcServerConnection(NioEventloop eventloop, SocketChannel socketChannel, RpcMessageSerializer serializer, RequestHandlers handlers,
+	                           RpcProtocolFactory protocolFactory, StatusListener statusListener) {
+		this(eventloop, socketChannel, serializer, handlers, protocolFactory, statusListener, null);
 	}
 
 	@Override
 	public void onReceiveMessage(final RpcMessage message) {
 		final int cookie = message.getCookie();
+		if (admissionController != null && !admissionController.admitRequest()) {
+			try {
+				protocol.sendMessage(new RpcMessage(cookie, OVERLOADED_EXCEPTION));
+			} catch (Exception exception) {
+				lastInternalException.update(exception, OVERLOADED_EXCEPTION, eventloop.currentTimeMillis());
+				throw new RuntimeException(exception);
+			}
+			errorResponses++;
+			return;
+		}
 		final long startTime = monitoring ? statsTimeProvider.currentTimeMillis() : 0;
+		final long startNanos = monitoring ? System.nanoTime() : 0;
 
 		handlers.apply(message.getData(), new ResultCallback<RpcMessage.RpcMessageData>() {
 			@Override
@@ -92,6 +117,7 @@ public final class RpcServerConnection implements RpcConnection, RpcServerConnec
 					return;
 				int value = (int) (statsTimeProvider.currentTimeMillis() - startTime);
 				timeExecution.add(value);
+				timeExecutionMicros.record(NANOSECONDS.toMicros(System.nanoTime() - startNanos));
 			}
 		});
 	}
@@ -155,6 +181,7 @@ public final class RpcServerConnection implements RpcConnection, RpcServerConnec
 		successfulResponses = 0;
 		errorResponses = 0;
 		timeExecution.reset();
+		timeExecutionMicros.reset();
 		protocol.reset();
 	}
 
@@ -178,6 +205,11 @@ public final class RpcServerConnection implements RpcConnection, RpcServerConnec
 		return timeExecution.toString();
 	}
 
+	@Override
+	public String getTimeExecutionMicrosPercentiles() {
+		return timeExecutionMicros.toString();
+	}
+
 	@Override
 	public CompositeData getLastResponseException() {
 		return lastRemoteException.compositeData();
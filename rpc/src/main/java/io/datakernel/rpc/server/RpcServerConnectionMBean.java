@@ -36,6 +36,8 @@ public interface RpcServerConnectionMBean {
 
 	String getTimeExecutionMillis();
 
+	String getTimeExecutionMicrosPercentiles();
+
 	CompositeData getLastResponseException();
 
 	CompositeData getLastInternalException();
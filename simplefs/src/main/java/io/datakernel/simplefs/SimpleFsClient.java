@@ -22,6 +22,7 @@ import io.datakernel.eventloop.ConnectCallback;
 import io.datakernel.eventloop.Eventloop;
 import io.datakernel.eventloop.NioEventloop;
 import io.datakernel.eventloop.SocketConnection;
+import io.datakernel.eventloop.SocketConnectionPool;
 import io.datakernel.net.SocketSettings;
 import io.datakernel.stream.StreamConsumer;
 import io.datakernel.stream.StreamProducer;
@@ -45,6 +46,7 @@ public class SimpleFsClient implements SimpleFs {
 	private final NioEventloop eventloop;
 	private final int bufferSize;
 	private final StreamLZ4CompressorFactory compressorFactory;
+	private SocketConnectionPool connectionPool;
 
 	public SimpleFsClient(NioEventloop eventloop, int bufferSize) {
 		this(eventloop, bufferSize, new StreamLZ4CompressorFactory() {
@@ -65,18 +67,36 @@ public class SimpleFsClient implements SimpleFs {
 		this(eventloop, 128 * 1024);
 	}
 
-	private StreamMessagingConnection<SimpleFsResponse, SimpleFsCommand> createConnection(SocketChannel socketChannel) {
-		return new StreamMessagingConnection<>(eventloop, socketChannel,
+	/**
+	 * Makes client take connections from the given pool instead of connecting on each operation
+	 */
+	public SimpleFsClient connectionPool(SocketConnectionPool connectionPool) {
+		this.connectionPool = connectionPool;
+		return this;
+	}
+
+	private void connect(InetSocketAddress address, ConnectCallback callback) {
+		if (connectionPool != null)
+			connectionPool.connect(address, callback);
+		else
+			eventloop.connect(address, SocketSettings.defaultSocketSettings(), callback);
+	}
+
+	private StreamMessagingConnection<SimpleFsResponse, SimpleFsCommand> createConnection(InetSocketAddress address, SocketChannel socketChannel) {
+		StreamMessagingConnection<SimpleFsResponse, SimpleFsCommand> connection = new StreamMessagingConnection<>(eventloop, socketChannel,
 				new StreamGsonDeserializer<>(eventloop, SimpleFsResponseSerialization.GSON, SimpleFsResponse.class, 256 * 1024),
 				new StreamGsonSerializer<>(eventloop, SimpleFsCommandSerialization.GSON, SimpleFsCommand.class, 256 * 1024, 256 * (1 << 20), 0));
+		if (connectionPool != null)
+			connectionPool.releaseOnClose(address, connection);
+		return connection;
 	}
 
 	@Override
-	public void write(InetSocketAddress address, final String destinationFileName, final ResultCallback<StreamConsumer<ByteBuf>> callback) {
-		eventloop.connect(address, SocketSettings.defaultSocketSettings(), new ConnectCallback() {
+	public void write(final InetSocketAddress address, final String destinationFileName, final ResultCallback<StreamConsumer<ByteBuf>> callback) {
+		connect(address, new ConnectCallback() {
 					@Override
 					public void onConnect(SocketChannel socketChannel) {
-						SocketConnection connection = createConnection(socketChannel)
+						SocketConnection connection = createConnection(address, socketChannel)
 								.addStarter(new MessagingStarter<SimpleFsCommand>() {
 									@Override
 									public void onStart(Messaging<SimpleFsCommand> messaging) {
@@ -118,11 +138,11 @@ public class SimpleFsClient implements SimpleFs {
 	}
 
 	@Override
-	public void read(InetSocketAddress address, final String path, final ResultCallback<StreamProducer<ByteBuf>> callback) {
-		eventloop.connect(address, SocketSettings.defaultSocketSettings(), new ConnectCallback() {
+	public void read(final InetSocketAddress address, final String path, final ResultCallback<StreamProducer<ByteBuf>> callback) {
+		connect(address, new ConnectCallback() {
 					@Override
 					public void onConnect(SocketChannel socketChannel) {
-						SocketConnection connection = createConnection(socketChannel)
+						SocketConnection connection = createConnection(address, socketChannel)
 								.addStarter(new MessagingStarter<SimpleFsCommand>() {
 									@Override
 									public void onStart(Messaging<SimpleFsCommand> messaging) {
@@ -158,11 +178,11 @@ public class SimpleFsClient implements SimpleFs {
 	}
 
 	@Override
-	public void fileList(InetSocketAddress address, final ResultCallback<List<String>> callback) {
-		eventloop.connect(address, SocketSettings.defaultSocketSettings(), new ConnectCallback() {
+	public void fileList(final InetSocketAddress address, final ResultCallback<List<String>> callback) {
+		connect(address, new ConnectCallback() {
 					@Override
 					public void onConnect(SocketChannel socketChannel) {
-						SocketConnection connection = createConnection(socketChannel)
+						SocketConnection connection = createConnection(address, socketChannel)
 								.addStarter(new MessagingStarter<SimpleFsCommand>() {
 									@Override
 									public void onStart(Messaging<SimpleFsCommand> messaging) {
@@ -196,11 +216,11 @@ public class SimpleFsClient implements SimpleFs {
 	}
 
 	@Override
-	public void deleteFile(InetSocketAddress address, final String fileName, final ResultCallback<Boolean> callback) {
-		eventloop.connect(address, SocketSettings.defaultSocketSettings(), new ConnectCallback() {
+	public void deleteFile(final InetSocketAddress address, final String fileName, final ResultCallback<Boolean> callback) {
+		connect(address, new ConnectCallback() {
 					@Override
 					public void onConnect(SocketChannel socketChannel) {
-						SocketConnection connection = createConnection(socketChannel)
+						SocketConnection connection = createConnection(address, socketChannel)
 								.addStarter(new MessagingStarter<SimpleFsCommand>() {
 									@Override
 									public void onStart(Messaging<SimpleFsCommand> messaging) {
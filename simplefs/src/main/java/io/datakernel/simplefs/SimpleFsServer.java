@@ -50,6 +50,7 @@ public class SimpleFsServer extends AbstractNioServer<SimpleFsServer> {
 	private final ExecutorService executor;
 	private final Path fileStorage;
 	private final int bufferSize;
+	private boolean zeroCopy = true;
 
 	private SimpleFsServer(final NioEventloop eventloop, final Path fileStorage, ExecutorService executor, int bufferSize) {
 		super(eventloop);
@@ -78,11 +79,20 @@ public class SimpleFsServer extends AbstractNioServer<SimpleFsServer> {
 		return server;
 	}
 
+	/**
+	 * Sets whether downloaded files are sent to socket with zero-copy transfer, true by default
+	 */
+	public SimpleFsServer zeroCopy(boolean zeroCopy) {
+		this.zeroCopy = zeroCopy;
+		return this;
+	}
+
 	@Override
 	protected SocketConnection createConnection(SocketChannel socketChannel) {
 		return new StreamMessagingConnection<>(eventloop, socketChannel,
 				new StreamGsonDeserializer<>(eventloop, SimpleFsCommandSerialization.GSON, SimpleFsCommand.class, 256 * 1024),
 				new StreamGsonSerializer<>(eventloop, SimpleFsResponseSerialization.GSON, SimpleFsResponse.class, 256 * 1024, 256 * (1 << 20), 0))
+				.zeroCopy(zeroCopy)
 				.addHandler(SimpleFsCommandDownload.class, new MessagingHandler<SimpleFsCommandDownload, SimpleFsResponse>() {
 					@Override
 					public void onMessage(final SimpleFsCommandDownload item, Messaging<SimpleFsResponse> messaging) {
@@ -104,7 +114,7 @@ public class SimpleFsServer extends AbstractNioServer<SimpleFsServer> {
 
 						messaging.sendMessage(new SimpleFsResponseOperationOk());
 
-						StreamFileReader.readFileFrom(eventloop, executor, bufferSize, source, 0L).streamTo(messaging.binarySocketWriter());
+						messaging.sendBinaryStream(StreamFileReader.readFileFrom(eventloop, executor, bufferSize, source, 0L));
 						messaging.shutdownReader();
 					}
 				})
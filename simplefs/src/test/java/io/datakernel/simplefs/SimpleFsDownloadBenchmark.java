@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2015 SoftIndex LLC.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.datakernel.simplefs;
+
+import io.datakernel.bytebuf.ByteBuf;
+import io.datakernel.eventloop.ConnectCallback;
+import io.datakernel.eventloop.NioEventloop;
+import io.datakernel.net.SocketSettings;
+import io.datakernel.stream.AbstractStreamConsumer;
+import io.datakernel.stream.StreamDataReceiver;
+import io.datakernel.stream.net.Messaging;
+import io.datakernel.stream.net.MessagingHandler;
+import io.datakernel.stream.net.MessagingStarter;
+import io.datakernel.stream.net.StreamMessagingConnection;
+import io.datakernel.stream.processor.StreamGsonDeserializer;
+import io.datakernel.stream.processor.StreamGsonSerializer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Compares throughput of SimpleFS downloads of a large file, with zero-copy transfer and with copying through ByteBufs.
+ * Client reads raw stored bytes without LZ4 decompression and discards them, so that only server side is measured.
+ */
+public class SimpleFsDownloadBenchmark {
+	private static final int PORT = 6435;
+	private static final long FILE_SIZE = 512L << 20;
+	private static final int ROUNDS = 5;
+
+	private static final class CountingConsumer extends AbstractStreamConsumer<ByteBuf> implements StreamDataReceiver<ByteBuf> {
+		private long bytes;
+
+		CountingConsumer(NioEventloop eventloop) {
+			super(eventloop);
+		}
+
+		@Override
+		public StreamDataReceiver<ByteBuf> getDataReceiver() {
+			return this;
+		}
+
+		@Override
+		public void onData(ByteBuf buf) {
+			bytes += buf.remaining();
+			buf.recycle();
+		}
+
+		@Override
+		public void onEndOfStream() {
+			upstreamProducer.close();
+		}
+	}
+
+	private static long download(final String fileName) {
+		final NioEventloop eventloop = new NioEventloop();
+		final CountingConsumer consumer = new CountingConsumer(eventloop);
+		eventloop.connect(new InetSocketAddress("127.0.0.1", PORT), SocketSettings.defaultSocketSettings(), new ConnectCallback() {
+			@Override
+			public void onConnect(SocketChannel socketChannel) {
+				new StreamMessagingConnection<>(eventloop, socketChannel,
+						new StreamGsonDeserializer<>(eventloop, SimpleFsResponseSerialization.GSON, SimpleFsResponse.class, 256 * 1024),
+						new StreamGsonSerializer<>(eventloop, SimpleFsCommandSerialization.GSON, SimpleFsCommand.class, 256 * 1024, 256 * (1 << 20), 0))
+						.addStarter(new MessagingStarter<SimpleFsCommand>() {
+							@Override
+							public void onStart(Messaging<SimpleFsCommand> messaging) {
+								messaging.sendMessage(new SimpleFsCommandDownload(fileName));
+							}
+						})
+						.addHandler(SimpleFsResponseOperationOk.class, new MessagingHandler<SimpleFsResponseOperationOk, SimpleFsCommand>() {
+							@Override
+							public void onMessage(SimpleFsResponseOperationOk item, Messaging<SimpleFsCommand> messaging) {
+								messaging.binarySocketReader().streamTo(consumer);
+								messaging.shutdownWriter();
+							}
+						})
+						.register();
+			}
+
+			@Override
+			public void onException(Exception exception) {
+				exception.printStackTrace();
+			}
+		});
+		eventloop.run();
+		return consumer.bytes;
+	}
+
+	private static void benchmark(Path storage, String fileName, boolean zeroCopy) throws IOException, ExecutionException, InterruptedException {
+		ExecutorService executor = Executors.newCachedThreadPool();
+		NioEventloop serverEventloop = new NioEventloop();
+		serverEventloop.keepAlive(true);
+		SimpleFsServer server = SimpleFsServer.createServer(serverEventloop, storage, executor)
+				.zeroCopy(zeroCopy)
+				.setListenPort(PORT);
+		Thread serverThread = new Thread(serverEventloop);
+		serverThread.start();
+		server.listenFuture().get();
+
+		download(fileName); // warm up
+		for (int round = 0; round < ROUNDS; round++) {
+			long start = System.nanoTime();
+			long bytes = download(fileName);
+			long elapsed = System.nanoTime() - start;
+			if (bytes != FILE_SIZE)
+				throw new AssertionError("Downloaded " + bytes + " of " + FILE_SIZE + " bytes");
+			System.out.printf("zeroCopy: %-5s  %6d ms  %.2f GB/s%n", zeroCopy, elapsed / 1000000, (double) bytes / elapsed);
+		}
+
+		server.closeFuture().get();
+		serverEventloop.keepAlive(false);
+		serverThread.join();
+		executor.shutdown();
+	}
+
+	public static void main(String[] args) throws Exception {
+		Path storage = Files.createTempDirectory("simplefs-benchmark");
+		String fileName = "big_file";
+		Path file = storage.resolve(fileName);
+		try {
+			byte[] chunk = new byte[1 << 20];
+			new Random(1L).nextBytes(chunk);
+			try (OutputStream outputStream = Files.newOutputStream(file)) {
+				for (long written = 0; written < FILE_SIZE; written += chunk.length) {
+					outputStream.write(chunk);
+				}
+			}
+
+			benchmark(storage, fileName, false);
+			benchmark(storage, fileName, true);
+		} finally {
+			Files.deleteIfExists(file);
+			Files.deleteIfExists(storage);
+		}
+	}
+}
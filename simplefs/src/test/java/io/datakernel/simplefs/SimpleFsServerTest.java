@@ -247,7 +247,15 @@ public class SimpleFsServerTest {
 
 	@Test
 	public void testDownload() throws Exception {
+		doTestDownload(true);
+	}
+
+	@Test
+	public void testDownloadWithoutZeroCopy() throws Exception {
+		doTestDownload(false);
+	}
 
+	private void doTestDownload(boolean zeroCopy) throws Exception {
 		final String requestedFile = "big_file";
 		final String resultFile = "big_file_downloaded";
 
@@ -259,7 +267,7 @@ public class SimpleFsServerTest {
 
 		uploadFile(eventloop, "big_file");
 
-		prepareServer(eventloop);
+		prepareServer(eventloop, zeroCopy);
 
 		SimpleFsClient client = new SimpleFsClient(eventloop);
 
@@ -344,9 +352,14 @@ public class SimpleFsServerTest {
 	}
 
 	private void prepareServer(NioEventloop eventloop) throws IOException {
+		prepareServer(eventloop, true);
+	}
+
+	private void prepareServer(NioEventloop eventloop, boolean zeroCopy) throws IOException {
 
 		final ExecutorService executor = Executors.newCachedThreadPool();
-		SimpleFsServer fileServer = SimpleFsServer.createServer(eventloop, serverStorage, executor);
+		SimpleFsServer fileServer = SimpleFsServer.createServer(eventloop, serverStorage, executor)
+				.zeroCopy(zeroCopy);
 		fileServer.setListenPort(LISTEN_PORT);
 		fileServer.acceptOnce();
 		try {